@@ -150,6 +150,8 @@ import lombok.NonNull;
 public abstract class Doc<DocLineType extends DocLine<?>>
 {
 	private final String SYSCONFIG_CREATE_NOTE_ON_ERROR = "org.compiere.acct.Doc.createNoteOnPostError";
+	/** If enabled, all Fact_Acct lines of a document are inserted using batched inserts instead of one by one */
+	private static final String SYSCONFIG_SaveFactLinesInBatch = "org.compiere.acct.Doc.saveFactLinesInBatch";
 	protected static final AdMessageKey MSG_NoAccountFound = AdMessageKey.of("Doc_NoAccountFound_Error");
 
 	@Getter(AccessLevel.PROTECTED)
@@ -477,9 +479,16 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 
 		//
 		// Save facts
-		for (final Fact fact : facts)
+		if (services.getSysConfigBooleanValue(SYSCONFIG_SaveFactLinesInBatch, false))
+		{
+			Fact.saveInBatch(facts);
+		}
+		else
 		{
-			fact.save();
+			for (final Fact fact : facts)
+			{
+				fact.save();
+			}
 		}
 
 		//
@@ -32,6 +32,7 @@ import org.compiere.model.MAccount;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.acct.api.AccountId;
@@ -777,21 +778,22 @@ public final class Fact
 	{
 		factTrxLinesStrategy
 				.createFactTrxLines(m_lines)
-				.forEach(this::save);
+				.forEach(factTrxLines -> save(factTrxLines, Fact::saveInThreadInheritedTrx));
 	}
 
-	private void save(final FactTrxLines factTrxLines)
+	@VisibleForTesting
+	static void save(final FactTrxLines factTrxLines, final Consumer<FactLine> saver)
 	{
 		//
 		// Case: 1 debit line, one or more credit lines
 		if (factTrxLines.getType() == FactTrxLinesType.Debit)
 		{
 			final FactLine drLine = factTrxLines.getDebitLine();
-			InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
+			saver.accept(drLine);
 
 			factTrxLines.forEachCreditLine(crLine -> {
 				crLine.setCounterpart_Fact_Acct_ID(drLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
+				saver.accept(crLine);
 			});
 
 		}
@@ -800,11 +802,11 @@ public final class Fact
 		else if (factTrxLines.getType() == FactTrxLinesType.Credit)
 		{
 			final FactLine crLine = factTrxLines.getCreditLine();
-			InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
+			saver.accept(crLine);
 
 			factTrxLines.forEachDebitLine(drLine -> {
 				drLine.setCounterpart_Fact_Acct_ID(crLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
+				saver.accept(drLine);
 			});
 		}
 		//
@@ -820,7 +822,98 @@ public final class Fact
 
 		//
 		// also save the zero lines, if they are here
-		factTrxLines.forEachZeroLine(zeroLine -> InterfaceWrapperHelper.save(zeroLine, ITrx.TRXNAME_ThreadInherited));
+		factTrxLines.forEachZeroLine(saver);
+	}
+
+	private static void saveInThreadInheritedTrx(final FactLine line)
+	{
+		InterfaceWrapperHelper.save(line, ITrx.TRXNAME_ThreadInherited);
+	}
+
+	/**
+	 * Saves the lines of all given facts using batched inserts.
+	 * <p>
+	 * Same outcome as calling {@link #save()} on each fact, but instead of one insert per line we have two batched inserts:
+	 * first the debit/credit lines which are referenced as counterpart by other lines (together with the zero lines)
+	 * and then the lines which are referencing them.
+	 */
+	public static void saveInBatch(@NonNull final List<Fact> facts)
+	{
+		final List<FactTrxLines> factTrxLinesList = new ArrayList<>();
+		for (final Fact fact : facts)
+		{
+			factTrxLinesList.addAll(fact.factTrxLinesStrategy.createFactTrxLines(fact.m_lines));
+		}
+
+		saveInBatch(factTrxLinesList, Fact::saveAllInThreadInheritedTrx);
+	}
+
+	@VisibleForTesting
+	static void saveInBatch(final List<FactTrxLines> factTrxLinesList, final Consumer<List<FactLine>> batchSaver)
+	{
+		//
+		// First pass: the lines which are referenced by other lines and the zero lines
+		final List<FactLine> referencedLines = new ArrayList<>();
+		for (final FactTrxLines factTrxLines : factTrxLinesList)
+		{
+			final FactLine referencedLine = getReferencedLineOrNull(factTrxLines);
+			if (referencedLine != null)
+			{
+				referencedLines.add(referencedLine);
+			}
+			factTrxLines.forEachZeroLine(referencedLines::add);
+		}
+		batchSaver.accept(referencedLines);
+
+		//
+		// Second pass: the lines which are referencing the lines saved above
+		final List<FactLine> referencingLines = new ArrayList<>();
+		for (final FactTrxLines factTrxLines : factTrxLinesList)
+		{
+			if (factTrxLines.getType() == FactTrxLinesType.Debit)
+			{
+				final FactLine drLine = factTrxLines.getDebitLine();
+				factTrxLines.forEachCreditLine(crLine -> {
+					crLine.setCounterpart_Fact_Acct_ID(drLine.getFact_Acct_ID());
+					referencingLines.add(crLine);
+				});
+			}
+			else if (factTrxLines.getType() == FactTrxLinesType.Credit)
+			{
+				final FactLine crLine = factTrxLines.getCreditLine();
+				factTrxLines.forEachDebitLine(drLine -> {
+					drLine.setCounterpart_Fact_Acct_ID(crLine.getFact_Acct_ID());
+					referencingLines.add(drLine);
+				});
+			}
+		}
+		batchSaver.accept(referencingLines);
+	}
+
+	private static FactLine getReferencedLineOrNull(final FactTrxLines factTrxLines)
+	{
+		if (factTrxLines.getType() == FactTrxLinesType.Debit)
+		{
+			return factTrxLines.getDebitLine();
+		}
+		else if (factTrxLines.getType() == FactTrxLinesType.Credit)
+		{
+			return factTrxLines.getCreditLine();
+		}
+		else if (factTrxLines.getType() == FactTrxLinesType.EmptyOrZero)
+		{
+			return null;
+		}
+		else
+		{
+			throw new AdempiereException("Unknown type: " + factTrxLines.getType());
+		}
+	}
+
+	private static void saveAllInThreadInheritedTrx(final List<FactLine> lines)
+	{
+		lines.forEach(line -> InterfaceWrapperHelper.setTrxName(line, ITrx.TRXNAME_ThreadInherited));
+		InterfaceWrapperHelper.saveAllNewInBatch(lines);
 	}
 
 	public void forEach(final Consumer<FactLine> consumer)
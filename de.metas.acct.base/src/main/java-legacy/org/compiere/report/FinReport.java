@@ -24,7 +24,10 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 
 import javax.annotation.Nullable;
@@ -38,19 +41,24 @@ import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableFail;
 import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableSuccess;
 import org.adempiere.ad.trx.api.ITrxRunConfig.TrxPropagation;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IPair;
 import org.adempiere.util.lang.ImmutablePair;
 import org.compiere.model.I_C_ElementValue;
 import org.compiere.model.I_PA_ReportCube;
 import org.compiere.print.MPrintFormat;
 import org.compiere.print.MPrintFormatItem;
+import org.compiere.report.FinReportLineValues.ColumnCalculationType;
 import org.compiere.util.AdempiereUserError;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.TrxRunnable2;
 
+import com.google.common.collect.Lists;
+
 import de.metas.acct.api.AcctSchemaElementType;
 import de.metas.acct.cube.IFactAcctCubeBL;
 import de.metas.logging.LogManager;
@@ -58,6 +66,7 @@ import de.metas.process.JavaProcess;
 import de.metas.process.ProcessInfoParameter;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.Value;
 
 /**
  * Financial Report Engine
@@ -73,6 +82,24 @@ public class FinReport extends JavaProcess
 	// Services
 	private final transient ITrxManager trxManager = Services.get(ITrxManager.class);
 
+	/** How the report line values are calculated; see {@link CalculationMode} */
+	private static final String SYSCONFIG_CalculationMode = "org.compiere.report.FinReport.CalculationMode";
+
+	private enum CalculationMode
+	{
+		/** One UPDATE per report line, calculations in SQL. */
+		SQL,
+		/** Aggregates are retrieved in a few scans, calculations are done in memory and the report lines are written in one batch. */
+		InMemory,
+		/** Like {@link #SQL}, but also calculates in memory and logs the values which differ. */
+		Compare
+	}
+
+	/** Max number of cells to aggregate in one scan; PostgreSQL allows at most 1664 entries in the select list and a cell might need two. */
+	private static final int MAX_CELLS_PER_SCAN = 800;
+	/** Max number of report lines to update in one JDBC batch */
+	private static final int MAX_LINES_PER_BATCH = 1000;
+
 	/** Period Parameter */
 	private int p_C_Period_ID = 0;
 	/** Org Parameter */
@@ -399,16 +426,43 @@ public class FinReport extends JavaProcess
 			throw new AdempiereUserError("@No@ @PA_ReportLine_ID@");
 
 		includeSublines(); // metas-2009_0021_AP1_CR080
-		// for all lines
-		for (int line = 0; line < m_lines.length; line++)
+
+		final CalculationMode calculationMode = getCalculationMode();
+		log.debug("CalculationMode={}", calculationMode);
+		if (calculationMode == CalculationMode.InMemory)
 		{
-			// Line Segment Value (i.e. not calculation)
-			if (m_lines[line].isLineTypeSegmentValue())
-				insertLine(line);
-		}	// for all lines
+			final FinReportLineValues lineValues = calculateLineValuesInMemory();
+			saveLineValues(lineValues);
 
-		insertLineDetail();
-		doCalculations();
+			insertLineDetail();
+			if (m_report.isListSources())
+			{
+				doColumnCalculations("ABS(LevelNo)=1"); // the report lines (LevelNo=0) were already calculated
+			}
+		}
+		else
+		{
+			// calculate in memory before the SQL calculation, which deletes the zero lines
+			final FinReportLineValues inMemoryLineValues = calculationMode == CalculationMode.Compare
+					? calculateLineValuesInMemory()
+					: null;
+
+			// for all lines
+			for (int line = 0; line < m_lines.length; line++)
+			{
+				// Line Segment Value (i.e. not calculation)
+				if (m_lines[line].isLineTypeSegmentValue())
+					insertLine(line);
+			}	// for all lines
+
+			insertLineDetail();
+			doCalculations();
+
+			if (inMemoryLineValues != null)
+			{
+				compareWithSavedLineValues(inMemoryLineValues);
+			}
+		}
 
 		deleteUnprintedLines();
 
@@ -445,158 +499,15 @@ public class FinReport extends JavaProcess
 		// for all columns
 		for (int paReportColumnIndex = 0; paReportColumnIndex < m_columns.length; paReportColumnIndex++)
 		{
-			final MReportColumn paReportColumn = m_columns[paReportColumnIndex];
-
-			// Ignore calculation columns
-			if (paReportColumn.isColumnTypeCalculation())
+			final SegmentValueCell cell = createSegmentValueCell(paReportLineIndex, paReportColumnIndex, isSuppressZeroLine && isZeroLine);
+			if (cell == null)
 			{
 				continue;
 			}
 
-			final StringBuilder info = new StringBuilder();
-			info.append("Line=").append(paReportLineIndex).append(",Col=").append(paReportColumnIndex);
-
 			// SELECT SUM()
-			final List<Object> selectSqlParams = new ArrayList<>();
-			final StringBuilder select = new StringBuilder("SELECT ");
-			if (paReportLine.getPAAmountType() != null)				// line amount type overwrites column
-			{
-				String sql = paReportLine.getSelectClause(true);
-				select.append(sql);
-				info.append(": LineAmtType=").append(paReportLine.getPAAmountType());
-			}
-			else if (paReportColumn.getPAAmountType() != null)
-			{
-				String sql = paReportColumn.getSelectClause(true);
-				select.append(sql);
-				info.append(": ColumnAmtType=").append(paReportColumn.getPAAmountType());
-			}
-			else
-			{
-				log.warn("No Amount Type in line: " + paReportLine + " or column: " + paReportColumn);
-				continue;
-			}
-
-			if (isSuppressZeroLine && isZeroLine)
-			{
-				select.append(", COUNT(*) "); // metas-2009_0021_AP1_CR080
-			}
-
-			if (p_PA_ReportCube_ID > 0)
-			{
-				select.append(" FROM Fact_Acct_Summary fa WHERE DateAcct ");
-			}
-			else
-			{
-				// Get Period/Date info
-				select.append(" FROM Fact_Acct fa WHERE TRUNC(DateAcct) ");
-			}
-
-			BigDecimal relativeOffset = null;	// current
-			if (paReportColumn.isColumnTypeRelativePeriod())
-			{
-				relativeOffset = paReportColumn.getRelativePeriod();
-			}
-			final FinReportPeriod frp = getPeriod(relativeOffset);
-			if (paReportLine.getPAPeriodType() != null)			// line amount type overwrites column
-			{
-				info.append(" - LineDateAcct=");
-				if (paReportLine.isPeriod())
-				{
-					final String sql = frp.getPeriodWhere();
-					info.append("Period");
-					select.append(sql);
-				}
-				else if (paReportLine.isYear())
-				{
-					final String sql = frp.getYearWhere();
-					info.append("Year");
-					select.append(sql);
-				}
-				else if (paReportLine.isTotal())
-				{
-					final String sql = frp.getTotalWhere();
-					info.append("Total");
-					select.append(sql);
-				}
-				else if (paReportLine.isNatural())
-				{
-					select.append(frp.getNaturalWhere("fa"));
-				}
-				else
-				{
-					log.error("No valid Line PAPeriodType");
-					select.append("=0");	// valid sql
-				}
-			}
-			else if (paReportColumn.getPAPeriodType() != null)
-			{
-				info.append(" - ColumnDateAcct=");
-				if (paReportColumn.isPeriod())
-				{
-					final String sql = frp.getPeriodWhere();
-					info.append("Period");
-					select.append(sql);
-				}
-				else if (paReportColumn.isYear())
-				{
-					final String sql = frp.getYearWhere();
-					info.append("Year");
-					select.append(sql);
-				}
-				else if (paReportColumn.isTotal())
-				{
-					final String sql = frp.getTotalWhere();
-					info.append("Total");
-					select.append(sql);
-				}
-				else if (paReportColumn.isNatural())
-				{
-					select.append(frp.getNaturalWhere("fa"));
-				}
-				else
-				{
-					log.error("No valid Column PAPeriodType");
-					select.append("=0");	// valid sql
-				}
-			}
-
-			// Line Where
-			final String paReportLineWhereClause = paReportLine.getWhereClause(p_PA_Hierarchy_ID);	// (sources, posting type)
-			if (!Check.isEmpty(paReportLineWhereClause, true))
-			{
-				select.append(" AND ").append(paReportLineWhereClause);
-			}
-
-			// Report Where
-			final String paReportWhereClause = m_report.getWhereClause();
-			if (Check.isEmpty(paReportWhereClause))
-			{
-				select.append(" AND ").append(paReportWhereClause);
-			}
-
-			// PostingType
-			if (!paReportLine.isPostingType())		// only if not defined on line
-			{
-				final String PostingType = paReportColumn.getPostingType();
-				if (!Check.isEmpty(PostingType))
-					select.append(" AND PostingType='").append(PostingType).append("'");
-				// globalqss - CarlosRuiz
-				if (PostingType.equals(MReportColumn.POSTINGTYPE_Budget))
-				{
-					if (paReportColumn.getGL_Budget_ID() > 0)
-						select.append(" AND GL_Budget_ID=" + paReportColumn.getGL_Budget_ID());
-				}
-				// end globalqss
-			}
-
-			if (paReportColumn.isColumnTypeSegmentValue())
-			{
-				select.append(paReportColumn.getWhereClause(p_PA_Hierarchy_ID));
-			}
-
-			// Parameter Where
-			appendParametersWhereClause(select, selectSqlParams);
+			final StringBuilder select = new StringBuilder(cell.toSelectSql());
+			final List<Object> selectSqlParams = new ArrayList<>(cell.getSqlParams());
 			log.trace("Line=" + paReportLineIndex + ",Col=" + paReportLineIndex + ": " + select);
 
 			// metas-2009_0021_AP1_CR080: begin
@@ -613,8 +524,6 @@ public class FinReport extends JavaProcess
 			update.append("Col_").append(paReportColumnIndex)
 					.append(" = (").append(select).append(")");
 			updateSqlParams.addAll(selectSqlParams);
-			//
-			log.trace(info.toString());
 		}
 
 		//
@@ -647,6 +556,179 @@ public class FinReport extends JavaProcess
 		}
 	}	// insertLine
 
+	/**
+	 * Creates the aggregate over {@code Fact_Acct} (or {@code Fact_Acct_Summary}) which gives the value of the given segment value line and column.
+	 *
+	 * @param countRows if true, the rows are counted too, so that we can tell if the line is a zero line
+	 * @return cell or {@code null} if the column is a calculation column or there is no amount type
+	 */
+	@Nullable
+	private SegmentValueCell createSegmentValueCell(final int paReportLineIndex, final int paReportColumnIndex, final boolean countRows)
+	{
+		final MReportLine paReportLine = m_lines[paReportLineIndex];
+		final MReportColumn paReportColumn = m_columns[paReportColumnIndex];
+
+		// Ignore calculation columns
+		if (paReportColumn.isColumnTypeCalculation())
+		{
+			return null;
+		}
+
+		final StringBuilder info = new StringBuilder();
+		info.append("Line=").append(paReportLineIndex).append(",Col=").append(paReportColumnIndex);
+
+		// SUM()
+		final String selectClause;
+		if (paReportLine.getPAAmountType() != null)				// line amount type overwrites column
+		{
+			selectClause = paReportLine.getSelectClause(true);
+			info.append(": LineAmtType=").append(paReportLine.getPAAmountType());
+		}
+		else if (paReportColumn.getPAAmountType() != null)
+		{
+			selectClause = paReportColumn.getSelectClause(true);
+			info.append(": ColumnAmtType=").append(paReportColumn.getPAAmountType());
+		}
+		else
+		{
+			log.warn("No Amount Type in line: " + paReportLine + " or column: " + paReportColumn);
+			return null;
+		}
+
+		final String fromTableName;
+		final StringBuilder where = new StringBuilder();
+		if (p_PA_ReportCube_ID > 0)
+		{
+			fromTableName = "Fact_Acct_Summary";
+			where.append("DateAcct ");
+		}
+		else
+		{
+			// Get Period/Date info
+			fromTableName = "Fact_Acct";
+			where.append("TRUNC(DateAcct) ");
+		}
+
+		BigDecimal relativeOffset = null;	// current
+		if (paReportColumn.isColumnTypeRelativePeriod())
+		{
+			relativeOffset = paReportColumn.getRelativePeriod();
+		}
+		final FinReportPeriod frp = getPeriod(relativeOffset);
+		if (paReportLine.getPAPeriodType() != null)			// line amount type overwrites column
+		{
+			info.append(" - LineDateAcct=");
+			if (paReportLine.isPeriod())
+			{
+				final String sql = frp.getPeriodWhere();
+				info.append("Period");
+				where.append(sql);
+			}
+			else if (paReportLine.isYear())
+			{
+				final String sql = frp.getYearWhere();
+				info.append("Year");
+				where.append(sql);
+			}
+			else if (paReportLine.isTotal())
+			{
+				final String sql = frp.getTotalWhere();
+				info.append("Total");
+				where.append(sql);
+			}
+			else if (paReportLine.isNatural())
+			{
+				where.append(frp.getNaturalWhere("fa"));
+			}
+			else
+			{
+				log.error("No valid Line PAPeriodType");
+				where.append("=0");	// valid sql
+			}
+		}
+		else if (paReportColumn.getPAPeriodType() != null)
+		{
+			info.append(" - ColumnDateAcct=");
+			if (paReportColumn.isPeriod())
+			{
+				final String sql = frp.getPeriodWhere();
+				info.append("Period");
+				where.append(sql);
+			}
+			else if (paReportColumn.isYear())
+			{
+				final String sql = frp.getYearWhere();
+				info.append("Year");
+				where.append(sql);
+			}
+			else if (paReportColumn.isTotal())
+			{
+				final String sql = frp.getTotalWhere();
+				info.append("Total");
+				where.append(sql);
+			}
+			else if (paReportColumn.isNatural())
+			{
+				where.append(frp.getNaturalWhere("fa"));
+			}
+			else
+			{
+				log.error("No valid Column PAPeriodType");
+				where.append("=0");	// valid sql
+			}
+		}
+
+		// Line Where
+		final String paReportLineWhereClause = paReportLine.getWhereClause(p_PA_Hierarchy_ID);	// (sources, posting type)
+		if (!Check.isEmpty(paReportLineWhereClause, true))
+		{
+			where.append(" AND ").append(paReportLineWhereClause);
+		}
+
+		// Report Where
+		final String paReportWhereClause = m_report.getWhereClause();
+		if (!Check.isEmpty(paReportWhereClause))
+		{
+			where.append(" AND ").append(paReportWhereClause);
+		}
+
+		// PostingType
+		if (!paReportLine.isPostingType())		// only if not defined on line
+		{
+			final String PostingType = paReportColumn.getPostingType();
+			if (!Check.isEmpty(PostingType))
+				where.append(" AND PostingType='").append(PostingType).append("'");
+			// globalqss - CarlosRuiz
+			if (PostingType.equals(MReportColumn.POSTINGTYPE_Budget))
+			{
+				if (paReportColumn.getGL_Budget_ID() > 0)
+					where.append(" AND GL_Budget_ID=" + paReportColumn.getGL_Budget_ID());
+			}
+			// end globalqss
+		}
+
+		if (paReportColumn.isColumnTypeSegmentValue())
+		{
+			where.append(paReportColumn.getWhereClause(p_PA_Hierarchy_ID));
+		}
+
+		// Parameter Where
+		final List<Object> sqlParams = new ArrayList<>();
+		appendParametersWhereClause(where, sqlParams);
+		log.trace(info.toString());
+
+		return new SegmentValueCell(
+				paReportLine.getPA_ReportLine_ID(),
+				paReportColumnIndex,
+				selectClause,
+				countRows,
+				fromTableName,
+				where.toString(),
+				sqlParams,
+				frp.getEndDate());
+	}
+
+
 	/**
 	 * Checks if given select SQL returns NULL {@link BigDecimal} and if so, replaces the select with "NULL"
 	 * 
@@ -706,6 +788,12 @@ public class FinReport extends JavaProcess
 	 * Line + Column calculation
 	 */
 	private void doCalculations()
+	{
+		doLineCalculations();
+		doColumnCalculations("ABS(LevelNo)<2"); // 0=Line 1=Acct
+	}	// doCalculations
+
+	private void doLineCalculations()
 	{
 		final int adPInstanceRepoId = getPinstanceId().getRepoId();
 
@@ -854,6 +942,14 @@ public class FinReport extends JavaProcess
 				}
 			}
 		}	// for all lines
+	}	// doLineCalculations
+
+	/**
+	 * @param levelNoWhereClause the T_Report rows to calculate, e.g. {@code ABS(LevelNo)<2}
+	 */
+	private void doColumnCalculations(final String levelNoWhereClause)
+	{
+		final int adPInstanceRepoId = getPinstanceId().getRepoId();
 
 		// for all columns ***********************************************
 		for (int col = 0; col < m_columns.length; col++)
@@ -917,7 +1013,7 @@ public class FinReport extends JavaProcess
 			}
 			//
 			sb.append(" WHERE AD_PInstance_ID=").append(adPInstanceRepoId)
-					.append(" AND ABS(LevelNo)<2");			// 0=Line 1=Acct
+					.append(" AND ").append(levelNoWhereClause);
 			int no = DB.executeUpdate(sb.toString(), get_TrxName());
 			if (no < 1)
 				log.error("#=" + no + " for " + m_columns[col]
@@ -929,7 +1025,420 @@ public class FinReport extends JavaProcess
 			}
 		} 	// for all columns
 
-	}	// doCalculations
+	}	// doColumnCalculations
+
+	private CalculationMode getCalculationMode()
+	{
+		final String calculationModeStr = Services.get(ISysConfigBL.class).getValue(SYSCONFIG_CalculationMode, CalculationMode.SQL.name(), getAD_Client_ID());
+		try
+		{
+			return CalculationMode.valueOf(calculationModeStr.trim());
+		}
+		catch (final IllegalArgumentException e)
+		{
+			log.warn("Invalid {}={}. Using {}", SYSCONFIG_CalculationMode, calculationModeStr, CalculationMode.SQL);
+			return CalculationMode.SQL;
+		}
+	}
+
+	/**
+	 * Calculates the values of the report lines in memory, without changing {@code T_Report}.
+	 * <p>
+	 * The aggregates of all segment value lines and columns are retrieved in a few scans over {@code Fact_Acct} (or {@code Fact_Acct_Summary}).
+	 * Zero lines are removed, then the line and column calculations are done like {@link #doCalculations()} would do them.
+	 */
+	private FinReportLineValues calculateLineValuesInMemory()
+	{
+		final FinReportLineValues lineValues = retrieveLineValues();
+		loadSegmentValues(lineValues);
+		doLineCalculations(lineValues);
+		doColumnCalculations(lineValues);
+		return lineValues;
+	}
+
+	/**
+	 * @return the report lines (LevelNo=0) which are currently in {@code T_Report}, with their column values
+	 */
+	private FinReportLineValues retrieveLineValues()
+	{
+		final FinReportLineValues lineValues = new FinReportLineValues(m_columns.length);
+
+		final StringBuilder sql = new StringBuilder("SELECT PA_ReportLine_ID");
+		for (int col = 0; col < m_columns.length; col++)
+		{
+			sql.append(", Col_").append(col);
+		}
+		sql.append(" FROM T_Report WHERE AD_PInstance_ID=? AND LevelNo=0 ORDER BY SeqNo, PA_ReportLine_ID");
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.toString(), get_TrxName());
+			DB.setParameters(pstmt, getAD_PInstance_ID());
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				final int lineId = rs.getInt(1);
+				lineValues.addLine(lineId);
+				for (int col = 0; col < m_columns.length; col++)
+				{
+					lineValues.setValue(lineId, col, rs.getBigDecimal(col + 2));
+				}
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql.toString());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		return lineValues;
+	}
+
+	/**
+	 * Sets the aggregated values of all segment value lines and removes the zero lines, like {@link #insertLine(int)} does.
+	 */
+	private void loadSegmentValues(final FinReportLineValues lineValues)
+	{
+		final List<SegmentValueCell> cells = new ArrayList<>();
+		final Set<Integer> suppressZeroLineIds = new LinkedHashSet<>();
+		for (int paReportLineIndex = 0; paReportLineIndex < m_lines.length; paReportLineIndex++)
+		{
+			final MReportLine paReportLine = m_lines[paReportLineIndex];
+			if (!paReportLine.isLineTypeSegmentValue())
+			{
+				continue;
+			}
+
+			// No source lines - Headings
+			if (paReportLine.getSources().length == 0)
+			{
+				log.warn("No Source lines: " + paReportLine);
+				continue;
+			}
+
+			final boolean isSuppressZeroLine = paReportLine.isSuppressZeroLine();
+			if (isSuppressZeroLine)
+			{
+				suppressZeroLineIds.add(paReportLine.getPA_ReportLine_ID());
+			}
+
+			for (int paReportColumnIndex = 0; paReportColumnIndex < m_columns.length; paReportColumnIndex++)
+			{
+				final SegmentValueCell cell = createSegmentValueCell(paReportLineIndex, paReportColumnIndex, isSuppressZeroLine);
+				if (cell != null)
+				{
+					cells.add(cell);
+				}
+			}
+		}
+
+		final Set<Integer> nonZeroLineIds = new HashSet<>();
+		for (final List<SegmentValueCell> cellsChunk : Lists.partition(cells, MAX_CELLS_PER_SCAN))
+		{
+			scanSegmentValues(cellsChunk, lineValues, nonZeroLineIds);
+		}
+
+		// Zero lines (metas-2009_0021_AP1_CR080)
+		for (final int lineId : suppressZeroLineIds)
+		{
+			if (!nonZeroLineIds.contains(lineId))
+			{
+				lineValues.removeLine(lineId);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the values of the given cells in one scan, using one {@code SUM(...) FILTER (WHERE ...)} per cell.
+	 */
+	private void scanSegmentValues(
+			final List<SegmentValueCell> cells,
+			final FinReportLineValues lineValues,
+			final Set<Integer> nonZeroLineIds)
+	{
+		final StringBuilder sql = new StringBuilder("SELECT ");
+		final List<Object> sqlParams = new ArrayList<>();
+		Timestamp maxDateAcctTo = null;
+		for (int i = 0; i < cells.size(); i++)
+		{
+			final SegmentValueCell cell = cells.get(i);
+			if (i > 0)
+			{
+				sql.append(", ");
+			}
+			cell.appendFilteredAggregates(sql, sqlParams);
+
+			if (maxDateAcctTo == null || maxDateAcctTo.before(cell.getDateAcctTo()))
+			{
+				maxDateAcctTo = cell.getDateAcctTo();
+			}
+		}
+
+		// the table is the same for all cells; also restrict the scan to what all cells have in common
+		sql.append(" FROM ").append(cells.get(0).getFromTableName()).append(" fa WHERE fa.DateAcct < ?");
+		sqlParams.add(TimeUtil.addDays(maxDateAcctTo, 1));
+		appendParametersWhereClause(sql, sqlParams);
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.toString(), get_TrxName());
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			if (!rs.next())
+			{
+				return; // shall not happen, an aggregate query always returns one row
+			}
+
+			int resultColumn = 1;
+			for (final SegmentValueCell cell : cells)
+			{
+				BigDecimal value = rs.getBigDecimal(resultColumn++);
+				if (cell.isCountRows())
+				{
+					final int count = rs.getInt(resultColumn++);
+					if (count == 0)
+					{
+						value = null;
+					}
+					else
+					{
+						nonZeroLineIds.add(cell.getLineId());
+					}
+				}
+
+				lineValues.setValue(cell.getLineId(), cell.getColumnIndex(), value);
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql.toString(), sqlParams.toArray());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * Same as {@link #doLineCalculations()}, but in memory.
+	 */
+	private void doLineCalculations(final FinReportLineValues lineValues)
+	{
+		for (int line = 0; line < m_lines.length; line++)
+		{
+			if (!m_lines[line].isLineTypeCalculation())
+				continue;
+
+			final int lineId = m_lines[line].getPA_ReportLine_ID();
+			int oper_1 = m_lines[line].getOper_1_ID();
+			int oper_2 = m_lines[line].getOper_2_ID();
+
+			final boolean updated;
+			if (m_lines[line].isCalculationTypeAdd()
+					|| m_lines[line].isCalculationTypeRange())
+			{
+				// Reverse range
+				if (oper_1 > oper_2)
+				{
+					int temp = oper_1;
+					oper_1 = oper_2;
+					oper_2 = temp;
+				}
+				final Collection<Integer> lineIdsToSum = m_lines[line].isCalculationTypeAdd()
+						? getAllLineIDs(oper_1, oper_2)
+						: getAllLineIntervalIDs(oper_1, oper_2);
+				updated = lineValues.setToSumOfLines(lineId, lineIdsToSum);
+			}
+			else
+			// No Add (subtract, percent)
+			{
+				updated = lineValues.setToOperation(
+						lineId,
+						getIncludedLineID(oper_1),
+						getIncludedLineID(oper_2),
+						m_lines[line].isCalculationTypeSubtract(),
+						m_lines[line].isCalculationTypePercent());
+			}
+
+			if (!updated)
+			{
+				log.error("Report line not found in T_Report: " + m_lines[line]);
+			}
+		}	// for all lines
+	}
+
+	/**
+	 * Same as {@link #doColumnCalculations(String)}, but in memory.
+	 */
+	private void doColumnCalculations(final FinReportLineValues lineValues)
+	{
+		for (int col = 0; col < m_columns.length; col++)
+		{
+			// Only Calculations
+			if (!m_columns[col].isColumnTypeCalculation())
+				continue;
+
+			int ii_1 = getColumnIndex(m_columns[col].getOper_1_ID());
+			if (ii_1 < 0)
+			{
+				log.error("Column Index for Operator 1 not found - " + m_columns[col]);
+				continue;
+			}
+			int ii_2 = getColumnIndex(m_columns[col].getOper_2_ID());
+			if (ii_2 < 0)
+			{
+				log.error("Column Index for Operator 2 not found - " + m_columns[col]);
+				continue;
+			}
+
+			final ColumnCalculationType calculationType;
+			if (m_columns[col].isCalculationTypeAdd())
+				calculationType = ColumnCalculationType.ADD;
+			else if (m_columns[col].isCalculationTypeSubtract())
+				calculationType = ColumnCalculationType.SUBTRACT;
+			else if (m_columns[col].isCalculationTypePercent())
+				calculationType = ColumnCalculationType.PERCENT;
+			else if (m_columns[col].isCalculationTypeRange())
+			{
+				calculationType = ColumnCalculationType.RANGE;
+				// Reverse Range
+				if (ii_1 > ii_2)
+				{
+					int temp = ii_1;
+					ii_1 = ii_2;
+					ii_2 = temp;
+				}
+			}
+			else
+			{
+				log.error("Unknown calculation type - " + m_columns[col]);
+				continue;
+			}
+
+			lineValues.calculateColumn(col, calculationType, ii_1, ii_2);
+		}	// for all columns
+	}
+
+	/**
+	 * Deletes the zero lines and writes the values of all other report lines to {@code T_Report}, using one batched UPDATE.
+	 */
+	private void saveLineValues(final FinReportLineValues lineValues)
+	{
+		//
+		// Delete ZERO Lines
+		final Set<Integer> zeroLineIds = lineValues.getRemovedLineIds();
+		if (!zeroLineIds.isEmpty())
+		{
+			final List<Object> sqlParams = new ArrayList<>();
+			sqlParams.add(getAD_PInstance_ID());
+			final String sql = "DELETE FROM T_Report WHERE AD_PInstance_ID=? AND PA_ReportLine_ID IN " + DB.buildSqlList(zeroLineIds, sqlParams);
+			final int no = DB.executeUpdateEx(sql, sqlParams.toArray(), get_TrxName());
+			log.debug("Deleted zero lines #=" + no);
+		}
+
+		//
+		// Update Line Values
+		final StringBuilder sql = new StringBuilder("UPDATE T_Report SET ");
+		for (int col = 0; col < m_columns.length; col++)
+		{
+			if (col > 0)
+				sql.append(", ");
+			sql.append("Col_").append(col).append("=?");
+		}
+		sql.append(" WHERE AD_PInstance_ID=? AND PA_ReportLine_ID=? AND LevelNo=0");
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.toString(), get_TrxName());
+			int batchSize = 0;
+			for (final int lineId : lineValues.getLineIds())
+			{
+				final List<Object> sqlParams = new ArrayList<>(m_columns.length + 2);
+				for (int col = 0; col < m_columns.length; col++)
+				{
+					sqlParams.add(lineValues.getValue(lineId, col));
+				}
+				sqlParams.add(getAD_PInstance_ID());
+				sqlParams.add(lineId);
+
+				DB.setParameters(pstmt, sqlParams);
+				pstmt.addBatch();
+				batchSize++;
+
+				if (batchSize >= MAX_LINES_PER_BATCH)
+				{
+					pstmt.executeBatch();
+					batchSize = 0;
+				}
+			}
+			if (batchSize > 0)
+			{
+				pstmt.executeBatch();
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql.toString());
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+
+	/**
+	 * Compares the values which were calculated in memory with the values which were calculated in SQL and are now in {@code T_Report}.
+	 * Differences are logged and reported in the process log.
+	 */
+	private void compareWithSavedLineValues(final FinReportLineValues inMemoryLineValues)
+	{
+		final FinReportLineValues savedLineValues = retrieveLineValues();
+
+		final Set<Integer> lineIds = new LinkedHashSet<>(savedLineValues.getLineIds());
+		lineIds.addAll(inMemoryLineValues.getLineIds());
+
+		int differencesCount = 0;
+		for (final int lineId : lineIds)
+		{
+			if (savedLineValues.hasLine(lineId) != inMemoryLineValues.hasLine(lineId))
+			{
+				log.warn("PA_ReportLine_ID={}: in T_Report={}, in memory={}", lineId, savedLineValues.hasLine(lineId), inMemoryLineValues.hasLine(lineId));
+				differencesCount++;
+				continue;
+			}
+
+			for (int col = 0; col < m_columns.length; col++)
+			{
+				final BigDecimal savedValue = savedLineValues.getValue(lineId, col);
+				final BigDecimal inMemoryValue = inMemoryLineValues.getValue(lineId, col);
+				final boolean equal = savedValue == null
+						? inMemoryValue == null
+						: inMemoryValue != null && savedValue.compareTo(inMemoryValue) == 0;
+				if (!equal)
+				{
+					log.warn("PA_ReportLine_ID={}, Col_{}: in T_Report={}, in memory={}", lineId, col, savedValue, inMemoryValue);
+					differencesCount++;
+				}
+			}
+		}
+
+		if (differencesCount > 0)
+		{
+			addLog("SQL and in-memory calculation differ in {} values; see the server log for details", differencesCount);
+		}
+		else
+		{
+			log.info("SQL and in-memory calculation gave the same values for {} lines", lineIds.size());
+		}
+	}
 
 	/**
 	 * Get Column Index
@@ -1850,6 +2359,11 @@ public class FinReport extends JavaProcess
 	}
 
 	private String getAllLineIntervalIDsSQL(int fromID, int toID)
+	{
+		return toSQLList(getAllLineIntervalIDs(fromID, toID));
+	}
+
+	private Collection<Integer> getAllLineIntervalIDs(int fromID, int toID)
 	{
 		log.trace("From=" + fromID + " To=" + toID);
 		int firstPA_ReportLine_ID = 0;
@@ -1861,12 +2375,12 @@ public class FinReport extends JavaProcess
 		if (line1 == null)
 		{
 			log.warn("PA_ReportLine not found for " + fromID);
-			return toSQLList(ids);
+			return ids;
 		}
 		if (line2 == null)
 		{
 			log.warn("PA_ReportLine not found for " + toID);
-			return toSQLList(ids);
+			return ids;
 		}
 		if (line1.getPA_ReportLineSet_ID() != line2.getPA_ReportLineSet_ID())
 		{
@@ -1914,7 +2428,7 @@ public class FinReport extends JavaProcess
 			}
 		}
 
-		return toSQLList(ids);
+		return ids;
 	}
 
 	private String toSQLList(Collection<Integer> list)
@@ -1966,4 +2480,55 @@ public class FinReport extends JavaProcess
 	{
 		return getPinstanceId().getRepoId();
 	}
+
+	/**
+	 * The aggregate over {@code Fact_Acct} (or {@code Fact_Acct_Summary}) which gives the value of one segment value line and column.
+	 */
+	@Value
+	private static class SegmentValueCell
+	{
+		int lineId;
+		int columnIndex;
+
+		/** e.g. {@code SUM(AmtAcctDr)}; {@code NULL} if the amount type is not valid */
+		String selectClause;
+		/** if true, the rows are counted too, so that we can tell if the line is a zero line */
+		boolean countRows;
+
+		String fromTableName;
+		String whereClause;
+		List<Object> sqlParams;
+
+		/** the cell does not consider records after this date */
+		Timestamp dateAcctTo;
+
+		/** @return standalone SELECT, like it's used in {@link FinReport#insertLine(int)} */
+		public String toSelectSql()
+		{
+			final StringBuilder sql = new StringBuilder("SELECT ").append(selectClause);
+			if (countRows)
+			{
+				sql.append(", COUNT(*) ");
+			}
+			sql.append(" FROM ").append(fromTableName).append(" fa WHERE ").append(whereClause);
+			return sql.toString();
+		}
+
+		/** Appends the aggregate(s) of this cell, to be used in a query over all rows of {@link #getFromTableName()} */
+		public void appendFilteredAggregates(final StringBuilder sql, final List<Object> sqlParamsOut)
+		{
+			sql.append(selectClause);
+			if (!"NULL".equals(selectClause))
+			{
+				sql.append(" FILTER (WHERE ").append(whereClause).append(")");
+				sqlParamsOut.addAll(sqlParams);
+			}
+
+			if (countRows)
+			{
+				sql.append(", COUNT(*) FILTER (WHERE ").append(whereClause).append(")");
+				sqlParamsOut.addAll(sqlParams);
+			}
+		}
+	}
 }	// FinReport
@@ -0,0 +1,314 @@
+package org.compiere.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The column values of the {@link FinReport}'s report lines (i.e. the {@code T_Report} rows with {@code LevelNo=0}), kept in memory.
+ * <p>
+ * The line and column calculations do exactly what the SQL statements of {@link FinReport}'s SQL calculation mode do,
+ * including their {@code NULL} handling and the scale of PostgreSQL's numeric division.
+ */
+final class FinReportLineValues
+{
+	enum ColumnCalculationType
+	{
+		ADD, SUBTRACT, PERCENT, RANGE
+	}
+
+	/** see PostgreSQL's numeric.c: NBASE, DEC_DIGITS, NUMERIC_MIN_SIG_DIGITS, NUMERIC_MAX_DISPLAY_SCALE */
+	private static final int PG_DEC_DIGITS = 4;
+	private static final int PG_MIN_SIG_DIGITS = 16;
+	private static final int PG_MAX_DISPLAY_SCALE = 1000;
+
+	private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+	private final int columnsCount;
+	private final Map<Integer, BigDecimal[]> valuesByLineId = new LinkedHashMap<>();
+	private final Set<Integer> removedLineIds = new LinkedHashSet<>();
+
+	FinReportLineValues(final int columnsCount)
+	{
+		this.columnsCount = columnsCount;
+	}
+
+	public int getColumnsCount()
+	{
+		return columnsCount;
+	}
+
+	public void addLine(final int lineId)
+	{
+		valuesByLineId.computeIfAbsent(lineId, k -> new BigDecimal[columnsCount]);
+	}
+
+	public void removeLine(final int lineId)
+	{
+		if (valuesByLineId.remove(lineId) != null)
+		{
+			removedLineIds.add(lineId);
+		}
+	}
+
+	/** @return the lines which were removed, e.g. because they are zero lines */
+	public Set<Integer> getRemovedLineIds()
+	{
+		return ImmutableSet.copyOf(removedLineIds);
+	}
+
+	public boolean hasLine(final int lineId)
+	{
+		return valuesByLineId.containsKey(lineId);
+	}
+
+	public Set<Integer> getLineIds()
+	{
+		return ImmutableSet.copyOf(valuesByLineId.keySet());
+	}
+
+	/** @return the value or {@code null}, also if the line does not exist */
+	@Nullable
+	public BigDecimal getValue(final int lineId, final int columnIndex)
+	{
+		final BigDecimal[] values = valuesByLineId.get(lineId);
+		return values != null ? values[columnIndex] : null;
+	}
+
+	/** @return false if the line does not exist */
+	public boolean setValue(final int lineId, final int columnIndex, @Nullable final BigDecimal value)
+	{
+		final BigDecimal[] values = valuesByLineId.get(lineId);
+		if (values == null)
+		{
+			return false;
+		}
+		values[columnIndex] = value;
+		return true;
+	}
+
+	/**
+	 * Sets each column of the given line to {@code COALESCE(SUM(...),0)} of that column over the given lines. Lines which don't exist are skipped.
+	 *
+	 * @return false if the line to set does not exist
+	 */
+	public boolean setToSumOfLines(final int lineId, final Collection<Integer> lineIdsToSum)
+	{
+		final BigDecimal[] target = valuesByLineId.get(lineId);
+		if (target == null)
+		{
+			return false;
+		}
+
+		// sum up first, the target line might be one of the summed lines
+		final BigDecimal[] sums = new BigDecimal[columnsCount];
+		for (final int lineIdToSum : lineIdsToSum)
+		{
+			final BigDecimal[] values = valuesByLineId.get(lineIdToSum);
+			if (values == null)
+			{
+				continue;
+			}
+			for (int col = 0; col < columnsCount; col++)
+			{
+				if (values[col] != null)
+				{
+					sums[col] = sums[col] == null ? values[col] : sums[col].add(values[col]);
+				}
+			}
+		}
+
+		for (int col = 0; col < columnsCount; col++)
+		{
+			target[col] = coalesceToZero(sums[col]);
+		}
+		return true;
+	}
+
+	/**
+	 * Sets each column of the given line to {@code oper1 - oper2} resp. {@code oper1 / oper2} (times 100 if {@code percent}).
+	 * Like in SQL, a {@code NULL} operand is treated as zero, a missing operand line gives {@code NULL} and dividing by zero gives {@code NULL}.
+	 *
+	 * @return false if the line to set does not exist
+	 */
+	public boolean setToOperation(
+			final int lineId,
+			final int oper1LineId,
+			final int oper2LineId,
+			final boolean subtract,
+			final boolean percent)
+	{
+		final BigDecimal[] target = valuesByLineId.get(lineId);
+		if (target == null)
+		{
+			return false;
+		}
+
+		// Step 1 - get first value or 0 in there
+		final BigDecimal[] oper1 = valuesByLineId.get(oper1LineId);
+		for (int col = 0; col < columnsCount; col++)
+		{
+			target[col] = oper1 != null ? coalesceToZero(oper1[col]) : null;
+		}
+
+		// Step 2 - do calculation with second value
+		final BigDecimal[] oper2 = valuesByLineId.get(oper2LineId);
+		for (int col = 0; col < columnsCount; col++)
+		{
+			if (oper2 == null)
+			{
+				target[col] = null;
+				continue;
+			}
+
+			final BigDecimal value1 = coalesceToZero(target[col]);
+			BigDecimal result;
+			if (subtract)
+			{
+				result = value1.subtract(coalesceToZero(oper2[col]));
+			}
+			else
+			{
+				final BigDecimal value2 = oper2[col];
+				result = value2 == null || value2.signum() == 0 ? null : divide(value1, value2);
+			}
+
+			if (percent && result != null)
+			{
+				result = result.multiply(ONE_HUNDRED);
+			}
+			target[col] = result;
+		}
+		return true;
+	}
+
+	/**
+	 * Calculates the given column in all lines.
+	 */
+	public void calculateColumn(
+			final int columnIndex,
+			final ColumnCalculationType calculationType,
+			final int oper1ColumnIndex,
+			final int oper2ColumnIndex)
+	{
+		for (final BigDecimal[] values : valuesByLineId.values())
+		{
+			values[columnIndex] = calculateColumnValue(values, calculationType, oper1ColumnIndex, oper2ColumnIndex);
+		}
+	}
+
+	@Nullable
+	private static BigDecimal calculateColumnValue(
+			final BigDecimal[] values,
+			final ColumnCalculationType calculationType,
+			final int oper1ColumnIndex,
+			final int oper2ColumnIndex)
+	{
+		final BigDecimal value1 = coalesceToZero(values[oper1ColumnIndex]);
+		switch (calculationType)
+		{
+			case ADD:
+				return value1.add(coalesceToZero(values[oper2ColumnIndex]));
+			case SUBTRACT:
+				return value1.subtract(coalesceToZero(values[oper2ColumnIndex]));
+			case PERCENT:
+				final BigDecimal value2 = values[oper2ColumnIndex];
+				return value2 == null || value2.signum() == 0 ? null : divide(value1, value2).multiply(ONE_HUNDRED);
+			case RANGE:
+				BigDecimal sum = value1;
+				for (int col = oper1ColumnIndex + 1; col <= oper2ColumnIndex; col++)
+				{
+					sum = sum.add(coalesceToZero(values[col]));
+				}
+				return sum;
+			default:
+				throw new IllegalArgumentException("Unknown calculation type: " + calculationType);
+		}
+	}
+
+	private static BigDecimal coalesceToZero(@Nullable final BigDecimal value)
+	{
+		return value != null ? value : BigDecimal.ZERO;
+	}
+
+	/**
+	 * Divides like PostgreSQL's {@code numeric / numeric} operator: the result has at least 16 significant digits
+	 * and at least as many decimals as each of the operands (see {@code select_div_scale()} in PostgreSQL's numeric.c).
+	 */
+	static BigDecimal divide(final BigDecimal dividend, final BigDecimal divisor)
+	{
+		// The quotient's weight, in base 10000 digits
+		int qweight = pgWeight(dividend) - pgWeight(divisor);
+		if (pgFirstDigit(dividend) <= pgFirstDigit(divisor))
+		{
+			qweight--;
+		}
+
+		int scale = PG_MIN_SIG_DIGITS - qweight * PG_DEC_DIGITS;
+		scale = Math.max(scale, pgDisplayScale(dividend));
+		scale = Math.max(scale, pgDisplayScale(divisor));
+		scale = Math.max(scale, 0);
+		scale = Math.min(scale, PG_MAX_DISPLAY_SCALE);
+
+		return dividend.divide(divisor, scale, RoundingMode.HALF_UP);
+	}
+
+	/** @return the weight of the first base 10000 digit, e.g. 0 for 1..9999, 1 for 10000..99999999 and -1 for 0.0001..0.9999 */
+	private static int pgWeight(final BigDecimal value)
+	{
+		if (value.signum() == 0)
+		{
+			return 0;
+		}
+		final int decimalExponent = value.precision() - value.scale() - 1;
+		return Math.floorDiv(decimalExponent, PG_DEC_DIGITS);
+	}
+
+	/** @return the first base 10000 digit */
+	private static int pgFirstDigit(final BigDecimal value)
+	{
+		if (value.signum() == 0)
+		{
+			return 0;
+		}
+		return value.abs()
+				.movePointLeft(pgWeight(value) * PG_DEC_DIGITS)
+				.setScale(0, RoundingMode.DOWN)
+				.intValueExact();
+	}
+
+	private static int pgDisplayScale(final BigDecimal value)
+	{
+		return Math.max(value.scale(), 0);
+	}
+}
@@ -0,0 +1,158 @@
+package de.metas.acct.posting.server.accouting_docs_to_repost_db_table;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.annotation.Nullable;
+
+import org.compiere.util.DB;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Waits for the notifications which are sent by the {@code accounting_docs_to_repost_notify_tg} trigger when rows are inserted into {@code accounting_docs_to_repost}.
+ * <p>
+ * Uses a dedicated connection which is LISTENing on the notification channel.
+ * If the connection can't be established or is not a PostgreSQL connection, {@link #awaitNotification(Duration)} just sleeps,
+ * so the watcher falls back to polling.
+ */
+final class AccoutingDocsToRepostDBTableNotificationListener implements AutoCloseable
+{
+	private static final Logger logger = LogManager.getLogger(AccoutingDocsToRepostDBTableNotificationListener.class);
+
+	private static final String CHANNEL = "accounting_docs_to_repost";
+
+	private Connection connection;
+	private PGConnection pgConnection;
+
+	/**
+	 * Blocks until there is a notification or until the timeout elapsed.
+	 *
+	 * @return {@code true} if we got a notification, {@code false} if the timeout elapsed
+	 */
+	public boolean awaitNotification(@NonNull final Duration timeout) throws InterruptedException
+	{
+		final int timeoutMillis = (int)Math.max(timeout.toMillis(), 1); // 0 would mean "wait forever"
+
+		final PGConnection pgConnection = getPGConnectionOrNull();
+		if (pgConnection == null)
+		{
+			Thread.sleep(timeoutMillis);
+			return false;
+		}
+
+		try
+		{
+			final PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+			if (Thread.interrupted())
+			{
+				throw new InterruptedException();
+			}
+
+			return notifications != null && notifications.length > 0;
+		}
+		catch (final SQLException ex)
+		{
+			logger.warn("Failed waiting for notifications on channel {}. Reconnecting on next call.", CHANNEL, ex);
+			close();
+
+			Thread.sleep(timeoutMillis);
+			return false;
+		}
+	}
+
+	@Nullable
+	private PGConnection getPGConnectionOrNull()
+	{
+		if (pgConnection != null)
+		{
+			return pgConnection;
+		}
+
+		Connection connection = null;
+		try
+		{
+			connection = DB.createConnection(true, Connection.TRANSACTION_READ_COMMITTED);
+
+			final PGConnection pgConnection = connection.isWrapperFor(PGConnection.class)
+					? connection.unwrap(PGConnection.class)
+					: null;
+			if (pgConnection == null)
+			{
+				logger.info("Connection {} is not a PostgreSQL connection; falling back to polling", connection);
+				DB.close(connection);
+				return null;
+			}
+
+			try (final Statement stmt = connection.createStatement())
+			{
+				stmt.execute("LISTEN " + CHANNEL);
+			}
+
+			this.connection = connection;
+			this.pgConnection = pgConnection;
+			logger.info("Listening for notifications on channel {}", CHANNEL);
+			return pgConnection;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed listening for notifications on channel {}; falling back to polling", CHANNEL, ex);
+			DB.close(connection);
+			return null;
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		final Connection connection = this.connection;
+		this.connection = null;
+		this.pgConnection = null;
+		if (connection == null)
+		{
+			return;
+		}
+
+		// the connection goes back to the pool, so make sure nobody else gets our notifications
+		try (final Statement stmt = connection.createStatement())
+		{
+			stmt.execute("UNLISTEN *");
+		}
+		catch (final Exception ex)
+		{
+			logger.debug("Failed unlistening on {}. Ignored.", connection, ex);
+		}
+		finally
+		{
+			DB.close(connection);
+		}
+	}
+}
@@ -1,12 +1,35 @@
 package de.metas.acct.posting.server.accouting_docs_to_repost_db_table;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_AllocationHdr;
+import org.compiere.model.I_C_BankStatement;
+import org.compiere.model.I_C_Cash;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_Payment;
+import org.compiere.model.I_GL_Journal;
+import org.compiere.model.I_M_Requisition;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
 import de.metas.acct.api.IPostingService;
@@ -36,6 +59,20 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Watches the {@code accounting_docs_to_repost} table and (re)posts the documents found there.
+ * <p>
+ * The watcher is woken up by the notifications sent by the {@code accounting_docs_to_repost_notify_tg} trigger;
+ * the poll interval is only a fallback for the case that there is no trigger or the notifications are not available.
+ * <p>
+ * By default, the documents are just enqueued for posting. If the sysconfig {@value #SYSCONFIG_PostingThreads} is greater than zero,
+ * they are posted right here, using that many posting threads. Each document is posted by one thread only, while {@code Doc.post}
+ * is taking care of locking it.
+ * <p>
+ * Only the documents which are not relevant for costing (see {@link #TABLENAMES_PostInParallel}) are posted in parallel.
+ * All the others (e.g. receipts, shipments, invoices, inventories) are posted one after the other, in the order they were added,
+ * because the resulting costs depend on the order in which they are posted.
+ */
 public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 {
 	private static final Logger logger = LogManager.getLogger(AccoutingDocsToRepostDBTableWatcher.class);
@@ -46,6 +83,20 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 	private static final int RETRIEVE_CHUNK_SIZE = 100;
 	private static final String SYSCONFIG_PollIntervalInSeconds = "de.metas.acct.accounting_docs_to_repost.pollIntervalInSeconds";
 	private static final Duration DEFAULT_PollInterval = Duration.ofSeconds(10);
+	private static final String SYSCONFIG_PostingThreads = "de.metas.acct.accounting_docs_to_repost.postingThreads";
+
+	/** tables of the documents which don't touch costing and can be posted in any order */
+	private static final ImmutableSet<String> TABLENAMES_PostInParallel = ImmutableSet.of(
+			I_GL_Journal.Table_Name,
+			I_C_Payment.Table_Name,
+			I_C_AllocationHdr.Table_Name,
+			I_C_Cash.Table_Name,
+			I_C_BankStatement.Table_Name,
+			I_C_Order.Table_Name,
+			I_M_Requisition.Table_Name);
+
+	private ExecutorService postingExecutor; // lazy
+	private int postingExecutorThreads = 0;
 
 	@Builder
 	private AccoutingDocsToRepostDBTableWatcher(
@@ -60,32 +111,39 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 	@Override
 	public void run()
 	{
-		while (true)
+		try (final AccoutingDocsToRepostDBTableNotificationListener notificationListener = new AccoutingDocsToRepostDBTableNotificationListener())
 		{
-			final Duration pollInterval = getPollInterval();
-			logger.debug("Sleeping {}", pollInterval);
-			try
-			{
-				Thread.sleep(getPollInterval().toMillis());
-			}
-			catch (InterruptedException e)
+			while (true)
 			{
-				logger.info("Got interrupt request. Exiting.");
-				return;
-			}
+				final Duration pollInterval = getPollInterval();
+				logger.debug("Waiting for notification or {}", pollInterval);
+				try
+				{
+					notificationListener.awaitNotification(pollInterval);
+				}
+				catch (InterruptedException e)
+				{
+					logger.info("Got interrupt request. Exiting.");
+					return;
+				}
 
-			try
-			{
-				enqueueAllForReposting();
-			}
-			catch (final Exception ex)
-			{
-				logger.warn("Failed to process. Ignored.", ex);
+				try
+				{
+					processAll();
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed to process. Ignored.", ex);
+				}
 			}
 		}
+		finally
+		{
+			shutdownPostingExecutor();
+		}
 	}
 
-	private void enqueueAllForReposting()
+	private void processAll()
 	{
 		boolean tryAgain = false;
 		do
@@ -96,17 +154,25 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 				return;
 			}
 
-			logger.info("Enqueueing for reposting {} documents: {}", docsToRepost.size(), docsToRepost);
+			final int postingThreads = getPostingThreads();
 			final Stopwatch stopwatch = Stopwatch.createStarted();
-
-			for (final AccountingDocToRepost docToRepost : docsToRepost)
+			if (postingThreads > 0)
+			{
+				logger.info("Reposting {} documents using {} threads: {}", docsToRepost.size(), postingThreads, docsToRepost);
+				postInParallel(docsToRepost, postingThreads);
+			}
+			else
 			{
-				enqueueForReposting(docToRepost);
+				logger.info("Enqueueing for reposting {} documents: {}", docsToRepost.size(), docsToRepost);
+				for (final AccountingDocToRepost docToRepost : docsToRepost)
+				{
+					enqueueForReposting(docToRepost);
+				}
 			}
-			tryAgain = docsToRepost.size() >= 100;
+			tryAgain = docsToRepost.size() >= RETRIEVE_CHUNK_SIZE;
 
 			stopwatch.stop();
-			logger.info("Done enqueueing {} documents in {} (tryAgain={})", docsToRepost.size(), stopwatch, tryAgain);
+			logger.info("Done processing {} documents in {} (tryAgain={})", docsToRepost.size(), stopwatch, tryAgain);
 		}
 		while (tryAgain);
 	}
@@ -134,6 +200,138 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 		}
 	}
 
+	/**
+	 * Posts the given documents using the posting threads and waits until all of them are done.
+	 * If a document was added more than once, it's posted only once.
+	 * The documents which are relevant for costing are posted in the order they were added, by one thread.
+	 */
+	private void postInParallel(
+			@NonNull final List<AccountingDocToRepost> docsToRepost,
+			final int postingThreads)
+	{
+		final Map<TableRecordReference, List<AccountingDocToRepost>> docsToRepostByRecordRef = docsToRepost.stream()
+				.collect(Collectors.groupingBy(AccountingDocToRepost::getRecordRef, LinkedHashMap::new, Collectors.toList()));
+
+		// the posting threads shall use the same context (e.g. org and user) as the enqueueing did
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+
+		final List<List<AccountingDocToRepost>> docsToRepostInOrder = new ArrayList<>();
+		final List<List<AccountingDocToRepost>> docsToRepostInParallel = new ArrayList<>();
+		for (final List<AccountingDocToRepost> sameDocToRepostList : docsToRepostByRecordRef.values())
+		{
+			if (isPostInParallel(sameDocToRepostList.get(0)))
+			{
+				docsToRepostInParallel.add(sameDocToRepostList);
+			}
+			else
+			{
+				docsToRepostInOrder.add(sameDocToRepostList);
+			}
+		}
+
+		final ExecutorService executor = getPostingExecutor(postingThreads);
+		final List<Future<?>> futures = new ArrayList<>(docsToRepostInParallel.size() + 1);
+		if (!docsToRepostInOrder.isEmpty())
+		{
+			futures.add(executor.submit(() -> docsToRepostInOrder.forEach(sameDocToRepostList -> postDirectly(sameDocToRepostList, ctx))));
+		}
+		for (final List<AccountingDocToRepost> sameDocToRepostList : docsToRepostInParallel)
+		{
+			futures.add(executor.submit(() -> postDirectly(sameDocToRepostList, ctx)));
+		}
+
+		for (final Future<?> future : futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new AdempiereException("Interrupted while waiting for documents to be posted", e);
+			}
+			catch (final ExecutionException e)
+			{
+				// shall not happen because postDirectly is not failing
+				logger.warn("Got error while posting. Ignored.", e.getCause());
+			}
+		}
+	}
+
+	@VisibleForTesting
+	static boolean isPostInParallel(@NonNull final AccountingDocToRepost docToRepost)
+	{
+		return TABLENAMES_PostInParallel.contains(docToRepost.getRecordRef().getTableName());
+	}
+
+	/**
+	 * @param sameDocToRepostList requests to repost the same document
+	 * @param baseCtx context to be copied for posting
+	 */
+	private void postDirectly(
+			@NonNull final List<AccountingDocToRepost> sameDocToRepostList,
+			@NonNull final Properties baseCtx)
+	{
+		final AccountingDocToRepost docToRepost = sameDocToRepostList.get(0);
+		final boolean force = sameDocToRepostList.stream().anyMatch(AccountingDocToRepost::isForce);
+
+		final Properties ctx = Env.copyCtx(baseCtx);
+		Env.setClientId(ctx, docToRepost.getClientId());
+		try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+		{
+			postingService.newPostingRequest()
+					.setClientId(docToRepost.getClientId())
+					.setDocumentRef(docToRepost.getRecordRef())
+					.setForce(force)
+					.setFailOnError(false) // don't fail because we don't want to fail this thread
+					.onErrorNotifyUser(docToRepost.getOnErrorNotifyUserId())
+					.setPostWithoutServer() // we are on server side, so post it right here
+					.setPostImmediate(PostImmediate.Yes)
+					.postIt();
+		}
+		catch (Exception ex)
+		{
+			logger.warn("Failed posting {}", docToRepost, ex);
+		}
+		finally
+		{
+			sameDocToRepostList.forEach(accoutingDocsToRepostDBTableRepository::delete);
+		}
+	}
+
+	private ExecutorService getPostingExecutor(final int postingThreads)
+	{
+		if (postingExecutor == null || postingExecutorThreads != postingThreads)
+		{
+			shutdownPostingExecutor();
+
+			postingExecutor = Executors.newFixedThreadPool(
+					postingThreads,
+					CustomizableThreadFactory.builder()
+							.setThreadNamePrefix(AccoutingDocsToRepostDBTableWatcher.class.getSimpleName() + "-posting")
+							.setDaemon(true)
+							.build());
+			postingExecutorThreads = postingThreads;
+		}
+		return postingExecutor;
+	}
+
+	private void shutdownPostingExecutor()
+	{
+		if (postingExecutor != null)
+		{
+			postingExecutor.shutdown();
+			postingExecutor = null;
+			postingExecutorThreads = 0;
+		}
+	}
+
+	private int getPostingThreads()
+	{
+		return Math.max(sysConfigBL.getIntValue(SYSCONFIG_PostingThreads, 0), 0);
+	}
+
 	private Duration getPollInterval()
 	{
 		final int pollIntervalInSeconds = sysConfigBL.getIntValue(SYSCONFIG_PollIntervalInSeconds, -1);
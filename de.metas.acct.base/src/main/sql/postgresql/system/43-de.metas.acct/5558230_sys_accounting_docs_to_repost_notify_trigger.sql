@@ -0,0 +1,23 @@
+DROP TRIGGER IF EXISTS accounting_docs_to_repost_notify_tg ON "de_metas_acct".accounting_docs_to_repost;
+DROP FUNCTION IF EXISTS "de_metas_acct".accounting_docs_to_repost_notify_tg_fn();
+
+--
+-- Wakes up the accounting server's AccoutingDocsToRepostDBTableWatcher, which is LISTENing on this channel.
+-- The notification is delivered when the inserting transaction commits; notifications of the same transaction are folded into one.
+CREATE OR REPLACE FUNCTION "de_metas_acct".accounting_docs_to_repost_notify_tg_fn()
+    RETURNS trigger
+AS
+$BODY$
+BEGIN
+    PERFORM pg_notify('accounting_docs_to_repost', '');
+    RETURN NULL;
+END;
+$BODY$
+    LANGUAGE plpgsql
+    VOLATILE;
+
+CREATE TRIGGER accounting_docs_to_repost_notify_tg
+    AFTER INSERT
+    ON "de_metas_acct".accounting_docs_to_repost
+    FOR EACH STATEMENT
+EXECUTE PROCEDURE "de_metas_acct".accounting_docs_to_repost_notify_tg_fn();
@@ -0,0 +1,65 @@
+package de.metas.acct.posting.server.accouting_docs_to_repost_db_table;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_Payment;
+import org.compiere.model.I_GL_Journal;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_Inventory;
+import org.compiere.model.I_M_MatchInv;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AccoutingDocsToRepostDBTableWatcherTest
+{
+	@Test
+	public void costingRelevantDocuments_areNotPostedInParallel()
+	{
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost(I_M_InOut.Table_Name))).isFalse();
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost(I_C_Invoice.Table_Name))).isFalse();
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost(I_M_MatchInv.Table_Name))).isFalse();
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost(I_M_Inventory.Table_Name))).isFalse();
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost("PP_Cost_Collector"))).isFalse();
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost("SomeUnknownDocumentTable"))).isFalse();
+	}
+
+	@Test
+	public void otherDocuments_arePostedInParallel()
+	{
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost(I_GL_Journal.Table_Name))).isTrue();
+		assertThat(AccoutingDocsToRepostDBTableWatcher.isPostInParallel(docToRepost(I_C_Payment.Table_Name))).isTrue();
+	}
+
+	private static AccountingDocToRepost docToRepost(final String tableName)
+	{
+		return AccountingDocToRepost.builder()
+				.seqNo(1)
+				.recordRef(TableRecordReference.of(tableName, 1234))
+				.clientId(ClientId.ofRepoId(1000))
+				.build();
+	}
+}
@@ -0,0 +1,205 @@
+package org.compiere.acct;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Invocation;
+import mockit.Mocked;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests that {@link Fact#saveInBatch(List)} saves the same {@code Fact_Acct} rows, incl. the {@code Counterpart_Fact_Acct_ID} links, as {@link Fact#save()}.
+ * The fact lines are mocked; "saving" one means assigning it the next {@code Fact_Acct_ID} and remembering its counterpart at that time.
+ */
+public class FactTest
+{
+	@Mocked
+	private FactLine factLine;
+
+	private final Map<FactLine, LineState> lineStates = new IdentityHashMap<>();
+	private int nextFactAcctId = 1000;
+
+	/** line name to the name of its counterpart line (or {@code null}), as they were at the time the line was saved */
+	private final Map<String, String> savedRows = new LinkedHashMap<>();
+	private final Map<Integer, String> savedLineNamesById = new LinkedHashMap<>();
+
+	private static class LineState
+	{
+		private final String name;
+		private final BigDecimal amtAcctDr;
+		private final BigDecimal amtAcctCr;
+		private int factAcctId = 0;
+		private int counterpartFactAcctId = 0;
+
+		private LineState(final String name, final int amtAcctDr, final int amtAcctCr)
+		{
+			this.name = name;
+			this.amtAcctDr = BigDecimal.valueOf(amtAcctDr);
+			this.amtAcctCr = BigDecimal.valueOf(amtAcctCr);
+		}
+	}
+
+	@Before
+	public void init()
+	{
+		// @formatter:off
+		new Expectations()
+		{{
+			factLine.getAmtAcctDr(); minTimes = 0;
+			result = new Delegate<BigDecimal>()
+			{
+				@SuppressWarnings("unused")
+				BigDecimal delegate(final Invocation invocation) { return lineState(invocation).amtAcctDr; }
+			};
+
+			factLine.getAmtAcctCr(); minTimes = 0;
+			result = new Delegate<BigDecimal>()
+			{
+				@SuppressWarnings("unused")
+				BigDecimal delegate(final Invocation invocation) { return lineState(invocation).amtAcctCr; }
+			};
+
+			factLine.getFact_Acct_ID(); minTimes = 0;
+			result = new Delegate<Integer>()
+			{
+				@SuppressWarnings("unused")
+				int delegate(final Invocation invocation) { return lineState(invocation).factAcctId; }
+			};
+
+			factLine.setCounterpart_Fact_Acct_ID(anyInt); minTimes = 0;
+			result = new Delegate<Void>()
+			{
+				@SuppressWarnings("unused")
+				void delegate(final Invocation invocation, final int counterpartFactAcctId) { lineState(invocation).counterpartFactAcctId = counterpartFactAcctId; }
+			};
+		}}; // @formatter:on
+	}
+
+	private LineState lineState(final Invocation invocation)
+	{
+		final FactLine line = invocation.getInvokedInstance();
+		return lineStates.get(line);
+	}
+
+	private FactLine line(final String name, final int amtAcctDr, final int amtAcctCr)
+	{
+		final FactLine line = new FactLine(0, 0);
+		lineStates.put(line, new LineState(name, amtAcctDr, amtAcctCr));
+		return line;
+	}
+
+	/**
+	 * @return one debit structure (1 DR, 2 CR and a zero line), one credit structure (2 DR, 1 CR) and one zero-only structure
+	 */
+	private List<FactTrxLines> createFactTrxLinesList()
+	{
+		return ImmutableList.of(
+				FactTrxLines.builder()
+						.factLine(line("dr1", 100, 0))
+						.factLine(line("cr1", 0, 60))
+						.factLine(line("cr2", 0, 40))
+						.factLine(line("zero1", 0, 0))
+						.build(),
+				FactTrxLines.builder()
+						.factLine(line("dr2", 30, 0))
+						.factLine(line("dr3", 20, 0))
+						.factLine(line("cr3", 0, 50))
+						.build(),
+				FactTrxLines.builder()
+						.factLine(line("zero2", 0, 0))
+						.build());
+	}
+
+	private void saveLine(final FactLine line)
+	{
+		final LineState state = lineStates.get(line);
+		assertThat(state.factAcctId).as("%s was already saved", state.name).isZero();
+
+		state.factAcctId = nextFactAcctId++;
+		savedLineNamesById.put(state.factAcctId, state.name);
+
+		final String counterpartName;
+		if (state.counterpartFactAcctId > 0)
+		{
+			counterpartName = savedLineNamesById.get(state.counterpartFactAcctId);
+			assertThat(counterpartName).as("counterpart of %s is saved before it", state.name).isNotNull();
+		}
+		else
+		{
+			counterpartName = null;
+		}
+		savedRows.put(state.name, counterpartName);
+	}
+
+	@Test
+	public void saveInBatch_sameRowsAsSave()
+	{
+		for (final FactTrxLines factTrxLines : createFactTrxLinesList())
+		{
+			Fact.save(factTrxLines, this::saveLine);
+		}
+		final Map<String, String> rowsSavedOneByOne = new LinkedHashMap<>(savedRows);
+
+		savedRows.clear();
+		final List<List<String>> batches = new ArrayList<>();
+		Fact.saveInBatch(createFactTrxLinesList(), lines -> {
+			final List<String> batch = new ArrayList<>();
+			for (final FactLine line : lines)
+			{
+				saveLine(line);
+				batch.add(lineStates.get(line).name);
+			}
+			batches.add(batch);
+		});
+
+		assertThat(savedRows).isEqualTo(rowsSavedOneByOne);
+		assertThat(rowsSavedOneByOne)
+				.containsEntry("dr1", null)
+				.containsEntry("cr1", "dr1")
+				.containsEntry("cr2", "dr1")
+				.containsEntry("zero1", null)
+				.containsEntry("cr3", null)
+				.containsEntry("dr2", "cr3")
+				.containsEntry("dr3", "cr3")
+				.containsEntry("zero2", null)
+				.hasSize(8);
+
+		assertThat(batches).containsExactly(
+				ImmutableList.of("dr1", "zero1", "cr3", "zero2"),
+				ImmutableList.of("cr1", "cr2", "dr2", "dr3"));
+	}
+}
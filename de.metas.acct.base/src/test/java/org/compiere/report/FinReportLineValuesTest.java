@@ -0,0 +1,230 @@
+package org.compiere.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.compiere.report.FinReportLineValues.ColumnCalculationType;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class FinReportLineValuesTest
+{
+	/**
+	 * The expected values are what PostgreSQL returns for {@code SELECT a::numeric / b::numeric}.
+	 */
+	@Nested
+	public class divide
+	{
+		@Test
+		public void oneThird()
+		{
+			assertThat(FinReportLineValues.divide(new BigDecimal("1"), new BigDecimal("3")))
+					.isEqualTo("0.33333333333333333333");
+		}
+
+		@Test
+		public void exactResult()
+		{
+			assertThat(FinReportLineValues.divide(new BigDecimal("10"), new BigDecimal("4")))
+					.isEqualTo("2.5000000000000000");
+		}
+
+		@Test
+		public void bigDividend()
+		{
+			assertThat(FinReportLineValues.divide(new BigDecimal("100000"), new BigDecimal("3")))
+					.isEqualTo("33333.333333333333");
+		}
+
+		@Test
+		public void smallDividend()
+		{
+			assertThat(FinReportLineValues.divide(new BigDecimal("0.5"), new BigDecimal("2")))
+					.isEqualTo("0.25000000000000000000");
+		}
+
+		@Test
+		public void roundsHalfUp()
+		{
+			assertThat(FinReportLineValues.divide(new BigDecimal("2.00"), new BigDecimal("3")))
+					.isEqualTo("0.66666666666666666667");
+			assertThat(FinReportLineValues.divide(new BigDecimal("-2.00"), new BigDecimal("3")))
+					.isEqualTo("-0.66666666666666666667");
+		}
+
+		@Test
+		public void keepsTheOperandsScale()
+		{
+			assertThat(FinReportLineValues.divide(new BigDecimal("1.00000000000000000000000"), new BigDecimal("8")))
+					.isEqualTo("0.12500000000000000000000");
+		}
+
+		@Test
+		public void zeroDividend()
+		{
+			assertThat(FinReportLineValues.divide(BigDecimal.ZERO, new BigDecimal("3")))
+					.isEqualTo("0.00000000000000000000");
+		}
+	}
+
+	@Nested
+	public class lineCalculations
+	{
+		private final FinReportLineValues lineValues = new FinReportLineValues(2);
+
+		@Test
+		public void sumOfLines()
+		{
+			lineValues.addLine(1);
+			lineValues.addLine(2);
+			lineValues.addLine(3);
+			lineValues.setValue(1, 0, new BigDecimal("10.50"));
+			lineValues.setValue(2, 0, new BigDecimal("2"));
+
+			// line 4 does not exist and line 3 is included, like in SQL
+			assertThat(lineValues.setToSumOfLines(3, ImmutableList.of(1, 2, 3, 4))).isTrue();
+
+			assertThat(lineValues.getValue(3, 0)).isEqualTo("12.50");
+			assertThat(lineValues.getValue(3, 1)).isEqualTo("0");
+		}
+
+		@Test
+		public void sumOfLines_missingTargetLine()
+		{
+			lineValues.addLine(1);
+			assertThat(lineValues.setToSumOfLines(2, ImmutableList.of(1))).isFalse();
+		}
+
+		@Test
+		public void subtract()
+		{
+			lineValues.addLine(1);
+			lineValues.addLine(2);
+			lineValues.addLine(3);
+			lineValues.setValue(1, 0, new BigDecimal("10"));
+			lineValues.setValue(2, 0, new BigDecimal("2.5"));
+			lineValues.setValue(2, 1, new BigDecimal("1"));
+
+			assertThat(lineValues.setToOperation(3, 1, 2, true, false)).isTrue();
+
+			assertThat(lineValues.getValue(3, 0)).isEqualTo("7.5");
+			assertThat(lineValues.getValue(3, 1)).isEqualTo("-1");
+		}
+
+		@Test
+		public void percent()
+		{
+			lineValues.addLine(1);
+			lineValues.addLine(2);
+			lineValues.addLine(3);
+			lineValues.setValue(1, 0, new BigDecimal("1"));
+			lineValues.setValue(1, 1, new BigDecimal("1"));
+			lineValues.setValue(2, 0, new BigDecimal("4"));
+			lineValues.setValue(2, 1, BigDecimal.ZERO);
+
+			assertThat(lineValues.setToOperation(3, 1, 2, false, true)).isTrue();
+
+			assertThat(lineValues.getValue(3, 0)).isEqualTo("25.00000000000000000000");
+			assertThat(lineValues.getValue(3, 1)).isNull(); // zero divide
+		}
+
+		@Test
+		public void missingOperandLines()
+		{
+			lineValues.addLine(1);
+			lineValues.addLine(3);
+			lineValues.setValue(1, 0, new BigDecimal("5"));
+
+			lineValues.setToOperation(3, 1, 2, true, false);
+			assertThat(lineValues.getValue(3, 0)).isNull();
+
+			lineValues.setToOperation(3, 2, 1, true, false);
+			assertThat(lineValues.getValue(3, 0)).isEqualTo("-5");
+		}
+	}
+
+	@Nested
+	public class columnCalculations
+	{
+		private final FinReportLineValues lineValues = new FinReportLineValues(4);
+
+		@Test
+		public void range()
+		{
+			lineValues.addLine(1);
+			lineValues.setValue(1, 0, new BigDecimal("1"));
+			lineValues.setValue(1, 2, new BigDecimal("2.25"));
+
+			lineValues.calculateColumn(3, ColumnCalculationType.RANGE, 0, 2);
+
+			assertThat(lineValues.getValue(1, 3)).isEqualTo("3.25");
+		}
+
+		@Test
+		public void percent()
+		{
+			lineValues.addLine(1);
+			lineValues.addLine(2);
+			lineValues.setValue(1, 0, new BigDecimal("50"));
+			lineValues.setValue(1, 1, new BigDecimal("200"));
+			lineValues.setValue(2, 0, new BigDecimal("50"));
+
+			lineValues.calculateColumn(2, ColumnCalculationType.PERCENT, 0, 1);
+
+			assertThat(lineValues.getValue(1, 2)).isEqualTo("25.00000000000000000000");
+			assertThat(lineValues.getValue(2, 2)).isNull();
+		}
+
+		@Test
+		public void add_subtract()
+		{
+			lineValues.addLine(1);
+			lineValues.setValue(1, 0, new BigDecimal("3"));
+
+			lineValues.calculateColumn(2, ColumnCalculationType.ADD, 0, 1);
+			lineValues.calculateColumn(3, ColumnCalculationType.SUBTRACT, 1, 0);
+
+			assertThat(lineValues.getValue(1, 2)).isEqualTo("3");
+			assertThat(lineValues.getValue(1, 3)).isEqualTo("-3");
+		}
+	}
+
+	@Test
+	public void removeLine()
+	{
+		final FinReportLineValues lineValues = new FinReportLineValues(1);
+		lineValues.addLine(1);
+		lineValues.addLine(2);
+
+		lineValues.removeLine(1);
+		lineValues.removeLine(3);
+
+		assertThat(lineValues.getLineIds()).containsExactly(2);
+		assertThat(lineValues.getRemovedLineIds()).containsExactly(1);
+	}
+}
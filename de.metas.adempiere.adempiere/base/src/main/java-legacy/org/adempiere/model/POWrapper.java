@@ -896,6 +896,21 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 
 	}
 
+	public static void setCtx(final Object model, final Properties ctx)
+	{
+		if (model == null)
+		{
+			throw new IllegalArgumentException("model is null");
+		}
+		final PO po = getStrictPO(model);
+		if (po == null)
+		{
+			throw new ModelClassNotSupportedException(model);
+		}
+
+		po.setCtx(ctx);
+	}
+
 	/**
 	 * Check if given columnName's value is null
 	 *
@@ -81,6 +81,7 @@ import org.compiere.util.Evaluatee2;
 import org.compiere.util.ISqlUpdateReturnProcessor;
 import org.compiere.util.Ini;
 import org.compiere.util.SecureEngine;
+import org.compiere.util.TimeUtil;
 import org.compiere.util.Trace;
 import org.compiere.util.TrxRunnable2;
 import org.compiere.util.ValueNamePair;
@@ -334,6 +335,8 @@ public abstract class PO
 	 * After they were already saved, this flag will be set to <code>false</code>.
 	 */
 	private boolean m_createNew = false;
+	/** Columns to be loaded after insert, between {@link #batchInsert_prepare()} and {@link #batchInsert_finish(boolean)} */
+	private POReturningAfterInsertLoader batchInsertLoader = null;
 	/**
 	 * Flag used to mark those POs which are new, saved or not.
 	 * Compared to {@link #m_createNew} this flag will be never ever reset so can always know if this PO was created now.
@@ -605,7 +608,7 @@ public abstract class PO
 	 *
 	 * @param ctx
 	 */
-	protected final void setCtx(final Properties ctx)
+	public final void setCtx(final Properties ctx)
 	{
 		Check.assumeNotNull(ctx, "ctx not null");
 		this.p_ctx = ctx;
@@ -2929,7 +2932,7 @@ public abstract class PO
 	 *
 	 * @return <code>true</code> if save is needed; <code>false</code> if no save is needed
 	 */
-	private final boolean savePrepare()
+	final boolean savePrepare()
 	{
 		MetasfreshLastError.resetLast();
 		final boolean newRecord = is_new();	// save locally as load resets
@@ -3583,18 +3586,34 @@ public abstract class PO
 	 * @return true if new record inserted
 	 */
 	private boolean saveNew() throws Exception
+	{
+		final POReturningAfterInsertLoader loadAfterInsertProcessor = new POReturningAfterInsertLoader();
+		if (!saveNew_prepare(loadAfterInsertProcessor))
+		{
+			// Setting new IDs failed.
+			// Execute saveFinish directly
+			return saveFinish(true, false); // newRecord=true, success=false
+		}
+
+		final boolean ok = saveNew_insert(loadAfterInsertProcessor);
+		return saveNew_afterInsert(ok);
+	}   // saveNew
+
+	/**
+	 * Generates and sets the new IDs, the DocumentNo and the Value, i.e. everything which has to happen right before the INSERT.
+	 *
+	 * @return false if setting the new IDs failed
+	 */
+	private boolean saveNew_prepare(final POReturningAfterInsertLoader loadAfterInsertProcessor)
 	{
 		//
 		// Generate and set new IDs
 		if (!retrieveAndSetIds())
 		{
-			// Setting new IDs failed.
-			// Execute saveFinish directly (last line in this method)
-			return saveFinish(true, false); // newRecord=true, success=false
+			return false;
 		}
 
 		final String tableName = p_info.getTableName();
-		POReturningAfterInsertLoader loadAfterInsertProcessor = new POReturningAfterInsertLoader();
 
 		if (log.isDebugEnabled())
 		{
@@ -3683,6 +3702,18 @@ public abstract class PO
 			}
 		}
 
+		return true;
+	}
+
+	/**
+	 * Executes the INSERT and saves the LOBs.
+	 *
+	 * @return true if the record was inserted
+	 */
+	private boolean saveNew_insert(final POReturningAfterInsertLoader loadAfterInsertProcessor)
+	{
+		final String tableName = p_info.getTableName();
+
 		lobReset();
 
 		//
@@ -3844,14 +3875,16 @@ public abstract class PO
 
 		//
 		// Append the "RETURNING" clause if needed
+		final ISqlUpdateReturnProcessor updateReturnProcessor;
 		if (loadAfterInsertProcessor.hasColumnNames())
 		{
 			sqlInsert.append(" RETURNING ").append(loadAfterInsertProcessor.getSqlReturning());
+			updateReturnProcessor = loadAfterInsertProcessor;
 		}
 		else
 		{
 			// If there are no columns to load, get rid of this load after insert processor
-			loadAfterInsertProcessor = null;
+			updateReturnProcessor = null;
 		}
 
 		//
@@ -3861,7 +3894,7 @@ public abstract class PO
 				OnFail.ThrowException,  // onFail
 				m_trxName,
 				0,  // timeOut,
-				loadAfterInsertProcessor);
+				updateReturnProcessor);
 		boolean ok = no == 1;
 
 		//
@@ -3871,6 +3904,37 @@ public abstract class PO
 			ok = lobSave();
 		}
 
+		if (!ok)
+		{
+			String msg = "Not inserted - ";
+			if (LogManager.isLevelFiner())
+			{
+				msg += sqlInsert.toString();
+			}
+			else
+			{
+				msg += get_TableName();
+			}
+			if (m_trxName == null)
+			{
+				log.warn(msg);
+			}
+			else
+			{
+				log.warn("[" + m_trxName + "]" + msg);
+			}
+		}
+
+		return ok;
+	}
+
+	/**
+	 * Records the change logs, reloads or marks the record as staled and finishes the save (see {@link #saveFinish(boolean, boolean)}).
+	 */
+	private boolean saveNew_afterInsert(final boolean inserted) throws Exception
+	{
+		boolean ok = inserted;
+
 		//
 		// Record Change Logs
 		if (ok)
@@ -3895,29 +3959,178 @@ public abstract class PO
 				ok = false;
 			}
 		}
-		else
+
+		return saveFinish(true, ok);
+	}
+
+	/**
+	 * Batch insert, step 1 (see {@link POBatchInsertSaver}): runs everything which happens before the actual INSERT,
+	 * i.e. {@link #beforeSave(boolean)}, the {@link ModelChangeType#BEFORE_NEW} interceptors and the ID, DocumentNo and Value generation.
+	 *
+	 * @return the parameterized INSERT or null if this record can't be inserted in a batch and shall be inserted by {@link #batchInsert_insertSingle()}
+	 */
+	final POBatchInsertSaver.PreparedInsert batchInsert_prepare() throws Exception
+	{
+		Check.assume(is_new(), "Only new records can be inserted in batch: {}", this);
+
+		if (!isAssignedID)
 		{
-			String msg = "Not inserted - ";
-			if (LogManager.isLevelFiner())
+			if (!beforeSave(true))
 			{
-				msg += sqlInsert.toString();
+				throw new AdempiereException("beforeSave failed - " + toString());
 			}
-			else
+		}
+
+		fireModelChange(ModelChangeType.BEFORE_NEW);
+
+		final POReturningAfterInsertLoader loadAfterInsertProcessor = new POReturningAfterInsertLoader();
+		if (!saveNew_prepare(loadAfterInsertProcessor))
+		{
+			saveFinish(true, false); // newRecord=true, success=false
+			throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+		}
+
+		batchInsertLoader = loadAfterInsertProcessor;
+		return buildPreparedInsertOrNull();
+	}
+
+	/**
+	 * Batch insert, step 2, for records which could not be inserted in a batch.
+	 */
+	final boolean batchInsert_insertSingle()
+	{
+		Check.assumeNotNull(batchInsertLoader, "batchInsert_prepare was called before for {}", this);
+		return saveNew_insert(batchInsertLoader);
+	}
+
+	/**
+	 * Batch insert, step 3: records the change logs and fires the after-save logic and interceptors.
+	 */
+	final void batchInsert_finish(final boolean inserted) throws Exception
+	{
+		batchInsertLoader = null;
+		if (!saveNew_afterInsert(inserted))
+		{
+			throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+		}
+	}
+
+	/**
+	 * Called when the batch insert failed, to leave this record in the same state like a failed {@link #saveEx()}.
+	 */
+	final void batchInsert_reset()
+	{
+		batchInsertLoader = null;
+		m_createNew = true;
+	}
+
+	/**
+	 * @return the INSERT with the values as SQL parameters, or null if this record has LOBs, custom or encrypted columns, needs the native ID sequence
+	 *         or has columns which {@link #saveNew_insert(POReturningAfterInsertLoader)} would load via RETURNING (staleable columns and mandatory ID columns without value).
+	 *         A JDBC batch can't return them, so such records are inserted one by one.
+	 */
+	private POBatchInsertSaver.PreparedInsert buildPreparedInsertOrNull()
+	{
+		if (m_custom != null && !m_custom.isEmpty())
+		{
+			return null;
+		}
+		if (p_info.isLoadAfterSave())
+		{
+			return null;
+		}
+		if (batchInsertLoader != null && batchInsertLoader.hasColumnNames())
+		{
+			return null;
+		}
+
+		final StringBuilder sqlColumnNames = new StringBuilder();
+		final StringBuilder sqlValues = new StringBuilder();
+		final List<Object> sqlParams = new ArrayList<>();
+
+		final int size = get_ColumnCount();
+		for (int i = 0; i < size; i++)
+		{
+			if (p_info.isVirtualColumn(i))
 			{
-				msg += get_TableName();
+				continue;
 			}
-			if (m_trxName == null)
+
+			final Object value = get_Value(i);
+			final int dt = p_info.getColumnDisplayType(i);
+			if (value == null)
 			{
-				log.warn(msg);
+				if (dt == DisplayType.ID && p_info.isColumnMandatory(i)
+						|| p_info.isColumnStaleable(i))
+				{
+					return null; // shall be loaded after insert
+				}
+				continue; // allow database defaults
+			}
+
+			if (DisplayType.isLOB(dt) || p_info.isEncrypted(i) || value == I_ZERO_NATIVESEQUENCE)
+			{
+				return null;
+			}
+
+			// Based on class of definition, not class of value (same like in saveNew_insert)
+			final Class<?> c = p_info.getColumnClass(i);
+			final Object sqlParam;
+			if (c == Object.class)
+			{
+				return null;
+			}
+			else if (value.equals(Null.NULL))
+			{
+				sqlParam = null;
+			}
+			else if (value instanceof Integer || value instanceof BigDecimal)
+			{
+				sqlParam = value;
+			}
+			else if (c == Boolean.class)
+			{
+				sqlParam = StringUtils.ofBoolean(StringUtils.toBoolean(value));
+			}
+			else if (value instanceof Timestamp)
+			{
+				sqlParam = toInsertTimestamp((Timestamp)value, dt == DisplayType.Date);
+			}
+			else if (c == String.class)
+			{
+				sqlParam = value.toString();
 			}
 			else
 			{
-				log.warn("[" + m_trxName + "]" + msg);
+				return null;
+			}
+
+			if (!sqlParams.isEmpty())
+			{
+				sqlColumnNames.append(",");
+				sqlValues.append(",");
 			}
+			sqlColumnNames.append(p_info.getColumnName(i));
+			sqlValues.append("?");
+			sqlParams.add(sqlParam);
 		}
 
-		return saveFinish(true, ok);
-	}   // saveNew
+		final String sql = "INSERT INTO " + p_info.getTableName() + " (" + sqlColumnNames + ") VALUES (" + sqlValues + ")";
+		return POBatchInsertSaver.PreparedInsert.of(sql, sqlParams);
+	}
+
+	/** Same precision like {@link DB#TO_DATE(Timestamp, boolean)} */
+	private static Timestamp toInsertTimestamp(final Timestamp value, final boolean dayOnly)
+	{
+		if (dayOnly)
+		{
+			return TimeUtil.trunc(value, TimeUtil.TRUNC_DAY);
+		}
+
+		final Timestamp result = new Timestamp(value.getTime());
+		result.setNanos(0);
+		return result;
+	}
 
 	/**
 	 * Get ID for new record during save.
@@ -0,0 +1,226 @@
+package org.compiere.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.compiere.util.TrxRunnable2;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Inserts multiple new {@link PO}s, sending the INSERTs as parameterized JDBC batches instead of one statement per record.
+ * <p>
+ * The records are processed in three steps, each step in the order of the given records:
+ * <ol>
+ * <li>beforeSave, the BEFORE_NEW interceptors and the ID/DocumentNo generation
+ * <li>the INSERTs; consecutive records with the same INSERT (same table and same columns) are sent in one batch.
+ * Records which can't be batched (e.g. with LOBs, or with columns which have to be loaded via RETURNING) are inserted one by one at their position.
+ * <li>change logs, afterSave and the AFTER_NEW interceptors
+ * </ol>
+ * So compared to saving the records one by one, the BEFORE_NEW interceptors of all records are fired before the first record is inserted.
+ * That's why it's only used via {@link org.adempiere.model.InterfaceWrapperHelper#saveAllNewInBatch(java.util.Collection)}.
+ */
+public final class POBatchInsertSaver
+{
+	private static final int MAX_BATCH_SIZE = 500;
+
+	@FunctionalInterface
+	interface BatchExecutor
+	{
+		void executeBatch(String sql, List<PreparedInsert> inserts, String trxName);
+	}
+
+	private static final POBatchInsertSaver instance = new POBatchInsertSaver(POBatchInsertSaver::executeBatch);
+
+	private final BatchExecutor batchExecutor;
+
+	@VisibleForTesting
+	POBatchInsertSaver(@NonNull final BatchExecutor batchExecutor)
+	{
+		this.batchExecutor = batchExecutor;
+	}
+
+	@Value(staticConstructor = "of")
+	static class PreparedInsert
+	{
+		@NonNull
+		String sql;
+		@NonNull
+		List<Object> sqlParams;
+	}
+
+	/**
+	 * @param pos new records which are all in the same transaction
+	 */
+	public static void saveAll(@NonNull final List<? extends PO> pos)
+	{
+		instance.save(pos);
+	}
+
+	@VisibleForTesting
+	void save(@NonNull final List<? extends PO> pos)
+	{
+		if (pos.isEmpty())
+		{
+			return;
+		}
+
+		final String trxNameInitial = pos.get(0).get_TrxName();
+		for (final PO po : pos)
+		{
+			Check.assume(po.is_new(), "Only new records can be inserted in batch: {}", po);
+			Check.assume(Objects.equals(trxNameInitial, po.get_TrxName()), "All records shall be in the same transaction: {}", pos);
+		}
+
+		//
+		// Check and prepare the saving
+		// (this shall happen before running the part which is handled in transaction)
+		// Like in PO.saveEx(), the records which don't need to be saved are skipped.
+		final ImmutableList<PO> records = pos.stream()
+				.filter(PO::savePrepare)
+				.collect(ImmutableList.toImmutableList());
+		if (records.isEmpty())
+		{
+			return;
+		}
+
+		Services.get(ITrxManager.class).run(trxNameInitial, new TrxRunnable2()
+		{
+			@Override
+			public void run(final String localTrxName) throws Exception
+			{
+				records.forEach(po -> po.set_TrxName(localTrxName));
+				insertAll(records, localTrxName);
+			}
+
+			@Override
+			public boolean doCatch(final Throwable e) throws Throwable
+			{
+				// restoring settings and flags before failing
+				records.forEach(PO::batchInsert_reset);
+				throw e;
+			}
+
+			@Override
+			public void doFinally()
+			{
+				// restore the transaction name
+				records.forEach(po -> po.set_TrxName(trxNameInitial));
+			}
+		});
+	}
+
+	private void insertAll(final List<PO> records, final String trxName) throws Exception
+	{
+		final int count = records.size();
+
+		final List<PreparedInsert> inserts = new ArrayList<>(count);
+		for (final PO po : records)
+		{
+			inserts.add(po.batchInsert_prepare());
+		}
+
+		final boolean[] inserted = new boolean[count];
+		int index = 0;
+		while (index < count)
+		{
+			final PreparedInsert insert = inserts.get(index);
+			if (insert == null)
+			{
+				inserted[index] = records.get(index).batchInsert_insertSingle();
+				index++;
+				continue;
+			}
+
+			int endIndex = index + 1;
+			while (endIndex < count
+					&& endIndex - index < MAX_BATCH_SIZE
+					&& inserts.get(endIndex) != null
+					&& insert.getSql().equals(inserts.get(endIndex).getSql()))
+			{
+				endIndex++;
+			}
+
+			batchExecutor.executeBatch(insert.getSql(), inserts.subList(index, endIndex), trxName);
+			for (int i = index; i < endIndex; i++)
+			{
+				inserted[i] = true;
+			}
+			index = endIndex;
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			records.get(i).batchInsert_finish(inserted[i]);
+		}
+	}
+
+	private static void executeBatch(final String sql, final List<PreparedInsert> inserts, final String trxName)
+	{
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, trxName);
+			for (final PreparedInsert insert : inserts)
+			{
+				DB.setParameters(pstmt, insert.getSqlParams());
+				pstmt.addBatch();
+			}
+
+			final int[] updateCounts = pstmt.executeBatch();
+			for (final int updateCount : updateCounts)
+			{
+				if (updateCount != 1 && updateCount != Statement.SUCCESS_NO_INFO)
+				{
+					throw new AdempiereException("Not inserted - " + sql)
+							.appendParametersToMessage()
+							.setParameter("updateCounts", updateCounts);
+				}
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+}
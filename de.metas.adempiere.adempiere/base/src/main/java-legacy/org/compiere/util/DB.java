@@ -80,6 +80,7 @@ import org.slf4j.Logger;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.CacheMgt;
+import de.metas.dao.tableid.TableIdAllocator;
 import de.metas.document.sequence.IDocumentNoBuilderFactory;
 import de.metas.i18n.ILanguageDAO;
 import de.metas.lang.SOTrx;
@@ -1811,6 +1812,14 @@ public final class DB
 	public static int getNextID(final int AD_Client_ID, final String TableName, final String trxName)
 	{
 		final boolean useNativeSequences = DB.isUseNativeSequences(AD_Client_ID, TableName);
+
+		final TableIdAllocator tableIdAllocator = TableIdAllocator.instance;
+		final int idBlockSize = tableIdAllocator.getBlockSize(TableName);
+		if (idBlockSize > 0 && !isTableIdOneByOneRequired(AD_Client_ID, TableName))
+		{
+			return tableIdAllocator.getNextId(TableName, useNativeSequences, idBlockSize);
+		}
+
 		if (useNativeSequences)
 		{
 			final String sequenceName = getTableSequenceName(TableName);
@@ -2485,13 +2494,30 @@ public final class DB
 	{
 		log.debug("Checking if we shall use native sequences for {} (AD_Client_ID={})", TableName, AD_Client_ID);
 
+		if (isTableIdOneByOneRequired(AD_Client_ID, TableName))
+		{
+			return false;
+		}
+
+		//
+		// Default: use native sequences if activated
+		final boolean useNativeSequences = isUseNativeSequences();
+		log.debug("Returning the result of isUseNativeSequences: {}", useNativeSequences);
+		return useNativeSequences;
+	}
+
+	/**
+	 * @return true if the IDs of given table have to be taken one by one from AD_Sequence, i.e. neither native sequences nor preallocated ID blocks may be used
+	 */
+	private static boolean isTableIdOneByOneRequired(final int AD_Client_ID, final String TableName)
+	{
 		//
 		// Check: If Log Migration Scripts is enabled then don't use native sequences
 		if (Ini.isPropertyBool(Ini.P_LOGMIGRATIONSCRIPT)
 				&& Services.get(IMigrationLogger.class).isLogTableName(TableName))
 		{
-			log.debug("Returning 'false' for table {} because Ini-{} is active and this table is supposed to be logged", TableName, Ini.P_LOGMIGRATIONSCRIPT);
-			return false;
+			log.debug("Returning 'true' for table {} because Ini-{} is active and this table is supposed to be logged", TableName, Ini.P_LOGMIGRATIONSCRIPT);
+			return true;
 		}
 
 		//
@@ -2499,22 +2525,19 @@ public final class DB
 		final boolean adempiereSys = Ini.isPropertyBool(Ini.P_ADEMPIERESYS);
 		if (adempiereSys)
 		{
-			log.debug("Returning 'false' because Ini-{} (Maintain dictionary) is active ", Ini.P_ADEMPIERESYS);
-			return false;
+			log.debug("Returning 'true' because Ini-{} (Maintain dictionary) is active ", Ini.P_ADEMPIERESYS);
+			return true;
 		}
 
 		//
 		// Check: if we shall use an external ID System (e.g. Dictionary/Project ID server) then don't use native sequences
 		if (MSequence.isUseExternalIDSystem(TableName, AD_Client_ID)) // metas: 01558
 		{
-			log.debug("Returning 'false' because MSequence.isUseExternalIDSystem() returned 'true' for TableName {} and AD_Client_ID {}", TableName, AD_Client_ID);
-			return false;
+			log.debug("Returning 'true' because MSequence.isUseExternalIDSystem() returned 'true' for TableName {} and AD_Client_ID {}", TableName, AD_Client_ID);
+			return true;
 		}
-		//
-		// Default: use native sequences if activated
-		final boolean useNativeSequences = isUseNativeSequences();
-		log.debug("Returning the result of isUseNativeSequences: {}", useNativeSequences);
-		return useNativeSequences;
+
+		return false;
 	}
 
 	public static void setUseNativeSequences(final boolean enabled)
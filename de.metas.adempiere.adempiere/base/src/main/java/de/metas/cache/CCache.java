@@ -41,17 +41,20 @@ import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.Util;
 import org.slf4j.Logger;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.MoreObjects;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ExecutionError;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import de.metas.logging.LogManager;
+import de.metas.util.Check;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.Singular;
@@ -158,6 +161,13 @@ public class CCache<K, V> implements CacheInterface
 
 	private CacheAdditionListener<K, V> additionListener;
 
+	/** true if the entries are weighed, see {@link CacheWeigher} */
+	private final boolean weighed;
+	/** The maximum weight of this cache or -1 if the entries are not weighed */
+	private final long maximumWeight;
+	/** Current weight of all entries. Maintained only if {@link #weighed}. */
+	private final AtomicLong weight = new AtomicLong(0);
+
 	/**
 	 * Metasfresh Cache - expires after 2 hours
 	 *
@@ -186,7 +196,9 @@ public class CCache<K, V> implements CacheInterface
 				CacheMapType.HashMap,
 				(CachingKeysMapper<K>)null,
 				(CacheRemovalListener<K, V>)null,
-				(CacheAdditionListener<K, V>)null);
+				(CacheAdditionListener<K, V>)null,
+				(CacheWeigher<K, V>)null,
+				(Long)null);
 	}
 
 	@Builder
@@ -199,7 +211,9 @@ public class CCache<K, V> implements CacheInterface
 			final CacheMapType cacheMapType,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
-			@Nullable final CacheAdditionListener<K, V> additionListener)
+			@Nullable final CacheAdditionListener<K, V> additionListener,
+			@Nullable final CacheWeigher<K, V> weigher,
+			@Nullable final Long maximumWeight)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
@@ -245,11 +259,28 @@ public class CCache<K, V> implements CacheInterface
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
 
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
+
+		this.weighed = weigher != null;
+		if (weighed)
+		{
+			// if there is no explicit maximum weight, the global budget also applies to each single cache
+			final long globalMaximumWeight = CacheMgt.get().getGlobalMaximumWeight();
+			this.maximumWeight = maximumWeight != null && maximumWeight > 0 ? maximumWeight
+					: globalMaximumWeight > 0 ? globalMaximumWeight : Long.MAX_VALUE;
+		}
+		else
+		{
+			Check.assume(maximumWeight == null, "maximumWeight shall be set only together with a weigher");
+			this.maximumWeight = -1;
+		}
+
 		this.cache = buildGuavaCache(
 				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
 				initialCapacity != null ? initialCapacity : 0,
 				this.expireMinutes,
-				removalListener);
+				removalListener,
+				weigher != null ? new WeightTrackingWeigher<>(weigher, weight) : null,
+				this.maximumWeight);
 
 		if (DEBUG)
 		{
@@ -313,14 +344,30 @@ public class CCache<K, V> implements CacheInterface
 		return builder.build();
 	}
 
+	/**
+	 * @param weigher if not null, the entries are evicted (least recently used first) when the given {@code maximumWeight} is reached. In this case, the LRU maximum size is not applied.
+	 */
 	private static final <K, V> Cache<K, V> buildGuavaCache(
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
 			final int expireMinutes,
-			@Nullable final CacheRemovalListener<K, V> removalListener)
+			@Nullable final CacheRemovalListener<K, V> removalListener,
+			@Nullable final WeightTrackingWeigher<K, V> weigher,
+			final long maximumWeight)
 	{
-		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
-		if (cacheMapType == CacheMapType.HashMap)
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+				.recordStats();
+		if (weigher != null)
+		{
+			cacheBuilder = cacheBuilder
+					.maximumWeight(maximumWeight)
+					.weigher(weigher);
+			if (cacheMapType == CacheMapType.HashMap)
+			{
+				cacheBuilder = cacheBuilder.initialCapacity(initialCapacity);
+			}
+		}
+		else if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
 					.initialCapacity(initialCapacity);
@@ -340,7 +387,7 @@ public class CCache<K, V> implements CacheInterface
 			cacheBuilder = cacheBuilder.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
 		}
 
-		if (removalListener != null)
+		if (removalListener != null || weigher != null)
 		{
 			cacheBuilder.removalListener(notif -> {
 				@SuppressWarnings("unchecked")
@@ -349,12 +396,68 @@ public class CCache<K, V> implements CacheInterface
 				@SuppressWarnings("unchecked")
 				final V value = (V)notif.getValue();
 
-				removalListener.itemRemoved(key, value);
+				if (weigher != null)
+				{
+					weigher.onRemoved(key, value);
+				}
+				if (removalListener != null)
+				{
+					removalListener.itemRemoved(key, value);
+				}
 			});
 		}
 		return cacheBuilder.build();
 	}
 
+	/**
+	 * Delegates to the actual weigher and keeps track of the current weight of the cache.
+	 * {@link CacheMgt} sums up the weights of the registered caches.
+	 */
+	private static final class WeightTrackingWeigher<K, V> implements Weigher<Object, Object>
+	{
+		private final CacheWeigher<K, V> weigher;
+		private final AtomicLong weight;
+
+		private WeightTrackingWeigher(@NonNull final CacheWeigher<K, V> weigher, @NonNull final AtomicLong weight)
+		{
+			this.weigher = weigher;
+			this.weight = weight;
+		}
+
+		@Override
+		public int weigh(final Object key, final Object value)
+		{
+			final int entryWeight = weighNoFail(key, value);
+			weight.addAndGet(entryWeight);
+			return entryWeight;
+		}
+
+		public void onRemoved(@Nullable final K key, @Nullable final V value)
+		{
+			if (key == null || value == null)
+			{
+				return; // collected by GC; we can't know its weight
+			}
+
+			final int entryWeight = weighNoFail(key, value);
+			weight.addAndGet(-entryWeight);
+		}
+
+		@SuppressWarnings("unchecked")
+		private int weighNoFail(final Object key, final Object value)
+		{
+			try
+			{
+				return Math.max(weigher.weigh((K)key, (V)value), 0);
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed weighing {}. Considering it 0.", key, ex);
+				return 0;
+			}
+		}
+	}
+
 	/**
 	 * @return unique cache ID
 	 */
@@ -585,7 +688,9 @@ public class CCache<K, V> implements CacheInterface
 
 			try
 			{
-				return cache.get(key, valueInitializer);
+				final V value = cache.get(key, valueInitializer);
+				checkGlobalWeightBudget();
+				return value;
 			}
 			catch (final InvalidCacheLoadException e)
 			{
@@ -697,6 +802,7 @@ public class CCache<K, V> implements CacheInterface
 					fireAdditionListener(key, value);
 				}
 				values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
+				checkGlobalWeightBudget();
 			}
 
 			return values;
@@ -737,6 +843,7 @@ public class CCache<K, V> implements CacheInterface
 			{
 				cache.put(key, value);
 				fireAdditionListener(key, value);
+				checkGlobalWeightBudget();
 			}
 		}
 	}
@@ -765,9 +872,34 @@ public class CCache<K, V> implements CacheInterface
 			{
 				fireAdditionListener(entry.getKey(), entry.getValue());
 			}
+			checkGlobalWeightBudget();
+		}
+	}
+
+	private void checkGlobalWeightBudget()
+	{
+		if (weighed)
+		{
+			CacheMgt.get().checkGlobalWeightBudget();
 		}
 	}
 
+	/**
+	 * @return true if the entries of this cache are weighed, see {@link CacheWeigher}
+	 */
+	public boolean isWeighed()
+	{
+		return weighed;
+	}
+
+	/**
+	 * @return the current weight of all entries or 0 if the entries are not weighed
+	 */
+	public long getWeight()
+	{
+		return weighed ? weight.get() : 0;
+	}
+
 	/**
 	 * @see java.util.Map#isEmpty()
 	 */
@@ -820,7 +952,7 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public CCacheStats stats()
 	{
-		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats());
+		return new CCacheStats(cacheId, cacheName, cache.size(), getWeight(), maximumWeight, cache.stats());
 	}
 
 	@SuppressWarnings("serial")
@@ -831,13 +963,23 @@ public class CCache<K, V> implements CacheInterface
 		private final long cacheId;
 		private final String name;
 		private final long size;
+		private final long weight;
+		private final long maximumWeight;
 		private final CacheStats guavaStats;
 
-		private CCacheStats(final long cacheId, final String name, final long size, final CacheStats guavaStats)
+		private CCacheStats(
+				final long cacheId,
+				final String name,
+				final long size,
+				final long weight,
+				final long maximumWeight,
+				final CacheStats guavaStats)
 		{
 			this.cacheId = cacheId;
 			this.name = name;
 			this.size = size;
+			this.weight = weight;
+			this.maximumWeight = maximumWeight;
 			this.guavaStats = guavaStats;
 		}
 
@@ -847,6 +989,8 @@ public class CCache<K, V> implements CacheInterface
 			return MoreObjects.toStringHelper(this)
 					.add("name", name)
 					.add("size", size)
+					.add("weight", maximumWeight >= 0 ? weight : null)
+					.add("maximumWeight", maximumWeight >= 0 ? maximumWeight : null)
 					.add("guavaStats", guavaStats)
 					.add("cacheId", cacheId)
 					.toString();
@@ -855,7 +999,7 @@ public class CCache<K, V> implements CacheInterface
 		@Override
 		public int hashCode()
 		{
-			return Objects.hash(cacheId, name, size, guavaStats);
+			return Objects.hash(cacheId, name, size, weight, maximumWeight, guavaStats);
 		}
 
 		@Override
@@ -867,6 +1011,8 @@ public class CCache<K, V> implements CacheInterface
 				return cacheId == other.cacheId
 						&& name.equals(other.name)
 						&& size == other.size
+						&& weight == other.weight
+						&& maximumWeight == other.maximumWeight
 						&& guavaStats.equals(other.guavaStats);
 			}
 			return false;
@@ -887,6 +1033,49 @@ public class CCache<K, V> implements CacheInterface
 			return size;
 		}
 
+		/** @return current weight in bytes or 0 if the cache is not weighed */
+		public long getWeight()
+		{
+			return weight;
+		}
+
+		/** @return maximum weight in bytes or -1 if the cache is not weighed */
+		public long getMaximumWeight()
+		{
+			return maximumWeight;
+		}
+
+		public long getHitCount()
+		{
+			return guavaStats.hitCount();
+		}
+
+		public long getMissCount()
+		{
+			return guavaStats.missCount();
+		}
+
+		public double getHitRate()
+		{
+			return guavaStats.hitRate();
+		}
+
+		public long getLoadCount()
+		{
+			return guavaStats.loadCount();
+		}
+
+		public double getAverageLoadPenaltyMillis()
+		{
+			return guavaStats.averageLoadPenalty() / 1_000_000d;
+		}
+
+		public long getEvictionCount()
+		{
+			return guavaStats.evictionCount();
+		}
+
+		@JsonIgnore // not JSON serializable; the relevant values are exposed by the getters above
 		public CacheStats getGuavaStats()
 		{
 			return guavaStats;
@@ -0,0 +1,365 @@
+package de.metas.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the cache invalidation requests which shall be broadcasted and sends them in batches.
+ * <p>
+ * The requests are collected for a short time window. Within that window duplicate requests are dropped and
+ * if there are more than {@code escalateToTableThreshold} requests for the same table, they are replaced by requests which invalidate the whole table.
+ * At the end of the window, the collected requests are sent in chunks of at most {@code maxRequestsPerEvent}.
+ * <p>
+ * If the window is zero or negative (the default), each request is sent right away, like it was before.
+ * Set the system property {@value #SYSTEM_PROPERTY_WindowMillis} to a positive value to enable the coalescing.
+ */
+final class CacheInvalidationBroadcastCoalescer
+{
+	private static final Logger logger = LogManager.getLogger(CacheInvalidationBroadcastCoalescer.class);
+
+	static final String SYSTEM_PROPERTY_WindowMillis = "de.metas.cache.broadcast.coalesceWindowMillis";
+	static final String SYSTEM_PROPERTY_EscalateToTableThreshold = "de.metas.cache.broadcast.escalateToTableThreshold";
+	static final String SYSTEM_PROPERTY_MaxRequestsPerEvent = "de.metas.cache.broadcast.maxRequestsPerEvent";
+
+	/** coalescing is off by default, because it delays the cache invalidation on the other nodes */
+	private static final int DEFAULT_WindowMillis = 0;
+	private static final int DEFAULT_EscalateToTableThreshold = 500;
+	private static final int DEFAULT_MaxRequestsPerEvent = 1000;
+
+	@FunctionalInterface
+	interface Sender
+	{
+		/** @return the size of the sent payload, in bytes */
+		int send(CacheInvalidateMultiRequest request);
+	}
+
+	public static CacheInvalidationBroadcastCoalescer newInstanceFromSystemProperties(@NonNull final Sender sender)
+	{
+		return new CacheInvalidationBroadcastCoalescer(
+				sender,
+				Integer.getInteger(SYSTEM_PROPERTY_WindowMillis, DEFAULT_WindowMillis),
+				Integer.getInteger(SYSTEM_PROPERTY_EscalateToTableThreshold, DEFAULT_EscalateToTableThreshold),
+				Integer.getInteger(SYSTEM_PROPERTY_MaxRequestsPerEvent, DEFAULT_MaxRequestsPerEvent));
+	}
+
+	private final Sender sender;
+	private final long windowMillis;
+	private final int escalateToTableThreshold;
+	private final int maxRequestsPerEvent;
+
+	private final Object lock = new Object();
+	private boolean pendingResetAll = false;
+	private final LinkedHashMap<TableKey, PendingRequests> pendingByTable = new LinkedHashMap<>();
+
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+	private ScheduledExecutorService _executor; // lazy
+
+	private final long startTimeMillis = System.currentTimeMillis();
+	private final AtomicLong requestsReceived = new AtomicLong();
+	private final AtomicLong requestsCoalesced = new AtomicLong();
+	private final AtomicLong escalations = new AtomicLong();
+	private final AtomicLong requestsSent = new AtomicLong();
+	private final AtomicLong eventsSent = new AtomicLong();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong sendErrors = new AtomicLong();
+
+	CacheInvalidationBroadcastCoalescer(
+			@NonNull final Sender sender,
+			final long windowMillis,
+			final int escalateToTableThreshold,
+			final int maxRequestsPerEvent)
+	{
+		this.sender = sender;
+		this.windowMillis = windowMillis;
+		this.escalateToTableThreshold = escalateToTableThreshold > 0 ? escalateToTableThreshold : Integer.MAX_VALUE;
+		this.maxRequestsPerEvent = maxRequestsPerEvent > 0 ? maxRequestsPerEvent : Integer.MAX_VALUE;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("windowMillis", windowMillis)
+				.add("escalateToTableThreshold", escalateToTableThreshold)
+				.add("maxRequestsPerEvent", maxRequestsPerEvent)
+				.toString();
+	}
+
+	public void add(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		requestsReceived.addAndGet(multiRequest.getRequests().size());
+
+		if (windowMillis <= 0)
+		{
+			sendNoFail(multiRequest);
+			return;
+		}
+
+		synchronized (lock)
+		{
+			for (final CacheInvalidateRequest request : multiRequest.getRequests())
+			{
+				addToPending(request);
+			}
+		}
+
+		scheduleFlush();
+	}
+
+	private void addToPending(final CacheInvalidateRequest request)
+	{
+		if (request.isAll())
+		{
+			requestsCoalesced.addAndGet(countPendingRequests());
+			pendingByTable.clear();
+			pendingResetAll = true;
+			return;
+		}
+		if (pendingResetAll)
+		{
+			requestsCoalesced.incrementAndGet();
+			return;
+		}
+
+		final TableKey tableKey = TableKey.of(request);
+		final PendingRequests pendingRequests = pendingByTable.computeIfAbsent(tableKey, PendingRequests::new);
+		if (!pendingRequests.add(request))
+		{
+			requestsCoalesced.incrementAndGet();
+		}
+		else if (pendingRequests.size() > escalateToTableThreshold)
+		{
+			requestsCoalesced.addAndGet(pendingRequests.size());
+			pendingRequests.escalateToWholeTable();
+			escalations.incrementAndGet();
+			logger.debug("Escalated cache invalidation broadcast to whole table for {}", tableKey);
+		}
+	}
+
+	private int countPendingRequests()
+	{
+		return pendingByTable.values().stream().mapToInt(PendingRequests::size).sum();
+	}
+
+	private void scheduleFlush()
+	{
+		if (flushScheduled.getAndSet(true))
+		{
+			return;
+		}
+
+		try
+		{
+			getExecutor().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed scheduling the broadcast of pending cache invalidations. Sending them now.", ex);
+			flush();
+		}
+	}
+
+	private synchronized ScheduledExecutorService getExecutor()
+	{
+		if (_executor == null)
+		{
+			_executor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(CacheInvalidationBroadcastCoalescer.class.getSimpleName())
+					.setDaemon(true)
+					.build());
+		}
+		return _executor;
+	}
+
+	/**
+	 * Sends all pending requests right away.
+	 */
+	public void flush()
+	{
+		final List<CacheInvalidateRequest> requests;
+		synchronized (lock)
+		{
+			// reset the flag first, so that requests added from now on will schedule a new flush
+			flushScheduled.set(false);
+
+			if (pendingResetAll)
+			{
+				requests = ImmutableList.of(CacheInvalidateRequest.all());
+			}
+			else
+			{
+				requests = new ArrayList<>();
+				pendingByTable.values().forEach(pendingRequests -> requests.addAll(pendingRequests.toRequests()));
+			}
+
+			pendingResetAll = false;
+			pendingByTable.clear();
+		}
+
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		for (final List<CacheInvalidateRequest> chunk : Lists.partition(requests, maxRequestsPerEvent))
+		{
+			sendNoFail(CacheInvalidateMultiRequest.of(chunk));
+		}
+	}
+
+	private void sendNoFail(final CacheInvalidateMultiRequest multiRequest)
+	{
+		try
+		{
+			final int payloadSize = sender.send(multiRequest);
+
+			eventsSent.incrementAndGet();
+			requestsSent.addAndGet(multiRequest.getRequests().size());
+			bytesSent.addAndGet(payloadSize);
+		}
+		catch (final Exception ex)
+		{
+			sendErrors.incrementAndGet();
+			logger.warn("Failed broadcasting {}. Ignored.", multiRequest, ex);
+		}
+	}
+
+	public CacheInvalidationBroadcastStatistics getStatistics()
+	{
+		final long eventsSent = this.eventsSent.get();
+		final long uptimeMillis = Math.max(System.currentTimeMillis() - startTimeMillis, 1);
+
+		return CacheInvalidationBroadcastStatistics.builder()
+				.requestsReceived(requestsReceived.get())
+				.requestsCoalesced(requestsCoalesced.get())
+				.escalationsToWholeTable(escalations.get())
+				.requestsSent(requestsSent.get())
+				.eventsSent(eventsSent)
+				.bytesSent(bytesSent.get())
+				.sendErrors(sendErrors.get())
+				.eventsPerMinute(eventsSent * TimeUnit.MINUTES.toMillis(1) / uptimeMillis)
+				.build();
+	}
+
+	@Value
+	private static class TableKey
+	{
+		static TableKey of(final CacheInvalidateRequest request)
+		{
+			return new TableKey(request.getRootTableName(), request.getChildTableName());
+		}
+
+		@Nullable
+		String rootTableName;
+		@Nullable
+		String childTableName;
+	}
+
+	private static final class PendingRequests
+	{
+		private final TableKey tableKey;
+		private final Set<CacheInvalidateRequest> requests = new LinkedHashSet<>();
+		private boolean wholeTable = false;
+
+		private PendingRequests(@NonNull final TableKey tableKey)
+		{
+			this.tableKey = tableKey;
+		}
+
+		/** @return false if the request is already covered by the pending requests */
+		public boolean add(final CacheInvalidateRequest request)
+		{
+			if (wholeTable)
+			{
+				return false;
+			}
+
+			if (tableKey.getChildTableName() == null && request.isAllRecords())
+			{
+				escalateToWholeTable();
+				return true;
+			}
+
+			return requests.add(request);
+		}
+
+		public int size()
+		{
+			return wholeTable ? 1 : requests.size();
+		}
+
+		/**
+		 * Drops the individual requests and invalidates all records of the involved tables instead.
+		 * A record level request also invalidates the root record, so if there is a child table we have to invalidate both tables.
+		 */
+		public void escalateToWholeTable()
+		{
+			wholeTable = true;
+			requests.clear();
+		}
+
+		public List<CacheInvalidateRequest> toRequests()
+		{
+			if (!wholeTable)
+			{
+				return ImmutableList.copyOf(requests);
+			}
+
+			final ImmutableList.Builder<CacheInvalidateRequest> result = ImmutableList.builder();
+			if (tableKey.getRootTableName() != null)
+			{
+				result.add(CacheInvalidateRequest.allRecordsForTable(tableKey.getRootTableName()));
+			}
+			if (tableKey.getChildTableName() != null)
+			{
+				result.add(CacheInvalidateRequest.allRecordsForTable(tableKey.getChildTableName()));
+			}
+			return result.build();
+		}
+	}
+}
@@ -63,6 +63,8 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	private final CacheInvalidationBroadcastCoalescer broadcastCoalescer = CacheInvalidationBroadcastCoalescer.newInstanceFromSystemProperties(this::postEventNow);
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -127,9 +129,8 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	/**
 	 * Broadcast a cache invalidation request.
-	 *
-	 * @param tableName
-	 * @param recordId
+	 * <p>
+	 * The request is not sent right away, but collected together with other requests by {@link CacheInvalidationBroadcastCoalescer}.
 	 */
 	public void postEvent(final CacheInvalidateMultiRequest request)
 	{
@@ -147,13 +148,35 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
-		// Broadcast the event.
-		final Event event = createEventFromRequest(request);
+		broadcastCoalescer.add(request);
+	}
+
+	/**
+	 * Sends the pending cache invalidation requests without waiting for the coalescing window to end.
+	 */
+	public void flushPendingEvents()
+	{
+		broadcastCoalescer.flush();
+	}
+
+	public CacheInvalidationBroadcastStatistics getBroadcastStatistics()
+	{
+		return broadcastCoalescer.getStatistics();
+	}
+
+	/**
+	 * @return the size of the event's payload
+	 */
+	private int postEventNow(final CacheInvalidateMultiRequest request)
+	{
+		final String jsonRequest = jsonSerializer.toJson(request);
+		final Event event = createEventFromJson(jsonRequest);
 		Services.get(IEventBusFactory.class)
 				.getEventBus(TOPIC_CacheInvalidation)
 				.postEvent(event);
 
 		logger.debug("Broadcasting cache invalidation of {}, event={}", request, event);
+		return jsonRequest.length();
 	}
 
 	private boolean isAllowBroadcast(final CacheInvalidateMultiRequest multiRequest)
@@ -197,11 +220,14 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 	@VisibleForTesting
 	Event createEventFromRequest(@NonNull final CacheInvalidateMultiRequest request)
 	{
-		final Event event = Event.builder()
-				.putProperty(EVENT_PROPERTY, jsonSerializer.toJson(request))
-				.build();
+		return createEventFromJson(jsonSerializer.toJson(request));
+	}
 
-		return event;
+	private static Event createEventFromJson(@NonNull final String jsonRequest)
+	{
+		return Event.builder()
+				.putProperty(EVENT_PROPERTY, jsonRequest)
+				.build();
 	}
 
 	private CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
@@ -16,6 +16,10 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -47,6 +51,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.logging.LogManager;
@@ -86,6 +91,17 @@ public final class CacheMgt
 	private final AtomicBoolean cacheResetRunning = new AtomicBoolean();
 	private final AtomicLong lastCacheReset = new AtomicLong();
 
+	/**
+	 * System property: global memory budget (in bytes) for all caches whose entries are weighed (see {@link CacheWeigher}).
+	 * Zero or negative means no budget.
+	 */
+	public static final String SYSTEM_PROPERTY_GlobalMaximumWeight = "de.metas.cache.globalMaximumWeightBytes";
+	private final long globalMaximumWeight = Long.getLong(SYSTEM_PROPERTY_GlobalMaximumWeight, 0);
+	/** the registered caches whose entries are weighed; weak, like the caches in {@link CachesGroup}, so the weight of a garbage collected cache is no longer counted */
+	private final Set<CCache<?, ?>> weighedCaches = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+	private final AtomicBoolean weightBudgetEnforcementRunning = new AtomicBoolean();
+	private final AtomicLong weightBudgetEnforcementsCount = new AtomicLong();
+
 	private CacheMgt()
 	{
 		JMXRegistry.get().registerJMX(new JMXCacheMgt(), OnJMXAlreadyExistsPolicy.Replace);
@@ -138,6 +154,11 @@ public final class CacheMgt
 			labels.stream()
 					.map(this::getCachesGroup)
 					.forEach(cacheGroup -> cacheGroup.addCache(cache));
+
+			if (cache instanceof CCache && ((CCache<?, ?>)cache).isWeighed())
+			{
+				weighedCaches.add((CCache<?, ?>)cache);
+			}
 		}
 	}
 
@@ -149,6 +170,11 @@ public final class CacheMgt
 					.stream()
 					.map(this::getCachesGroup)
 					.forEach(cacheGroup -> cacheGroup.removeCache(cache));
+
+			if (cache instanceof CCache)
+			{
+				weighedCaches.remove(cache);
+			}
 		}
 	}
 
@@ -162,6 +188,116 @@ public final class CacheMgt
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
 	}
 
+	public CacheInvalidationBroadcastStatistics getBroadcastStatistics()
+	{
+		return CacheInvalidationRemoteHandler.instance.getBroadcastStatistics();
+	}
+
+	/**
+	 * Broadcasts the pending cache invalidations right away, instead of waiting for the coalescing window to end.
+	 */
+	public void flushBroadcastQueue()
+	{
+		CacheInvalidationRemoteHandler.instance.flushPendingEvents();
+	}
+
+	/**
+	 * @return the global memory budget (in bytes) of all weighed caches or zero if there is no budget
+	 */
+	public long getGlobalMaximumWeight()
+	{
+		return globalMaximumWeight;
+	}
+
+	/**
+	 * @return the current weight of all weighed caches, in bytes
+	 */
+	public long getTotalWeight()
+	{
+		long totalWeight = 0;
+		for (final CCache<?, ?> cache : ImmutableList.copyOf(weighedCaches))
+		{
+			totalWeight += cache.getWeight();
+		}
+		return totalWeight;
+	}
+
+	/**
+	 * @return how many times the caches were reset because the global budget was exceeded
+	 */
+	public long getWeightBudgetEnforcementsCount()
+	{
+		return weightBudgetEnforcementsCount.get();
+	}
+
+	/**
+	 * If the total weight exceeds the global budget, the budget is split evenly between all weighed caches and the caches which exceed their share are reset.
+	 * <p>
+	 * NOTE: called by {@link CCache} after new entries were added, so it shall be cheap if the budget is not exceeded.
+	 * The total weight is summed up from the (few) weighed caches, so unregistered or garbage collected caches are not counted.
+	 */
+	/* package */ void checkGlobalWeightBudget()
+	{
+		if (globalMaximumWeight <= 0 || getTotalWeight() <= globalMaximumWeight)
+		{
+			return;
+		}
+
+		// Do nothing if already running
+		if (weightBudgetEnforcementRunning.getAndSet(true))
+		{
+			return;
+		}
+
+		try
+		{
+			final List<CCache<?, ?>> weighedCachesList = ImmutableList.copyOf(weighedCaches);
+			if (weighedCachesList.isEmpty())
+			{
+				return;
+			}
+
+			final long weightPerCache = globalMaximumWeight / weighedCachesList.size();
+			for (final CCache<?, ?> cache : weighedCachesList)
+			{
+				final long cacheWeight = cache.getWeight();
+				if (cacheWeight > weightPerCache)
+				{
+					logger.info("Resetting {} because its weight {} exceeds its share {} of the global cache budget {}", cache, cacheWeight, weightPerCache, globalMaximumWeight);
+					cache.reset();
+				}
+			}
+
+			weightBudgetEnforcementsCount.incrementAndGet();
+		}
+		finally
+		{
+			weightBudgetEnforcementRunning.set(false);
+		}
+	}
+
+	private Stream<CacheInterface> streamDistinctCaches()
+	{
+		final Map<Long, CacheInterface> cachesById = new HashMap<>();
+		cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.forEach(cache -> cachesById.putIfAbsent(cache.getCacheId(), cache));
+		return cachesById.values().stream();
+	}
+
+	/**
+	 * @return the statistics of all registered {@link CCache}s
+	 */
+	public List<CCacheStats> getCacheStats()
+	{
+		return streamDistinctCaches()
+				.filter(cache -> cache instanceof CCache)
+				.map(cache -> ((CCache<?, ?>)cache).stats())
+				.sorted(Comparator.comparing(CCacheStats::getCacheId))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	/** @return last time cache reset timestamp */
 	public long getLastCacheReset()
 	{
@@ -49,7 +49,9 @@ public class IDCache<V> extends CCache<Object, V>
 				cacheMapType,
 				KEYS_MAPPER,
 				(CacheRemovalListener<Object, V>)null,
-				(CacheAdditionListener<Object, V>)null);
+				(CacheAdditionListener<Object, V>)null,
+				(CacheWeigher<Object, V>)null,
+				(Long)null);
 
 		Check.assumeNotEmpty(tableName, "tableName not empty");
 	}
@@ -6,6 +6,7 @@ import java.util.Set;
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.logging.LogManager;
 
 /**
@@ -83,6 +84,76 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		getCacheMgt().enableRemoteCacheInvalidationForTableName(tableName);
 	}
 
+	@Override
+	public String[] getCacheStats()
+	{
+		return getCacheMgt()
+				.getCacheStats()
+				.stream()
+				.map(CCacheStats::toString)
+				.toArray(size -> new String[size]);
+	}
+
+	@Override
+	public long getTotalWeight()
+	{
+		return getCacheMgt().getTotalWeight();
+	}
+
+	@Override
+	public long getGlobalMaximumWeight()
+	{
+		return getCacheMgt().getGlobalMaximumWeight();
+	}
+
+	@Override
+	public long getWeightBudgetEnforcementsCount()
+	{
+		return getCacheMgt().getWeightBudgetEnforcementsCount();
+	}
+
+	@Override
+	public String getBroadcastStatistics()
+	{
+		return getCacheMgt().getBroadcastStatistics().toString();
+	}
+
+	@Override
+	public long getBroadcastRequestsReceived()
+	{
+		return getCacheMgt().getBroadcastStatistics().getRequestsReceived();
+	}
+
+	@Override
+	public long getBroadcastRequestsSent()
+	{
+		return getCacheMgt().getBroadcastStatistics().getRequestsSent();
+	}
+
+	@Override
+	public long getBroadcastEventsSent()
+	{
+		return getCacheMgt().getBroadcastStatistics().getEventsSent();
+	}
+
+	@Override
+	public long getBroadcastBytesSent()
+	{
+		return getCacheMgt().getBroadcastStatistics().getBytesSent();
+	}
+
+	@Override
+	public long getBroadcastEventsPerMinute()
+	{
+		return getCacheMgt().getBroadcastStatistics().getEventsPerMinute();
+	}
+
+	@Override
+	public void flushBroadcastQueue()
+	{
+		getCacheMgt().flushBroadcastQueue();
+	}
+
 	@Override
 	public long resetAll()
 	{
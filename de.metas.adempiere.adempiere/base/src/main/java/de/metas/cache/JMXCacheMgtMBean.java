@@ -20,6 +20,28 @@ public interface JMXCacheMgtMBean
 
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
+	String[] getCacheStats();
+
+	long getTotalWeight();
+
+	long getGlobalMaximumWeight();
+
+	long getWeightBudgetEnforcementsCount();
+
+	String getBroadcastStatistics();
+
+	long getBroadcastRequestsReceived();
+
+	long getBroadcastRequestsSent();
+
+	long getBroadcastEventsSent();
+
+	long getBroadcastBytesSent();
+
+	long getBroadcastEventsPerMinute();
+
+	void flushBroadcastQueue();
+
 	long resetAll();
 
 	long resetForTable(String tableName);
@@ -7,6 +7,7 @@ import org.compiere.util.Trace;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import de.metas.util.Check;
@@ -110,11 +111,13 @@ public final class CacheInvalidateRequest
 	private final int rootRecordId;
 
 	@JsonProperty("childTableName")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
 	private final String childTableName;
 	@JsonProperty("childRecordId")
 	private final int childRecordId;
 
 	@JsonProperty("debugFrom")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
 	final String debugFrom;
 
 	@JsonCreator
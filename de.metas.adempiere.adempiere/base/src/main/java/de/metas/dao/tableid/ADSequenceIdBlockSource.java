@@ -0,0 +1,87 @@
+package de.metas.dao.tableid;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reserves the IDs by increasing {@code AD_Sequence.CurrentNext} once per block, out of transaction.
+ * The AD_Sequence row is locked only for the duration of that single update.
+ */
+final class ADSequenceIdBlockSource implements IdBlockSource
+{
+	public static final ADSequenceIdBlockSource instance = new ADSequenceIdBlockSource();
+
+	private static final String SQL = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + IncrementNo * ?"
+			+ " WHERE Name=? AND IsActive='Y' AND IsTableID='Y' AND IsAutoSequence='Y'"
+			+ " RETURNING CurrentNext, IncrementNo";
+
+	private ADSequenceIdBlockSource()
+	{
+	}
+
+	@Override
+	public int[] reserveIds(@NonNull final String tableName, final int count)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(SQL, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, count, tableName);
+			rs = pstmt.executeQuery();
+			if (!rs.next())
+			{
+				throw new AdempiereException("No AD_Sequence found for " + tableName);
+			}
+
+			final int currentNext = rs.getInt(1);
+			final int incrementNo = rs.getInt(2);
+
+			final int[] ids = new int[count];
+			final int firstId = currentNext - incrementNo * count;
+			for (int i = 0; i < count; i++)
+			{
+				ids[i] = firstId + i * incrementNo;
+			}
+			return ids;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, SQL);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package de.metas.dao.tableid;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reserves the IDs by fetching multiple values from the table's native database sequence in one go.
+ * The IDs of one block are not necessarily consecutive, because other nodes might fetch from the same sequence at the same time.
+ */
+final class NativeSequenceIdBlockSource implements IdBlockSource
+{
+	public static final NativeSequenceIdBlockSource instance = new NativeSequenceIdBlockSource();
+
+	private NativeSequenceIdBlockSource()
+	{
+	}
+
+	@Override
+	public int[] reserveIds(@NonNull final String tableName, final int count)
+	{
+		final String sequenceName = DB.getTableSequenceName(tableName).toLowerCase();
+		final String sql = "SELECT nextval(" + DB.TO_STRING(sequenceName) + ") FROM generate_series(1, ?)";
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, count);
+			rs = pstmt.executeQuery();
+
+			final int[] ids = new int[count];
+			int idsCount = 0;
+			while (rs.next() && idsCount < count)
+			{
+				ids[idsCount++] = rs.getInt(1);
+			}
+			if (idsCount != count)
+			{
+				throw new AdempiereException("Expected " + count + " IDs from " + sequenceName + " but got " + idsCount);
+			}
+			return ids;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package de.metas.dao.tableid;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.ExtendedMemorizingSupplier;
+import org.compiere.model.I_AD_SysConfig;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.cache.CacheMgt;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.NumberUtils;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands out table IDs from blocks which were reserved in advance, so that not every new record has to lock the table's AD_Sequence row.
+ * <p>
+ * For each table we keep one block in memory. IDs are taken from it without locking.
+ * When the remaining IDs of the current block drop below {@link #REFILL_THRESHOLD_PERCENT}, the next block is reserved asynchronously.
+ * <p>
+ * The feature is enabled by setting {@value #SYSCONFIG_BlockSize} (for all tables) or {@value #SYSCONFIG_BlockSize}.TableName (for one table) to a value greater than zero
+ * (with AD_Client_ID and AD_Org_ID=0). Those settings are loaded once and reloaded when AD_SysConfig is changed.
+ * Note that IDs which were reserved but not used (e.g. when the JVM is stopped) are lost,
+ * and that IDs are no longer ascending in creation order if there are multiple nodes.
+ */
+public final class TableIdAllocator
+{
+	public static final TableIdAllocator instance = new TableIdAllocator(ADSequenceIdBlockSource.instance, NativeSequenceIdBlockSource.instance);
+
+	private static final Logger logger = LogManager.getLogger(TableIdAllocator.class);
+
+	public static final String SYSCONFIG_BlockSize = "de.metas.dao.tableIdAllocator.blockSize";
+	private static final int DEFAULT_BlockSize = 0; // disabled
+
+	@VisibleForTesting
+	static final int REFILL_THRESHOLD_PERCENT = 25;
+
+	private final IdBlockSource adSequenceSource;
+	private final IdBlockSource nativeSequenceSource;
+	private final Executor refillExecutor;
+
+	private final Map<TableIdPoolKey, TableIdPool> pools = new ConcurrentHashMap<>();
+
+	private final ExtendedMemorizingSupplier<BlockSizes> blockSizesSupplier = ExtendedMemorizingSupplier.of(BlockSizes::retrieve);
+
+	@VisibleForTesting
+	TableIdAllocator(
+			@NonNull final IdBlockSource adSequenceSource,
+			@NonNull final IdBlockSource nativeSequenceSource)
+	{
+		this.adSequenceSource = adSequenceSource;
+		this.nativeSequenceSource = nativeSequenceSource;
+		this.refillExecutor = Executors.newCachedThreadPool(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(TableIdAllocator.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+
+		CacheMgt.get().addCacheResetListener(I_AD_SysConfig.Table_Name, request -> {
+			blockSizesSupplier.forget();
+			return 1;
+		});
+	}
+
+	/**
+	 * @return how many IDs shall be reserved at once for given table; zero or negative means that the IDs shall be fetched one by one, as usual.
+	 */
+	public int getBlockSize(@NonNull final String tableName)
+	{
+		return blockSizesSupplier.get().getBlockSize(tableName);
+	}
+
+	/**
+	 * @param useNativeSequence if true, the blocks are reserved from the table's native DB sequence, else from AD_Sequence
+	 */
+	public int getNextId(@NonNull final String tableName, final boolean useNativeSequence, final int blockSize)
+	{
+		Check.assumeGreaterThanZero(blockSize, "blockSize");
+
+		final TableIdPoolKey key = TableIdPoolKey.of(tableName, useNativeSequence);
+		return pools.computeIfAbsent(key, this::createPool).nextId(blockSize);
+	}
+
+	private TableIdPool createPool(final TableIdPoolKey key)
+	{
+		final IdBlockSource source = key.isUseNativeSequence() ? nativeSequenceSource : adSequenceSource;
+		return new TableIdPool(key.getTableName(), source, refillExecutor);
+	}
+
+	private static final class BlockSizes
+	{
+		private static BlockSizes retrieve()
+		{
+			final Map<String, String> sysConfigs = Services.get(ISysConfigBL.class).getValuesForPrefix(SYSCONFIG_BlockSize, 0, 0);
+
+			int defaultBlockSize = DEFAULT_BlockSize;
+			final ImmutableMap.Builder<String, Integer> blockSizesByTableName = ImmutableMap.builder();
+			for (final Map.Entry<String, String> sysConfig : sysConfigs.entrySet())
+			{
+				final String name = sysConfig.getKey();
+				final int blockSize = NumberUtils.asInt(sysConfig.getValue(), DEFAULT_BlockSize);
+				if (name.equals(SYSCONFIG_BlockSize))
+				{
+					defaultBlockSize = blockSize;
+				}
+				else if (name.startsWith(SYSCONFIG_BlockSize + "."))
+				{
+					blockSizesByTableName.put(name.substring(SYSCONFIG_BlockSize.length() + 1), blockSize);
+				}
+			}
+
+			return new BlockSizes(defaultBlockSize, blockSizesByTableName.build());
+		}
+
+		private final int defaultBlockSize;
+		private final ImmutableMap<String, Integer> blockSizesByTableName;
+		private final boolean enabled;
+
+		private BlockSizes(final int defaultBlockSize, @NonNull final ImmutableMap<String, Integer> blockSizesByTableName)
+		{
+			this.defaultBlockSize = defaultBlockSize;
+			this.blockSizesByTableName = blockSizesByTableName;
+			this.enabled = defaultBlockSize > 0 || blockSizesByTableName.values().stream().anyMatch(blockSize -> blockSize > 0);
+		}
+
+		public int getBlockSize(@NonNull final String tableName)
+		{
+			if (!enabled)
+			{
+				return 0;
+			}
+			return blockSizesByTableName.getOrDefault(tableName, defaultBlockSize);
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	private static class TableIdPoolKey
+	{
+		String tableName;
+		boolean useNativeSequence;
+	}
+
+	private static final class IdBlock
+	{
+		private static final IdBlock EMPTY = new IdBlock(new int[0]);
+
+		private final int[] ids;
+		private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+		private IdBlock(@NonNull final int[] ids)
+		{
+			this.ids = ids;
+		}
+
+		/** @return next ID or -1 if the block is exhausted */
+		public int next()
+		{
+			final int index = nextIndex.getAndIncrement();
+			return index < ids.length ? ids[index] : -1;
+		}
+
+		public boolean isRefillNeeded()
+		{
+			final int remaining = ids.length - nextIndex.get();
+			return remaining * 100 <= ids.length * REFILL_THRESHOLD_PERCENT;
+		}
+	}
+
+	private static final class TableIdPool
+	{
+		private final String tableName;
+		private final IdBlockSource source;
+		private final Executor refillExecutor;
+
+		private volatile IdBlock currentBlock = IdBlock.EMPTY;
+		private final AtomicReference<CompletableFuture<int[]>> nextBlockFuture = new AtomicReference<>();
+
+		private TableIdPool(
+				@NonNull final String tableName,
+				@NonNull final IdBlockSource source,
+				@NonNull final Executor refillExecutor)
+		{
+			this.tableName = tableName;
+			this.source = source;
+			this.refillExecutor = refillExecutor;
+		}
+
+		public int nextId(final int blockSize)
+		{
+			while (true)
+			{
+				final IdBlock block = currentBlock;
+				final int id = block.next();
+				if (id > 0)
+				{
+					if (block.isRefillNeeded())
+					{
+						refillAsync(blockSize);
+					}
+					return id;
+				}
+
+				switchToNextBlock(block, blockSize);
+			}
+		}
+
+		private synchronized void switchToNextBlock(final IdBlock exhaustedBlock, final int blockSize)
+		{
+			if (currentBlock != exhaustedBlock)
+			{
+				return; // another thread already switched
+			}
+
+			int[] ids = null;
+			final CompletableFuture<int[]> future = nextBlockFuture.getAndSet(null);
+			if (future != null)
+			{
+				try
+				{
+					ids = future.join();
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed reserving the next ID block for {} asynchronously. Trying again now.", tableName, ex);
+				}
+			}
+			if (ids == null || ids.length == 0)
+			{
+				ids = source.reserveIds(tableName, blockSize);
+			}
+
+			logger.debug("Switched to next ID block for {}: {} IDs starting with {}", tableName, ids.length, ids.length > 0 ? ids[0] : null);
+			currentBlock = new IdBlock(ids);
+		}
+
+		private void refillAsync(final int blockSize)
+		{
+			if (nextBlockFuture.get() != null)
+			{
+				return;
+			}
+
+			final CompletableFuture<int[]> future = new CompletableFuture<>();
+			if (!nextBlockFuture.compareAndSet(null, future))
+			{
+				return;
+			}
+
+			refillExecutor.execute(() -> {
+				try
+				{
+					future.complete(source.reserveIds(tableName, blockSize));
+				}
+				catch (final Throwable ex)
+				{
+					future.completeExceptionally(ex);
+				}
+			});
+		}
+	}
+}
@@ -75,6 +75,7 @@ public final class Event
 	}
 
 	private static final String PROPERTY_Record = "record";
+	private static final String PROPERTY_PartitionKey = "partitionKey";
 	public static final String PROPERTY_SuggestedWindowId = "suggestedWindowId";
 
 	// put this first, because this is imho the most interesting part of the event's json representation, at least when shown in the event log
@@ -282,6 +283,18 @@ public final class Event
 		return record;
 	}
 
+	/**
+	 * Events with the same partition key are dispatched in the order they were posted, even if the event bus dispatches on more than one thread.
+	 *
+	 * @return the explicitly set partition key; if there is none, the {@link #getRecord()}; might be null.
+	 * @see Builder#setPartitionKey(String)
+	 */
+	public Object getPartitionKey()
+	{
+		final Object partitionKey = getProperty(PROPERTY_PartitionKey);
+		return partitionKey != null ? partitionKey : getRecord();
+	}
+
 	/**
 	 * @return
 	 *         <ul>
@@ -563,6 +576,16 @@ public final class Event
 			return this;
 		}
 
+		/**
+		 * @param partitionKey e.g. product and warehouse; events with the same key are dispatched in order.
+		 * @see Event#getPartitionKey()
+		 */
+		public Builder setPartitionKey(final String partitionKey)
+		{
+			putProperty(Event.PROPERTY_PartitionKey, partitionKey);
+			return this;
+		}
+
 		public Builder putPropertyFromObject(final String name, final Object value)
 		{
 			if (value == null)
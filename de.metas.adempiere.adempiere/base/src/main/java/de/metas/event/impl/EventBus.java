@@ -24,7 +24,6 @@ import java.util.IdentityHashMap;
  * #L%
  */
 
-import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
@@ -35,7 +34,6 @@ import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.eventbus.SubscriberExceptionContext;
 import com.google.common.eventbus.SubscriberExceptionHandler;
@@ -90,26 +88,19 @@ final class EventBus implements IEventBus
 	@Getter
 	private Type type = Type.LOCAL;
 
-	private final ExecutorService executorOrNull;
+	@Nullable
+	private final PartitionedEventDispatcher dispatcherOrNull;
 
 	/**
-	 * @param executor if not null, the system creates an {@link AsyncEventBus}; also, it shuts down this executor on {@link #destroy()}
+	 * @param dispatcher if not null, the events are posted asynchronously, using this dispatcher; also, it shuts down this dispatcher on {@link #destroy()}
 	 */
 	public EventBus(
 			@NonNull final String topicName,
-			@Nullable final ExecutorService executor)
+			@Nullable final PartitionedEventDispatcher dispatcher)
 	{
-		this.executorOrNull = executor;
+		this.dispatcherOrNull = dispatcher;
 		this.topicName = Check.assumeNotEmpty(topicName, "name not empty");
-
-		if (executor == null)
-		{
-			this.eventBus = new com.google.common.eventbus.EventBus(exceptionHandler);
-		}
-		else
-		{
-			this.eventBus = new com.google.common.eventbus.AsyncEventBus(executor, exceptionHandler);
-		}
+		this.eventBus = new com.google.common.eventbus.EventBus(exceptionHandler);
 	}
 
 	@Override
@@ -136,9 +127,9 @@ final class EventBus implements IEventBus
 		this.destroyed = true;
 		this.eventBus = null;
 
-		if (executorOrNull != null)
+		if (dispatcherOrNull != null)
 		{
-			executorOrNull.shutdown(); // not 100% sure it's needed, but better safe than sorry
+			dispatcherOrNull.shutdown(); // not 100% sure it's needed, but better safe than sorry
 		}
 		logger.trace("{0} - Destroyed", this);
 	}
@@ -227,23 +218,53 @@ final class EventBus implements IEventBus
 			final Event eventToPost;
 
 			// as long as we have just one common event-log-DB, we store events only on the machine they were created on, in order to avoid duplicates.
-			if (event.isShallBeLogged() && event.isLocalEvent())
+			// in case of sampled event logging, the events which are not sampled are treated like they shall not be logged.
+			if (event.isShallBeLogged() && event.isLocalEvent() && getEventLogService().shallLogEvent(event))
 			{
 				eventToPost = event.withStatusWasLogged();
-
-			final EventLogService eventLogService = SpringContextHolder.instance.getBean(EventLogService.class);
-				eventLogService.saveEvent(eventToPost, this);
+				getEventLogService().saveEvent(eventToPost, this);
 			}
 			else
 			{
 				eventToPost = event;
 			}
 
-		logger.debug("{} - Posting event: {}", this, eventToPost);
-			eventBus.post(eventToPost);
+			logger.debug("{} - Posting event: {}", this, eventToPost);
+			if (dispatcherOrNull != null)
+			{
+				// NOTE: might block if the event's lane is full
+				final com.google.common.eventbus.EventBus eventBus = this.eventBus;
+				dispatcherOrNull.submit(eventToPost.getPartitionKey(), () -> eventBus.post(eventToPost));
+			}
+			else
+			{
+				eventBus.post(eventToPost);
+			}
 		}
 	}
 
+	/**
+	 * @return the dispatching statistics or null if the events are posted synchronously
+	 */
+	@Nullable
+	PartitionedEventDispatcher.Statistics getDispatchStatistics()
+	{
+		return dispatcherOrNull != null ? dispatcherOrNull.getStatistics() : null;
+	}
+
+	void resetDispatchStatistics()
+	{
+		if (dispatcherOrNull != null)
+		{
+			dispatcherOrNull.resetStatistics();
+		}
+	}
+
+	private static EventLogService getEventLogService()
+	{
+		return SpringContextHolder.instance.getBean(EventLogService.class);
+	}
+
 	private static class TypedConsumerAsEventListener<T> implements IEventListener
 	{
 		@NonNull
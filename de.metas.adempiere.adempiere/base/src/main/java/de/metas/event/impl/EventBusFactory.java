@@ -1,13 +1,11 @@
 package de.metas.event.impl;
 
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.adempiere.exceptions.AdempiereException;
-import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.adempiere.util.jmx.JMXRegistry;
 import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.slf4j.Logger;
@@ -19,6 +17,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 
@@ -72,7 +71,7 @@ public class EventBusFactory implements IEventBusFactory
 		this.remoteEndpoint = remoteEndpoint;
 		logger.info("Using remote endpoint: {}", remoteEndpoint);
 
-		JMXRegistry.get().registerJMX(new JMXEventBusManager(remoteEndpoint), OnJMXAlreadyExistsPolicy.Replace);
+		JMXRegistry.get().registerJMX(new JMXEventBusManager(remoteEndpoint, this), OnJMXAlreadyExistsPolicy.Replace);
 
 		// Setup default user notification topics
 		addAvailableUserNotificationsTopic(EventBusConstants.TOPIC_GeneralUserNotifications);
@@ -135,7 +134,7 @@ public class EventBusFactory implements IEventBusFactory
 	private final EventBus createEventBus(final Topic topic)
 	{
 		// Create the event bus
-		final EventBus eventBus = new EventBus(topic.getName(), createExecutorOrNull(topic.getName()));
+		final EventBus eventBus = new EventBus(topic.getName(), createDispatcherOrNull(topic.getName()));
 
 		// Bind the EventBus to remote endpoint (only if the system is enabled).
 		// If is not enabled we will use only local event buses,
@@ -162,19 +161,34 @@ public class EventBusFactory implements IEventBusFactory
 		return eventBus;
 	}
 
-	private ExecutorService createExecutorOrNull(@NonNull final String eventBusName)
+	private PartitionedEventDispatcher createDispatcherOrNull(@NonNull final String eventBusName)
 	{
-		// Setup EventBus executor
+		// Setup EventBus dispatcher
 		if (EventBusConstants.isEventBusPostEventsAsync())
 		{
-			return Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
-					.setThreadNamePrefix(getClass().getName() + "-" + eventBusName + "-AsyncExecutor")
-					.setDaemon(true)
-					.build());
+			return PartitionedEventDispatcher.newInstanceFromSystemProperties(eventBusName);
 		}
 		return null;
 	}
 
+	/**
+	 * @return the dispatching statistics of the event buses which post their events asynchronously
+	 */
+	public ImmutableList<PartitionedEventDispatcher.Statistics> getDispatchStatistics()
+	{
+		return topic2eventBus.asMap()
+				.values()
+				.stream()
+				.map(EventBus::getDispatchStatistics)
+				.filter(Objects::nonNull)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public void resetDispatchStatistics()
+	{
+		topic2eventBus.asMap().values().forEach(EventBus::resetDispatchStatistics);
+	}
+
 	private void destroyEventBus(@NonNull final EventBus eventBus)
 	{
 		eventBus.destroy();
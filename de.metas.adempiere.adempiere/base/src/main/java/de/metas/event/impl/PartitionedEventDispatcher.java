@@ -0,0 +1,344 @@
+package de.metas.event.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+
+import de.metas.event.EventBusConstants;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Dispatches the events of one {@link EventBus} asynchronously, on a fixed number of lanes.
+ * <p>
+ * Each lane has its own thread, so the tasks of one lane are executed in the order they were submitted.
+ * Tasks with the same partition key always go to the same lane; tasks without a partition key go to the first lane.
+ * <p>
+ * Each lane can have at most {@code queueCapacity} pending tasks. If it's full, the publisher is blocked until there is room again.
+ * The only exception are tasks submitted from a dispatcher thread (i.e. events posted by an event listener);
+ * those are never blocked, because if the lane was waiting for itself, it would wait forever.
+ * Note that this also applies to the lanes of other topics: a listener of topic A which posts to topic B is not blocked by B's full lane either,
+ * because B's listeners might in turn post to A, and then the two lanes would wait for each other.
+ * The tasks which are queued beyond the capacity that way are counted in {@link Statistics#getTasksOverCapacity()}.
+ */
+public final class PartitionedEventDispatcher
+{
+	private static final Logger logger = EventBusConstants.getLogger(PartitionedEventDispatcher.class);
+
+	static final String SYSTEM_PROPERTY_Lanes = "de.metas.event.dispatch.lanes";
+	static final String SYSTEM_PROPERTY_QueueCapacity = "de.metas.event.dispatch.queueCapacity";
+	private static final int DEFAULT_Lanes = 1;
+	private static final int DEFAULT_QueueCapacity = 10000;
+
+	/** set while a dispatcher thread (of any topic) is running a task */
+	private static final ThreadLocal<Boolean> dispatching = new ThreadLocal<>();
+
+	/**
+	 * Creates the dispatcher using the system properties.
+	 * The number of lanes can be set per topic, e.g. {@code -Dde.metas.event.dispatch.lanes.de.metas.material=4}.
+	 */
+	public static PartitionedEventDispatcher newInstanceFromSystemProperties(@NonNull final String topicName)
+	{
+		final int defaultLanes = Integer.getInteger(SYSTEM_PROPERTY_Lanes, DEFAULT_Lanes);
+		return new PartitionedEventDispatcher(
+				topicName,
+				Integer.getInteger(SYSTEM_PROPERTY_Lanes + "." + topicName, defaultLanes),
+				Integer.getInteger(SYSTEM_PROPERTY_QueueCapacity, DEFAULT_QueueCapacity));
+	}
+
+	private final String topicName;
+	private final int queueCapacity;
+	private final List<Lane> lanes;
+
+	private final LongAdder tasksSubmitted = new LongAdder();
+	private final LongAdder tasksDispatched = new LongAdder();
+	private final LongAdder tasksFailed = new LongAdder();
+	private final LongAdder publisherWaits = new LongAdder();
+	private final LongAdder publisherWaitNanos = new LongAdder();
+	private final LongAdder tasksOverCapacity = new LongAdder();
+	private final LongAdder queueLatencyNanos = new LongAdder();
+	private final LongAccumulator maxQueueLatencyNanos = new LongAccumulator(Math::max, 0);
+	private final LongAdder dispatchNanos = new LongAdder();
+
+	PartitionedEventDispatcher(
+			@NonNull final String topicName,
+			final int lanesCount,
+			final int queueCapacity)
+	{
+		this.topicName = topicName;
+		this.queueCapacity = queueCapacity > 0 ? queueCapacity : Integer.MAX_VALUE;
+
+		final int lanesCountEffective = Math.max(lanesCount, 1);
+		final List<Lane> lanes = new ArrayList<>(lanesCountEffective);
+		for (int i = 0; i < lanesCountEffective; i++)
+		{
+			lanes.add(new Lane(i));
+		}
+		this.lanes = lanes;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("topicName", topicName)
+				.add("lanes", lanes.size())
+				.add("queueCapacity", queueCapacity)
+				.toString();
+	}
+
+	public int getLanesCount()
+	{
+		return lanes.size();
+	}
+
+	/**
+	 * Submits the given task to the lane of the given partition key.
+	 * Blocks if that lane is full, unless called from a dispatcher thread.
+	 */
+	public void submit(@Nullable final Object partitionKey, @NonNull final Runnable task)
+	{
+		getLane(partitionKey).submit(task);
+	}
+
+	private Lane getLane(@Nullable final Object partitionKey)
+	{
+		if (partitionKey == null || lanes.size() == 1)
+		{
+			return lanes.get(0);
+		}
+
+		// spread the hash bits like HashMap does, so that keys with similar hashes don't end up in the same lane
+		final int hash = partitionKey.hashCode();
+		final int spreadHash = hash ^ (hash >>> 16);
+		return lanes.get(Math.floorMod(spreadHash, lanes.size()));
+	}
+
+	/**
+	 * Stops accepting new tasks. The already submitted tasks are still dispatched.
+	 */
+	public void shutdown()
+	{
+		lanes.forEach(Lane::shutdown);
+	}
+
+	public Statistics getStatistics()
+	{
+		int queueSize = 0;
+		int maxLaneQueueSize = 0;
+		for (final Lane lane : lanes)
+		{
+			final int laneQueueSize = lane.getQueueSize();
+			queueSize += laneQueueSize;
+			maxLaneQueueSize = Math.max(maxLaneQueueSize, laneQueueSize);
+		}
+
+		final long dispatched = tasksDispatched.sum();
+
+		return Statistics.builder()
+				.topicName(topicName)
+				.lanes(lanes.size())
+				.queueCapacityPerLane(queueCapacity)
+				.queueSize(queueSize)
+				.maxLaneQueueSize(maxLaneQueueSize)
+				.tasksSubmitted(tasksSubmitted.sum())
+				.tasksDispatched(dispatched)
+				.tasksFailed(tasksFailed.sum())
+				.publisherWaits(publisherWaits.sum())
+				.publisherWaitMillis(TimeUnit.NANOSECONDS.toMillis(publisherWaitNanos.sum()))
+				.tasksOverCapacity(tasksOverCapacity.sum())
+				.avgQueueLatencyMillis(dispatched > 0 ? TimeUnit.NANOSECONDS.toMillis(queueLatencyNanos.sum() / dispatched) : 0)
+				.maxQueueLatencyMillis(TimeUnit.NANOSECONDS.toMillis(maxQueueLatencyNanos.get()))
+				.avgDispatchMillis(dispatched > 0 ? TimeUnit.NANOSECONDS.toMillis(dispatchNanos.sum() / dispatched) : 0)
+				.build();
+	}
+
+	public void resetStatistics()
+	{
+		tasksSubmitted.reset();
+		tasksDispatched.reset();
+		tasksFailed.reset();
+		publisherWaits.reset();
+		publisherWaitNanos.reset();
+		tasksOverCapacity.reset();
+		queueLatencyNanos.reset();
+		maxQueueLatencyNanos.reset();
+		dispatchNanos.reset();
+	}
+
+	@Value
+	@Builder
+	public static class Statistics
+	{
+		String topicName;
+		int lanes;
+		int queueCapacityPerLane;
+
+		int queueSize;
+		int maxLaneQueueSize;
+
+		long tasksSubmitted;
+		long tasksDispatched;
+		long tasksFailed;
+
+		/** how many times a publisher was blocked because its lane was full */
+		long publisherWaits;
+		long publisherWaitMillis;
+
+		/** how many tasks were queued although their lane was full, because they were submitted from a dispatcher thread */
+		long tasksOverCapacity;
+
+		/** time between submitting a task and starting to dispatch it */
+		long avgQueueLatencyMillis;
+		long maxQueueLatencyMillis;
+
+		long avgDispatchMillis;
+	}
+
+	private final class Lane
+	{
+		private final ThreadPoolExecutor executor;
+		private final Semaphore permits;
+
+		private Lane(final int index)
+		{
+			// the queue itself is unbounded; the permits are bounding it, but tasks from dispatcher threads may go beyond
+			this.executor = new ThreadPoolExecutor(
+					1, 1,
+					0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(),
+					CustomizableThreadFactory.builder()
+							.setThreadNamePrefix(EventBus.class.getName() + "-" + topicName + "-Lane" + index)
+							.setDaemon(true)
+							.build());
+			this.permits = new Semaphore(queueCapacity);
+		}
+
+		private int getQueueSize()
+		{
+			return executor.getQueue().size();
+		}
+
+		private void submit(final Runnable task)
+		{
+			final boolean permitAcquired = acquirePermit();
+			final long submittedNanos = System.nanoTime();
+			tasksSubmitted.increment();
+			try
+			{
+				executor.execute(() -> dispatch(task, submittedNanos, permitAcquired));
+			}
+			catch (final RejectedExecutionException ex)
+			{
+				tasksSubmitted.decrement();
+				if (permitAcquired)
+				{
+					permits.release();
+				}
+				logger.warn("Lane was shut down. Task was not dispatched: {}", task, ex);
+			}
+		}
+
+		/** @return true if a permit was acquired and needs to be released after dispatching */
+		private boolean acquirePermit()
+		{
+			if (permits.tryAcquire())
+			{
+				return true;
+			}
+			else if (dispatching.get() != null)
+			{
+				tasksOverCapacity.increment();
+				return false;
+			}
+
+			publisherWaits.increment();
+			final long startNanos = System.nanoTime();
+			try
+			{
+				permits.acquire();
+				return true;
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				logger.warn("Interrupted while waiting for free space in the dispatch queue of {}. Submitting anyways.", topicName);
+				return false;
+			}
+			finally
+			{
+				publisherWaitNanos.add(System.nanoTime() - startNanos);
+			}
+		}
+
+		private void dispatch(final Runnable task, final long submittedNanos, final boolean permitAcquired)
+		{
+			final long startNanos = System.nanoTime();
+			final long queueLatencyNanos = startNanos - submittedNanos;
+			PartitionedEventDispatcher.this.queueLatencyNanos.add(queueLatencyNanos);
+			maxQueueLatencyNanos.accumulate(queueLatencyNanos);
+
+			dispatching.set(Boolean.TRUE);
+			try
+			{
+				task.run();
+			}
+			catch (final Throwable ex)
+			{
+				tasksFailed.increment();
+				logger.error("Failed dispatching {} on topic {}", task, topicName, ex);
+			}
+			finally
+			{
+				dispatching.remove();
+				if (permitAcquired)
+				{
+					permits.release();
+				}
+				dispatchNanos.add(System.nanoTime() - startNanos);
+				tasksDispatched.increment();
+			}
+		}
+
+		private void shutdown()
+		{
+			executor.shutdown();
+		}
+	}
+}
@@ -3,18 +3,22 @@ package de.metas.event.jmx;
 import org.adempiere.util.jmx.IJMXNameAware;
 
 import de.metas.event.EventBusConstants;
+import de.metas.event.impl.EventBusFactory;
+import de.metas.event.impl.PartitionedEventDispatcher;
 import de.metas.event.remote.IEventBusRemoteEndpoint;
 
 public class JMXEventBusManager implements JMXEventBusManagerMBean, IJMXNameAware
 {
 	private final String jmxName;
 	private final IEventBusRemoteEndpoint remoteEndpoint;
+	private final EventBusFactory eventBusFactory;
 
-	public JMXEventBusManager(final IEventBusRemoteEndpoint remoteEndpoint)
+	public JMXEventBusManager(final IEventBusRemoteEndpoint remoteEndpoint, final EventBusFactory eventBusFactory)
 	{
 		super();
 		this.jmxName = EventBusConstants.JMX_BASE_NAME + ":type=EventBusManager";
 		this.remoteEndpoint = remoteEndpoint;
+		this.eventBusFactory = eventBusFactory;
 	}
 
 	@Override
@@ -46,4 +50,37 @@ public class JMXEventBusManager implements JMXEventBusManagerMBean, IJMXNameAwar
 	{
 		return EventBusConstants.getSenderId();
 	}
+
+	@Override
+	public String[] getDispatchStatistics()
+	{
+		return eventBusFactory.getDispatchStatistics()
+				.stream()
+				.map(String::valueOf)
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public int getDispatchQueueSize()
+	{
+		return eventBusFactory.getDispatchStatistics()
+				.stream()
+				.mapToInt(PartitionedEventDispatcher.Statistics::getQueueSize)
+				.sum();
+	}
+
+	@Override
+	public long getDispatchTasksOverCapacity()
+	{
+		return eventBusFactory.getDispatchStatistics()
+				.stream()
+				.mapToLong(PartitionedEventDispatcher.Statistics::getTasksOverCapacity)
+				.sum();
+	}
+
+	@Override
+	public void resetDispatchStatistics()
+	{
+		eventBusFactory.resetDispatchStatistics();
+	}
 }
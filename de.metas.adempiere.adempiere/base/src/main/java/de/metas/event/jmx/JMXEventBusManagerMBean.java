@@ -40,4 +40,15 @@ public interface JMXEventBusManagerMBean
 	boolean isRemoteEndpointConnected();
 
 	String getSenderId();
+
+	/** @return per topic: lanes, queue size, back-pressure waits and queue latency of the asynchronous event dispatching */
+	String[] getDispatchStatistics();
+
+	/** @return how many events are waiting to be dispatched, over all topics */
+	int getDispatchQueueSize();
+
+	/** @return how many events were queued beyond the queue capacity, because a dispatcher thread posted them; over all topics */
+	long getDispatchTasksOverCapacity();
+
+	void resetDispatchStatistics();
 }
@@ -0,0 +1,430 @@
+package de.metas.event.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.log.EventLogService.EventToLog;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Writes event logs and event log entries in batches, from a background thread.
+ * <p>
+ * Both are put into the same bounded queue, so they are written in the order they were enqueued. Within a batch, the event logs are written before the entries.
+ * That way, an entry's event log is always written before or together with the entry, as long as both are written by this JVM.
+ * Event logs of remote events are therefore not written by this writer (see {@link EventLogService#saveEvent(de.metas.event.Event, de.metas.event.IEventBus)}).
+ * <p>
+ * If the queue is full, the producer waits at most {@code enqueueTimeoutMillis}; after that, it flushes the queue and writes its items itself, in its own thread.
+ * <p>
+ * If a batch can't be written, its items are written one by one; only the items which fail on their own are lost (and logged).
+ * <p>
+ * On JVM shutdown the queue is drained and all pending items are written.
+ */
+final class AsyncEventLogWriter
+{
+	private static final Logger logger = LogManager.getLogger(AsyncEventLogWriter.class);
+
+	static final String SYSTEM_PROPERTY_QueueCapacity = "de.metas.event.log.async.queueCapacity";
+	static final String SYSTEM_PROPERTY_BatchSize = "de.metas.event.log.async.batchSize";
+	static final String SYSTEM_PROPERTY_EnqueueTimeoutMillis = "de.metas.event.log.async.enqueueTimeoutMillis";
+
+	private static final int DEFAULT_QueueCapacity = 20000;
+	private static final int DEFAULT_BatchSize = 500;
+	private static final int DEFAULT_EnqueueTimeoutMillis = 500;
+
+	private static final long POLL_TIMEOUT_MILLIS = 1000;
+
+	@FunctionalInterface
+	interface Sink
+	{
+		void write(List<EventToLog> events, List<EventLogEntry> entries);
+	}
+
+	public static AsyncEventLogWriter newInstanceFromSystemProperties(@NonNull final Sink sink)
+	{
+		return new AsyncEventLogWriter(
+				sink,
+				Integer.getInteger(SYSTEM_PROPERTY_QueueCapacity, DEFAULT_QueueCapacity),
+				Integer.getInteger(SYSTEM_PROPERTY_BatchSize, DEFAULT_BatchSize),
+				Integer.getInteger(SYSTEM_PROPERTY_EnqueueTimeoutMillis, DEFAULT_EnqueueTimeoutMillis));
+	}
+
+	private final Sink sink;
+	private final int queueCapacity;
+	private final int batchSize;
+	private final long enqueueTimeoutMillis;
+
+	private final BlockingQueue<QueuedItem> queue;
+	/** Makes sure that the writer thread and {@link #flush()} don't write concurrently, so the items are written in the order they were enqueued */
+	private final ReentrantLock writeLock = new ReentrantLock(true); // fair, so that flush() doesn't starve
+
+	private Thread _writerThread; // lazy
+	private volatile boolean shutdown = false;
+
+	private final AtomicLong itemsEnqueued = new AtomicLong();
+	private final AtomicLong itemsWritten = new AtomicLong();
+	private final AtomicLong itemsWrittenSynchronously = new AtomicLong();
+	private final AtomicLong itemsFailed = new AtomicLong();
+	private final AtomicLong batchesWritten = new AtomicLong();
+	private volatile long lastBatchLagMillis = 0;
+
+	AsyncEventLogWriter(
+			@NonNull final Sink sink,
+			final int queueCapacity,
+			final int batchSize,
+			final long enqueueTimeoutMillis)
+	{
+		this.sink = sink;
+		this.queueCapacity = queueCapacity > 0 ? queueCapacity : DEFAULT_QueueCapacity;
+		this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BatchSize;
+		this.enqueueTimeoutMillis = Math.max(enqueueTimeoutMillis, 0);
+		this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("queueCapacity", queueCapacity)
+				.add("batchSize", batchSize)
+				.add("enqueueTimeoutMillis", enqueueTimeoutMillis)
+				.add("queueSize", queue.size())
+				.add("shutdown", shutdown)
+				.toString();
+	}
+
+	public void enqueueEvent(@NonNull final EventToLog event)
+	{
+		enqueue(ImmutableList.of(QueuedItem.ofEvent(event, System.currentTimeMillis())));
+	}
+
+	public void enqueueEntries(@NonNull final List<EventLogEntry> entries)
+	{
+		final long enqueuedMillis = System.currentTimeMillis();
+		enqueue(entries.stream()
+				.map(entry -> QueuedItem.ofEntry(entry, enqueuedMillis))
+				.collect(ImmutableList.toImmutableList()));
+	}
+
+	/**
+	 * Enqueues the given items. If they can't be enqueued (queue full, writer shut down), the queue is flushed and the remaining items are written right away, in the current thread.
+	 */
+	private void enqueue(@NonNull final List<QueuedItem> items)
+	{
+		if (items.isEmpty())
+		{
+			return;
+		}
+
+		if (shutdown)
+		{
+			writeSynchronously(items);
+			return;
+		}
+
+		startWriterIfNeeded();
+
+		for (int i = 0; i < items.size(); i++)
+		{
+			if (offer(items.get(i)))
+			{
+				itemsEnqueued.incrementAndGet();
+				continue;
+			}
+
+			final List<QueuedItem> notEnqueued = items.subList(i, items.size());
+			logger.debug("Event log queue is full; writing {} items synchronously", notEnqueued.size());
+			writeSynchronously(notEnqueued);
+			break;
+		}
+	}
+
+	private boolean offer(final QueuedItem item)
+	{
+		try
+		{
+			return queue.offer(item, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void writeSynchronously(final List<QueuedItem> items)
+	{
+		writeLock.lock();
+		try
+		{
+			// write the queued items first, because our entries might belong to queued event logs
+			flush();
+
+			itemsWrittenSynchronously.addAndGet(writeNoFail(items));
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+	}
+
+	private synchronized void startWriterIfNeeded()
+	{
+		if (_writerThread != null)
+		{
+			return;
+		}
+
+		final Thread writerThread = new Thread(this::writerLoop, AsyncEventLogWriter.class.getSimpleName());
+		writerThread.setDaemon(true);
+		writerThread.start();
+		_writerThread = writerThread;
+
+		Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, AsyncEventLogWriter.class.getSimpleName() + "-shutdown"));
+
+		logger.info("Started {}", this);
+	}
+
+	private void writerLoop()
+	{
+		while (!shutdown)
+		{
+			writeLock.lock();
+			try
+			{
+				// poll while holding the lock, else flush() could write younger items before the one we just took
+				final QueuedItem first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null)
+				{
+					continue;
+				}
+
+				final List<QueuedItem> batch = new ArrayList<>(batchSize);
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				writeBatch(batch);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+			catch (final Throwable ex)
+			{
+				// shall not happen, but we don't want to lose the writer thread
+				logger.warn("Got error while writing event logs. Continuing.", ex);
+			}
+			finally
+			{
+				writeLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes all queued items right away, in the current thread.
+	 */
+	public void flush()
+	{
+		writeLock.lock();
+		try
+		{
+			while (!queue.isEmpty())
+			{
+				final List<QueuedItem> batch = new ArrayList<>(batchSize);
+				queue.drainTo(batch, batchSize);
+				writeBatch(batch);
+			}
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Stops the writer thread and writes all pending items. Items enqueued after this call are written synchronously.
+	 */
+	public void shutdown()
+	{
+		shutdown = true;
+		flush();
+		logger.info("Shut down {}: {}", this, getStatistics());
+	}
+
+	private void writeBatch(final List<QueuedItem> batch)
+	{
+		if (batch.isEmpty())
+		{
+			return;
+		}
+
+		lastBatchLagMillis = System.currentTimeMillis() - batch.get(0).getEnqueuedMillis();
+
+		itemsWritten.addAndGet(writeNoFail(batch));
+		batchesWritten.incrementAndGet();
+	}
+
+	/**
+	 * Writes the event logs and then the entries, each in one go.
+	 * If that fails, they are written one by one, so that one bad item doesn't take the others with it.
+	 *
+	 * @return how many items were written
+	 */
+	private int writeNoFail(final List<QueuedItem> items)
+	{
+		final List<EventToLog> events = new ArrayList<>();
+		final List<EventLogEntry> entries = new ArrayList<>();
+		for (final QueuedItem item : items)
+		{
+			if (item.getEvent() != null)
+			{
+				events.add(item.getEvent());
+			}
+			else
+			{
+				entries.add(item.getEntry());
+			}
+		}
+
+		// the event logs first, because the entries need them
+		return writeNoFail(events, event -> sink.write(ImmutableList.of(event), ImmutableList.of()), batch -> sink.write(batch, ImmutableList.of()))
+				+ writeNoFail(entries, entry -> sink.write(ImmutableList.of(), ImmutableList.of(entry)), batch -> sink.write(ImmutableList.of(), batch));
+	}
+
+	private <T> int writeNoFail(
+			final List<T> items,
+			final Consumer<T> singleWriter,
+			final Consumer<List<T>> batchWriter)
+	{
+		if (items.isEmpty())
+		{
+			return 0;
+		}
+
+		try
+		{
+			batchWriter.accept(items);
+			return items.size();
+		}
+		catch (final Exception ex)
+		{
+			if (items.size() == 1)
+			{
+				itemsFailed.incrementAndGet();
+				logger.error("Failed writing {}", items.get(0), ex);
+				return 0;
+			}
+
+			logger.warn("Failed writing {} items in one go; writing them one by one", items.size(), ex);
+		}
+
+		int written = 0;
+		for (final T item : items)
+		{
+			try
+			{
+				singleWriter.accept(item);
+				written++;
+			}
+			catch (final Exception ex)
+			{
+				itemsFailed.incrementAndGet();
+				logger.error("Failed writing {}", item, ex);
+			}
+		}
+		return written;
+	}
+
+	public Statistics getStatistics()
+	{
+		final QueuedItem oldest = queue.peek();
+		final long currentLagMillis = oldest != null ? Math.max(System.currentTimeMillis() - oldest.getEnqueuedMillis(), 0) : 0;
+
+		return Statistics.builder()
+				.queueSize(queue.size())
+				.queueCapacity(queueCapacity)
+				.currentLagMillis(currentLagMillis)
+				.lastBatchLagMillis(lastBatchLagMillis)
+				.itemsEnqueued(itemsEnqueued.get())
+				.itemsWritten(itemsWritten.get())
+				.itemsWrittenSynchronously(itemsWrittenSynchronously.get())
+				.itemsFailed(itemsFailed.get())
+				.batchesWritten(batchesWritten.get())
+				.build();
+	}
+
+	@Value
+	@Builder
+	public static class Statistics
+	{
+		int queueSize;
+		int queueCapacity;
+		long currentLagMillis;
+		long lastBatchLagMillis;
+
+		long itemsEnqueued;
+		long itemsWritten;
+		long itemsWrittenSynchronously;
+		long itemsFailed;
+		long batchesWritten;
+	}
+
+	/** Either an event log or an event log entry */
+	@Value
+	private static class QueuedItem
+	{
+		static QueuedItem ofEvent(@NonNull final EventToLog event, final long enqueuedMillis)
+		{
+			return new QueuedItem(event, null, enqueuedMillis);
+		}
+
+		static QueuedItem ofEntry(@NonNull final EventLogEntry entry, final long enqueuedMillis)
+		{
+			return new QueuedItem(null, entry, enqueuedMillis);
+		}
+
+		@Nullable
+		EventToLog event;
+		@Nullable
+		EventLogEntry entry;
+		long enqueuedMillis;
+	}
+}
@@ -3,18 +3,23 @@ package de.metas.event.log;
 import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwaresOutOfTrx;
 import static org.adempiere.model.InterfaceWrapperHelper.loadOutOfTrx;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstanceOutOfTrx;
-import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.adempiere.model.InterfaceWrapperHelper.saveAllNewInBatch;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.adempiere.model.InterfaceWrapperHelper.setValue;
 
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +31,7 @@ import de.metas.cache.CCache;
 import de.metas.error.AdIssueId;
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
+import de.metas.event.Type;
 import de.metas.event.model.I_AD_EventLog;
 import de.metas.event.model.I_AD_EventLog_Entry;
 import de.metas.event.remote.JacksonJsonEventSerializer;
@@ -33,7 +39,9 @@ import de.metas.logging.LogManager;
 import de.metas.util.GuavaCollectors;
 import de.metas.util.NumberUtils;
 import de.metas.util.Services;
+import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -62,6 +70,27 @@ public class EventLogService
 {
 	private static final Logger logger = LogManager.getLogger(EventLogService.class);
 
+	static final String SYSCONFIG_Durability = "de.metas.event.log.EventLogService.Durability";
+	static final String SYSCONFIG_SamplingPercent = "de.metas.event.log.EventLogService.SamplingPercent";
+	private static final int DEFAULT_SamplingPercent = 10;
+
+	public enum Durability
+	{
+		/** event logs and entries are written right away, in the calling thread */
+		SYNC,
+
+		/**
+		 * event logs and entries are written in batches, from a background thread; pending ones are lost if the JVM crashes.
+		 * The event logs of remote events are still written right away, because they can be handled on other machines.
+		 */
+		ASYNC,
+
+		/** like {@link #ASYNC}, but only a sample of the events is logged; see {@link #shallLogEvent(Event)} */
+		SAMPLED;
+	}
+
+	private AsyncEventLogWriter _asyncWriter; // lazy
+
 	private final CCache<UUID, EventLogId> uuid2eventLogId = CCache.newLRUCache(
 			I_AD_EventLog.Table_Name + "#by#" + I_AD_EventLog.COLUMNNAME_Event_UUID,
 			500,
@@ -76,6 +105,8 @@ public class EventLogService
 			@NonNull final EventLogId eventLogId,
 			@NonNull final List<String> handlersToIgnore)
 	{
+		flush(); // make sure all entries of our event log are written
+
 		final I_AD_EventLog eventLogRecord = loadOutOfTrx(eventLogId, I_AD_EventLog.class);
 
 		final String eventString = eventLogRecord.getEventData();
@@ -99,20 +130,91 @@ public class EventLogService
 				.build();
 	}
 
+	private Durability getDurability()
+	{
+		final String durabilityStr = Services.get(ISysConfigBL.class).getValue(SYSCONFIG_Durability, Durability.SYNC.name());
+		try
+		{
+			return Durability.valueOf(durabilityStr.trim().toUpperCase());
+		}
+		catch (final IllegalArgumentException ex)
+		{
+			logger.warn("Invalid {}={}. Using {}", SYSCONFIG_Durability, durabilityStr, Durability.SYNC);
+			return Durability.SYNC;
+		}
+	}
+
+	/**
+	 * @return false if the durability is {@link Durability#SAMPLED} and the given event was not sampled, i.e. it shall not be logged.
+	 *         The decision is based on the event's UUID, so it's the same each time it's asked for the same event.
+	 */
+	public boolean shallLogEvent(@NonNull final Event event)
+	{
+		if (getDurability() != Durability.SAMPLED)
+		{
+			return true;
+		}
+
+		final int samplingPercent = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_SamplingPercent, DEFAULT_SamplingPercent);
+		return Math.floorMod(event.getUuid().hashCode(), 100) < samplingPercent;
+	}
+
+	private synchronized AsyncEventLogWriter getAsyncWriter()
+	{
+		if (_asyncWriter == null)
+		{
+			_asyncWriter = AsyncEventLogWriter.newInstanceFromSystemProperties(this::saveEventsAndEntries);
+		}
+		return _asyncWriter;
+	}
+
+	/**
+	 * Writes the pending event logs and entries, if any.
+	 */
+	public void flush()
+	{
+		final AsyncEventLogWriter asyncWriter;
+		synchronized (this)
+		{
+			asyncWriter = _asyncWriter;
+		}
+		if (asyncWriter != null)
+		{
+			asyncWriter.flush();
+		}
+	}
+
+	/**
+	 * @return the statistics of the background writer or null if event logs were never written asynchronously
+	 */
+	@Nullable
+	public synchronized AsyncEventLogWriter.Statistics getAsyncWriterStatistics()
+	{
+		return _asyncWriter != null ? _asyncWriter.getStatistics() : null;
+	}
+
 	public void saveEvent(
 			@NonNull final Event event,
 			@NonNull final IEventBus eventBus)
 	{
-		final String eventString = JacksonJsonEventSerializer.instance.toString(event);
-
-		final I_AD_EventLog eventLogRecord = newInstanceOutOfTrx(I_AD_EventLog.class);
-		eventLogRecord.setEvent_UUID(event.getUuid().toString());
-		eventLogRecord.setEventTime(Timestamp.from(event.getWhen()));
-		eventLogRecord.setEventData(eventString);
-		eventLogRecord.setEventTopicName(eventBus.getTopicName());
-		eventLogRecord.setEventTypeName(eventBus.getType().toString());
+		final EventToLog eventToLog = EventToLog.builder()
+				.uuid(event.getUuid())
+				.when(event.getWhen())
+				.eventData(JacksonJsonEventSerializer.instance.toString(event))
+				.topicName(eventBus.getTopicName())
+				.typeName(eventBus.getType().toString())
+				.build();
 
-		save(eventLogRecord);
+		// A remote event can be handled on another machine right away, and the handlers there will save their event log entries.
+		// Those entries need our event log record, so we can't leave it to the background writer.
+		if (getDurability() == Durability.SYNC || eventBus.getType() == Type.REMOTE)
+		{
+			saveEventsAndEntries(ImmutableList.of(eventToLog), ImmutableList.of());
+		}
+		else
+		{
+			getAsyncWriter().enqueueEvent(eventToLog);
+		}
 	}
 
 	public void saveEventLogEntries(@NonNull final Collection<EventLogEntry> eventLogEntries)
@@ -122,21 +224,73 @@ public class EventLogService
 			return;
 		}
 
+		if (getDurability() == Durability.SYNC)
+		{
+			saveEventsAndEntries(ImmutableList.of(), eventLogEntries);
+		}
+		else
+		{
+			getAsyncWriter().enqueueEntries(ImmutableList.copyOf(eventLogEntries));
+		}
+	}
+
+	private void saveEventsAndEntries(
+			@NonNull final Collection<EventToLog> events,
+			@NonNull final Collection<EventLogEntry> eventLogEntries)
+	{
+		if (!events.isEmpty())
+		{
+			saveEventLogs(events);
+		}
+
+		if (eventLogEntries.isEmpty())
+		{
+			return;
+		}
+
 		//
 		// warn up UUID->EventLogId cache
 		final ImmutableSet<UUID> uuids = eventLogEntries.stream().map(EventLogEntry::getUuid).collect(ImmutableSet.toImmutableSet());
 		getEventLogIdsUsingCacheOutOfTrx(uuids);
 
 		//
-		// Save each entry
-		eventLogEntries.forEach(this::saveEventLogEntry);
+		// Save the entries
+		final List<I_AD_EventLog_Entry> eventLogEntryRecords = new ArrayList<>(eventLogEntries.size());
+		for (final EventLogEntry eventLogEntry : eventLogEntries)
+		{
+			eventLogEntryRecords.add(createEventLogEntryRecord(eventLogEntry));
+		}
+		saveAllNewInBatch(eventLogEntryRecords);
 
 		//
 		// Update EventLog's error flag from entries
 		updateUpdateEventLogErrorFlagFromEntries(eventLogEntries);
 	}
 
-	private void saveEventLogEntry(@NonNull final EventLogEntry eventLogEntry)
+	private void saveEventLogs(@NonNull final Collection<EventToLog> events)
+	{
+		final List<I_AD_EventLog> eventLogRecords = new ArrayList<>(events.size());
+		for (final EventToLog event : events)
+		{
+			final I_AD_EventLog eventLogRecord = newInstanceOutOfTrx(I_AD_EventLog.class);
+			eventLogRecord.setEvent_UUID(event.getUuid().toString());
+			eventLogRecord.setEventTime(Timestamp.from(event.getWhen()));
+			eventLogRecord.setEventData(event.getEventData());
+			eventLogRecord.setEventTopicName(event.getTopicName());
+			eventLogRecord.setEventTypeName(event.getTypeName());
+			eventLogRecords.add(eventLogRecord);
+		}
+
+		saveAllNewInBatch(eventLogRecords);
+
+		// the entries will need the IDs, so we can spare the lookup
+		for (final I_AD_EventLog eventLogRecord : eventLogRecords)
+		{
+			uuid2eventLogId.put(UUID.fromString(eventLogRecord.getEvent_UUID()), EventLogId.ofRepoId(eventLogRecord.getAD_EventLog_ID()));
+		}
+	}
+
+	private I_AD_EventLog_Entry createEventLogEntryRecord(@NonNull final EventLogEntry eventLogEntry)
 	{
 		final EventLogId eventLogId = getEventLogIdUsingCacheOutOfTrx(eventLogEntry.getUuid());
 
@@ -151,7 +305,7 @@ public class EventLogService
 		eventLogEntryRecord.setProcessed(eventLogEntry.isProcessed());
 		eventLogEntryRecord.setMsgText(eventLogEntry.getMessage());
 		eventLogEntryRecord.setClassname(eventLogEntry.getEventHandlerClassName());
-		saveRecord(eventLogEntryRecord);
+		return eventLogEntryRecord;
 	}
 
 	private void updateUpdateEventLogErrorFlagFromEntries(final Collection<EventLogEntry> eventLogEntries)
@@ -231,4 +385,18 @@ public class EventLogService
 				})
 				.collect(GuavaCollectors.toImmutableMap());
 	}
+
+	@Value
+	@Builder
+	static class EventToLog
+	{
+		@NonNull
+		UUID uuid;
+		@NonNull
+		Instant when;
+		@NonNull
+		String eventData;
+		String topicName;
+		String typeName;
+	}
 }
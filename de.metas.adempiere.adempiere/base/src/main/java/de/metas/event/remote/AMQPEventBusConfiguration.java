@@ -112,7 +112,7 @@ public class AMQPEventBusConfiguration
 		return connectionFactory -> appName;
 	}
 
-	@Bean
+	@Bean(destroyMethod = "shutdown")
 	public RabbitMQEventBusRemoteEndpoint eventBusRemoteEndpoint(@NonNull final AmqpTemplate amqpTemplate)
 	{
 		return new RabbitMQEventBusRemoteEndpoint(amqpTemplate);
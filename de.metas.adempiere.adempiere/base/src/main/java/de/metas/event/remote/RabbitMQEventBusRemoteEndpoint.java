@@ -1,13 +1,17 @@
 package de.metas.event.remote;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+
+import com.google.common.collect.ImmutableList;
 
 import de.metas.event.Event;
 import de.metas.event.EventBusConstants;
@@ -49,31 +53,77 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 
 	private static final String HEADER_SenderId = "metasfresh-events.SenderId";
 	private static final String HEADER_TopicName = "metasfresh-events.TopicName";
+	private static final String HEADER_EventsCount = "metasfresh-events.EventsCount";
 
 	private final String senderId;
 	private final AmqpTemplate amqpTemplate;
 
 	private final IEventListener eventBus2amqpListener = EventBus2RemoteEndpointHandler.newInstance(this);
 
+	/**
+	 * If batching is enabled, the events are sent in batches per topic, encoded with {@link SmileEventBatchSerializer}.
+	 * Else each event is sent as its own JSON message, like before.
+	 * <p>
+	 * Note: all the receivers need to know about batches before it's enabled.
+	 */
+	private final RemoteEventsBatcher batcher = RemoteEventsBatcher.newInstanceFromSystemProperties(this::sendBatchNow);
+
 	public RabbitMQEventBusRemoteEndpoint(@NonNull final AmqpTemplate amqpTemplate)
 	{
 		senderId = EventBusConstants.getSenderId();
 		this.amqpTemplate = amqpTemplate;
 	}
 
+	/**
+	 * Receives both the single JSON events and the batches of events.
+	 */
 	@RabbitListener(queues = AMQPEventBusConfiguration.EVENTS_QUEUE_NAME_SPEL)
-	public void onRemoteEvent(
-			@Payload final Event event,
-			@Header(HEADER_SenderId) final String senderId,
-			@Header(HEADER_TopicName) final String topicName)
+	public void onRemoteMessage(@NonNull final Message message)
 	{
+		final MessageProperties messageProperties = message.getMessageProperties();
+		final Map<String, Object> headers = messageProperties.getHeaders();
+		final String senderId = (String)headers.get(HEADER_SenderId);
+		final String topicName = (String)headers.get(HEADER_TopicName);
+		if (Objects.equals(getSenderId(), senderId))
+		{
+			return;
+		}
+
+		final List<Event> events;
 		try
 		{
-			if (Objects.equals(getSenderId(), senderId))
-			{
-				return;
-			}
+			events = extractEvents(message);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed extracting the events from message for topic {}: {}", topicName, message, ex);
+			return;
+		}
+
+		for (final Event event : events)
+		{
+			onRemoteEvent(event, topicName);
+		}
+	}
+
+	private static List<Event> extractEvents(final Message message)
+	{
+		final byte[] body = message.getBody();
+		if (SmileEventBatchSerializer.CONTENT_TYPE.equals(message.getMessageProperties().getContentType()))
+		{
+			return SmileEventBatchSerializer.instance.fromBytes(body);
+		}
+		else
+		{
+			final Event event = JacksonJsonEventSerializer.instance.fromString(new String(body, StandardCharsets.UTF_8));
+			return ImmutableList.of(event);
+		}
+	}
 
+	private void onRemoteEvent(final Event event, final String topicName)
+	{
+		try
+		{
 			final Topic topic = Topic.of(topicName, Type.REMOTE);
 			final IEventBus eventBus = Services.get(IEventBusFactory.class).getEventBusIfExists(topic);
 			if (eventBus == null)
@@ -106,6 +156,12 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 				return;
 			}
 
+			if (batcher.isBatching())
+			{
+				batcher.add(topicName, event);
+				return;
+			}
+
 			amqpTemplate.convertAndSend(AMQPEventBusConfiguration.EVENTS_EXCHANGE_NAME, "", event, message -> {
 				final Map<String, Object> headers = message.getMessageProperties().getHeaders();
 				headers.put(HEADER_SenderId, getSenderId());
@@ -121,6 +177,45 @@ public class RabbitMQEventBusRemoteEndpoint implements IEventBusRemoteEndpoint
 		}
 	}
 
+	/**
+	 * @return the size of the sent message body
+	 */
+	private int sendBatchNow(final String topicName, final List<Event> events)
+	{
+		final MessageProperties messageProperties = new MessageProperties();
+		messageProperties.setContentType(SmileEventBatchSerializer.CONTENT_TYPE);
+		messageProperties.setHeader(HEADER_SenderId, getSenderId());
+		messageProperties.setHeader(HEADER_TopicName, topicName);
+		messageProperties.setHeader(HEADER_EventsCount, events.size());
+
+		final byte[] body = SmileEventBatchSerializer.instance.toBytes(events);
+		amqpTemplate.send(AMQPEventBusConfiguration.EVENTS_EXCHANGE_NAME, "", new Message(body, messageProperties));
+
+		logger.debug("Sent {} events in {} bytes; topicName={}", events.size(), body.length, topicName);
+		return body.length;
+	}
+
+	/**
+	 * Sends the pending batched events without waiting for the batching window to end.
+	 */
+	public void flushPendingEvents()
+	{
+		batcher.flush();
+	}
+
+	/**
+	 * Sends the pending batched events, so that they are not lost when the application stops.
+	 */
+	public void shutdown()
+	{
+		batcher.shutdown();
+	}
+
+	public RemoteEventsBatcher.Statistics getBatchingStatistics()
+	{
+		return batcher.getStatistics();
+	}
+
 	private final String createEventBusId(final String topicName)
 	{
 		return getSenderId() + "_" + topicName;
@@ -0,0 +1,299 @@
+package de.metas.event.remote;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import de.metas.event.Event;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the events which shall be sent to the remote endpoint and sends them in batches, one batch per topic.
+ * <p>
+ * A topic's batch is sent when the time window which started with the first collected event is over, or when it has {@code maxEventsPerBatch} events.
+ * Within a topic, the events are sent in the order they were added; a topic's batches are sent one after the other,
+ * no matter if the flush thread or a producer which filled a batch sends them.
+ * <p>
+ * Call {@link #shutdown()} when the remote endpoint is closed, to send what is still pending.
+ * <p>
+ * If the window is zero or negative, each event is sent right away, on its own.
+ */
+public final class RemoteEventsBatcher
+{
+	private static final Logger logger = LogManager.getLogger(RemoteEventsBatcher.class);
+
+	static final String SYSTEM_PROPERTY_WindowMillis = "de.metas.event.remote.batch.windowMillis";
+	static final String SYSTEM_PROPERTY_MaxEventsPerBatch = "de.metas.event.remote.batch.maxEventsPerBatch";
+
+	/** batching is off by default, because receivers which don't know about batches would not understand them */
+	private static final int DEFAULT_WindowMillis = 0;
+	private static final int DEFAULT_MaxEventsPerBatch = 500;
+
+	@FunctionalInterface
+	interface Sender
+	{
+		/** @return the size of the sent payload, in bytes */
+		int send(String topicName, List<Event> events);
+	}
+
+	public static RemoteEventsBatcher newInstanceFromSystemProperties(@NonNull final Sender sender)
+	{
+		return new RemoteEventsBatcher(
+				sender,
+				Integer.getInteger(SYSTEM_PROPERTY_WindowMillis, DEFAULT_WindowMillis),
+				Integer.getInteger(SYSTEM_PROPERTY_MaxEventsPerBatch, DEFAULT_MaxEventsPerBatch));
+	}
+
+	private final Sender sender;
+	private final long windowMillis;
+	private final int maxEventsPerBatch;
+
+	private final Object lock = new Object();
+	private final LinkedHashMap<String, List<Event>> pendingByTopicName = new LinkedHashMap<>();
+	/** per topic; whoever holds it takes the topic's pending events and sends them, so the batches of a topic can't overtake each other */
+	private final ConcurrentHashMap<String, Object> sendLocksByTopicName = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+	private final AtomicBoolean shutdown = new AtomicBoolean(false);
+	private ScheduledExecutorService _executor; // lazy
+
+	private final AtomicLong eventsSent = new AtomicLong();
+	private final AtomicLong batchesSent = new AtomicLong();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong sendErrors = new AtomicLong();
+
+	RemoteEventsBatcher(
+			@NonNull final Sender sender,
+			final long windowMillis,
+			final int maxEventsPerBatch)
+	{
+		this.sender = sender;
+		this.windowMillis = windowMillis;
+		this.maxEventsPerBatch = maxEventsPerBatch > 0 ? maxEventsPerBatch : Integer.MAX_VALUE;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("windowMillis", windowMillis)
+				.add("maxEventsPerBatch", maxEventsPerBatch)
+				.toString();
+	}
+
+	public boolean isBatching()
+	{
+		return windowMillis > 0;
+	}
+
+	public void add(@NonNull final String topicName, @NonNull final Event event)
+	{
+		final boolean batchFull;
+		synchronized (lock)
+		{
+			final List<Event> pendingEvents = pendingByTopicName.computeIfAbsent(topicName, k -> new ArrayList<>());
+			pendingEvents.add(event);
+			batchFull = pendingEvents.size() >= maxEventsPerBatch;
+		}
+
+		if (batchFull)
+		{
+			// NOTE: we send it in the calling thread, which also slows down the producer if it's faster than the remote endpoint
+			sendPending(topicName);
+		}
+		else
+		{
+			scheduleFlush();
+		}
+	}
+
+	private void scheduleFlush()
+	{
+		if (shutdown.get())
+		{
+			flush();
+			return;
+		}
+		if (flushScheduled.getAndSet(true))
+		{
+			return;
+		}
+
+		try
+		{
+			getExecutor().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed scheduling the sending of pending events. Sending them now.", ex);
+			flush();
+		}
+	}
+
+	private synchronized ScheduledExecutorService getExecutor()
+	{
+		if (shutdown.get())
+		{
+			throw new IllegalStateException(this + " was shut down");
+		}
+		if (_executor == null)
+		{
+			_executor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(RemoteEventsBatcher.class.getSimpleName())
+					.setDaemon(true)
+					.build());
+		}
+		return _executor;
+	}
+
+	/**
+	 * Sends all pending events right away.
+	 */
+	public void flush()
+	{
+		final List<String> topicNames;
+		synchronized (lock)
+		{
+			// reset the flag first, so that events added from now on will schedule a new flush
+			flushScheduled.set(false);
+
+			topicNames = ImmutableList.copyOf(pendingByTopicName.keySet());
+		}
+
+		topicNames.forEach(this::sendPending);
+	}
+
+	/**
+	 * Sends all pending events and stops the flush thread.
+	 * Events which are added afterwards are sent right away.
+	 */
+	public void shutdown()
+	{
+		shutdown.set(true);
+
+		final ScheduledExecutorService executor;
+		synchronized (this)
+		{
+			executor = _executor;
+			_executor = null;
+		}
+		if (executor != null)
+		{
+			executor.shutdownNow();
+		}
+
+		flush();
+	}
+
+	/**
+	 * Takes the given topic's pending events and sends them, while holding the topic's send lock.
+	 * Taking them within the send lock makes sure that an earlier batch of the topic is sent before a later one.
+	 */
+	private void sendPending(final String topicName)
+	{
+		final Object sendLock = sendLocksByTopicName.computeIfAbsent(topicName, k -> new Object());
+		synchronized (sendLock)
+		{
+			final List<Event> events;
+			synchronized (lock)
+			{
+				events = pendingByTopicName.remove(topicName);
+			}
+			if (events == null)
+			{
+				return; // already sent by someone else
+			}
+
+			// more than maxEventsPerBatch were added while we were waiting for the send lock
+			for (final List<Event> batch : Lists.partition(events, maxEventsPerBatch))
+			{
+				sendNoFail(topicName, batch);
+			}
+		}
+	}
+
+	private void sendNoFail(final String topicName, final List<Event> events)
+	{
+		if (events.isEmpty())
+		{
+			return;
+		}
+
+		try
+		{
+			final int payloadSize = sender.send(topicName, events);
+
+			batchesSent.incrementAndGet();
+			eventsSent.addAndGet(events.size());
+			bytesSent.addAndGet(payloadSize);
+		}
+		catch (final Exception ex)
+		{
+			sendErrors.incrementAndGet();
+			logger.warn("Failed sending {} events to topic {}. Ignored.", events.size(), topicName, ex);
+		}
+	}
+
+	public Statistics getStatistics()
+	{
+		return Statistics.builder()
+				.eventsSent(eventsSent.get())
+				.batchesSent(batchesSent.get())
+				.bytesSent(bytesSent.get())
+				.sendErrors(sendErrors.get())
+				.build();
+	}
+
+	@Value
+	@Builder
+	public static class Statistics
+	{
+		long eventsSent;
+		long batchesSent;
+		long bytesSent;
+		long sendErrors;
+
+		public long getBytesPerEvent()
+		{
+			return eventsSent > 0 ? bytesSent / eventsSent : 0;
+		}
+	}
+}
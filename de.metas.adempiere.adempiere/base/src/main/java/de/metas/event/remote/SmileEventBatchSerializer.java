@@ -0,0 +1,100 @@
+package de.metas.event.remote;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import de.metas.event.Event;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Serializes a list of {@link Event}s to the binary Smile format (binary JSON).
+ * <p>
+ * Property names and short string values which repeat within the batch are written only once and then referenced,
+ * so the more events of the same kind a batch has, the smaller the events get.
+ */
+public final class SmileEventBatchSerializer
+{
+	public static final SmileEventBatchSerializer instance = new SmileEventBatchSerializer();
+
+	public static final String CONTENT_TYPE = "application/x-jackson-smile";
+
+	private static final TypeReference<List<Event>> TYPE_EventsList = new TypeReference<List<Event>>()
+	{
+	};
+
+	private final ObjectWriter writer;
+	private final ObjectReader reader;
+
+	private SmileEventBatchSerializer()
+	{
+		final SmileFactory smileFactory = new SmileFactory()
+				.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+				.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+
+		// same as JsonObjectMapperHolder.newJsonObjectMapper(), but we keep the dates as timestamps because they are smaller
+		final ObjectMapper smileObjectMapper = new ObjectMapper(smileFactory)
+				.findAndRegisterModules()
+				.disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
+				.enable(MapperFeature.USE_ANNOTATIONS);
+
+		writer = smileObjectMapper.writerFor(TYPE_EventsList);
+		reader = smileObjectMapper.readerFor(TYPE_EventsList);
+	}
+
+	public byte[] toBytes(@NonNull final List<Event> events)
+	{
+		try
+		{
+			return writer.writeValueAsBytes(events);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting " + events.size() + " events to smile", ex);
+		}
+	}
+
+	public List<Event> fromBytes(@NonNull final byte[] bytes)
+	{
+		try
+		{
+			return reader.readValue(bytes);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting " + bytes.length + " bytes of smile to events", ex);
+		}
+	}
+}
@@ -3,14 +3,24 @@
  */
 package de.metas.impexp.parser;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Streams;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.io.LineProcessor;
@@ -75,6 +85,22 @@ final class FileImportReader
 		private boolean closedQuote = false;
 		private boolean quoteOpenRightNow = false;
 		private final List<String> loadedDataLines = new ArrayList<>();
+		private final Consumer<String> loadedDataLinesConsumer;
+
+		/** The last loaded line, which is not passed on yet because the following lines might still be appended to it. */
+		private String pendingLine = null;
+
+		/** Collects the loaded lines into the {@link #getResult()} list */
+		MultiLineProcessor()
+		{
+			this.loadedDataLinesConsumer = loadedDataLines::add;
+		}
+
+		/** Passes on each line to the given consumer, as soon as we know that nothing else will be appended to it */
+		MultiLineProcessor(@NonNull final Consumer<String> loadedDataLinesConsumer)
+		{
+			this.loadedDataLinesConsumer = loadedDataLinesConsumer;
+		}
 
 		@Override
 		public boolean processLine(final String line) throws IOException
@@ -95,13 +121,14 @@ final class FileImportReader
 			}
 			//
 			// if open quote , add this line to the previous
-			if (openQuote && !quoteOpenRightNow && !loadedDataLines.isEmpty() && Check.isNotBlank(loadedDataLines.get(loadedDataLines.size() - 1)))
+			if (openQuote && !quoteOpenRightNow && pendingLine != null && Check.isNotBlank(pendingLine))
 			{
 				addLine(line);
 			}
 			else
 			{
-				loadedDataLines.add(line);
+				flushPendingLine();
+				pendingLine = line;
 				quoteOpenRightNow = false;
 			}
 
@@ -124,8 +151,7 @@ final class FileImportReader
 		private void addLine(@NonNull final String line)
 		{
 			final StringBuilder previousLine = new StringBuilder();
-			final int index = loadedDataLines.size() - 1;
-			previousLine.append(loadedDataLines.get(index));
+			previousLine.append(pendingLine);
 			// append the new line, because the char exists
 			if (Check.isNotBlank(previousLine.toString()))
 			{
@@ -133,14 +159,24 @@ final class FileImportReader
 			}
 			previousLine.append(line);
 			//
-			// now remove the line and add the new line
-			loadedDataLines.remove(index);
-			loadedDataLines.add(previousLine.toString());
+			// now replace the pending line
+			pendingLine = previousLine.toString();
+		}
+
+		/** Passes on the last loaded line, if any. To be called when there are no more lines. */
+		public void flushPendingLine()
+		{
+			if (pendingLine != null)
+			{
+				loadedDataLinesConsumer.accept(pendingLine);
+				pendingLine = null;
+			}
 		}
 
 		@Override
 		public List<String> getResult()
 		{
+			flushPendingLine();
 			return loadedDataLines;
 		}
 	}
@@ -183,6 +219,73 @@ final class FileImportReader
 		return ByteSource.wrap(data).asCharSource(charset).readLines(new SingleLineProcessor());
 	}
 
+	/**
+	 * Same as {@link #readMultiLines(byte[], Charset)} but the lines are read lazily, while the returned stream is consumed.
+	 * <p>
+	 * IMPORTANT: the caller is responsible for closing the stream, which also closes the given input stream.
+	 */
+	public Stream<String> streamMultiLines(@NonNull final InputStream in, @NonNull final Charset charset)
+	{
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
+		final Iterator<String> sourceLines = reader.lines().iterator();
+
+		final ArrayDeque<String> loadedLines = new ArrayDeque<>();
+		final MultiLineProcessor processor = new MultiLineProcessor(loadedLines::add);
+
+		final Iterator<String> loadedLinesIterator = new AbstractIterator<String>()
+		{
+			@Override
+			protected String computeNext()
+			{
+				while (loadedLines.isEmpty() && sourceLines.hasNext())
+				{
+					try
+					{
+						processor.processLine(sourceLines.next());
+					}
+					catch (final IOException ex)
+					{
+						throw new UncheckedIOException(ex);
+					}
+				}
+
+				if (loadedLines.isEmpty())
+				{
+					processor.flushPendingLine();
+				}
+
+				return !loadedLines.isEmpty() ? loadedLines.poll() : endOfData();
+			}
+		};
+
+		return Streams.stream(loadedLinesIterator)
+				.onClose(() -> closeNoFail(reader));
+	}
+
+	/**
+	 * Same as {@link #readRegularLines(byte[], Charset)} but the lines are read lazily, while the returned stream is consumed.
+	 * <p>
+	 * IMPORTANT: the caller is responsible for closing the stream, which also closes the given input stream.
+	 */
+	public Stream<String> streamRegularLines(@NonNull final InputStream in, @NonNull final Charset charset)
+	{
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
+		return reader.lines()
+				.onClose(() -> closeNoFail(reader));
+	}
+
+	private void closeNoFail(final BufferedReader reader)
+	{
+		try
+		{
+			reader.close();
+		}
+		catch (final IOException ex)
+		{
+			// nothing to do
+		}
+	}
+
 	/**
 	 * Build the preview from the loaded lines
 	 *
@@ -1,13 +1,13 @@
 package de.metas.impexp.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.adempiere.exceptions.AdempiereException;
-import org.compiere.util.Util;
 import org.springframework.core.io.Resource;
 
 import lombok.Builder;
@@ -53,6 +53,11 @@ public final class ImpDataParser
 		this.lineParser = lineParser;
 	}
 
+	/**
+	 * Parses the given resource lazily, i.e. the lines are read while the returned stream is consumed.
+	 * <p>
+	 * IMPORTANT: the caller is responsible for closing the returned stream.
+	 */
 	public Stream<ImpDataLine> streamDataLines(final Resource resource)
 	{
 		final AtomicInteger nextLineNo = new AtomicInteger(1);
@@ -63,29 +68,22 @@ public final class ImpDataParser
 
 	private Stream<String> streamSourceLines(final Resource resource)
 	{
-		final byte[] data = toByteArray(resource);
-		try
+		final InputStream in = getInputStream(resource);
+		if (multiline)
 		{
-			if (multiline)
-			{
-				return FileImportReader.readMultiLines(data, CHARSET).stream();
-			}
-			else
-			{
-				return FileImportReader.readRegularLines(data, CHARSET).stream();
-			}
+			return FileImportReader.streamMultiLines(in, CHARSET);
 		}
-		catch (final IOException ex)
+		else
 		{
-			throw new AdempiereException("Failed reading resource: " + resource, ex);
+			return FileImportReader.streamRegularLines(in, CHARSET);
 		}
 	}
 
-	private static byte[] toByteArray(final Resource resource)
+	private static InputStream getInputStream(final Resource resource)
 	{
 		try
 		{
-			return Util.readBytes(resource.getInputStream());
+			return resource.getInputStream();
 		}
 		catch (final IOException ex)
 		{
@@ -109,33 +109,33 @@ public final class ImportProcessResult
 			return this;
 		}
 
-		public ImportProcessResult toResult()
+		public synchronized ImportProcessResult toResult()
 		{
 			return new ImportProcessResult(this);
 		}
 
-		public void addInsertsIntoTargetTable(final int count)
+		public synchronized void addInsertsIntoTargetTable(final int count)
 		{
 			countInsertsIntoTargetTable.add(count);
 		}
 
-		public void addUpdatesIntoTargetTable(final int count)
+		public synchronized void addUpdatesIntoTargetTable(final int count)
 		{
 			countUpdatesIntoTargetTable.add(count);
 		}
 
-		public void addCountImportRecordsConsidered(final int count)
+		public synchronized void addCountImportRecordsConsidered(final int count)
 		{
 			countImportRecordsConsidered.add(count);
 		}
 
-		public void setCountImportRecordsDeleted(final int countImportRecordsDeleted)
+		public synchronized void setCountImportRecordsDeleted(final int countImportRecordsDeleted)
 		{
 			Check.assumeGreaterOrEqualToZero(countImportRecordsDeleted, "countImportRecordsDeleted");
 			this.countImportRecordsDeleted.set(countImportRecordsDeleted);
 		}
 
-		public void setCountImportRecordsWithErrors(final int countImportRecordsWithErrors)
+		public synchronized void setCountImportRecordsWithErrors(final int countImportRecordsWithErrors)
 		{
 			Check.assumeGreaterOrEqualToZero(countImportRecordsWithErrors, "countImportRecordsWithErrors");
 			this.countImportRecordsWithErrors.set(countImportRecordsWithErrors);
@@ -4,6 +4,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -11,6 +12,13 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.IntStream;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -22,7 +30,10 @@ import org.adempiere.db.util.AbstractPreparedStatementBlindIterator;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.api.IParams;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
@@ -36,6 +47,9 @@ import org.slf4j.Logger;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
 
 import ch.qos.logback.classic.Level;
 import de.metas.cache.CacheMgt;
@@ -66,10 +80,19 @@ import lombok.NonNull;
  */
 public abstract class ImportProcessTemplate<ImportRecordType> implements IImportProcess<ImportRecordType>
 {
+	/**
+	 * Number of workers which are importing the import groups in parallel. Values <= 1 mean the groups are imported sequentially.
+	 * Applies only for import processes which support it, see {@link #isParallelImportSupported()}.
+	 */
+	public static final String SYSCONFIG_ParallelImportThreads = "de.metas.impexp.parallelImport.threads";
+	private static final int PARALLEL_IMPORT_QueueCapacityPerThread = 100;
+	private static final int PARALLEL_IMPORT_LockStripesPerThread = 64;
+
 	// services
 	private final transient Logger logger = LogManager.getLogger(getClass());
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 	private final IErrorManager errorManager = Services.get(IErrorManager.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final DBFunctionsRepository dbFunctionsRepo = SpringContextHolder.instance.getBean(DBFunctionsRepository.class);
 	private final ImportTableDescriptorRepository importTableDescriptorRepo = SpringContextHolder.instance.getBean(ImportTableDescriptorRepository.class);
 
@@ -310,12 +333,7 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 	@Override
 	public final ImportProcessResult run()
 	{
-		if (resultCollector != null)
-		{
-			throw new AdempiereException("Process already started: " + this);
-		}
-		resultCollector = ImportProcessResult.newCollector(getTargetTableName())
-				.importTableName(getImportTableName());
+		startResultCollector();
 
 		// Assume we are not running in another transaction because that could introduce deadlocks,
 		// because we are creating the transactions here.
@@ -359,6 +377,27 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 		return result;
 	}
 
+	private void startResultCollector()
+	{
+		if (resultCollector != null)
+		{
+			throw new AdempiereException("Process already started: " + this);
+		}
+		resultCollector = ImportProcessResult.newCollector(getTargetTableName())
+				.importTableName(getImportTableName());
+	}
+
+	/**
+	 * Runs only the actual import, without deleting, resetting and validating the import records before.
+	 */
+	@VisibleForTesting
+	final ImportProcessResult runImportDataOnly()
+	{
+		startResultCollector();
+		importData();
+		return resultCollector.toResult();
+	}
+
 	@Override
 	public final int deleteImportRecords(@NonNull final ImportDataDeleteRequest request)
 	{
@@ -458,10 +497,66 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 
 	protected abstract ImportGroupKey extractImportGroupKey(final ImportRecordType importRecord);
 
+	/**
+	 * @return true if the import groups of this import process may be imported in parallel (see {@link #SYSCONFIG_ParallelImportThreads}).
+	 *         Implementors which return true shall make sure that records sharing the same {@link #extractParallelImportShardKey(Object)} are the only ones which depend on each other.
+	 */
+	protected boolean isParallelImportSupported()
+	{
+		return false;
+	}
+
+	/**
+	 * When importing in parallel, all import groups with the same shard key are imported by the same worker, in the same order as they were retrieved.
+	 * The state passed to {@link #importRecords(List, IMutable)} is shared only between the groups of the same worker.
+	 *
+	 * @return the shard key of the import group starting with the given record; by default the import group key.
+	 */
+	protected Object extractParallelImportShardKey(@NonNull final ImportRecordType importRecord)
+	{
+		return extractImportGroupKey(importRecord);
+	}
+
+	/**
+	 * When importing in parallel, import groups which have a common lock key are never imported at the same time, even if they have different shard keys.
+	 * Implementors shall return a key for each target record which might also be created or changed by a group with another shard key
+	 * (e.g. the existing business partner an import record was matched with), so two workers can't create it twice or change it at the same time.
+	 *
+	 * @return the lock keys of the given record; by default none
+	 */
+	protected Set<Object> extractParallelImportLockKeys(@NonNull final ImportRecordType importRecord)
+	{
+		return ImmutableSet.of();
+	}
+
+	private int getParallelImportThreads()
+	{
+		if (!isParallelImportSupported())
+		{
+			return 1;
+		}
+
+		final int threads = sysConfigBL.getIntValue(SYSCONFIG_ParallelImportThreads, 1, getClientId().getRepoId());
+		return Math.max(threads, 1);
+	}
+
 	/**
 	 * Actual data import.
 	 */
 	private final void importData()
+	{
+		final int parallelImportThreads = getParallelImportThreads();
+		if (parallelImportThreads > 1)
+		{
+			importDataInParallel(parallelImportThreads);
+		}
+		else
+		{
+			importDataSequentially();
+		}
+	}
+
+	private final void importDataSequentially()
 	{
 		final ITrxItemProcessorExecutorService trxItemProcessorExecutorService = Services.get(ITrxItemProcessorExecutorService.class);
 
@@ -515,7 +610,8 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 					public void completeChunk()
 					{
 						final ImportGroup<ImportRecordType> currentGroup = currentImportGroupHolder.getValue();
-						importGroup(currentGroup, stateHolder);
+						addCountImportRecordsConsidered(currentGroup);
+						addImportGroupResult(importGroup(currentGroup, stateHolder));
 					}
 
 					@Override
@@ -528,6 +624,194 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 				.process(retrieveRecordsToImport());
 	}
 
+	/**
+	 * Imports the groups using a pool of workers, each group in its own transaction.
+	 * <p>
+	 * The groups are distributed to the workers by {@link #extractParallelImportShardKey(Object)}, so groups with the same shard key keep their order.
+	 * Groups with a common {@link #extractParallelImportLockKeys(Object) lock key} are not imported at the same time.
+	 * Groups which failed (e.g. because another worker was changing the same target records at the same time) are retried sequentially,
+	 * in their original order, after all workers finished. Once a group failed, the following groups with the same shard key are not imported by the worker,
+	 * but retried together with the failed one, so they still keep their order. Only if the retry fails too, the group is marked as error.
+	 */
+	private void importDataInParallel(final int threads)
+	{
+		final ConcurrentSkipListMap<Integer, ImportGroup<ImportRecordType>> failedGroupsBySeqNo = new ConcurrentSkipListMap<>();
+		final Semaphore queueCapacity = new Semaphore(threads * PARALLEL_IMPORT_QueueCapacityPerThread);
+		final Striped<Lock> locks = Striped.lock(threads * PARALLEL_IMPORT_LockStripesPerThread);
+		final ImmutableList<ParallelImportWorker> workers = IntStream.range(0, threads)
+				.mapToObj(workerNo -> new ParallelImportWorker(workerNo, Env.copyCtx(Env.getCtx()), failedGroupsBySeqNo, queueCapacity, locks))
+				.collect(ImmutableList.toImmutableList());
+
+		int groupsCount = 0;
+		try
+		{
+			ImportGroup<ImportRecordType> currentGroup = null;
+			Object currentShardKey = null;
+			Set<Object> currentLockKeys = null;
+			for (final Iterator<ImportRecordType> it = retrieveRecordsToImport(); it.hasNext();)
+			{
+				final ImportRecordType importRecord = it.next();
+				final ImportGroupKey groupKey = extractImportGroupKey(importRecord);
+				if (currentGroup == null || !Objects.equals(currentGroup.getGroupKey(), groupKey))
+				{
+					if (currentGroup != null)
+					{
+						addCountImportRecordsConsidered(currentGroup);
+						workers.get(Math.floorMod(Objects.hashCode(currentShardKey), threads)).enqueue(groupsCount++, currentGroup, currentShardKey, currentLockKeys);
+					}
+
+					currentGroup = ImportGroup.newInstance(groupKey);
+					currentShardKey = extractParallelImportShardKey(importRecord);
+					currentLockKeys = new HashSet<>();
+				}
+
+				currentGroup.addImportRecord(importRecord);
+				currentLockKeys.addAll(extractParallelImportLockKeys(importRecord));
+			}
+
+			if (currentGroup != null)
+			{
+				addCountImportRecordsConsidered(currentGroup);
+				workers.get(Math.floorMod(Objects.hashCode(currentShardKey), threads)).enqueue(groupsCount++, currentGroup, currentShardKey, currentLockKeys);
+			}
+		}
+		finally
+		{
+			workers.forEach(ParallelImportWorker::shutdownAndAwaitTermination);
+		}
+
+		//
+		// Deterministic fallback: retry the failed groups one by one, in their original order
+		final IMutable<Object> stateHolder = new Mutable<>();
+		for (final ImportGroup<ImportRecordType> failedGroup : failedGroupsBySeqNo.values())
+		{
+			try
+			{
+				final ImportGroupResult importGroupResult = trxManager.callInNewTrx(() -> {
+					// discard the changes of the rolled back attempt (e.g. IDs of target records which no longer exist)
+					failedGroup.getImportRecords().forEach(importRecord -> InterfaceWrapperHelper.refresh(importRecord, true));
+					return importGroup(failedGroup, stateHolder);
+				});
+				addImportGroupResult(importGroupResult);
+			}
+			catch (final Exception ex)
+			{
+				trxManager.runInNewTrx(() -> markAsError(failedGroup, ex));
+			}
+		}
+
+		loggable.addLog("Imported " + groupsCount + " groups using " + threads + " workers; " + failedGroupsBySeqNo.size() + " groups were retried sequentially");
+	}
+
+	private final class ParallelImportWorker
+	{
+		private final ExecutorService executor;
+		private final Properties ctx;
+		private final Map<Integer, ImportGroup<ImportRecordType>> failedGroupsBySeqNo;
+		private final Semaphore queueCapacity;
+		private final Striped<Lock> locks;
+		private final IMutable<Object> stateHolder = new Mutable<>();
+		/** shard keys of the groups which failed; only accessed by the worker's thread */
+		private final Set<Object> failedShardKeys = new HashSet<>();
+
+		private ParallelImportWorker(
+				final int workerNo,
+				@NonNull final Properties ctx,
+				@NonNull final Map<Integer, ImportGroup<ImportRecordType>> failedGroupsBySeqNo,
+				@NonNull final Semaphore queueCapacity,
+				@NonNull final Striped<Lock> locks)
+		{
+			this.executor = Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(getImportTableName() + "-import-" + workerNo)
+					.setDaemon(true)
+					.build());
+			this.ctx = ctx;
+			this.failedGroupsBySeqNo = failedGroupsBySeqNo;
+			this.queueCapacity = queueCapacity;
+			this.locks = locks;
+		}
+
+		public void enqueue(
+				final int seqNo,
+				@NonNull final ImportGroup<ImportRecordType> group,
+				final Object shardKey,
+				@NonNull final Set<Object> lockKeys)
+		{
+			// don't load the whole import table into memory if the workers are slower than the retrieval
+			queueCapacity.acquireUninterruptibly();
+			try
+			{
+				executor.execute(() -> importGroupNoFail(seqNo, group, shardKey, lockKeys));
+			}
+			catch (final RuntimeException ex)
+			{
+				queueCapacity.release();
+				throw ex;
+			}
+		}
+
+		private void importGroupNoFail(
+				final int seqNo,
+				final ImportGroup<ImportRecordType> group,
+				final Object shardKey,
+				final Set<Object> lockKeys)
+		{
+			try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+			{
+				if (failedShardKeys.contains(shardKey))
+				{
+					// an earlier group with the same shard key failed; it might be the one this group depends on
+					failedGroupsBySeqNo.put(seqNo, group);
+					return;
+				}
+
+				addImportGroupResult(importGroupInNewTrx(group, lockKeys));
+			}
+			catch (final Exception ex)
+			{
+				logger.debug("Failed importing {}. Will be retried sequentially.", group, ex);
+				failedShardKeys.add(shardKey);
+				stateHolder.setValue(null); // the state might refer to target records which were rolled back
+				failedGroupsBySeqNo.put(seqNo, group);
+			}
+			finally
+			{
+				queueCapacity.release();
+			}
+		}
+
+		private ImportGroupResult importGroupInNewTrx(final ImportGroup<ImportRecordType> group, final Set<Object> lockKeys)
+		{
+			// Striped returns the locks in a fixed order, so two workers can't deadlock each other.
+			// The locks are released only after the commit, so the other worker will see the target records this group created.
+			final List<Lock> groupLocks = ImmutableList.copyOf(locks.bulkGet(lockKeys));
+			groupLocks.forEach(Lock::lock);
+			try
+			{
+				return trxManager.callInNewTrx(() -> importGroup(group, stateHolder));
+			}
+			finally
+			{
+				Lists.reverse(groupLocks).forEach(Lock::unlock);
+			}
+		}
+
+		public void shutdownAndAwaitTermination()
+		{
+			executor.shutdown();
+			try
+			{
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
+			catch (final InterruptedException ex)
+			{
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+		}
+	}
+
 	@VisibleForTesting
 	protected Iterator<ImportRecordType> retrieveRecordsToImport()
 	{
@@ -551,7 +835,10 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 		});
 	}
 
-	private void importGroup(
+	/**
+	 * @return the result, which the caller shall add to the result collector once the group's transaction was committed (see {@link #addImportGroupResult(ImportGroupResult)})
+	 */
+	private ImportGroupResult importGroup(
 			@NonNull final ImportGroup<ImportRecordType> importGroup,
 			@NonNull final IMutable<Object> stateHolder)
 	{
@@ -559,15 +846,12 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 		if (importGroup.isEmpty())
 		{
 			logger.warn("Skip importing empty group: {}", importGroup);
-			return;
+			return ImportGroupResult.ZERO;
 		}
 
-		final ImportProcessResultCollector overallResultCollector = getResultCollector();
 		try
 		{
 			final ImmutableList<ImportRecordType> importRecordsList = importGroup.getImportRecords();
-			overallResultCollector.addCountImportRecordsConsidered(importRecordsList.size());
-
 			final ImportGroupResult importGroupResult = importRecords(importRecordsList, stateHolder);
 
 			for (final ImportRecordType importRecord : importRecordsList)
@@ -576,8 +860,7 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 				runSQLAfterRowImport(importRecord); // run after markImported because we need the recordId saved
 			}
 
-			overallResultCollector.addInsertsIntoTargetTable(importGroupResult.getCountInserted());
-			overallResultCollector.addUpdatesIntoTargetTable(importGroupResult.getCountUpdated());
+			return importGroupResult;
 		}
 		catch (Exception ex)
 		{
@@ -585,6 +868,21 @@ public abstract class ImportProcessTemplate<ImportRecordType> implements IImport
 		}
 	}
 
+	/**
+	 * Counts the records of the given group as considered. Called once per group, no matter how often the group is tried to be imported.
+	 */
+	private void addCountImportRecordsConsidered(@NonNull final ImportGroup<ImportRecordType> importGroup)
+	{
+		getResultCollector().addCountImportRecordsConsidered(importGroup.getImportRecords().size());
+	}
+
+	private void addImportGroupResult(@NonNull final ImportGroupResult importGroupResult)
+	{
+		final ImportProcessResultCollector overallResultCollector = getResultCollector();
+		overallResultCollector.addInsertsIntoTargetTable(importGroupResult.getCountInserted());
+		overallResultCollector.addUpdatesIntoTargetTable(importGroupResult.getCountUpdated());
+	}
+
 	private String buildSqlSelectRecordsToImport()
 	{
 		final String whereClause = getImportRecordsSelection().toSqlWhereClause();
@@ -0,0 +1,122 @@
+package de.metas.impexp.util;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import de.metas.util.StringUtils;
+import de.metas.util.lang.RepoIdAware;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Formats rows for PostgreSQL's {@code COPY ... FROM STDIN} default text format (tab separated columns, {@code \N} for null).
+ * <p>
+ * The values are converted the same way {@link org.compiere.util.DB#setParameter(java.sql.PreparedStatement, int, Object)} converts them.
+ */
+@UtilityClass
+public class PostgresCopyTextFormat
+{
+	private static final char COLUMN_DELIMITER = '\t';
+	private static final char ROW_DELIMITER = '\n';
+	private static final String NULL = "\\N";
+
+	public void appendRow(@NonNull final StringBuilder sb, @NonNull final List<Object> values)
+	{
+		boolean first = true;
+		for (final Object value : values)
+		{
+			if (!first)
+			{
+				sb.append(COLUMN_DELIMITER);
+			}
+			appendValue(sb, value);
+			first = false;
+		}
+		sb.append(ROW_DELIMITER);
+	}
+
+	private void appendValue(@NonNull final StringBuilder sb, @Nullable final Object value)
+	{
+		if (value == null)
+		{
+			sb.append(NULL);
+		}
+		else if (value instanceof BigDecimal)
+		{
+			sb.append(((BigDecimal)value).toPlainString());
+		}
+		else if (value instanceof Number)
+		{
+			sb.append(value);
+		}
+		else if (value instanceof Boolean)
+		{
+			sb.append(StringUtils.ofBoolean((Boolean)value));
+		}
+		else if (value instanceof Timestamp)
+		{
+			// include the offset, like the JDBC driver does.
+			// For "timestamp without time zone" columns, the offset is ignored by the database.
+			sb.append(((Timestamp)value).toLocalDateTime().atZone(ZoneId.systemDefault()).toOffsetDateTime());
+		}
+		else if (value instanceof RepoIdAware)
+		{
+			sb.append(((RepoIdAware)value).getRepoId());
+		}
+		else
+		{
+			appendEscaped(sb, value.toString());
+		}
+	}
+
+	private void appendEscaped(@NonNull final StringBuilder sb, @NonNull final String string)
+	{
+		for (int i = 0, length = string.length(); i < length; i++)
+		{
+			final char ch = string.charAt(i);
+			switch (ch)
+			{
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				default:
+					sb.append(ch);
+			}
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package de.metas.process;
 
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
@@ -20,6 +23,9 @@ import org.compiere.util.Env;
 import org.compiere.util.MimeType;
 import org.compiere.util.Util;
 import org.slf4j.Logger;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
@@ -127,6 +133,8 @@ public class ProcessExecutionResult
 	private transient MPrintFormat printFormat;
 	@JsonInclude(JsonInclude.Include.NON_EMPTY)
 	private byte[] reportData;
+	/** if set, the report data is in this file; it's loaded only when {@link #getReportData()} is called, and deleted once it was consumed */
+	private transient File reportDataFile;
 	@JsonInclude(JsonInclude.Include.NON_EMPTY)
 	private String reportFilename;
 	@JsonInclude(JsonInclude.Include.NON_EMPTY)
@@ -526,6 +534,22 @@ public class ProcessExecutionResult
 	public void setReportData(final byte[] data, final String filename, final String contentType)
 	{
 		reportData = data;
+		deleteReportDataFile();
+		reportFilename = filename;
+		reportContentType = contentType;
+	}
+
+	/**
+	 * Sets the report data without loading the given file into memory.
+	 * Use {@link #getReportDataResource()} to stream it.
+	 * <p>
+	 * The result takes over the file, i.e. it deletes the file once the report data was consumed.
+	 */
+	public void setReportData(@NonNull final File file, final String filename, final String contentType)
+	{
+		reportData = null;
+		deleteReportDataFile();
+		reportDataFile = file;
 		reportFilename = filename;
 		reportContentType = contentType;
 	}
@@ -533,6 +557,7 @@ public class ProcessExecutionResult
 	public void setReportData(@NonNull final File file)
 	{
 		reportData = Util.readBytes(file);
+		deleteReportDataFile();
 		reportFilename = file.getName();
 		reportContentType = MimeType.getMimeType(reportFilename);
 	}
@@ -540,15 +565,83 @@ public class ProcessExecutionResult
 	public void setReportData(@NonNull final ReportResultData reportResult)
 	{
 		reportData = reportResult.getReportData();
+		deleteReportDataFile();
 		reportFilename = reportResult.getReportFilename();
 		reportContentType = reportResult.getReportContentType();
 	}
 
+	/**
+	 * If the report data is in a file, it's loaded into memory and the file is deleted.
+	 */
+	@JsonProperty("reportData") // also serialize the content of the reportDataFile
 	public byte[] getReportData()
 	{
+		if (reportData == null && reportDataFile != null)
+		{
+			reportData = Util.readBytes(reportDataFile);
+			deleteReportDataFile();
+		}
 		return reportData;
 	}
 
+	/**
+	 * @return the report data, without loading it into memory if it's in a file; {@code null} if there is no report data.
+	 *         If the report data is in a file, the file is deleted when the resource's input stream is closed, so the report data can be consumed only once.
+	 */
+	@Nullable
+	public Resource getReportDataResource()
+	{
+		final File file = reportDataFile;
+		if (file != null)
+		{
+			return new FileSystemResource(file)
+			{
+				@Override
+				public InputStream getInputStream() throws IOException
+				{
+					return new FilterInputStream(super.getInputStream())
+					{
+						@Override
+						public void close() throws IOException
+						{
+							try
+							{
+								super.close();
+							}
+							finally
+							{
+								if (file.equals(reportDataFile))
+								{
+									reportDataFile = null;
+								}
+								deleteFile(file);
+							}
+						}
+					};
+				}
+			};
+		}
+		return reportData != null ? new ByteArrayResource(reportData) : null;
+	}
+
+	private void deleteReportDataFile()
+	{
+		final File file = reportDataFile;
+		reportDataFile = null;
+		if (file != null)
+		{
+			deleteFile(file);
+		}
+	}
+
+	private static void deleteFile(@NonNull final File file)
+	{
+		if (!file.delete())
+		{
+			logger.warn("Failed deleting the report data file {}", file);
+		}
+	}
+
 	public String getReportFilename()
 	{
 		return reportFilename;
@@ -784,6 +877,7 @@ public class ProcessExecutionResult
 		// Reporting
 		printFormat = otherResult.printFormat;
 		reportData = otherResult.reportData;
+		reportDataFile = otherResult.reportDataFile;
 		reportFilename = otherResult.reportFilename;
 		reportContentType = otherResult.reportContentType;
 
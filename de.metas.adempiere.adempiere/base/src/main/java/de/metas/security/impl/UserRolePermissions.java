@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.concurrent.Immutable;
 
@@ -99,6 +100,15 @@ class UserRolePermissions implements IUserRolePermissions
 
 	private static final Set<OrgId> ORGACCESS_ALL = Collections.unmodifiableSet(new HashSet<>()); // NOTE: new instance to make sure it's unique
 
+	private static final AtomicLong NEXT_INSTANCE_ID = new AtomicLong(1);
+
+	/**
+	 * Unique ID of this instance, used to cache things which were built from these permissions.
+	 * The permissions are immutable and get replaced when they change, so a new instance ID is like a new cache key.
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	private final long instanceId = NEXT_INSTANCE_ID.getAndIncrement();
+
 	/** Permissions name (i.e. role name) */
 	@Getter
 	private final String name;
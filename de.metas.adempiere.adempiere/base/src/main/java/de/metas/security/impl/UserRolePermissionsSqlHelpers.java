@@ -1,13 +1,20 @@
 package de.metas.security.impl;
 
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.compiere.SpringContextHolder;
 import org.compiere.model.I_AD_PInstance_Log;
 import org.compiere.model.I_AD_Private_Access;
+import org.compiere.model.I_AD_Role;
+import org.compiere.model.I_AD_Role_Record_Access_Config;
+import org.compiere.model.I_AD_Table;
+import org.compiere.model.I_AD_UserGroup_User_Assign;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
 import de.metas.logging.LogManager;
 import de.metas.security.RoleId;
 import de.metas.security.impl.ParsedSql.SqlSelect;
@@ -18,7 +25,9 @@ import de.metas.user.UserGroupId;
 import de.metas.user.UserGroupRepository;
 import de.metas.user.UserId;
 import de.metas.util.Check;
+import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -46,6 +55,30 @@ final class UserRolePermissionsSqlHelpers
 {
 	private static final Logger logger = LogManager.getLogger(UserRolePermissionsSqlHelpers.class);
 
+	static final String SYSTEM_PROPERTY_AccessSqlCacheSize = "de.metas.security.accessSqlCache.size";
+	private static final int DEFAULT_AccessSqlCacheSize = 2000;
+
+	/**
+	 * Access SQL WHERE clauses by the permissions instance and the SQL template (see {@link #toSqlTemplate(String)}).
+	 * <p>
+	 * Permission changes are resetting the AD_Role cache and create new {@link UserRolePermissions} instances, so they also make the cached clauses obsolete.
+	 * Record access configs and user group assignments are also used to build the clauses, so we reset for them too.
+	 */
+	private static final CCache<AccessSqlKey, String> accessSqlWhereClausesCache = CCache.<AccessSqlKey, String> builder()
+			.cacheName(UserRolePermissionsSqlHelpers.class.getSimpleName() + "#accessSqlWhereClauses")
+			.tableName(I_AD_Role.Table_Name)
+			.additionalTableNameToResetFor(I_AD_Role_Record_Access_Config.Table_Name)
+			.additionalTableNameToResetFor(I_AD_UserGroup_User_Assign.Table_Name)
+			.additionalTableNameToResetFor(I_AD_Table.Table_Name)
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(Integer.getInteger(SYSTEM_PROPERTY_AccessSqlCacheSize, DEFAULT_AccessSqlCacheSize))
+			.build();
+
+	/** String literals without whitespace or parentheses, e.g. {@code 'CO'} */
+	private static final Pattern SQL_STRING_LITERAL = Pattern.compile("'[^'\\s()]*'");
+	/** Numbers which are not part of an identifier, e.g. the {@code 123} of {@code C_BPartner_ID=123} */
+	private static final Pattern SQL_NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?(?![\\w.])");
+
 	private final UserRolePermissions _role;
 	private final TablesAccessInfo _tablesAccessInfo = TablesAccessInfo.instance;
 	private RecordAccessService _userGroupRecordAccessService; // lazy
@@ -151,7 +184,16 @@ final class UserRolePermissionsSqlHelpers
 			sqlOrderByAndOthers = null;
 		}
 
-		final String sqlAccessSqlWhereClause = buildAccessSQL(sqlSelectFromWhere, tableNameIn, fullyQualified, access);
+		final AccessSqlKey cacheKey = AccessSqlKey.builder()
+				.permissionsInstanceId(_role.getInstanceId())
+				.sqlTemplate(toSqlTemplate(sqlSelectFromWhere))
+				.tableName(tableNameIn)
+				.fullyQualified(fullyQualified)
+				.access(access)
+				.build();
+		final String sqlAccessSqlWhereClause = accessSqlWhereClausesCache.getOrLoad(
+				cacheKey,
+				key -> buildAccessSQL(key.getSqlTemplate(), tableNameIn, fullyQualified, access));
 		if (Check.isEmpty(sqlAccessSqlWhereClause, true))
 		{
 			logger.trace("Final SQL (no access sql applied): {}", sql);
@@ -172,6 +214,32 @@ final class UserRolePermissionsSqlHelpers
 		return sqlFinal;
 	}	// addAccessSQL
 
+	/**
+	 * Replaces the simple literals of the given SQL with {@code ?}, so that SQLs which only differ in their parameters share the same access SQL.
+	 * <p>
+	 * The access SQL is built from the SQL's tables, aliases and keywords. We only replace literals without whitespace and parentheses,
+	 * so the template has the same tables, aliases and keywords and gives us the same access SQL as the original SQL.
+	 */
+	static String toSqlTemplate(@NonNull final String sql)
+	{
+		final String sqlWithoutStrings = sql.indexOf('\'') >= 0
+				? SQL_STRING_LITERAL.matcher(sql).replaceAll("?")
+				: sql;
+		return SQL_NUMBER_LITERAL.matcher(sqlWithoutStrings).replaceAll("?");
+	}
+
+	@Value
+	@Builder
+	private static class AccessSqlKey
+	{
+		long permissionsInstanceId;
+		@NonNull
+		String sqlTemplate;
+		String tableName;
+		boolean fullyQualified;
+		Access access;
+	}
+
 	private String buildAccessSQL(
 			final String sqlSelectFromWhere,
 			final String tableNameIn,
@@ -0,0 +1,48 @@
+package org.adempiere.ad.session;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Statistics of the asynchronous {@code AD_ChangeLog} writer.
+ */
+@Value
+@Builder
+public class ChangeLogWriterStatistics
+{
+	int queueSize;
+	int queueCapacity;
+
+	/** How long the oldest queued record is already waiting, in milliseconds. */
+	long currentLagMillis;
+	/** How long the records of the last written batch were waiting, in milliseconds (measured for the oldest record of that batch). */
+	long lastBatchLagMillis;
+
+	long recordsEnqueued;
+	long recordsWritten;
+	long recordsWrittenSynchronously;
+	long recordsFailed;
+	long batchesWritten;
+}
@@ -33,6 +33,17 @@ public interface ISessionDAO extends ISingletonService
 	/** {@link I_AD_ChangeLog}'s null value marker */
 	public static final String	CHANGELOG_NullValue = "NULL";
 
+	/**
+	 * Saves the given change log records.
+	 * <p>
+	 * If the sysconfig {@code de.metas.session.changeLog.async} is enabled, the records are not inserted within the current transaction,
+	 * but after it was committed, in batches, by a background writer.
+	 */
 	void saveChangeLogs(Collection<ChangeLogRecord> records);
 
+	/**
+	 * @return statistics (queue depth, lag etc) of the background change log writer
+	 */
+	ChangeLogWriterStatistics getChangeLogWriterStatistics();
+
 }
@@ -0,0 +1,371 @@
+package org.adempiere.ad.session.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.adempiere.ad.session.ChangeLogRecord;
+import org.adempiere.ad.session.ChangeLogWriterStatistics;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Writes change log records in batches, from a background thread.
+ * <p>
+ * Records are put into a bounded queue. A daemon thread takes them out in batches of at most {@code batchSize} and hands them to the {@link Sink}.
+ * While the queue is empty, that thread is parked without holding any lock; producers unpark it when they enqueued something.
+ * <p>
+ * If the queue is full, the producer waits at most {@code enqueueTimeoutMillis}; the records which still don't fit are written by the producer's own thread.
+ * That way a slow database slows down the producers instead of making us lose audit records or run out of memory.
+ * <p>
+ * On JVM shutdown the queues of all started writers are drained and all pending records are written; there is only one shutdown hook for all of them.
+ */
+final class AsyncChangeLogWriter
+{
+	private static final Logger logger = LogManager.getLogger(AsyncChangeLogWriter.class);
+
+	static final String SYSTEM_PROPERTY_QueueCapacity = "de.metas.session.changeLog.async.queueCapacity";
+	static final String SYSTEM_PROPERTY_BatchSize = "de.metas.session.changeLog.async.batchSize";
+	static final String SYSTEM_PROPERTY_EnqueueTimeoutMillis = "de.metas.session.changeLog.async.enqueueTimeoutMillis";
+
+	private static final int DEFAULT_QueueCapacity = 50000;
+	private static final int DEFAULT_BatchSize = 1000;
+	private static final int DEFAULT_EnqueueTimeoutMillis = 500;
+
+	private static final long PARK_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	/** The writers which were started and not shut down yet. All of them are shut down by one JVM shutdown hook. */
+	private static final Set<AsyncChangeLogWriter> startedWriters = ConcurrentHashMap.newKeySet();
+	private static final AtomicBoolean shutdownHookRegistered = new AtomicBoolean(false);
+
+	@FunctionalInterface
+	interface Sink
+	{
+		void write(List<ChangeLogRecord> records);
+	}
+
+	public static AsyncChangeLogWriter newInstanceFromSystemProperties(@NonNull final Sink sink)
+	{
+		return new AsyncChangeLogWriter(
+				sink,
+				Integer.getInteger(SYSTEM_PROPERTY_QueueCapacity, DEFAULT_QueueCapacity),
+				Integer.getInteger(SYSTEM_PROPERTY_BatchSize, DEFAULT_BatchSize),
+				Integer.getInteger(SYSTEM_PROPERTY_EnqueueTimeoutMillis, DEFAULT_EnqueueTimeoutMillis));
+	}
+
+	private final Sink sink;
+	private final int queueCapacity;
+	private final int batchSize;
+	private final long enqueueTimeoutMillis;
+
+	private final BlockingQueue<QueuedRecord> queue;
+	/** Makes sure that the writer thread and {@link #flush()} don't write concurrently, so the records are written in the order they were enqueued */
+	private final ReentrantLock writeLock = new ReentrantLock(true); // fair, so that flush() doesn't starve
+
+	private volatile Thread _writerThread; // lazy
+	private volatile boolean shutdown = false;
+
+	private final AtomicLong recordsEnqueued = new AtomicLong();
+	private final AtomicLong recordsWritten = new AtomicLong();
+	private final AtomicLong recordsWrittenSynchronously = new AtomicLong();
+	private final AtomicLong recordsFailed = new AtomicLong();
+	private final AtomicLong batchesWritten = new AtomicLong();
+	private volatile long lastBatchLagMillis = 0;
+
+	AsyncChangeLogWriter(
+			@NonNull final Sink sink,
+			final int queueCapacity,
+			final int batchSize,
+			final long enqueueTimeoutMillis)
+	{
+		this.sink = sink;
+		this.queueCapacity = queueCapacity > 0 ? queueCapacity : DEFAULT_QueueCapacity;
+		this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BatchSize;
+		this.enqueueTimeoutMillis = Math.max(enqueueTimeoutMillis, 0);
+		this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("queueCapacity", queueCapacity)
+				.add("batchSize", batchSize)
+				.add("enqueueTimeoutMillis", enqueueTimeoutMillis)
+				.add("queueSize", queue.size())
+				.add("shutdown", shutdown)
+				.toString();
+	}
+
+	/**
+	 * Enqueues the given records. The records which can't be enqueued (queue full, writer shut down) are written right away, in the current thread.
+	 */
+	public void enqueue(@NonNull final Collection<ChangeLogRecord> records)
+	{
+		if (records.isEmpty())
+		{
+			return;
+		}
+
+		if (shutdown)
+		{
+			writeSynchronously(ImmutableList.copyOf(records));
+			return;
+		}
+
+		final Thread writerThread = startWriterIfNeeded();
+
+		final long enqueuedMillis = System.currentTimeMillis();
+		List<ChangeLogRecord> notEnqueued = null;
+		boolean queueFull = false;
+		for (final ChangeLogRecord record : records)
+		{
+			if (!queueFull && offer(QueuedRecord.of(record, enqueuedMillis)))
+			{
+				recordsEnqueued.incrementAndGet();
+				continue;
+			}
+
+			// don't wait again for each remaining record
+			queueFull = true;
+			if (notEnqueued == null)
+			{
+				notEnqueued = new ArrayList<>();
+			}
+			notEnqueued.add(record);
+		}
+
+		LockSupport.unpark(writerThread);
+
+		if (notEnqueued != null)
+		{
+			logger.debug("Change log queue is full; writing {} records synchronously", notEnqueued.size());
+			writeSynchronously(notEnqueued);
+		}
+	}
+
+	private boolean offer(final QueuedRecord queuedRecord)
+	{
+		try
+		{
+			return queue.offer(queuedRecord, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void writeSynchronously(final List<ChangeLogRecord> records)
+	{
+		if (writeNoFail(records))
+		{
+			recordsWrittenSynchronously.addAndGet(records.size());
+		}
+	}
+
+	private synchronized Thread startWriterIfNeeded()
+	{
+		if (_writerThread != null)
+		{
+			return _writerThread;
+		}
+
+		final Thread writerThread = new Thread(this::writerLoop, AsyncChangeLogWriter.class.getSimpleName());
+		writerThread.setDaemon(true);
+		writerThread.start();
+		_writerThread = writerThread;
+
+		registerForShutdown(this);
+
+		logger.info("Started {}", this);
+		return writerThread;
+	}
+
+	private static void registerForShutdown(final AsyncChangeLogWriter writer)
+	{
+		startedWriters.add(writer);
+
+		if (!shutdownHookRegistered.getAndSet(true))
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(AsyncChangeLogWriter::shutdownAll, AsyncChangeLogWriter.class.getSimpleName() + "-shutdown"));
+		}
+	}
+
+	private static void shutdownAll()
+	{
+		startedWriters.forEach(AsyncChangeLogWriter::shutdown);
+	}
+
+	private void writerLoop()
+	{
+		while (!shutdown)
+		{
+			if (queue.isEmpty())
+			{
+				// wait outside of the write lock, so that flush() doesn't have to wait for us; enqueue() unparks us
+				LockSupport.parkNanos(this, PARK_TIMEOUT_NANOS);
+				if (Thread.interrupted())
+				{
+					break;
+				}
+				continue;
+			}
+
+			writeLock.lock();
+			try
+			{
+				// take the records while holding the lock, else flush() could write younger records before the ones we took
+				final List<QueuedRecord> batch = new ArrayList<>(batchSize);
+				queue.drainTo(batch, batchSize);
+				writeBatch(batch);
+			}
+			catch (final Throwable ex)
+			{
+				// shall not happen, but we don't want to lose the writer thread
+				logger.warn("Got error while writing change logs. Continuing.", ex);
+			}
+			finally
+			{
+				writeLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes all queued records right away, in the current thread.
+	 */
+	public void flush()
+	{
+		writeLock.lock();
+		try
+		{
+			while (!queue.isEmpty())
+			{
+				final List<QueuedRecord> batch = new ArrayList<>(batchSize);
+				queue.drainTo(batch, batchSize);
+				writeBatch(batch);
+			}
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Stops the writer thread and writes all pending records. Records enqueued after this call are written synchronously.
+	 */
+	public void shutdown()
+	{
+		shutdown = true;
+		startedWriters.remove(this);
+
+		final Thread writerThread = _writerThread;
+		if (writerThread != null)
+		{
+			LockSupport.unpark(writerThread);
+		}
+
+		flush();
+		logger.info("Shut down {}: {}", this, getStatistics());
+	}
+
+	private void writeBatch(final List<QueuedRecord> batch)
+	{
+		if (batch.isEmpty())
+		{
+			return;
+		}
+
+		lastBatchLagMillis = System.currentTimeMillis() - batch.get(0).getEnqueuedMillis();
+
+		final List<ChangeLogRecord> records = batch.stream()
+				.map(QueuedRecord::getRecord)
+				.collect(ImmutableList.toImmutableList());
+		if (writeNoFail(records))
+		{
+			recordsWritten.addAndGet(records.size());
+			batchesWritten.incrementAndGet();
+		}
+	}
+
+	private boolean writeNoFail(final List<ChangeLogRecord> records)
+	{
+		try
+		{
+			sink.write(records);
+			return true;
+		}
+		catch (final Exception ex)
+		{
+			recordsFailed.addAndGet(records.size());
+			logger.error("Failed writing {} change log records", records.size(), ex);
+			return false;
+		}
+	}
+
+	public ChangeLogWriterStatistics getStatistics()
+	{
+		final QueuedRecord oldest = queue.peek();
+		final long currentLagMillis = oldest != null ? Math.max(System.currentTimeMillis() - oldest.getEnqueuedMillis(), 0) : 0;
+
+		return ChangeLogWriterStatistics.builder()
+				.queueSize(queue.size())
+				.queueCapacity(queueCapacity)
+				.currentLagMillis(currentLagMillis)
+				.lastBatchLagMillis(lastBatchLagMillis)
+				.recordsEnqueued(recordsEnqueued.get())
+				.recordsWritten(recordsWritten.get())
+				.recordsWrittenSynchronously(recordsWrittenSynchronously.get())
+				.recordsFailed(recordsFailed.get())
+				.batchesWritten(batchesWritten.get())
+				.build();
+	}
+
+	@Value(staticConstructor = "of")
+	private static class QueuedRecord
+	{
+		@NonNull
+		ChangeLogRecord record;
+		long enqueuedMillis;
+	}
+}
@@ -2,22 +2,33 @@ package org.adempiere.ad.session.impl;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import org.adempiere.ad.session.ChangeLogRecord;
+import org.adempiere.ad.session.ChangeLogWriterStatistics;
 import org.adempiere.ad.session.ISessionDAO;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.proxy.Cached;
 import org.compiere.model.I_AD_ChangeLog;
 import org.compiere.model.I_AD_Table;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.logging.LogManager;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -86,52 +97,90 @@ public class SessionDAO implements ISessionDAO
 			+ ", ?" // UpdatedBy
 			+ ")";
 
+	/** If enabled, the change logs are written after commit, in batches, by a background thread */
+	private static final String SYSCONFIG_AsyncChangeLogWriter = "de.metas.session.changeLog.async";
+
+	private static final String TRX_PROPERTY_AsyncChangeLogRecords = SessionDAO.class.getName() + "#AsyncChangeLogRecords";
+
+	private final Supplier<AsyncChangeLogWriter> asyncChangeLogWriter = Suppliers.memoize(() -> AsyncChangeLogWriter.newInstanceFromSystemProperties(this::insertChangeLogsInNewTrx));
+
 	@Override
 	public void saveChangeLogs(final Collection<ChangeLogRecord> records)
 	{
-		if (records == null || records.isEmpty())
+		final List<ChangeLogRecord> recordsToSave = filterRecordsToSave(records);
+		if (recordsToSave.isEmpty())
 		{
 			return;
 		}
 
+		if (isAsyncChangeLogWriterEnabled())
+		{
+			enqueueAfterCommit(recordsToSave);
+		}
+		else
+		{
+			try
+			{
+				insertChangeLogs(recordsToSave);
+			}
+			catch (final Exception e)
+			{
+				logger.error("Failed creating change log", e);
+			}
+		}
+	}
+
+	private List<ChangeLogRecord> filterRecordsToSave(final Collection<ChangeLogRecord> records)
+	{
+		if (records == null || records.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<ChangeLogRecord> recordsToSave = new ArrayList<>(records.size());
+		for (final ChangeLogRecord record : records)
+		{
+			if (record == null)
+			{
+				continue;
+			}
+
+			// Null handling
+			final Object oldValue = record.getOldValue();
+			final Object newValue = record.getNewValue();
+			if (oldValue == null && newValue == null)
+			{
+				continue;
+			}
+			// Equal Value
+			if (oldValue != null && newValue != null && oldValue.equals(newValue))
+			{
+				continue;
+			}
+
+			//
+			if (!isLogged(record.getAD_Table_ID()))
+			{
+				continue;
+			}
+
+			recordsToSave.add(record);
+		}
+		return recordsToSave;
+	}
+
+	private void insertChangeLogs(final List<ChangeLogRecord> records)
+	{
 		PreparedStatement pstmt = null;
 		try
 		{
-			int countCreated = 0;
+			pstmt = DB.prepareStatement(SQL_INSERT_CHANGELOG, ITrx.TRXNAME_ThreadInherited);
 			for (final ChangeLogRecord record : records)
 			{
-				if (record == null)
-				{
-					continue;
-				}
-
-				// Null handling
 				final Object oldValue = record.getOldValue();
 				final Object newValue = record.getNewValue();
-				if (oldValue == null && newValue == null)
-				{
-					continue;
-				}
-				// Equal Value
-				if (oldValue != null && newValue != null && oldValue.equals(newValue))
-				{
-					continue;
-				}
-
-				//
-				final int AD_Table_ID = record.getAD_Table_ID();
-				if (!isLogged(AD_Table_ID))
-				{
-					continue;
-				}
-
-				if (pstmt == null)
-				{
-					pstmt = DB.prepareStatement(SQL_INSERT_CHANGELOG, ITrx.TRXNAME_ThreadInherited);
-				}
-
 				DB.setParameters(pstmt, new Object[] {
-						AD_Table_ID //
+						record.getAD_Table_ID() //
 						, record.getAD_Column_ID() //
 						, record.getRecord_ID() //
 						//
@@ -148,18 +197,14 @@ public class SessionDAO implements ISessionDAO
 						, record.getAD_User_ID() // UpdatedBy
 				});
 				pstmt.addBatch();
-				countCreated++;
 			}
 
-			if (pstmt != null)
-			{
-				pstmt.executeBatch();
-				logger.trace("Created {} records", countCreated);
-			}
+			pstmt.executeBatch();
+			logger.trace("Created {} records", records.size());
 		}
-		catch (final Exception e)
+		catch (final SQLException e)
 		{
-			logger.error("Failed creating change log", e);
+			throw new DBException(e, SQL_INSERT_CHANGELOG);
 		}
 		finally
 		{
@@ -167,6 +212,61 @@ public class SessionDAO implements ISessionDAO
 		}
 	}
 
+	private boolean isAsyncChangeLogWriterEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_AsyncChangeLogWriter, false);
+	}
+
+	/**
+	 * Collects the given records in the current transaction and hands them to the {@link AsyncChangeLogWriter} when the transaction is committed.
+	 * If the transaction is rolled back, the records are discarded, just like they were when inserted within the transaction.
+	 */
+	private void enqueueAfterCommit(final List<ChangeLogRecord> records)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(trx))
+		{
+			getAsyncChangeLogWriter().enqueue(records);
+			return;
+		}
+
+		final List<ChangeLogRecord> trxRecords = trx.getProperty(TRX_PROPERTY_AsyncChangeLogRecords, () -> {
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.AFTER_COMMIT)
+					.registerHandlingMethod(committedTrx -> {
+						final List<ChangeLogRecord> committedRecords = committedTrx.setProperty(TRX_PROPERTY_AsyncChangeLogRecords, null);
+						if (committedRecords != null)
+						{
+							getAsyncChangeLogWriter().enqueue(committedRecords);
+						}
+					});
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.AFTER_ROLLBACK)
+					.registerHandlingMethod(rolledBackTrx -> rolledBackTrx.setProperty(TRX_PROPERTY_AsyncChangeLogRecords, null));
+
+			return new ArrayList<>();
+		});
+		trxRecords.addAll(records);
+	}
+
+	private AsyncChangeLogWriter getAsyncChangeLogWriter()
+	{
+		return asyncChangeLogWriter.get();
+	}
+
+	/** Writes the given records in one new transaction; called by the {@link AsyncChangeLogWriter}. */
+	private void insertChangeLogsInNewTrx(final List<ChangeLogRecord> records)
+	{
+		Services.get(ITrxManager.class).runInNewTrx(() -> insertChangeLogs(records));
+	}
+
+	@Override
+	public ChangeLogWriterStatistics getChangeLogWriterStatistics()
+	{
+		return getAsyncChangeLogWriter().getStatistics();
+	}
+
 	/**
 	 * Do we track changes for this table
 	 *
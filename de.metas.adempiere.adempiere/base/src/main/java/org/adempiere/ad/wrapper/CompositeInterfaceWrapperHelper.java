@@ -174,6 +174,13 @@ public class CompositeInterfaceWrapperHelper implements IInterfaceWrapperHelper
 		helper.setTrxName(model, trxName, ignoreIfNotHandled);
 	}
 
+	@Override
+	public void setCtx(final Object model, final Properties ctx)
+	{
+		getHelperThatCanHandle(model)
+				.setCtx(model, ctx);
+	}
+
 	@Override
 	public int getId(final Object model)
 	{
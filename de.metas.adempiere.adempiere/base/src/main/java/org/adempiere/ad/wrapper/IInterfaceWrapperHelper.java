@@ -82,6 +82,16 @@ public interface IInterfaceWrapperHelper
 		}
 	}
 
+	/**
+	 * Sets the context of the given model.
+	 *
+	 * @throws AdempiereException if the given model is not handled.
+	 */
+	default void setCtx(final Object model, final Properties ctx)
+	{
+		throw new AdempiereException("Not supported model " + model + " (class:" + (model == null ? null : model.getClass()) + ")");
+	}
+
 	int getId(final Object model);
 
 	/**
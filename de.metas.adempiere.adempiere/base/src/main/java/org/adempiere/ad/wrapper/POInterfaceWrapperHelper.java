@@ -123,6 +123,12 @@ public class POInterfaceWrapperHelper extends AbstractInterfaceWrapperHelper
 		POWrapper.setTrxName(model, trxName);
 	}
 
+	@Override
+	public void setCtx(final Object model, final Properties ctx)
+	{
+		POWrapper.setCtx(model, ctx);
+	}
+
 	@Override
 	public int getId(final Object model)
 	{
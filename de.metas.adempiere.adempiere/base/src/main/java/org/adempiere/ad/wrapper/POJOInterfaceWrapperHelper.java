@@ -117,6 +117,12 @@ public class POJOInterfaceWrapperHelper extends AbstractInterfaceWrapperHelper
 		POJOWrapper.setTrxName(model, trxName);
 	}
 
+	@Override
+	public void setCtx(final Object model, final Properties ctx)
+	{
+		POJOWrapper.setCtx(model, ctx);
+	}
+
 	@Override
 	public int getId(final Object model)
 	{
@@ -409,6 +409,13 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 		wrapper.setTrxName(trxName);
 	}
 
+	public static void setCtx(final Object model, final Properties ctx)
+	{
+		final POJOWrapper wrapper = getWrapper(model);
+		Check.assumeNotNull(wrapper, "Wrapper for model {} is not null", model);
+		wrapper.setCtx(ctx);
+	}
+
 	public static POJOWrapper getWrapper(final Object model)
 	{
 		if (model == null)
@@ -451,7 +458,7 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 
 	// private final transient Logger log = CLogMgt.getLogger(getClass());
 	private final long instanceId;
-	private final Properties ctx;
+	private Properties ctx;
 	private final IPOJOLookupMap lookup;
 	private final String tableName;
 	private final Class<?> interfaceClass;
@@ -570,6 +577,11 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 		return ctx;
 	}
 
+	public void setCtx(@NonNull final Properties ctx)
+	{
+		this.ctx = ctx;
+	}
+
 	public Class<?> getInterfaceClass()
 	{
 		return interfaceClass;
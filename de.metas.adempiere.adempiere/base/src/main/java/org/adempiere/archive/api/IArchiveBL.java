@@ -22,9 +22,14 @@ package org.adempiere.archive.api;
  * #L%
  */
 
+import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.persistence.ModelDynAttributeAccessor;
+import org.adempiere.archive.spi.IArchiveStorage;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.PrintInfo;
 import org.compiere.print.layout.LayoutEngine;
@@ -125,4 +130,24 @@ public interface IArchiveBL extends ISingletonService
 	InputStream getBinaryDataAsStream(I_AD_Archive archive);
 
 	void setBinaryData(I_AD_Archive archive, byte[] data);
+
+	/**
+	 * @see IArchiveStorage#setBinaryData(I_AD_Archive, InputStream)
+	 */
+	void setBinaryData(I_AD_Archive archive, InputStream data);
+
+	/**
+	 * Writes the archive's data to given output stream, without loading it completely into memory (if the archive's storage supports it).
+	 *
+	 * @return number of bytes written
+	 * @see IArchiveStorage#transferBinaryDataTo(I_AD_Archive, OutputStream)
+	 */
+	long transferBinaryDataTo(I_AD_Archive archive, OutputStream out);
+
+	/**
+	 * @return the local file which contains the archive's data or <code>null</code> if the archive's storage does not keep the data in local files
+	 * @see IArchiveStorage#getBinaryDataAsLocalFile(I_AD_Archive)
+	 */
+	@Nullable
+	File getBinaryDataAsLocalFile(I_AD_Archive archive);
 }
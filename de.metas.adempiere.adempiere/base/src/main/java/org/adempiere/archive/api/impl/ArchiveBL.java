@@ -22,7 +22,9 @@ package org.adempiere.archive.api.impl;
  * #L%
  */
 
+import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Properties;
 
 import org.adempiere.ad.table.api.IADTableDAO;
@@ -370,4 +372,22 @@ public class ArchiveBL implements IArchiveBL
 	{
 		return Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).getBinaryDataAsStream(archive);
 	}
+
+	@Override
+	public void setBinaryData(final I_AD_Archive archive, final InputStream data)
+	{
+		Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).setBinaryData(archive, data);
+	}
+
+	@Override
+	public long transferBinaryDataTo(final I_AD_Archive archive, final OutputStream out)
+	{
+		return Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).transferBinaryDataTo(archive, out);
+	}
+
+	@Override
+	public File getBinaryDataAsLocalFile(final I_AD_Archive archive)
+	{
+		return Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).getBinaryDataAsLocalFile(archive);
+	}
 }
@@ -23,9 +23,13 @@ package org.adempiere.archive.spi;
  */
 
 
+import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Properties;
 
+import javax.annotation.Nullable;
+
 import org.compiere.model.I_AD_Archive;
 
 /**
@@ -59,4 +63,32 @@ public interface IArchiveStorage
 	InputStream getBinaryDataAsStream(I_AD_Archive archive);
 
 	void setBinaryData(I_AD_Archive archive, byte[] data);
+
+	/**
+	 * Like {@link #setBinaryData(I_AD_Archive, byte[])}, but reads the data from given stream, without loading it completely into memory (if the storage supports it).
+	 * 
+	 * NOTE: the stream is read until its end, but it's not closed.
+	 * 
+	 * @param archive
+	 * @param data
+	 */
+	void setBinaryData(I_AD_Archive archive, InputStream data);
+
+	/**
+	 * Writes the archive's data to given output stream, without loading it completely into memory (if the storage supports it).
+	 * 
+	 * NOTE: the output stream is not closed.
+	 * 
+	 * @param archive
+	 * @param out
+	 * @return number of bytes written
+	 */
+	long transferBinaryDataTo(I_AD_Archive archive, OutputStream out);
+
+	/**
+	 * @param archive
+	 * @return the local file which contains the archive's data or <code>null</code> if the storage does not keep the data in local files
+	 */
+	@Nullable
+	File getBinaryDataAsLocalFile(I_AD_Archive archive);
 }
@@ -24,14 +24,20 @@ package org.adempiere.archive.spi.impl;
 
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Properties;
 
 import org.adempiere.archive.api.IArchiveStorageFactory;
 import org.adempiere.archive.spi.IArchiveStorage;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_AD_Archive;
 
+import com.google.common.io.ByteStreams;
+
 import de.metas.util.Services;
 
 /**
@@ -66,6 +72,47 @@ public abstract class AbstractArchiveStorage implements IArchiveStorage
 		return new ByteArrayInputStream(inflatedData);
 	}
 
+	/**
+	 * Reads the whole stream into memory and calls {@link #setBinaryData(I_AD_Archive, byte[])}. Storages which can do better shall override it.
+	 */
+	@Override
+	public void setBinaryData(final I_AD_Archive archive, final InputStream data)
+	{
+		final byte[] inflatedData;
+		try
+		{
+			inflatedData = ByteStreams.toByteArray(data);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading the data for " + archive, e);
+		}
+		setBinaryData(archive, inflatedData);
+	}
+
+	@Override
+	public long transferBinaryDataTo(final I_AD_Archive archive, final OutputStream out)
+	{
+		try (final InputStream in = getBinaryDataAsStream(archive))
+		{
+			if (in == null)
+			{
+				return 0;
+			}
+			return ByteStreams.copy(in, out);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed transferring the data of " + archive, e);
+		}
+	}
+
+	@Override
+	public File getBinaryDataAsLocalFile(final I_AD_Archive archive)
+	{
+		return null;
+	}
+
 	protected IArchiveStorageFactory getArchiveStorageFactory()
 	{
 		return Services.get(IArchiveStorageFactory.class);
@@ -25,6 +25,8 @@ package org.adempiere.archive.spi.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Properties;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
@@ -34,6 +36,9 @@ import java.util.zip.ZipOutputStream;
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.model.I_AD_Archive;
 import org.slf4j.Logger;
+
+import com.google.common.io.ByteStreams;
+
 import de.metas.logging.LogManager;
 
 /**
@@ -106,12 +111,52 @@ public class DBArchiveStorage extends AbstractArchiveStorage
 		return inflatedData;
 	} // getBinaryData
 
+	/**
+	 * Get the inflated data as stream, without inflating it completely into memory.
+	 *
+	 * @return stream or null
+	 */
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		final byte[] deflatedData = archive.getBinaryData();
+		if (deflatedData == null || deflatedData.length == 0)
+		{
+			return null;
+		}
+
+		try
+		{
+			final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(deflatedData));
+			final ZipEntry entry = zip.getNextEntry();
+			if (entry == null)
+			{
+				zip.close();
+				return null;
+			}
+			return zip; // just one entry
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException(e);
+		}
+	}
+
 	@Override
-	public void setBinaryData(I_AD_Archive archive, byte[] inflatedData)
+	public void setBinaryData(final I_AD_Archive archive, final byte[] inflatedData)
 	{
 		if (inflatedData == null || inflatedData.length == 0)
 			throw new IllegalArgumentException("InflatedData is NULL");
-		// m_inflated = new Integer(inflatedData.length);
+
+		setBinaryData(archive, new ByteArrayInputStream(inflatedData));
+	}
+
+	/**
+	 * Deflates the data while reading it, so only the deflated data is kept in memory.
+	 */
+	@Override
+	public void setBinaryData(final I_AD_Archive archive, final InputStream inflatedData)
+	{
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
 		ZipOutputStream zip = new ZipOutputStream(out);
 		zip.setMethod(ZipOutputStream.DEFLATED);
@@ -125,7 +170,9 @@ public class DBArchiveStorage extends AbstractArchiveStorage
 			entry.setTime(System.currentTimeMillis());
 			entry.setMethod(ZipEntry.DEFLATED);
 			zip.putNextEntry(entry);
-			zip.write(inflatedData, 0, inflatedData.length);
+			final long inflatedSize = ByteStreams.copy(inflatedData, zip);
+			if (inflatedSize <= 0)
+				throw new IllegalArgumentException("InflatedData is NULL");
 			zip.closeEntry();
 			logger.debug(entry.getCompressedSize() + " (" + entry.getSize() + ") "
 					+ (entry.getCompressedSize() * 100 / entry.getSize()) + "%");
@@ -133,14 +180,10 @@ public class DBArchiveStorage extends AbstractArchiveStorage
 			// zip.finish();
 			zip.close();
 			deflatedData = out.toByteArray();
-			logger.debug("Length=" + inflatedData.length);
-			// m_deflated = new Integer(deflatedData.length);
+			logger.debug("Length=" + inflatedSize);
 		}
-		catch (Exception e)
+		catch (IOException e)
 		{
-			// log.error("saveLOBData", e);
-			// deflatedData = null;
-			// m_deflated = null;
 			throw new AdempiereException(e);
 		}
 
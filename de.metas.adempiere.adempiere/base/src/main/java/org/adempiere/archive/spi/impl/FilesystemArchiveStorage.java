@@ -23,12 +23,31 @@ package org.adempiere.archive.spi.impl;
  */
 
 
-import java.io.BufferedOutputStream;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.Properties;
 import org.slf4j.Logger;
+
+import com.google.common.io.BaseEncoding;
+
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
@@ -38,6 +57,7 @@ import org.adempiere.archive.api.IArchiveBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.IClientDAO;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_Client;
 import org.compiere.util.Ini;
@@ -52,9 +72,6 @@ import org.compiere.util.Util;
  */
 public class FilesystemArchiveStorage extends AbstractArchiveStorage
 {
-	// the encoding that we use when converting the path info to and from byte[]
-	private static final String UTF_8 = "UTF-8";
-
 	private static final Logger logger = LogManager.getLogger(FilesystemArchiveStorage.class);
 
 	/**
@@ -62,6 +79,12 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	 */
 	private static final String ARCHIVE_FOLDER_PLACEHOLDER = "%ARCHIVE_FOLDER%";
 
+	/**
+	 * If enabled, new archive files are stored in {@value #CONTENT_FOLDER} and named after their content's hash, so that equal files are stored only once.
+	 */
+	public static final String SYSCONFIG_ContentAddressed = "org.adempiere.archive.spi.impl.FilesystemArchiveStorage.ContentAddressed";
+	private static final String CONTENT_FOLDER = "content";
+
 	private String archivePathRoot;
 
 	public FilesystemArchiveStorage()
@@ -139,125 +162,225 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	@Override
 	public byte[] getBinaryData(final I_AD_Archive archive)
 	{
-		checkContext();
-		
-		byte[] data = archive.getBinaryData();
-		// m_deflated = null;
-		// m_inflated = null;
-		if (data == null)
+		final File file = getBinaryDataAsLocalFile(archive);
+		if (file == null)
+		{
+			return null;
+		}
+
+		final byte[] dataEntry = Util.readBytes(file);
+		return dataEntry;
+	}
+
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		final File file = getBinaryDataAsLocalFile(archive);
+		if (file == null)
 		{
 			return null;
 		}
 
 		try
 		{
-			// 04692: metas-ts removed xml processing because totally don't need it and it's prone to "content-is-not-allowed-in-prolog" errors
-			String filePath = new String(data, UTF_8);
-			if (Check.isEmpty(filePath, true))
-			{
-				throw new AdempiereException("No File Path was found in attached XML message for " + archive);
-			}
+			return new BufferedInputStream(new FileInputStream(file));
+		}
+		catch (final IOException ioe)
+		{
+			throw new AdempiereException(ioe.getLocalizedMessage(), ioe);
+		}
+	}
 
-			filePath = filePath.replaceFirst(ARCHIVE_FOLDER_PLACEHOLDER, archivePathRoot.replaceAll("\\\\", "\\\\\\\\"));
-			// just to be shure...
-			String replaceSeparator = File.separator;
-			if (!replaceSeparator.equals("/"))
-			{
-				replaceSeparator = "\\\\";
-			}
-			filePath = filePath.replaceAll("/", replaceSeparator);
-			filePath = filePath.replaceAll("\\\\", replaceSeparator);
-			logger.debug("FilePath: " + filePath);
+	/**
+	 * Transfers the file's content using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+	 * so if <code>out</code> is a {@link FileOutputStream}, the data is copied by the operating system, without passing through the heap.
+	 */
+	@Override
+	public long transferBinaryDataTo(final I_AD_Archive archive, final OutputStream out)
+	{
+		final File file = getBinaryDataAsLocalFile(archive);
+		if (file == null)
+		{
+			return 0;
+		}
 
-			final File file = new File(filePath);
-			if (!file.exists())
+		try (final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			final WritableByteChannel outChannel = out instanceof FileOutputStream ? ((FileOutputStream)out).getChannel() : Channels.newChannel(out);
+
+			final long size = fileChannel.size();
+			long position = 0;
+			while (position < size)
 			{
-				throw new AdempiereException("File not found: " + file.getAbsolutePath());
+				position += fileChannel.transferTo(position, size - position, outChannel);
 			}
+			return position;
+		}
+		catch (final IOException ioe)
+		{
+			throw new AdempiereException("Failed transferring the data of " + archive + " from " + file, ioe);
+		}
+	}
 
-			final byte[] dataEntry = Util.readBytes(file);
-			return dataEntry;
+	@Override
+	public File getBinaryDataAsLocalFile(final I_AD_Archive archive)
+	{
+		checkContext();
+
+		byte[] data = archive.getBinaryData();
+		if (data == null)
+		{
+			return null;
 		}
-		catch (IOException ioe)
+
+		// 04692: metas-ts removed xml processing because totally don't need it and it's prone to "content-is-not-allowed-in-prolog" errors
+		String filePath = new String(data, StandardCharsets.UTF_8);
+		if (Check.isEmpty(filePath, true))
 		{
-			// I/O error
-			// logger.error(ioe.getLocalizedMessage(), ioe);
-			throw new AdempiereException(ioe.getLocalizedMessage(), ioe);
+			throw new AdempiereException("No File Path was found in attached XML message for " + archive);
+		}
+
+		filePath = filePath.replaceFirst(ARCHIVE_FOLDER_PLACEHOLDER, archivePathRoot.replaceAll("\\\\", "\\\\\\\\"));
+		// just to be shure...
+		String replaceSeparator = File.separator;
+		if (!replaceSeparator.equals("/"))
+		{
+			replaceSeparator = "\\\\";
+		}
+		filePath = filePath.replaceAll("/", replaceSeparator);
+		filePath = filePath.replaceAll("\\\\", replaceSeparator);
+		logger.debug("FilePath: " + filePath);
+
+		final File file = new File(filePath);
+		if (!file.exists())
+		{
+			throw new AdempiereException("File not found: " + file.getAbsolutePath());
 		}
-		// return null;
+
+		return file;
 	}
 
 	/**
-	 * Save to file system. If the MArchive is not saved yet (id==0) it will first save the MArchive object because it uses the id as filename.
+	 * Save to file system. See {@link #setBinaryData(I_AD_Archive, InputStream)}.
 	 * 
 	 * @param inflatedData
 	 */
 	@Override
 	public void setBinaryData(final I_AD_Archive archive, final byte[] inflatedData)
 	{
-		checkContext();
-		
 		if (inflatedData == null || inflatedData.length == 0)
 		{
 			throw new IllegalArgumentException("InflatedData is NULL");
 		}
 
-		if (archive.getAD_Archive_ID() <= 0)
+		setBinaryData(archive, new ByteArrayInputStream(inflatedData));
+	}
+
+	/**
+	 * Save to file system, streaming the data into a temporary file first.
+	 * <p>
+	 * If {@value #SYSCONFIG_ContentAddressed} is enabled, the file is named after the SHA-256 hash of its content. If there is already such a file, it's reused,
+	 * so the same document archived many times takes the disk space only once. Note that archive files are never deleted by this storage, so sharing them is safe.
+	 * <p>
+	 * Else, if the MArchive is not saved yet (id==0) it will first save the MArchive object because it uses the id as filename.
+	 */
+	@Override
+	public void setBinaryData(final I_AD_Archive archive, final InputStream inflatedData)
+	{
+		checkContext();
+
+		Check.assumeNotNull(inflatedData, "Parameter inflatedData is not null");
+
+		final boolean contentAddressed = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ContentAddressed, false, archive.getAD_Client_ID(), archive.getAD_Org_ID());
+		if (!contentAddressed && archive.getAD_Archive_ID() <= 0)
 		{
 			// set binary data otherwise save will fail
 			archive.setBinaryData(new byte[] { '0' });
 			InterfaceWrapperHelper.save(archive);
 		}
 
-		// final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		BufferedOutputStream out = null;
+		Path tempFile = null;
 		try
 		{
-			// create destination folder
-			final File destFolder = new File(archivePathRoot + File.separator + getArchivePathSnippet(archive));
-			if (!destFolder.exists())
+			// write to a temp file next to the destination folders, so that we can move it atomically
+			final Path clientFolder = Paths.get(archivePathRoot, String.valueOf(archive.getAD_Client_ID()));
+			Files.createDirectories(clientFolder);
+			tempFile = Files.createTempFile(clientFolder, ".archive", ".tmp");
+
+			final MessageDigest digest = contentAddressed ? MessageDigest.getInstance("SHA-256") : null;
+			final InputStream in = digest != null ? new DigestInputStream(inflatedData, digest) : inflatedData;
+			final long size = Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			if (size <= 0)
 			{
-				if (!destFolder.mkdirs())
-				{
-					logger.warn("Unable to create folder: " + destFolder.getPath());
-				}
+				throw new IllegalArgumentException("InflatedData is NULL");
 			}
-			// write to pdf
+
 			final String mimeType = Services.get(IArchiveBL.class).getContentType(archive);
 			final String fileExtension = MimeType.getExtensionByType(mimeType);
-			final String filenamePart = archive.getAD_Archive_ID() + fileExtension;
-			final File destFile = new File(destFolder, filenamePart);
+			final String archivePathSnippet;
+			final String filenamePart;
+			if (digest != null)
+			{
+				final String hash = BaseEncoding.base16().lowerCase().encode(digest.digest());
+				archivePathSnippet = archive.getAD_Client_ID() + File.separator + CONTENT_FOLDER + File.separator + hash.substring(0, 2) + File.separator;
+				filenamePart = hash + fileExtension;
+			}
+			else
+			{
+				archivePathSnippet = getArchivePathSnippet(archive);
+				filenamePart = archive.getAD_Archive_ID() + fileExtension;
+			}
+
+			// create destination folder
+			final Path destFolder = Paths.get(archivePathRoot, archivePathSnippet);
+			Files.createDirectories(destFolder);
 
-			out = new BufferedOutputStream(new FileOutputStream(destFile));
-			out.write(inflatedData);
-			out.flush();
+			final Path destFile = destFolder.resolve(filenamePart);
+			if (digest != null && Files.exists(destFile) && Files.size(destFile) == size)
+			{
+				logger.debug("Reusing {} which has the same content", destFile);
+			}
+			else
+			{
+				moveFile(tempFile, destFile);
+			}
 
 			// 04692: metas-ts removed xml processing because totally don't need it and it's prone to "content-is-not-allowed-in-prolog" errors
-			final String archiveInfo = ARCHIVE_FOLDER_PLACEHOLDER + getArchivePathSnippet(archive) + filenamePart;
-			archive.setBinaryData(archiveInfo.getBytes(UTF_8));
+			final String archiveInfo = ARCHIVE_FOLDER_PLACEHOLDER + archivePathSnippet + filenamePart;
+			archive.setBinaryData(archiveInfo.getBytes(StandardCharsets.UTF_8));
 			archive.setIsFileSystem(true);
 		}
 		catch (Exception e)
 		{
 			archive.setBinaryData(null);
-			// m_deflated = null;
 			throw new AdempiereException("Error saving data to filesystem (archive=" + archive + ")", e);
 		}
 		finally
 		{
-			if (out != null)
+			if (tempFile != null)
 			{
 				try
 				{
-					out.close();
+					Files.deleteIfExists(tempFile);
 				}
 				catch (Exception e)
 				{
+					logger.warn("Failed deleting {}. Ignored.", tempFile, e);
 				}
-				out = null;
 			}
 		}
+	}
 
+	private static void moveFile(final Path source, final Path target) throws IOException
+	{
+		try
+		{
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (final AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
 	}
 
 	/**
@@ -22,10 +22,12 @@
 
 package org.adempiere.model;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -58,6 +60,7 @@ import org.compiere.Adempiere;
 import org.compiere.model.GridField;
 import org.compiere.model.GridTab;
 import org.compiere.model.PO;
+import org.compiere.model.POBatchInsertSaver;
 import org.compiere.model.POInfo;
 import org.compiere.util.Env;
 import org.compiere.util.Evaluatee;
@@ -558,6 +561,16 @@ public class InterfaceWrapperHelper
 		helpers.setTrxName(model, trxName, ignoreIfNotHandled);
 	}
 
+	/**
+	 * Sets the context of the given model, e.g. to process it with its own context after it was loaded together with other records.
+	 *
+	 * @throws AdempiereException if the given model is neither handled by {@link POWrapper} nor by {@link POJOWrapper}.
+	 */
+	public static void setCtx(final Object model, @NonNull final Properties ctx)
+	{
+		helpers.setCtx(model, ctx);
+	}
+
 	private static ITrxManager getTrxManager()
 	{
 		// TODO: consider using as a class field because this method is/will accessed many times
@@ -602,6 +615,56 @@ public class InterfaceWrapperHelper
 		models.forEach(InterfaceWrapperHelper::saveRecord);
 	}
 
+	/**
+	 * Saves the given models like {@link #saveAll(Collection)}, but if they are all new {@link PO}s of the same transaction, they are inserted in batches (see {@link POBatchInsertSaver}).
+	 * <p>
+	 * Only use it if it's fine for the given models that <b>all</b> BEFORE_NEW interceptors are fired before the first record is inserted and the AFTER_NEW interceptors after the last one.
+	 * Otherwise, or if the models are not all new POs of the same transaction, they are saved one by one.
+	 */
+	public static void saveAllNewInBatch(@NonNull final Collection<?> models)
+	{
+		if (models.isEmpty())
+		{
+			return;
+		}
+
+		final List<PO> newPOs = extractNewPOsOfSameTrxOrNull(models);
+		if (newPOs != null && newPOs.size() > 1)
+		{
+			POBatchInsertSaver.saveAll(newPOs);
+			return;
+		}
+
+		models.forEach(InterfaceWrapperHelper::saveRecord);
+	}
+
+	@Nullable
+	private static List<PO> extractNewPOsOfSameTrxOrNull(final Collection<?> models)
+	{
+		final List<PO> pos = new ArrayList<>(models.size());
+		for (final Object model : models)
+		{
+			final Object modelToSave = extractModelToSave(model);
+			if (modelToSave == null || GridTabWrapper.isHandled(modelToSave))
+			{
+				return null;
+			}
+
+			final PO po = POWrapper.getStrictPO(modelToSave);
+			if (po == null || !po.is_new())
+			{
+				return null;
+			}
+			if (!pos.isEmpty() && !Objects.equals(pos.get(0).get_TrxName(), po.get_TrxName()))
+			{
+				return null;
+			}
+
+			pos.add(po);
+		}
+		return pos;
+	}
+
 	/**
 	 * Does the same as {@link #save(Object)},
 	 * but this method can be static-imported into repository implementations which usually have their own method named "save()".
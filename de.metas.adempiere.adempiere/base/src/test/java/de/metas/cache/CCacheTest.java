@@ -244,4 +244,74 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+
+	@Test
+	public void test_weigher()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.weigher((key, value) -> value.length())
+				.build();
+
+		cache.put("k1", "1234");
+		cache.put("k2", "12345678");
+		assertThat(cache.isWeighed()).isTrue();
+		assertThat(cache.getWeight()).isEqualTo(12);
+
+		cache.put("k1", "12");
+		assertThat(cache.getWeight()).isEqualTo(10);
+
+		cache.remove("k2");
+		assertThat(cache.getWeight()).isEqualTo(2);
+
+		cache.reset();
+		assertThat(cache.getWeight()).isZero();
+	}
+
+	@Test
+	public void test_weigher_maximumWeight()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.weigher((key, value) -> value.length())
+				.maximumWeight(20L)
+				.build();
+
+		for (int i = 0; i < 100; i++)
+		{
+			cache.put("key" + i, "12");
+		}
+
+		assertThat(cache.getWeight()).isLessThanOrEqualTo(20);
+		assertThat(cache.getWeight()).isEqualTo(cache.size() * 2);
+		assertThat(cache.stats().getEvictionCount()).isGreaterThan(0);
+	}
+
+	@Test
+	public void test_totalWeight_doesNotCountUnregisteredCaches()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.weigher((key, value) -> 1_000_000)
+				.build();
+		cache.put("k1", "v1");
+
+		assertThat(CacheMgt.get().getTotalWeight()).isGreaterThanOrEqualTo(1_000_000);
+
+		CacheMgt.get().unregister(cache);
+		assertThat(CacheMgt.get().getTotalWeight()).isLessThan(1_000_000);
+	}
+
+	@Test
+	public void test_stats()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder().build();
+
+		cache.getOrLoad("k1", key -> "v1"); // miss + load
+		cache.getOrLoad("k1", key -> "v1"); // hit
+		cache.get("k2"); // miss
+
+		final CCache.CCacheStats stats = cache.stats();
+		assertThat(stats.getHitCount()).isEqualTo(1);
+		assertThat(stats.getMissCount()).isEqualTo(2);
+		assertThat(stats.getLoadCount()).isEqualTo(1);
+		assertThat(stats.getMaximumWeight()).isEqualTo(-1);
+	}
 }
@@ -0,0 +1,148 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class CacheInvalidationBroadcastCoalescerTest
+{
+	private static final long WINDOW_NEVER_ENDS = TimeUnit.HOURS.toMillis(1);
+
+	private List<CacheInvalidateMultiRequest> sent;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		sent = new ArrayList<>();
+	}
+
+	private CacheInvalidationBroadcastCoalescer newCoalescer(final long windowMillis, final int escalateToTableThreshold, final int maxRequestsPerEvent)
+	{
+		return new CacheInvalidationBroadcastCoalescer(
+				request -> {
+					sent.add(request);
+					return 1;
+				},
+				windowMillis,
+				escalateToTableThreshold,
+				maxRequestsPerEvent);
+	}
+
+	@Test
+	void noWindow_sendsRightAway()
+	{
+		final CacheInvalidationBroadcastCoalescer coalescer = newCoalescer(0, 100, 100);
+
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+
+		assertThat(sent).hasSize(2);
+	}
+
+	@Test
+	void duplicatesAreSentOnce()
+	{
+		final CacheInvalidationBroadcastCoalescer coalescer = newCoalescer(WINDOW_NEVER_ENDS, 100, 100);
+
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 2));
+		assertThat(sent).isEmpty();
+
+		coalescer.flush();
+
+		assertThat(sent).hasSize(1);
+		assertThat(sent.get(0).getRequests()).containsExactly(
+				CacheInvalidateRequest.rootRecord("T1", 1),
+				CacheInvalidateRequest.rootRecord("T1", 2));
+
+		final CacheInvalidationBroadcastStatistics statistics = coalescer.getStatistics();
+		assertThat(statistics.getRequestsReceived()).isEqualTo(3);
+		assertThat(statistics.getRequestsCoalesced()).isEqualTo(1);
+		assertThat(statistics.getRequestsSent()).isEqualTo(2);
+		assertThat(statistics.getEventsSent()).isEqualTo(1);
+	}
+
+	@Test
+	void escalateToWholeTable()
+	{
+		final CacheInvalidationBroadcastCoalescer coalescer = newCoalescer(WINDOW_NEVER_ENDS, 2, 100);
+
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 2));
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 3));
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 4));
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T2", 1));
+		coalescer.add(CacheInvalidateMultiRequest.allChildRecords("T3", 1, "T3_Line"));
+		coalescer.add(CacheInvalidateMultiRequest.allChildRecords("T3", 2, "T3_Line"));
+		coalescer.add(CacheInvalidateMultiRequest.allChildRecords("T3", 3, "T3_Line"));
+		coalescer.flush();
+
+		assertThat(sent).hasSize(1);
+		assertThat(sent.get(0).getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("T1"),
+				CacheInvalidateRequest.rootRecord("T2", 1),
+				CacheInvalidateRequest.allRecordsForTable("T3"),
+				CacheInvalidateRequest.allRecordsForTable("T3_Line"));
+		assertThat(coalescer.getStatistics().getEscalationsToWholeTable()).isEqualTo(2);
+	}
+
+	@Test
+	void resetAllSupersedesEverything()
+	{
+		final CacheInvalidationBroadcastCoalescer coalescer = newCoalescer(WINDOW_NEVER_ENDS, 100, 100);
+
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+		coalescer.add(CacheInvalidateMultiRequest.all());
+		coalescer.add(CacheInvalidateMultiRequest.rootRecord("T2", 1));
+		coalescer.flush();
+
+		assertThat(sent).hasSize(1);
+		assertThat(sent.get(0).isResetAll()).isTrue();
+	}
+
+	@Test
+	void sentInChunks()
+	{
+		final CacheInvalidationBroadcastCoalescer coalescer = newCoalescer(WINDOW_NEVER_ENDS, 100, 2);
+
+		for (int recordId = 1; recordId <= 5; recordId++)
+		{
+			coalescer.add(CacheInvalidateMultiRequest.rootRecord("T1", recordId));
+		}
+		coalescer.flush();
+
+		assertThat(sent).hasSize(3);
+		assertThat(sent).extracting(request -> request.getRequests().size()).containsExactly(2, 2, 1);
+	}
+}
@@ -0,0 +1,169 @@
+package de.metas.dao.tableid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.Test;
+
+import de.metas.cache.CacheMgt;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TableIdAllocatorTest
+{
+	private static class CountingIdBlockSource implements IdBlockSource
+	{
+		private final AtomicInteger nextId = new AtomicInteger(1000);
+		private final AtomicInteger calls = new AtomicInteger(0);
+		private volatile boolean fail = false;
+
+		@Override
+		public int[] reserveIds(final String tableName, final int count)
+		{
+			calls.incrementAndGet();
+			if (fail)
+			{
+				throw new RuntimeException("failing on purpose");
+			}
+
+			final int firstId = nextId.getAndAdd(count);
+			final int[] ids = new int[count];
+			for (int i = 0; i < count; i++)
+			{
+				ids[i] = firstId + i;
+			}
+			return ids;
+		}
+	}
+
+	private final CountingIdBlockSource adSequenceSource = new CountingIdBlockSource();
+	private final CountingIdBlockSource nativeSequenceSource = new CountingIdBlockSource();
+	private final TableIdAllocator allocator = new TableIdAllocator(adSequenceSource, nativeSequenceSource);
+
+	@Test
+	public void singleThread_consecutiveIds()
+	{
+		final List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 25; i++)
+		{
+			ids.add(allocator.getNextId("C_Invoice_Candidate", false, 10));
+		}
+
+		for (int i = 0; i < ids.size(); i++)
+		{
+			assertThat(ids.get(i)).isEqualTo(1000 + i);
+		}
+
+		// 3 blocks used, the fourth one might be already reserved in advance
+		assertThat(adSequenceSource.calls.get()).isBetween(3, 4);
+		assertThat(nativeSequenceSource.calls.get()).isZero();
+	}
+
+	@Test
+	public void getBlockSize()
+	{
+		AdempiereTestHelper.get().init();
+		assertThat(allocator.getBlockSize("C_Invoice_Candidate")).isZero();
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(TableIdAllocator.SYSCONFIG_BlockSize, 10, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(TableIdAllocator.SYSCONFIG_BlockSize + ".C_Invoice_Candidate", 50, ClientId.SYSTEM, OrgId.ANY);
+
+		CacheMgt.get().reset();
+		assertThat(allocator.getBlockSize("C_Invoice_Candidate")).isEqualTo(50);
+		assertThat(allocator.getBlockSize("Fact_Acct")).isEqualTo(10);
+	}
+
+	@Test
+	public void tablesAndSourcesAreSeparated()
+	{
+		assertThat(allocator.getNextId("M_HU_Trx_Line", false, 10)).isEqualTo(1000);
+		assertThat(allocator.getNextId("Fact_Acct", false, 10)).isEqualTo(1010);
+		assertThat(allocator.getNextId("Fact_Acct", true, 10)).isEqualTo(1000);
+		assertThat(allocator.getNextId("M_HU_Trx_Line", false, 10)).isEqualTo(1001);
+	}
+
+	@Test
+	public void multipleThreads_uniqueIds() throws Exception
+	{
+		final int threads = 8;
+		final int idsPerThread = 5000;
+		final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < idsPerThread; i++)
+					{
+						assertThat(ids.add(allocator.getNextId("Fact_Acct", false, 100))).isTrue();
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertThat(ids).hasSize(threads * idsPerThread);
+	}
+
+	@Test
+	public void failedAsyncRefill_isRetried()
+	{
+		// first block, consume it until a refill is triggered
+		for (int i = 0; i < 7; i++)
+		{
+			allocator.getNextId("C_Invoice_Candidate", false, 10);
+		}
+
+		adSequenceSource.fail = true;
+		allocator.getNextId("C_Invoice_Candidate", false, 10); // triggers the refill which will fail
+		allocator.getNextId("C_Invoice_Candidate", false, 10);
+		adSequenceSource.fail = false;
+
+		assertThat(allocator.getNextId("C_Invoice_Candidate", false, 10)).isEqualTo(1009);
+		assertThat(allocator.getNextId("C_Invoice_Candidate", false, 10)).isGreaterThanOrEqualTo(1010);
+	}
+}
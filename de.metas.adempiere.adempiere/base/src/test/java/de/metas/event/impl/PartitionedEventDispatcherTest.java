@@ -0,0 +1,171 @@
+package de.metas.event.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PartitionedEventDispatcherTest
+{
+	private PartitionedEventDispatcher dispatcher;
+
+	@AfterEach
+	public void shutdown()
+	{
+		if (dispatcher != null)
+		{
+			dispatcher.shutdown();
+		}
+	}
+
+	@Test
+	public void sameKeyIsDispatchedInOrder() throws Exception
+	{
+		dispatcher = new PartitionedEventDispatcher("test", 4, 1000);
+
+		final int keysCount = 20;
+		final int tasksPerKey = 200;
+		final Map<String, List<Integer>> dispatchedByKey = new ConcurrentHashMap<>();
+		final CountDownLatch allDispatched = new CountDownLatch(keysCount * tasksPerKey);
+
+		for (int i = 0; i < tasksPerKey; i++)
+		{
+			for (int k = 0; k < keysCount; k++)
+			{
+				final String key = "key" + k;
+				final int seqNo = i;
+				dispatcher.submit(key, () -> {
+					// only one thread per key, so no need to synchronize the list
+					dispatchedByKey.computeIfAbsent(key, x -> new ArrayList<>()).add(seqNo);
+					allDispatched.countDown();
+				});
+			}
+		}
+
+		assertThat(allDispatched.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(dispatchedByKey).hasSize(keysCount);
+		dispatchedByKey.values().forEach(seqNos -> assertThat(seqNos).isSorted().hasSize(tasksPerKey));
+
+		final PartitionedEventDispatcher.Statistics statistics = dispatcher.getStatistics();
+		assertThat(statistics.getLanes()).isEqualTo(4);
+		assertThat(statistics.getTasksSubmitted()).isEqualTo(keysCount * tasksPerKey);
+	}
+
+	@Test
+	public void publisherIsBlockedWhenLaneIsFull() throws Exception
+	{
+		dispatcher = new PartitionedEventDispatcher("test", 1, 2);
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch running = new CountDownLatch(1);
+		dispatcher.submit(null, () -> {
+			running.countDown();
+			awaitUninterruptibly(release);
+		});
+		assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// the running task still holds its permit, so there is room for one more
+		dispatcher.submit(null, () -> {});
+
+		final CountDownLatch thirdSubmitted = new CountDownLatch(1);
+		final Thread publisher = new Thread(() -> {
+			dispatcher.submit(null, () -> {});
+			thirdSubmitted.countDown();
+		});
+		publisher.start();
+
+		assertThat(thirdSubmitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+		release.countDown();
+		assertThat(thirdSubmitted.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(dispatcher.getStatistics().getPublisherWaits()).isEqualTo(1);
+	}
+
+	@Test
+	public void listenerIsNotBlockedWhenItsOwnLaneIsFull() throws Exception
+	{
+		dispatcher = new PartitionedEventDispatcher("test", 1, 1);
+
+		final CountDownLatch nestedDispatched = new CountDownLatch(3);
+		dispatcher.submit(null, () -> {
+			// the lane is full, but we are the lane's thread; waiting here would be forever
+			for (int i = 0; i < 3; i++)
+			{
+				dispatcher.submit(null, nestedDispatched::countDown);
+			}
+		});
+
+		assertThat(nestedDispatched.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(dispatcher.getStatistics().getTasksOverCapacity()).isEqualTo(3);
+	}
+
+	@Test
+	public void listenerIsNotBlockedWhenTheLaneOfAnotherTopicIsFull() throws Exception
+	{
+		dispatcher = new PartitionedEventDispatcher("test", 1, 1);
+		final PartitionedEventDispatcher otherDispatcher = new PartitionedEventDispatcher("other", 1, 1);
+		try
+		{
+			// fill the other topic's lane
+			final CountDownLatch releaseOther = new CountDownLatch(1);
+			otherDispatcher.submit(null, () -> awaitUninterruptibly(releaseOther));
+
+			final CountDownLatch submittedToOther = new CountDownLatch(1);
+			dispatcher.submit(null, () -> {
+				otherDispatcher.submit(null, () -> {});
+				submittedToOther.countDown();
+			});
+
+			assertThat(submittedToOther.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(otherDispatcher.getStatistics().getTasksOverCapacity()).isEqualTo(1);
+			assertThat(otherDispatcher.getStatistics().getPublisherWaits()).isZero();
+
+			releaseOther.countDown();
+		}
+		finally
+		{
+			otherDispatcher.shutdown();
+		}
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
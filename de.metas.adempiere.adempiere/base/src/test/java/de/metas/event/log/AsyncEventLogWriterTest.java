@@ -0,0 +1,202 @@
+package de.metas.event.log;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.log.EventLogService.EventToLog;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AsyncEventLogWriterTest
+{
+	/** what was written, in the order it was written */
+	private final List<Object> written = new CopyOnWriteArrayList<>();
+
+	private void write(final List<EventToLog> events, final List<EventLogEntry> entries)
+	{
+		written.addAll(events);
+		written.addAll(entries);
+	}
+
+	private static EventToLog event(final UUID uuid)
+	{
+		return EventToLog.builder()
+				.uuid(uuid)
+				.when(Instant.now())
+				.eventData("{}")
+				.topicName("topic")
+				.typeName("LOCAL")
+				.build();
+	}
+
+	private static EventLogEntry entry(final UUID uuid, final String message)
+	{
+		return EventLogEntry.builder()
+				.uuid(uuid)
+				.clientId(1)
+				.orgId(0)
+				.message(message)
+				.build();
+	}
+
+	@Test
+	public void flush_writesEventsBeforeTheirEntries()
+	{
+		final AsyncEventLogWriter writer = new AsyncEventLogWriter(this::write, 100, 10, 0);
+
+		final UUID uuid1 = UUID.randomUUID();
+		final UUID uuid2 = UUID.randomUUID();
+		final EventToLog event1 = event(uuid1);
+		final EventLogEntry entry1 = entry(uuid1, "1");
+		final EventToLog event2 = event(uuid2);
+		final EventLogEntry entry2 = entry(uuid2, "2");
+
+		writer.enqueueEvent(event1);
+		writer.enqueueEntries(ImmutableList.of(entry1));
+		writer.enqueueEvent(event2);
+		writer.enqueueEntries(ImmutableList.of(entry2));
+		writer.flush();
+
+		assertThat(written).containsExactly(event1, event2, entry1, entry2);
+
+		final AsyncEventLogWriter.Statistics statistics = writer.getStatistics();
+		assertThat(statistics.getQueueSize()).isZero();
+		assertThat(statistics.getItemsEnqueued()).isEqualTo(4);
+		assertThat(statistics.getItemsWritten()).isEqualTo(4);
+		assertThat(statistics.getItemsWrittenSynchronously()).isZero();
+	}
+
+	@Test
+	public void queueFull_queueIsFlushedBeforeWritingSynchronously() throws Exception
+	{
+		final CountDownLatch writerEntered = new CountDownLatch(1);
+		final CountDownLatch releaseWriter = new CountDownLatch(1);
+		final AtomicBoolean firstWrite = new AtomicBoolean(true);
+		final AsyncEventLogWriter writer = new AsyncEventLogWriter(
+				(events, entries) -> {
+					if (firstWrite.getAndSet(false))
+					{
+						// block the background writer, so that the queue fills up
+						writerEntered.countDown();
+						awaitUninterruptibly(releaseWriter);
+					}
+					write(events, entries);
+				},
+				1, // queueCapacity
+				10, // batchSize
+				0); // enqueueTimeoutMillis
+
+		final UUID uuid1 = UUID.randomUUID();
+		final UUID uuid2 = UUID.randomUUID();
+		final EventToLog event1 = event(uuid1);
+		writer.enqueueEvent(event1);
+		assertThat(writerEntered.await(10, TimeUnit.SECONDS)).isTrue();
+
+		final EventToLog event2 = event(uuid2);
+		writer.enqueueEvent(event2); // queued
+
+		final EventLogEntry entry2 = entry(uuid2, "2");
+		final Thread producer = new Thread(() -> writer.enqueueEntries(ImmutableList.of(entry2)));
+		producer.start();
+		while (producer.getState() != Thread.State.WAITING)
+		{
+			Thread.sleep(1);
+		}
+
+		// the producer has to wait until the background writer is done, because it flushes the queue first
+		releaseWriter.countDown();
+		producer.join(10_000);
+
+		assertThat(written).containsExactly(event1, event2, entry2);
+		assertThat(writer.getStatistics().getItemsWrittenSynchronously()).isEqualTo(1);
+	}
+
+	@Test
+	public void failingItem_doesNotTakeTheOthersWithIt()
+	{
+		final AsyncEventLogWriter writer = new AsyncEventLogWriter(
+				(events, entries) -> {
+					if (entries.stream().anyMatch(entry -> "bad".equals(entry.getMessage())))
+					{
+						throw new RuntimeException("bad entry");
+					}
+					write(events, entries);
+				},
+				100, 10, 0);
+
+		final UUID uuid = UUID.randomUUID();
+		final EventToLog event = event(uuid);
+		final EventLogEntry entry1 = entry(uuid, "1");
+		final EventLogEntry badEntry = entry(uuid, "bad");
+		final EventLogEntry entry2 = entry(uuid, "2");
+
+		writer.enqueueEvent(event);
+		writer.enqueueEntries(ImmutableList.of(entry1, badEntry, entry2));
+		writer.flush();
+
+		assertThat(written).containsExactly(event, entry1, entry2);
+
+		final AsyncEventLogWriter.Statistics statistics = writer.getStatistics();
+		assertThat(statistics.getItemsWritten()).isEqualTo(3);
+		assertThat(statistics.getItemsFailed()).isEqualTo(1);
+	}
+
+	@Test
+	public void shutdown_writesPendingAndThenWritesSynchronously()
+	{
+		final AsyncEventLogWriter writer = new AsyncEventLogWriter(this::write, 100, 10, 0);
+
+		final UUID uuid = UUID.randomUUID();
+		final EventToLog event = event(uuid);
+		writer.enqueueEvent(event);
+		writer.shutdown();
+		assertThat(written).containsExactly(event);
+
+		final EventLogEntry entry = entry(uuid, "after shutdown");
+		writer.enqueueEntries(ImmutableList.of(entry));
+		assertThat(written).containsExactly(event, entry);
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
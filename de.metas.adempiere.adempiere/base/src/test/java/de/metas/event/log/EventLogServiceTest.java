@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.UUID;
 
 import org.adempiere.ad.wrapper.POJOLookupMap;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.junit.Before;
 import org.junit.Test;
@@ -18,6 +20,8 @@ import de.metas.event.IEventBus;
 import de.metas.event.Type;
 import de.metas.event.model.I_AD_EventLog;
 import de.metas.event.model.I_AD_EventLog_Entry;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
 import mockit.Expectations;
 import mockit.Mocked;
 
@@ -162,6 +166,68 @@ public class EventLogServiceTest
 		assertThat((List)processedbyHandlerInfo).containsOnly(Integer.class.getName(), String.class.getName());
 	}
 
+	@Test
+	public void loadEvent_async()
+	{
+		setSysConfig(EventLogService.SYSCONFIG_Durability, EventLogService.Durability.ASYNC.name());
+
+		final Event event = createSimpleEvent();
+		eventLogService.saveEvent(event, eventBus);
+		eventLogService.saveEventLogEntries(ImmutableList.of(EventLogEntry.builder()
+				.uuid(event.getUuid())
+				.clientId(20)
+				.orgId(30)
+				.processed(true)
+				.eventHandlerClass(String.class)
+				.message("logs as processed and provides handler class info")
+				.build()));
+
+		eventLogService.flush();
+
+		final POJOLookupMap pojoLookupMap = POJOLookupMap.get();
+		final List<I_AD_EventLog> eventLogRecords = pojoLookupMap.getRecords(I_AD_EventLog.class);
+		assertThat(eventLogRecords).hasSize(1);
+		assertThat(pojoLookupMap.getRecords(I_AD_EventLog_Entry.class)).hasSize(1);
+
+		final EventLogId eventLogId = EventLogId.ofRepoId(eventLogRecords.get(0).getAD_EventLog_ID());
+		final Event loadedEvent = eventLogService.loadEventForReposting(eventLogId);
+		final List<Object> processedbyHandlerInfo = loadedEvent.getProperty(EventLogUserService.PROPERTY_PROCESSED_BY_HANDLER_CLASS_NAMES);
+		assertThat(processedbyHandlerInfo).containsOnly(String.class.getName());
+	}
+
+	@Test
+	public void saveEvent_async_remoteEventIsSavedRightAway()
+	{
+		setSysConfig(EventLogService.SYSCONFIG_Durability, EventLogService.Durability.ASYNC.name());
+
+		// the mocked event bus is remote, so the event can be handled on other machines which will need its event log record
+		final Event event = createSimpleEvent();
+		eventLogService.saveEvent(event, eventBus);
+
+		final List<I_AD_EventLog> eventLogRecords = POJOLookupMap.get().getRecords(I_AD_EventLog.class);
+		assertThat(eventLogRecords).hasSize(1);
+		assertThat(eventLogRecords.get(0).getEvent_UUID()).isEqualTo(event.getUuid().toString());
+	}
+
+	@Test
+	public void shallLogEvent_sampled()
+	{
+		final Event event = createSimpleEvent();
+		assertThat(eventLogService.shallLogEvent(event)).isTrue();
+
+		setSysConfig(EventLogService.SYSCONFIG_Durability, EventLogService.Durability.SAMPLED.name());
+		setSysConfig(EventLogService.SYSCONFIG_SamplingPercent, "0");
+		assertThat(eventLogService.shallLogEvent(event)).isFalse();
+
+		setSysConfig(EventLogService.SYSCONFIG_SamplingPercent, "100");
+		assertThat(eventLogService.shallLogEvent(event)).isTrue();
+	}
+
+	private static void setSysConfig(final String name, final String value)
+	{
+		Services.get(ISysConfigBL.class).setValue(name, value, ClientId.SYSTEM, OrgId.ANY);
+	}
+
 	private Event createSimpleEvent()
 	{
 		final Event event = Event.builder()
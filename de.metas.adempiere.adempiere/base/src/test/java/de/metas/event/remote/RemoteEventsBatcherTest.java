@@ -0,0 +1,223 @@
+package de.metas.event.remote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class RemoteEventsBatcherTest
+{
+	private static final long WINDOW_MILLIS_NEVER = 60 * 60 * 1000;
+
+	private final List<SentBatch> sentBatches = new ArrayList<>();
+
+	@Value
+	private static class SentBatch
+	{
+		String topicName;
+		List<Event> events;
+	}
+
+	private int send(final String topicName, final List<Event> events)
+	{
+		sentBatches.add(new SentBatch(topicName, ImmutableList.copyOf(events)));
+		return events.size() * 10;
+	}
+
+	private static Event event(final String summary)
+	{
+		return Event.builder().setSummary(summary).build();
+	}
+
+	@Test
+	public void noBatchingIfNoWindow()
+	{
+		final RemoteEventsBatcher batcher = new RemoteEventsBatcher(this::send, 0, 100);
+		assertThat(batcher.isBatching()).isFalse();
+	}
+
+	@Test
+	public void fullBatchIsSentRightAway()
+	{
+		final RemoteEventsBatcher batcher = new RemoteEventsBatcher(this::send, WINDOW_MILLIS_NEVER, 3);
+
+		final Event e1 = event("1");
+		final Event e2 = event("2");
+		final Event e3 = event("3");
+		batcher.add("topicA", e1);
+		batcher.add("topicA", e2);
+		assertThat(sentBatches).isEmpty();
+
+		batcher.add("topicA", e3);
+		assertThat(sentBatches).containsExactly(new SentBatch("topicA", ImmutableList.of(e1, e2, e3)));
+	}
+
+	@Test
+	public void flushSendsOneBatchPerTopic()
+	{
+		final RemoteEventsBatcher batcher = new RemoteEventsBatcher(this::send, WINDOW_MILLIS_NEVER, 100);
+
+		final Event a1 = event("a1");
+		final Event b1 = event("b1");
+		final Event a2 = event("a2");
+		batcher.add("topicA", a1);
+		batcher.add("topicB", b1);
+		batcher.add("topicA", a2);
+
+		batcher.flush();
+		assertThat(sentBatches).containsExactly(
+				new SentBatch("topicA", ImmutableList.of(a1, a2)),
+				new SentBatch("topicB", ImmutableList.of(b1)));
+
+		final RemoteEventsBatcher.Statistics statistics = batcher.getStatistics();
+		assertThat(statistics.getEventsSent()).isEqualTo(3);
+		assertThat(statistics.getBatchesSent()).isEqualTo(2);
+		assertThat(statistics.getBytesSent()).isEqualTo(30);
+
+		// nothing left to send
+		batcher.flush();
+		assertThat(sentBatches).hasSize(2);
+	}
+
+	@Test
+	public void batchIsSentAfterWindow() throws Exception
+	{
+		final List<SentBatch> sentBatches = new ArrayList<>();
+		final RemoteEventsBatcher batcher = new RemoteEventsBatcher(
+				(topicName, events) -> {
+					synchronized (sentBatches)
+					{
+						sentBatches.add(new SentBatch(topicName, ImmutableList.copyOf(events)));
+						sentBatches.notifyAll();
+					}
+					return 0;
+				},
+				10,
+				100);
+
+		final Event e1 = event("1");
+		batcher.add("topicA", e1);
+
+		synchronized (sentBatches)
+		{
+			final long deadline = System.currentTimeMillis() + 10_000;
+			while (sentBatches.isEmpty() && System.currentTimeMillis() < deadline)
+			{
+				sentBatches.wait(100);
+			}
+			assertThat(sentBatches).containsExactly(new SentBatch("topicA", ImmutableList.of(e1)));
+		}
+	}
+
+	@Test
+	public void shutdownSendsPendingEvents()
+	{
+		final RemoteEventsBatcher batcher = new RemoteEventsBatcher(this::send, WINDOW_MILLIS_NEVER, 100);
+
+		final Event e1 = event("1");
+		batcher.add("topicA", e1);
+		assertThat(sentBatches).isEmpty();
+
+		batcher.shutdown();
+		assertThat(sentBatches).containsExactly(new SentBatch("topicA", ImmutableList.of(e1)));
+
+		// after the shutdown, events are sent right away
+		final Event e2 = event("2");
+		batcher.add("topicA", e2);
+		assertThat(sentBatches).containsExactly(
+				new SentBatch("topicA", ImmutableList.of(e1)),
+				new SentBatch("topicA", ImmutableList.of(e2)));
+	}
+
+	@Test
+	public void fullBatchDoesNotOvertakeTheBatchWhichIsBeingFlushed() throws Exception
+	{
+		final CountDownLatch firstSendStarted = new CountDownLatch(1);
+		final CountDownLatch releaseFirstSend = new CountDownLatch(1);
+		final List<SentBatch> sentBatches = new ArrayList<>();
+		final RemoteEventsBatcher batcher = new RemoteEventsBatcher(
+				(topicName, events) -> {
+					if (firstSendStarted.getCount() > 0)
+					{
+						firstSendStarted.countDown();
+						awaitUninterruptibly(releaseFirstSend);
+					}
+					synchronized (sentBatches)
+					{
+						sentBatches.add(new SentBatch(topicName, ImmutableList.copyOf(events)));
+					}
+					return 0;
+				},
+				WINDOW_MILLIS_NEVER,
+				2);
+
+		final Event e1 = event("1");
+		batcher.add("topicA", e1);
+
+		// the flush blocks while sending e1
+		final Thread flushThread = new Thread(batcher::flush);
+		flushThread.start();
+		assertThat(firstSendStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// meanwhile, the producer fills the next batch; it has to wait until e1 was sent
+		final Event e2 = event("2");
+		final Event e3 = event("3");
+		final Thread producerThread = new Thread(() -> {
+			batcher.add("topicA", e2);
+			batcher.add("topicA", e3);
+		});
+		producerThread.start();
+		producerThread.join(200);
+
+		releaseFirstSend.countDown();
+		flushThread.join(10_000);
+		producerThread.join(10_000);
+
+		assertThat(sentBatches).containsExactly(
+				new SentBatch("topicA", ImmutableList.of(e1)),
+				new SentBatch("topicA", ImmutableList.of(e2, e3)));
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
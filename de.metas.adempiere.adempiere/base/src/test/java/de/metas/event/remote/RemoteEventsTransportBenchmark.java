@@ -0,0 +1,195 @@
+package de.metas.event.remote;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.event.Event;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compares sending each event as its own JSON message with sending batches of Smile encoded events.
+ * <p>
+ * Instead of a broker, the messages are put into an in-memory queue and are then unpacked like {@link RabbitMQEventBusRemoteEndpoint} does it.
+ * So the numbers show the encoding and decoding costs and the number and size of the messages, but not the network or broker overhead per message.
+ * <p>
+ * Not a unit test; run its {@link #main(String[])} with the test classpath.
+ */
+public class RemoteEventsTransportBenchmark
+{
+	private static final int EVENTS_COUNT = 200_000;
+	private static final int ROUNDS = 5;
+	private static final String[] TOPIC_NAMES = { "de.metas.material", "de.metas.cache.CacheInvalidateMultiRequest", "de.metas.notification.UserNotifications" };
+
+	public static void main(final String[] args)
+	{
+		final List<Event> events = createEvents();
+
+		for (int round = 1; round <= ROUNDS; round++)
+		{
+			System.out.println("Round " + round + " (the first rounds are warm up)");
+			System.out.println("  " + runSingleJsonMessages(events));
+			System.out.println("  " + runBatchedSmileMessages(events, 100));
+			System.out.println("  " + runBatchedSmileMessages(events, 500));
+		}
+	}
+
+	private static List<Event> createEvents()
+	{
+		final List<Event> events = new ArrayList<>(EVENTS_COUNT);
+		for (int i = 0; i < EVENTS_COUNT; i++)
+		{
+			events.add(Event.builder()
+					.setUUID(UUID.randomUUID())
+					.setWhen(Instant.now())
+					.putProperty("M_Product_ID", 1000000 + i % 5000)
+					.putProperty("M_Warehouse_ID", 540000 + i % 10)
+					.putProperty("Qty", new BigDecimal(i % 100).add(new BigDecimal("0.5")))
+					.putProperty("TableName", "M_ShipmentSchedule")
+					.putProperty("Record_ID", i)
+					.build());
+		}
+		return events;
+	}
+
+	private static String topicName(final int i)
+	{
+		return TOPIC_NAMES[i % TOPIC_NAMES.length];
+	}
+
+	private static Result runSingleJsonMessages(final List<Event> events)
+	{
+		final Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter(JsonObjectMapperHolder.newJsonObjectMapper());
+		final Queue<Message> broker = new ArrayDeque<>();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		long bytes = 0;
+		for (int i = 0; i < events.size(); i++)
+		{
+			final MessageProperties messageProperties = new MessageProperties();
+			messageProperties.setHeader("metasfresh-events.TopicName", topicName(i));
+			final Message message = converter.toMessage(events.get(i), messageProperties);
+			bytes += message.getBody().length;
+			broker.add(message);
+		}
+		final int messages = broker.size();
+
+		int received = 0;
+		for (Message message = broker.poll(); message != null; message = broker.poll())
+		{
+			received += receive(message).size();
+		}
+
+		return new Result("single JSON", messages, received, bytes, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+	}
+
+	private static Result runBatchedSmileMessages(final List<Event> events, final int maxEventsPerBatch)
+	{
+		final Queue<Message> broker = new ArrayDeque<>();
+		final RemoteEventsBatcher batcher = new RemoteEventsBatcher(
+				(topicName, batch) -> {
+					final MessageProperties messageProperties = new MessageProperties();
+					messageProperties.setContentType(SmileEventBatchSerializer.CONTENT_TYPE);
+					messageProperties.setHeader("metasfresh-events.TopicName", topicName);
+					final byte[] body = SmileEventBatchSerializer.instance.toBytes(batch);
+					broker.add(new Message(body, messageProperties));
+					return body.length;
+				},
+				TimeUnit.HOURS.toMillis(1), // the batches are sent when full or when we flush at the end
+				maxEventsPerBatch);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		for (int i = 0; i < events.size(); i++)
+		{
+			batcher.add(topicName(i), events.get(i));
+		}
+		batcher.flush();
+		final int messages = broker.size();
+
+		int received = 0;
+		for (Message message = broker.poll(); message != null; message = broker.poll())
+		{
+			received += receive(message).size();
+		}
+
+		final RemoteEventsBatcher.Statistics statistics = batcher.getStatistics();
+		return new Result("batched Smile, max " + maxEventsPerBatch + " events", messages, received, statistics.getBytesSent(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+	}
+
+	/** Same as {@link RabbitMQEventBusRemoteEndpoint}. */
+	private static List<Event> receive(final Message message)
+	{
+		if (SmileEventBatchSerializer.CONTENT_TYPE.equals(message.getMessageProperties().getContentType()))
+		{
+			return SmileEventBatchSerializer.instance.fromBytes(message.getBody());
+		}
+		else
+		{
+			final Event event = JacksonJsonEventSerializer.instance.fromString(new String(message.getBody(), StandardCharsets.UTF_8));
+			return Collections.singletonList(event);
+		}
+	}
+
+	private static final class Result
+	{
+		private final String name;
+		private final int messages;
+		private final int eventsReceived;
+		private final long bytes;
+		private final long millis;
+
+		private Result(final String name, final int messages, final int eventsReceived, final long bytes, final long millis)
+		{
+			this.name = name;
+			this.messages = messages;
+			this.eventsReceived = eventsReceived;
+			this.bytes = bytes;
+			this.millis = Math.max(millis, 1);
+		}
+
+		@Override
+		public String toString()
+		{
+			return name + ": "
+					+ eventsReceived + " events in " + messages + " messages, "
+					+ (eventsReceived * 1000L / millis) + " events/s, "
+					+ (messages * 1000L / millis) + " messages/s, "
+					+ (bytes / Math.max(eventsReceived, 1)) + " bytes/event";
+		}
+	}
+}
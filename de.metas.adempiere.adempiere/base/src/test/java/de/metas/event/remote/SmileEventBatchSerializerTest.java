@@ -0,0 +1,103 @@
+package de.metas.event.remote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SmileEventBatchSerializerTest
+{
+	private final SmileEventBatchSerializer serializer = SmileEventBatchSerializer.instance;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init(); // needed for ITableRecordReference
+	}
+
+	private static Event createEvent(final int i)
+	{
+		return Event.builder()
+				.shallBeLogged()
+				.setSummary("Summary" + i)
+				.setDetailPlain("Detail" + i)
+				.setDetailADMessage("Detail_AD_Message", "P1", "P2", "P3")
+				.setUUID(UUID.randomUUID())
+				.setWhen(Instant.now())
+				.addRecipient_User_ID(10)
+				.addRecipient_User_ID(20 + i)
+				.putProperty("Prop_BD", new BigDecimal("3.1415"))
+				.putProperty("Prop_Bool_True", true)
+				.putProperty("Prop_Bool_False", false)
+				.putProperty("Prop_Date", new Date())
+				.putProperty("Prop_TS", new Timestamp(System.currentTimeMillis()))
+				.putProperty("Prop_Int", i)
+				.putProperty("Prop_Str", "string" + i)
+				.putProperty("Prop_Ref", TableRecordReference.of(I_C_Invoice.Table_Name, 123456 + i))
+				.build();
+	}
+
+	@Test
+	public void serializeAndDeserialize()
+	{
+		final ImmutableList<Event> events = ImmutableList.of(createEvent(1), createEvent(2), createEvent(3));
+
+		final byte[] bytes = serializer.toBytes(events);
+		final List<Event> eventsRestored = serializer.fromBytes(bytes);
+
+		assertThat(eventsRestored).isEqualTo(events);
+	}
+
+	@Test
+	public void batchIsSmallerThanJson()
+	{
+		final ImmutableList.Builder<Event> events = ImmutableList.builder();
+		int jsonBytes = 0;
+		for (int i = 0; i < 100; i++)
+		{
+			final Event event = createEvent(i);
+			events.add(event);
+			jsonBytes += JacksonJsonEventSerializer.instance.toString(event).length();
+		}
+
+		final byte[] smileBytes = serializer.toBytes(events.build());
+
+		assertThat(smileBytes.length).isLessThan(jsonBytes / 2);
+	}
+}
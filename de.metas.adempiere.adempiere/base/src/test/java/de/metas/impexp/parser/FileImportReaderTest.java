@@ -6,11 +6,14 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -162,4 +165,35 @@ public class FileImportReaderTest
 		assertTrue(lines.get(1).endsWith("90"));
 		assertTrue(lines.get(2).endsWith("100"));
 	}
+
+	@Test
+	public void streamMultiLines_sameAsReadMultiLines() throws IOException
+	{
+		for (final String fileName : Arrays.asList("multiplelines.csv", "OnlyAppendIfInQuotesPreserveFirstLine.csv", "NumberOfEmptyLinesIsPreserved.csv"))
+		{
+			final File file = FileUtils.toFile(getClass().getResource(packagePath + "/" + fileName));
+			final Charset charset = StandardCharsets.UTF_8;
+
+			final List<String> expectedLines = FileImportReader.readMultiLines(file, charset);
+			try (final InputStream in = getClass().getResourceAsStream(packagePath + "/" + fileName);
+					final Stream<String> stream = FileImportReader.streamMultiLines(in, charset))
+			{
+				assertEquals(fileName, expectedLines, stream.collect(Collectors.toList()));
+			}
+		}
+	}
+
+	@Test
+	public void streamRegularLines_sameAsReadRegularLines() throws IOException
+	{
+		final File file = FileUtils.toFile(getClass().getResource(packagePath + "/regularlines.csv"));
+		final Charset charset = StandardCharsets.UTF_8;
+
+		final List<String> expectedLines = FileImportReader.readRegularLines(file, charset);
+		try (final InputStream in = getClass().getResourceAsStream(packagePath + "/regularlines.csv");
+				final Stream<String> stream = FileImportReader.streamRegularLines(in, charset))
+		{
+			assertEquals(expectedLines, stream.collect(Collectors.toList()));
+		}
+	}
 }
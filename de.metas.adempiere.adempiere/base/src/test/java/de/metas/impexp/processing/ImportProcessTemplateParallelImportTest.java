@@ -0,0 +1,265 @@
+package de.metas.impexp.processing;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IMutable;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.I_I_BPartner;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.impexp.format.ImportTableDescriptorRepository;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ImportProcessTemplateParallelImportTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		SpringContextHolder.registerJUnitBean(new DBFunctionsRepository()
+		{
+			@Override
+			public DBFunctions retrieveByTableName(@NonNull final String tableName)
+			{
+				return DBFunctions.builder().tableName(tableName).build();
+			}
+		});
+		SpringContextHolder.registerJUnitBean(new ImportTableDescriptorRepository());
+
+		Services.get(ISysConfigBL.class).setValue(ImportProcessTemplate.SYSCONFIG_ParallelImportThreads, 4, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Test
+	public void retriedGroup_isCountedOnce_andKeepsItsOrder()
+	{
+		final TestImportProcess importProcess = new TestImportProcess(ImmutableList.of(
+				importRecord("A1", "A", null),
+				importRecord("B1", "B", null),
+				importRecord("A2", "A", null),
+				importRecord("C1", "C", null)));
+		importProcess.failFirstAttemptOf("A1");
+
+		final ImportProcessResult result = importProcess.runImportDataOnly();
+
+		assertThat(result.getCountImportRecordsConsidered()).isEqualTo(OptionalInt.of(4));
+		assertThat(result.getCountInsertsIntoTargetTable()).isEqualTo(OptionalInt.of(4));
+		assertThat(importProcess.errors).isEmpty();
+		assertThat(importProcess.imported).containsExactlyInAnyOrder("A1", "B1", "A2", "C1");
+		assertThat(importProcess.imported).containsSubsequence("A1", "A2");
+	}
+
+	@Test
+	public void groupsWithSameLockKey_doNotCreateTheSameTargetRecordTwice()
+	{
+		final List<I_I_BPartner> importRecords = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+		{
+			// different BPValues, so different shard keys, but only two distinct GlobalIds
+			importRecords.add(importRecord("R" + i, "V" + i, i % 2 == 0 ? "G1" : "G2"));
+		}
+		final TestImportProcess importProcess = new TestImportProcess(importRecords);
+
+		final ImportProcessResult result = importProcess.runImportDataOnly();
+
+		assertThat(importProcess.targetsCreatedByGlobalId).containsOnlyKeys("G1", "G2");
+		assertThat(importProcess.targetsCreatedByGlobalId.get("G1")).hasValue(1);
+		assertThat(importProcess.targetsCreatedByGlobalId.get("G2")).hasValue(1);
+		assertThat(result.getCountInsertsIntoTargetTable()).isEqualTo(OptionalInt.of(2));
+		assertThat(result.getCountUpdatesIntoTargetTable()).isEqualTo(OptionalInt.of(6));
+		assertThat(result.getCountImportRecordsConsidered()).isEqualTo(OptionalInt.of(8));
+	}
+
+	private static I_I_BPartner importRecord(final String name, final String bpValue, final String globalId)
+	{
+		final I_I_BPartner importRecord = newInstance(I_I_BPartner.class);
+		importRecord.setName(name);
+		importRecord.setBPValue(bpValue);
+		importRecord.setGlobalId(globalId);
+		saveRecord(importRecord);
+		return importRecord;
+	}
+
+	/**
+	 * Imports each I_BPartner record as one group, sharded by BPValue and locked by GlobalId.
+	 */
+	private static class TestImportProcess extends ImportProcessTemplate<I_I_BPartner>
+	{
+		private final ImmutableList<I_I_BPartner> importRecords;
+
+		private final Set<String> toFailOnce = ConcurrentHashMap.newKeySet();
+		private final List<String> imported = new ArrayList<>();
+		private final List<String> errors = new ArrayList<>();
+
+		private final Map<String, String> targetsByGlobalId = new ConcurrentHashMap<>();
+		private final Map<String, AtomicInteger> targetsCreatedByGlobalId = new ConcurrentHashMap<>();
+
+		private TestImportProcess(@NonNull final List<I_I_BPartner> importRecords)
+		{
+			this.importRecords = ImmutableList.copyOf(importRecords);
+			setCtx(Env.getCtx());
+		}
+
+		public void failFirstAttemptOf(final String name)
+		{
+			toFailOnce.add(name);
+		}
+
+		@Override
+		protected ImportGroupResult importRecords(final List<I_I_BPartner> importRecords, final IMutable<Object> stateHolder) throws Exception
+		{
+			final I_I_BPartner importRecord = importRecords.get(0);
+			if (toFailOnce.remove(importRecord.getName()))
+			{
+				throw new AdempiereException("failing first attempt of " + importRecord.getName());
+			}
+
+			final ImportGroupResult result;
+			final String globalId = importRecord.getGlobalId();
+			if (globalId != null && !targetsByGlobalId.containsKey(globalId))
+			{
+				Thread.sleep(20); // give another worker the chance to also create it, if it weren't locked
+				targetsByGlobalId.put(globalId, importRecord.getName());
+				targetsCreatedByGlobalId.computeIfAbsent(globalId, k -> new AtomicInteger()).incrementAndGet();
+				result = ImportGroupResult.ONE_INSERTED;
+			}
+			else
+			{
+				result = globalId != null ? ImportGroupResult.ONE_UPDATED : ImportGroupResult.ONE_INSERTED;
+			}
+
+			synchronized (imported)
+			{
+				imported.add(importRecord.getName());
+			}
+			return result;
+		}
+
+		@Override
+		protected void markImported(final I_I_BPartner importRecord)
+		{
+			// nothing to save
+		}
+
+		@Override
+		protected void markAsError(@NonNull final ImportGroup<I_I_BPartner> importGroup, @NonNull final Throwable exception)
+		{
+			synchronized (errors)
+			{
+				importGroup.getImportRecords().forEach(importRecord -> errors.add(importRecord.getName()));
+			}
+		}
+
+		@Override
+		protected Iterator<I_I_BPartner> retrieveRecordsToImport()
+		{
+			return importRecords.iterator();
+		}
+
+		@Override
+		protected ImportGroupKey extractImportGroupKey(final I_I_BPartner importRecord)
+		{
+			return ImportGroupKey.of(I_I_BPartner.COLUMNNAME_I_BPartner_ID, importRecord.getI_BPartner_ID());
+		}
+
+		@Override
+		protected boolean isParallelImportSupported()
+		{
+			return true;
+		}
+
+		@Override
+		protected Object extractParallelImportShardKey(@NonNull final I_I_BPartner importRecord)
+		{
+			return importRecord.getBPValue();
+		}
+
+		@Override
+		protected Set<Object> extractParallelImportLockKeys(@NonNull final I_I_BPartner importRecord)
+		{
+			return importRecord.getGlobalId() != null ? ImmutableSet.of(importRecord.getGlobalId()) : ImmutableSet.of();
+		}
+
+		@Override
+		public Class<I_I_BPartner> getImportModelClass()
+		{
+			return I_I_BPartner.class;
+		}
+
+		@Override
+		public String getImportTableName()
+		{
+			return I_I_BPartner.Table_Name;
+		}
+
+		@Override
+		protected String getTargetTableName()
+		{
+			return "C_BPartner";
+		}
+
+		@Override
+		protected void updateAndValidateImportRecords()
+		{
+			// nothing to do
+		}
+
+		@Override
+		protected String getImportOrderBySql()
+		{
+			return I_I_BPartner.COLUMNNAME_BPValue;
+		}
+
+		@Override
+		protected I_I_BPartner retrieveImportRecord(final Properties ctx, final ResultSet rs)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
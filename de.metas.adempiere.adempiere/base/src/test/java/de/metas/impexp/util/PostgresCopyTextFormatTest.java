@@ -0,0 +1,42 @@
+package de.metas.impexp.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PostgresCopyTextFormatTest
+{
+	@Test
+	public void appendRow()
+	{
+		final StringBuilder sb = new StringBuilder();
+		PostgresCopyTextFormat.appendRow(sb, Arrays.asList(123, null, new BigDecimal("1E+3"), true, "a\tb\nc\\d"));
+
+		assertThat(sb.toString()).isEqualTo("123\t\\N\t1000\tY\ta\\tb\\nc\\\\d\n");
+	}
+}
@@ -1,6 +1,9 @@
 package de.metas.process;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,6 +15,8 @@ import org.compiere.util.Env;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -163,4 +168,47 @@ public class ProcessExecutionResultTest
 
 		assertEqualsAsJson(result, resultCopy);
 	}
+
+	@Test
+	public void reportDataFile_isNotLoadedUntilRequested_butSerialized() throws Exception
+	{
+		final File file = File.createTempFile("ProcessExecutionResultTest", ".csv");
+		file.deleteOnExit();
+
+		final ProcessExecutionResult result = ProcessExecutionResult.newInstanceForADPInstanceId(PInstanceId.ofRepoId(12345));
+		result.setReportData(file, "report.csv", "text/csv");
+
+		// the file is written after setting it, so it's not read before getReportData is called
+		Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+
+		Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, result.getReportData());
+		Assert.assertFalse("file is deleted once it was loaded", file.exists());
+		Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, result.getReportData());
+		Assert.assertEquals("report.csv", result.getReportFilename());
+
+		final ProcessExecutionResult resultFromJson = fromJson(toJson(result));
+		Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, resultFromJson.getReportData());
+		Assert.assertEquals("text/csv", resultFromJson.getReportContentType());
+	}
+
+	@Test
+	public void reportDataFile_isDeletedAfterStreaming() throws Exception
+	{
+		final File file = File.createTempFile("ProcessExecutionResultTest", ".csv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+
+		final ProcessExecutionResult result = ProcessExecutionResult.newInstanceForADPInstanceId(PInstanceId.ofRepoId(12345));
+		result.setReportData(file, "report.csv", "text/csv");
+
+		final Resource resource = result.getReportDataResource();
+		Assert.assertEquals(file, resource.getFile());
+		try (final InputStream in = resource.getInputStream())
+		{
+			Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, StreamUtils.copyToByteArray(in));
+		}
+
+		Assert.assertFalse("file is deleted once it was streamed", file.exists());
+		Assert.assertNull(result.getReportDataResource());
+	}
 }
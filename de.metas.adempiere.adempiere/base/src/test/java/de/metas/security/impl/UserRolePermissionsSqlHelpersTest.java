@@ -0,0 +1,76 @@
+package de.metas.security.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.security.impl.ParsedSql.SqlSelect;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class UserRolePermissionsSqlHelpersTest
+{
+	@Test
+	public void toSqlTemplate_replacesLiterals()
+	{
+		assertThat(UserRolePermissionsSqlHelpers.toSqlTemplate("SELECT * FROM C_Order o WHERE o.C_BPartner_ID=123 AND o.DocStatus='CO' AND o.GrandTotal>10.5"))
+				.isEqualTo("SELECT * FROM C_Order o WHERE o.C_BPartner_ID=? AND o.DocStatus=? AND o.GrandTotal>?");
+	}
+
+	@Test
+	public void toSqlTemplate_parameterOnlyDifferencesGiveSameTemplate()
+	{
+		assertThat(UserRolePermissionsSqlHelpers.toSqlTemplate("SELECT C_BPartner_ID FROM C_BPartner WHERE C_BPartner_ID IN (1,2,3)"))
+				.isEqualTo(UserRolePermissionsSqlHelpers.toSqlTemplate("SELECT C_BPartner_ID FROM C_BPartner WHERE C_BPartner_ID IN (4,5,6)"));
+	}
+
+	@Test
+	public void toSqlTemplate_likePatternsWithRegExpMetacharacters()
+	{
+		assertThat(UserRolePermissionsSqlHelpers.toSqlTemplate("SELECT * FROM M_Product p WHERE p.Value LIKE '$1.%[a]_\\E*%' AND p.Name LIKE '%\\Q^_'"))
+				.isEqualTo("SELECT * FROM M_Product p WHERE p.Value LIKE ? AND p.Name LIKE ?");
+	}
+
+	@Test
+	public void toSqlTemplate_keepsIdentifiersAndComplexStrings()
+	{
+		final String sql = "SELECT t1.Name FROM AD_Table t1 WHERE t1.Name LIKE 'C_BPartner (old)' AND t1.TableName<>'a b'";
+		assertThat(UserRolePermissionsSqlHelpers.toSqlTemplate(sql)).isEqualTo(sql);
+	}
+
+	@Test
+	public void toSqlTemplate_isParsedLikeTheOriginal()
+	{
+		final String sql = "SELECT o.DocumentNo, bp.Name"
+				+ " FROM C_Order o"
+				+ " INNER JOIN C_BPartner bp ON (bp.C_BPartner_ID=o.C_BPartner_ID AND bp.AD_Org_ID IN (0,1000000))"
+				+ " WHERE o.DocStatus='CO' AND o.AD_Client_ID=1000000";
+
+		final SqlSelect expected = ParsedSql.parse(sql).getMainSqlSelect();
+		final SqlSelect actual = ParsedSql.parse(UserRolePermissionsSqlHelpers.toSqlTemplate(sql)).getMainSqlSelect();
+
+		assertThat(actual.getTableNameAndAliases()).isEqualTo(expected.getTableNameAndAliases());
+		assertThat(actual.hasWhereClause()).isEqualTo(expected.hasWhereClause());
+		assertThat(actual.getFirstTableAliasOrTableName()).isEqualTo(expected.getFirstTableAliasOrTableName());
+	}
+}
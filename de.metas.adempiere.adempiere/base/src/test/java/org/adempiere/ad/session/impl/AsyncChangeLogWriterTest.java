@@ -0,0 +1,178 @@
+package org.adempiere.ad.session.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.adempiere.ad.session.ChangeLogRecord;
+import org.adempiere.ad.session.ChangeLogWriterStatistics;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AsyncChangeLogWriterTest
+{
+	private final List<ChangeLogRecord> written = new CopyOnWriteArrayList<>();
+
+	private static ChangeLogRecord record(final int recordId)
+	{
+		return ChangeLogRecord.builder()
+				.setAD_Table_ID(1)
+				.setAD_Column_ID(2)
+				.setRecord_ID(recordId)
+				.setNewValue("value" + recordId)
+				.build();
+	}
+
+	@Test
+	public void flush_writesAllRecordsInOrder()
+	{
+		final AsyncChangeLogWriter writer = new AsyncChangeLogWriter(written::addAll, 100, 2, 0);
+
+		final ImmutableList<ChangeLogRecord> records = ImmutableList.of(record(1), record(2), record(3), record(4), record(5));
+		writer.enqueue(records);
+		writer.flush();
+
+		assertThat(written).containsExactlyElementsOf(records);
+
+		final ChangeLogWriterStatistics statistics = writer.getStatistics();
+		assertThat(statistics.getQueueSize()).isZero();
+		assertThat(statistics.getRecordsEnqueued()).isEqualTo(5);
+		assertThat(statistics.getRecordsWritten()).isEqualTo(5);
+		assertThat(statistics.getRecordsWrittenSynchronously()).isZero();
+	}
+
+	@Test
+	public void queueFull_recordsAreWrittenSynchronously() throws Exception
+	{
+		final CountDownLatch writerEntered = new CountDownLatch(1);
+		final CountDownLatch releaseWriter = new CountDownLatch(1);
+		final AtomicBoolean firstWrite = new AtomicBoolean(true);
+		final AsyncChangeLogWriter writer = new AsyncChangeLogWriter(
+				records -> {
+					if (firstWrite.getAndSet(false))
+					{
+						// block the background writer, so that the queue fills up
+						writerEntered.countDown();
+						awaitUninterruptibly(releaseWriter);
+					}
+					written.addAll(records);
+				},
+				1, // queueCapacity
+				10, // batchSize
+				0); // enqueueTimeoutMillis
+
+		final ChangeLogRecord record1 = record(1);
+		writer.enqueue(ImmutableList.of(record1));
+		assertThat(writerEntered.await(10, TimeUnit.SECONDS)).isTrue();
+
+		final ChangeLogRecord record2 = record(2);
+		final ChangeLogRecord record3 = record(3);
+		writer.enqueue(ImmutableList.of(record2, record3));
+
+		// record2 is queued, record3 was written by us
+		assertThat(written).containsExactly(record3);
+		assertThat(writer.getStatistics().getQueueSize()).isEqualTo(1);
+
+		releaseWriter.countDown();
+		writer.flush();
+
+		assertThat(written).containsExactlyInAnyOrder(record1, record2, record3);
+		final ChangeLogWriterStatistics statistics = writer.getStatistics();
+		assertThat(statistics.getRecordsEnqueued()).isEqualTo(2);
+		assertThat(statistics.getRecordsWritten()).isEqualTo(2);
+		assertThat(statistics.getRecordsWrittenSynchronously()).isEqualTo(1);
+	}
+
+	@Test
+	public void shutdown_writesPendingAndThenWritesSynchronously()
+	{
+		final AsyncChangeLogWriter writer = new AsyncChangeLogWriter(written::addAll, 100, 10, 0);
+
+		final ChangeLogRecord record1 = record(1);
+		writer.enqueue(ImmutableList.of(record1));
+		writer.shutdown();
+		assertThat(written).containsExactly(record1);
+
+		final ChangeLogRecord record2 = record(2);
+		writer.enqueue(ImmutableList.of(record2));
+		assertThat(written).containsExactly(record1, record2);
+		assertThat(writer.getStatistics().getRecordsWrittenSynchronously()).isEqualTo(1);
+	}
+
+	@Test
+	public void flush_doesNotWaitForTheIdleWriter() throws Exception
+	{
+		final AsyncChangeLogWriter writer = new AsyncChangeLogWriter(written::addAll, 100, 10, 0);
+
+		final ChangeLogRecord record1 = record(1);
+		writer.enqueue(ImmutableList.of(record1));
+		final long deadline = System.currentTimeMillis() + 10_000;
+		while (written.isEmpty() && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(10);
+		}
+		assertThat(written).containsExactly(record1);
+
+		// the writer is now waiting for records; it used to hold the write lock for up to 1s while doing so
+		final long startMillis = System.currentTimeMillis();
+		writer.flush();
+		assertThat(System.currentTimeMillis() - startMillis).isLessThan(500);
+
+		writer.shutdown();
+	}
+
+	@Test
+	public void failingSink_recordsAreCounted()
+	{
+		final AsyncChangeLogWriter writer = new AsyncChangeLogWriter(
+				records -> {
+					throw new RuntimeException("test");
+				},
+				100, 10, 0);
+
+		writer.enqueue(ImmutableList.of(record(1), record(2)));
+		writer.flush();
+
+		assertThat(writer.getStatistics().getRecordsFailed()).isEqualTo(2);
+		assertThat(writer.getStatistics().getRecordsWritten()).isZero();
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -362,4 +362,15 @@ public class POJOWrapperTests
 		assertThat(POJOWrapper.getTrxName(bp)).isEqualTo("myTrxName");
 	}
 
+	@Test
+	public void setCtx()
+	{
+		final I_C_BPartner bp = POJOWrapper.create(Env.getCtx(), I_C_BPartner.class);
+		POJOWrapper.save(bp);
+
+		final Properties otherCtx = Env.newTemporaryCtx();
+		InterfaceWrapperHelper.setCtx(bp, otherCtx);
+		assertThat(InterfaceWrapperHelper.getCtx(bp)).isSameAs(otherCtx);
+	}
+
 }
@@ -23,6 +23,8 @@ package org.adempiere.archive.spi.impl;
  */
 
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Random;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -35,6 +37,8 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.google.common.io.ByteStreams;
+
 public class DBArchiveStorageTest
 {
 	@BeforeClass
@@ -67,6 +71,23 @@ public class DBArchiveStorageTest
 		Assert.assertArrayEquals("Invalid data", data, dataActual);
 	}
 
+	@Test
+	public void test_setBinaryData_Stream_getBinaryDataAsStream() throws Exception
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Archive.class, ITrx.TRXNAME_None);
+		final byte[] data = createTestDataBytes();
+		storage.setBinaryData(archive, new ByteArrayInputStream(data));
+		InterfaceWrapperHelper.save(archive);
+
+		Assert.assertEquals("Invalid IsFileSystem flag", false, archive.isFileSystem());
+
+		try (final InputStream in = storage.getBinaryDataAsStream(archive))
+		{
+			Assert.assertArrayEquals("Invalid data", data, ByteStreams.toByteArray(in));
+		}
+		Assert.assertArrayEquals("Invalid data", data, storage.getBinaryData(archive));
+	}
+
 	private final Random random = new Random();
 
 	private byte[] createTestDataBytes()
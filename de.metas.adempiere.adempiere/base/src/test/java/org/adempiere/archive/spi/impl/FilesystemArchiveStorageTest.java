@@ -23,16 +23,22 @@ package org.adempiere.archive.spi.impl;
  */
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.Properties;
 import java.util.Random;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_Client;
 import org.compiere.util.Env;
 import org.compiere.util.Ini;
+import org.compiere.util.Util;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -40,6 +46,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
 public class FilesystemArchiveStorageTest
 {
 	@BeforeClass
@@ -51,6 +60,7 @@ public class FilesystemArchiveStorageTest
 	@Rule
 	public TemporaryFolder storageFolder = new TemporaryFolder();
 	private FilesystemArchiveStorage storage;
+	private I_AD_Client client;
 
 	@Before
 	public void init()
@@ -58,7 +68,7 @@ public class FilesystemArchiveStorageTest
 		AdempiereTestHelper.get().init();
 
 		final Properties ctx = Env.getCtx();
-		final I_AD_Client client = InterfaceWrapperHelper.create(ctx, I_AD_Client.class, ITrx.TRXNAME_None);
+		client = InterfaceWrapperHelper.create(ctx, I_AD_Client.class, ITrx.TRXNAME_None);
 		client.setWindowsArchivePath(storageFolder.getRoot().getAbsolutePath());
 		client.setUnixArchivePath(client.getWindowsArchivePath());
 		client.setStoreArchiveOnFileSystem(true);
@@ -90,6 +100,62 @@ public class FilesystemArchiveStorageTest
 		Assert.assertArrayEquals("Invalid data", data, dataActual);
 	}
 
+	@Test
+	public void test_setBinaryData_Stream_transferBinaryDataTo()
+	{
+		Ini.setClient(false);
+
+		final I_AD_Archive archive = createArchive();
+		final byte[] data = createTestDataBytes();
+		storage.setBinaryData(archive, new ByteArrayInputStream(data));
+		InterfaceWrapperHelper.save(archive);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final long bytesTransferred = storage.transferBinaryDataTo(archive, out);
+
+		Assert.assertEquals("Invalid bytes transferred", data.length, bytesTransferred);
+		Assert.assertArrayEquals("Invalid data", data, out.toByteArray());
+		Assert.assertArrayEquals("Invalid local file", data, Util.readBytes(storage.getBinaryDataAsLocalFile(archive)));
+	}
+
+	@Test
+	public void test_setBinaryData_ContentAddressed()
+	{
+		Ini.setClient(false);
+		Services.get(ISysConfigBL.class).setValue(FilesystemArchiveStorage.SYSCONFIG_ContentAddressed, true, ClientId.ofRepoId(client.getAD_Client_ID()), OrgId.ANY);
+
+		final byte[] data = createTestDataBytes();
+		final I_AD_Archive archive1 = createArchive();
+		storage.setBinaryData(archive1, data);
+		InterfaceWrapperHelper.save(archive1);
+
+		final I_AD_Archive archive2 = createArchive();
+		storage.setBinaryData(archive2, new ByteArrayInputStream(data));
+		InterfaceWrapperHelper.save(archive2);
+
+		final I_AD_Archive archive3 = createArchive();
+		final byte[] otherData = createTestDataBytes();
+		storage.setBinaryData(archive3, otherData);
+		InterfaceWrapperHelper.save(archive3);
+
+		final File file1 = storage.getBinaryDataAsLocalFile(archive1);
+		Assert.assertEquals("Same content shall be stored in the same file", file1, storage.getBinaryDataAsLocalFile(archive2));
+		Assert.assertNotEquals("Different content shall be stored in different files", file1, storage.getBinaryDataAsLocalFile(archive3));
+
+		Assert.assertArrayEquals("Invalid data", data, storage.getBinaryData(archive2));
+		Assert.assertArrayEquals("Invalid data", otherData, storage.getBinaryData(archive3));
+	}
+
+	private I_AD_Archive createArchive()
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Archive.class, ITrx.TRXNAME_None);
+		archive.setAD_Org_ID(0);
+		archive.setAD_Process_ID(0);
+		archive.setAD_Table_ID(0);
+		archive.setRecord_ID(0);
+		return archive;
+	}
+
 	private final Random random = new Random();
 
 	private byte[] createTestDataBytes()
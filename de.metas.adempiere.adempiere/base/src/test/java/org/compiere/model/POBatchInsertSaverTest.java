@@ -0,0 +1,275 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests the order in which {@link POBatchInsertSaver} runs the save steps of the records and how it groups the INSERTs.
+ * The steps themselves are the same ones a single {@link PO#saveEx()} runs.
+ */
+public class POBatchInsertSaverTest
+{
+	@Mocked
+	private PO po1;
+	@Mocked
+	private PO po2;
+	@Mocked
+	private PO po3;
+	@Mocked
+	private PO po4;
+
+	/** what happened, in the order it happened */
+	private final List<String> events = new ArrayList<>();
+
+	private POBatchInsertSaver saver;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		saver = new POBatchInsertSaver((sql, inserts, trxName) -> events.add("batch " + sql + " x" + inserts.size()));
+	}
+
+	private void expectNewRecord(final PO po, final String name, final boolean savePrepareResult, final POBatchInsertSaver.PreparedInsert insert) throws Exception
+	{
+		new Expectations()
+		{
+			{
+				po.is_new();
+				result = true;
+				minTimes = 0;
+
+				po.savePrepare();
+				result = new Delegate<Boolean>()
+				{
+					@SuppressWarnings("unused")
+					boolean delegate()
+					{
+						events.add("savePrepare " + name);
+						return savePrepareResult;
+					}
+				};
+				minTimes = 0;
+
+				po.batchInsert_prepare();
+				result = new Delegate<POBatchInsertSaver.PreparedInsert>()
+				{
+					@SuppressWarnings("unused")
+					POBatchInsertSaver.PreparedInsert delegate()
+					{
+						events.add("prepare " + name);
+						return insert;
+					}
+				};
+				minTimes = 0;
+
+				po.batchInsert_insertSingle();
+				result = new Delegate<Boolean>()
+				{
+					@SuppressWarnings("unused")
+					boolean delegate()
+					{
+						events.add("insertSingle " + name);
+						return true;
+					}
+				};
+				minTimes = 0;
+
+				po.batchInsert_finish(anyBoolean);
+				result = new Delegate<Void>()
+				{
+					@SuppressWarnings("unused")
+					void delegate(final boolean inserted)
+					{
+						events.add("finish " + name + " " + inserted);
+					}
+				};
+				minTimes = 0;
+			}
+		};
+	}
+
+	private static POBatchInsertSaver.PreparedInsert insert(final String sql)
+	{
+		return POBatchInsertSaver.PreparedInsert.of(sql, ImmutableList.of());
+	}
+
+	@Test
+	public void stepsRunForAllRecordsInOrder_andConsecutiveSameInsertsAreBatched() throws Exception
+	{
+		expectNewRecord(po1, "po1", true, insert("A"));
+		expectNewRecord(po2, "po2", true, insert("A"));
+		expectNewRecord(po3, "po3", true, null); // e.g. has LOBs
+		expectNewRecord(po4, "po4", true, insert("A"));
+
+		saver.save(ImmutableList.of(po1, po2, po3, po4));
+
+		assertThat(events).containsExactly(
+				"savePrepare po1", "savePrepare po2", "savePrepare po3", "savePrepare po4",
+				"prepare po1", "prepare po2", "prepare po3", "prepare po4",
+				"batch A x2",
+				"insertSingle po3",
+				"batch A x1",
+				"finish po1 true", "finish po2 true", "finish po3 true", "finish po4 true");
+	}
+
+	@Test
+	public void differentInsertsAreNotBatchedTogether() throws Exception
+	{
+		expectNewRecord(po1, "po1", true, insert("A"));
+		expectNewRecord(po2, "po2", true, insert("B"));
+		expectNewRecord(po3, "po3", true, insert("B"));
+
+		saver.save(ImmutableList.of(po1, po2, po3));
+
+		assertThat(events).containsSubsequence("batch A x1", "batch B x2");
+	}
+
+	@Test
+	public void recordsWhichDontNeedToBeSavedAreSkipped() throws Exception
+	{
+		expectNewRecord(po1, "po1", true, insert("A"));
+		expectNewRecord(po2, "po2", false, insert("A"));
+		expectNewRecord(po3, "po3", true, insert("A"));
+
+		saver.save(ImmutableList.of(po1, po2, po3));
+
+		assertThat(events).containsExactly(
+				"savePrepare po1", "savePrepare po2", "savePrepare po3",
+				"prepare po1", "prepare po3",
+				"batch A x2",
+				"finish po1 true", "finish po3 true");
+	}
+
+	@Test
+	public void failedBatch_recordsAreReset() throws Exception
+	{
+		expectNewRecord(po1, "po1", true, insert("A"));
+		expectNewRecord(po2, "po2", true, insert("A"));
+
+		final POBatchInsertSaver failingSaver = new POBatchInsertSaver((sql, inserts, trxName) -> {
+			throw new AdempiereException("failed");
+		});
+
+		assertThatThrownBy(() -> failingSaver.save(ImmutableList.of(po1, po2)))
+				.hasMessageContaining("failed");
+
+		new Verifications()
+		{
+			{
+				po1.batchInsert_reset();
+				times = 1;
+				po2.batchInsert_reset();
+				times = 1;
+				po1.batchInsert_finish(anyBoolean);
+				times = 0;
+			}
+		};
+	}
+
+	@Test
+	public void saveAllNewInBatch_recordsOfDifferentTrx_areSavedOneByOne() throws Exception
+	{
+		new Expectations()
+		{
+			{
+				po1.is_new();
+				result = true;
+				minTimes = 0;
+				po1.get_TrxName();
+				result = "trx1";
+				minTimes = 0;
+
+				po2.is_new();
+				result = true;
+				minTimes = 0;
+				po2.get_TrxName();
+				result = "trx2";
+				minTimes = 0;
+			}
+		};
+
+		InterfaceWrapperHelper.saveAllNewInBatch(ImmutableList.of(po1, po2));
+
+		new Verifications()
+		{
+			{
+				po1.saveEx();
+				times = 1;
+				po2.saveEx();
+				times = 1;
+				po1.batchInsert_prepare();
+				times = 0;
+			}
+		};
+	}
+
+	@Test
+	public void saveAllNewInBatch_notNewRecords_areSavedOneByOne() throws Exception
+	{
+		new Expectations()
+		{
+			{
+				po1.is_new();
+				result = true;
+				minTimes = 0;
+
+				po2.is_new();
+				result = false;
+				minTimes = 0;
+			}
+		};
+
+		InterfaceWrapperHelper.saveAllNewInBatch(ImmutableList.of(po1, po2));
+
+		new Verifications()
+		{
+			{
+				po1.saveEx();
+				times = 1;
+				po2.saveEx();
+				times = 1;
+				po1.batchInsert_prepare();
+				times = 0;
+			}
+		};
+	}
+}
@@ -0,0 +1,55 @@
+package org.adempiere.serverRoot.servlet;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.cache.CCache.CCacheStats;
+import de.metas.cache.CacheMgt;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@RestController
+@RequestMapping("/cache")
+public class CacheRestController
+{
+	@GetMapping("/stats")
+	public List<CCacheStats> getCacheStats()
+	{
+		return CacheMgt.get().getCacheStats();
+	}
+
+	@GetMapping("/weight")
+	public ImmutableMap<String, Long> getWeight()
+	{
+		final CacheMgt cacheMgt = CacheMgt.get();
+		return ImmutableMap.of(
+				"totalWeight", cacheMgt.getTotalWeight(),
+				"globalMaximumWeight", cacheMgt.getGlobalMaximumWeight(),
+				"weightBudgetEnforcementsCount", cacheMgt.getWeightBudgetEnforcementsCount());
+	}
+}
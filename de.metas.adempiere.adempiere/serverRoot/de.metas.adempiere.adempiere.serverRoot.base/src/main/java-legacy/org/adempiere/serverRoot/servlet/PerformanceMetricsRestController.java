@@ -0,0 +1,63 @@
+package org.adempiere.serverRoot.servlet;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.metas.monitoring.adapter.embedded.PerformanceMetrics;
+import de.metas.monitoring.adapter.embedded.PerformanceMetrics.MetricSnapshot;
+import de.metas.monitoring.adapter.embedded.PrometheusTextFormat;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+@RestController
+@RequestMapping("/metrics/performance")
+public class PerformanceMetricsRestController
+{
+	@GetMapping
+	public List<MetricSnapshot> getMetrics()
+	{
+		return PerformanceMetrics.instance.snapshot();
+	}
+
+	/** To be scraped by Prometheus. */
+	@GetMapping("/prometheus")
+	public ResponseEntity<String> getMetricsAsPrometheusText()
+	{
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(PrometheusTextFormat.CONTENT_TYPE))
+				.body(PrometheusTextFormat.toText(PerformanceMetrics.instance.snapshot()));
+	}
+
+	@PostMapping("/reset")
+	public void reset()
+	{
+		PerformanceMetrics.instance.reset();
+	}
+}
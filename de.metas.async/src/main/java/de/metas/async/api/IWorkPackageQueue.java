@@ -87,6 +87,18 @@ public interface IWorkPackageQueue
 	 */
 	I_C_Queue_WorkPackage pollAndLock(long timeoutMillis);
 
+	/**
+	 * Same as {@link #pollAndLock(long)}, but retrieves and locks up to {@code maxCount} work packages in one database round trip.
+	 * <p>
+	 * Packages which are concurrently being claimed by other queue processors (also on other nodes) are skipped, so calling this method concurrently does not need any JVM-level synchronization.
+	 * Each returned package has its own <code>ctx</code>, prepared like in {@link #pollAndLock(long)}.
+	 *
+	 * @param timeoutMillis see {@link #pollAndLock(long)}
+	 * @param maxCount maximum number of work packages to return; shall be greater than zero
+	 * @return locked work packages; empty if there is no package available within the given timeout
+	 */
+	List<I_C_Queue_WorkPackage> pollAndLockMultiple(long timeoutMillis, int maxCount);
+
 	/**
 	 * Unlocks given package
 	 *
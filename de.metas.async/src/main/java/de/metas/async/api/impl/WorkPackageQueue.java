@@ -25,10 +25,13 @@ package de.metas.async.api.impl;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager;
@@ -45,6 +48,8 @@ import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.async.AsyncBatchId;
 import de.metas.async.Async_Constants;
 import de.metas.async.api.IAsyncBatchBL;
@@ -67,6 +72,8 @@ import de.metas.async.processor.NullQueueProcessorListener;
 import de.metas.async.processor.impl.SyncQueueProcessorListener;
 import de.metas.async.spi.IWorkpackagePrioStrategy;
 import de.metas.async.spi.NullWorkpackagePrio;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
 import de.metas.lock.api.ILockManager;
 import de.metas.lock.exceptions.UnlockFailedException;
 import de.metas.logging.LogManager;
@@ -80,17 +87,34 @@ import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
 import lombok.NonNull;
+import lombok.Value;
 
 public class WorkPackageQueue implements IWorkPackageQueue
 {
 	private final static String SYSCONFIG_POLLINTERVAL = "de.metas.async.PollIntervallMillis";
 
+	/**
+	 * If enabled, the queue processors are woken up by {@link WorkPackageReadyNotifier} as soon as a workpackage was marked as ready for processing,
+	 * and {@link #SYSCONFIG_NOTIFY_FALLBACK_POLLINTERVAL} is used as poll interval for the packages which become available without a notification (e.g. skipped ones).
+	 */
+	private final static String SYSCONFIG_NOTIFY_ENABLED = "de.metas.async.NotifyOnReady.Enabled";
+	private final static String SYSCONFIG_NOTIFY_FALLBACK_POLLINTERVAL = "de.metas.async.NotifyOnReady.FallbackPollIntervallMillis";
+
 	private static final transient Logger logger = LogManager.getLogger(WorkPackageQueue.class);
 
 	private final transient IQueueDAO dao;
 	private final transient IWorkpackageProcessorContextFactory contextFactory = Services.get(IWorkpackageProcessorContextFactory.class);
 	private final transient IAsyncBatchBL asyncBatchBL = Services.get(IAsyncBatchBL.class);
 	private final transient IWorkPackageBL workPackageBL = Services.get(IWorkPackageBL.class);
+	private final transient WorkPackageReadyNotifier readyNotifier = WorkPackageReadyNotifier.instance;
+
+	/** C_Queue_Block_ID to C_Queue_PackageProcessor_ID; needed to notify the queue processors. A block's processor never changes. */
+	private static final CCache<Integer, Integer> packageProcessorIdsByBlockId = CCache.<Integer, Integer> builder()
+			.cacheName(WorkPackageQueue.class.getSimpleName() + "#packageProcessorIdsByBlockId")
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(1000)
+			.expireMinutes(CCache.EXPIREMINUTES_Never)
+			.build();
 
 	private final Properties ctx;
 	private final List<Integer> packageProcessorIds;
@@ -201,7 +225,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		mainLock.lock();
 		try
 		{
-			return pollAndLock0(timeoutMillis);
+			final List<I_C_Queue_WorkPackage> workPackages = pollAndLock0(timeoutMillis, query -> singletonListOrEmpty(retrieveAndLock(query)));
+			return workPackages.isEmpty() ? null : workPackages.get(0);
 		}
 		finally
 		{
@@ -209,24 +234,39 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		}
 	}
 
-	private I_C_Queue_WorkPackage pollAndLock0(final long timeoutMillis)
+	@Override
+	public List<I_C_Queue_WorkPackage> pollAndLockMultiple(final long timeoutMillis, final int maxCount)
+	{
+		Check.assume(maxCount > 0, "maxCount > 0");
+
+		// NOTE: we are not synchronizing on mainLock because the records are claimed atomically by the database
+		return pollAndLock0(timeoutMillis, query -> retrieveAndLockMultiple(query, maxCount));
+	}
+
+	private List<I_C_Queue_WorkPackage> pollAndLock0(
+			final long timeoutMillis,
+			@NonNull final Function<IQuery<I_C_Queue_WorkPackage>, List<I_C_Queue_WorkPackage>> retrieveAndLockFunction)
 	{
 		final Properties workPackageCtx = Env.newTemporaryCtx();
 
 		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
 
 		final long startTS = SystemTime.millis();
-		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
-		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
+
+		// NOTE: get the notifier version *before* querying, so that we don't miss a signal which arrives between the query and the wait
+		long readyVersion = readyNotifier.getVersion(packageProcessorIds);
+		List<I_C_Queue_WorkPackage> workPackages = retrieveAndLockFunction.apply(query);
+		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackages.isEmpty())
 		{
 			// We are running in one time only mode (synchronous mode) and we did not get the package from the first time
 			// No point to go further
-			return null;
+			return ImmutableList.of();
 		}
 
-		while (workPackage == null)
+		while (workPackages.isEmpty())
 		{
 			// If we have a timeout specified, make sure we are not waiting more then that timeout
+			long remainingMillis = Long.MAX_VALUE;
 			if (timeoutMillis != TIMEOUT_Infinite)
 			{
 				Check.assume(timeoutMillis > 0, "timeoutMillis > 0");
@@ -235,30 +275,40 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				if (elapsedMillis >= timeoutMillis)
 				{
 					logger.debug("Poll waiting time exceeded. Returning null");
-					return null;
+					return ImmutableList.of();
 				}
+				remainingMillis = timeoutMillis - elapsedMillis;
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
+			// No workpackages were found. Wait until we are notified or the poll interval elapsed, then try again
 			try
 			{
 				// note: we always get the new service, because things might have changed since this method started
-				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
+				final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+				final int pollIntervalMs = sysConfigBL.getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
+				if (sysConfigBL.getBooleanValue(SYSCONFIG_NOTIFY_ENABLED, true))
+				{
+					// by default we poll as often as without notifications, so the packages which become ready without a notification are not picked up later than before
+					final int fallbackPollIntervalMs = sysConfigBL.getIntValue(SYSCONFIG_NOTIFY_FALLBACK_POLLINTERVAL, pollIntervalMs);
+					readyNotifier.awaitChange(packageProcessorIds, readyVersion, Math.min(fallbackPollIntervalMs, remainingMillis));
+				}
+				else
+				{
+					Thread.sleep(Math.min(pollIntervalMs, remainingMillis));
+				}
 			}
 			catch (final InterruptedException e)
 			{
 				logger.debug("Got interrupted signal. Returning null", e);
-				return null;
+				return ImmutableList.of();
 			}
 
 			// Try fetching the workpackage again
 			logger.trace("Retry retrieving next workpackage");
-			workPackage = retrieveAndLock(query);
+			readyVersion = readyNotifier.getVersion(packageProcessorIds);
+			workPackages = retrieveAndLockFunction.apply(query);
 		}
 
-		Check.assumeNotNull(workPackage, "workPackage not null");
-
 		// Successfully acquired our lock :-)
 
 		// now we have all the time in the world to add our AD_PInstance_ID
@@ -270,8 +320,29 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		//
 		// Update context from work package
 		// NOTE: this will be the context that work package processors will use on processing
-		setupWorkpackageContext(workPackageCtx, workPackage);
-		return workPackage;
+		boolean first = true;
+		for (final I_C_Queue_WorkPackage workPackage : workPackages)
+		{
+			// each workpackage needs its own context, so we attach the others to a new one (no need to reload them)
+			final Properties ctx;
+			if (first)
+			{
+				ctx = workPackageCtx;
+				first = false;
+			}
+			else
+			{
+				ctx = Env.newTemporaryCtx();
+				InterfaceWrapperHelper.setCtx(workPackage, ctx);
+			}
+			setupWorkpackageContext(ctx, workPackage);
+		}
+		return workPackages;
+	}
+
+	private static List<I_C_Queue_WorkPackage> singletonListOrEmpty(final I_C_Queue_WorkPackage workPackage)
+	{
+		return workPackage != null ? ImmutableList.of(workPackage) : ImmutableList.of();
 	}
 
 	/**
@@ -348,6 +419,29 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return workPackage;
 	}
 
+	private List<I_C_Queue_WorkPackage> retrieveAndLockMultiple(final IQuery<I_C_Queue_WorkPackage> query, final int maxCount)
+	{
+		final IQuery<I_C_Queue_WorkPackage> queryWithLimit = query.copy().setLimit(maxCount);
+		final List<I_C_Queue_WorkPackage> lockedWorkPackages = Services.get(ILockManager.class).retrieveAndLockMultipleRecords(queryWithLimit, I_C_Queue_WorkPackage.class);
+
+		final List<I_C_Queue_WorkPackage> result = new ArrayList<>(lockedWorkPackages.size());
+		for (final I_C_Queue_WorkPackage workPackage : lockedWorkPackages)
+		{
+			if (isValid(workPackage))
+			{
+				result.add(workPackage);
+			}
+			else
+			{
+				unlockNoFail(workPackage);
+
+				final String threadName = Thread.currentThread().getName();
+				logger.warn("Aquired {} on thread {} but is not valid. Unlocking it.", workPackage, threadName);
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public int size()
 	{
@@ -454,6 +548,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 		workPackage.setC_Queue_Block(block);
 		workPackage.setAD_Org_ID(block.getAD_Org_ID());
+		packageProcessorIdsByBlockId.put(block.getC_Queue_Block_ID(), block.getC_Queue_PackageProcessor_ID());
 		workPackage.setProcessed(false);
 		workPackage.setIsReadyForProcessing(false);
 
@@ -643,52 +738,65 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			return callback.getFutureResult();
 		}
 
-		final WorkpackageTrxListener workpackageTrxListener = new WorkpackageTrxListener(workPackage, callback);
+		final WorkpackagesTrxListener workpackagesTrxListener = trx.getProperty(
+				WorkPackageQueue.class.getName() + "#workpackagesTrxListener",
+				() -> registerWorkpackagesTrxListener(trxName));
+		workpackagesTrxListener.add(workPackage, callback);
+
+		return callback.getFutureResult();
+	}
+
+	private WorkpackagesTrxListener registerWorkpackagesTrxListener(final String trxName)
+	{
+		final WorkpackagesTrxListener workpackagesTrxListener = new WorkpackagesTrxListener();
 
-		final ITrxListenerManager trxListenerManager = trxManager.getTrxListenerManager(trxName);
+		final ITrxListenerManager trxListenerManager = Services.get(ITrxManager.class).getTrxListenerManager(trxName);
 		trxListenerManager
 				.newEventListener(TrxEventTiming.AFTER_COMMIT)
 				.invokeMethodJustOnce(false) // invoke the handling method on *every* commit, because that's how it was and I can't check now if it's really needed
-				.registerHandlingMethod(innerTrx -> workpackageTrxListener.afterCommit(innerTrx));
+				.registerHandlingMethod(innerTrx -> workpackagesTrxListener.afterCommit(innerTrx));
 		trxListenerManager
 				.newEventListener(TrxEventTiming.AFTER_ROLLBACK)
 				.invokeMethodJustOnce(false) // invoke the handling method on *every* commit, because that's how it was and I can't check now if it's really needed
-				.registerHandlingMethod(innerTrx -> workpackageTrxListener.afterRollback(innerTrx));
+				.registerHandlingMethod(innerTrx -> workpackagesTrxListener.afterRollback(innerTrx));
 
-		return callback.getFutureResult();
+		return workpackagesTrxListener;
 	}
 
-	private class WorkpackageTrxListener
+	/**
+	 * Marks all workpackages which were enqueued in one transaction as ready for processing after that transaction was committed,
+	 * and then wakes up their queue processors with one notification.
+	 * <p>
+	 * Each workpackage is handled by the first commit or rollback after it was added.
+	 */
+	private class WorkpackagesTrxListener
 	{
 		private final ReentrantLock sync = new ReentrantLock();
 
-		// since this var is read and written within locks, it should probably be multi-thread-safe => make it vialtile
-		private volatile boolean hit = false;
-
-		private final I_C_Queue_WorkPackage workPackage;
-		private final SyncQueueProcessorListener callback;
+		/** guarded by sync */
+		private final List<PendingWorkpackage> pendingWorkpackages = new ArrayList<>();
 
-		private WorkpackageTrxListener(
-				final I_C_Queue_WorkPackage workPackage,
-				final SyncQueueProcessorListener callback)
+		public void add(final I_C_Queue_WorkPackage workPackage, final SyncQueueProcessorListener callback)
 		{
-			this.workPackage = workPackage;
-			this.callback = callback;
+			sync.lock();
+			try
+			{
+				pendingWorkpackages.add(new PendingWorkpackage(workPackage, callback));
+			}
+			finally
+			{
+				sync.unlock();
+			}
 		}
 
-		public void afterCommit(final ITrx trx)
+		private List<PendingWorkpackage> drain()
 		{
 			sync.lock();
 			try
 			{
-				if (hit)
-				{
-					// transaction was previously commited or rollbacked
-					// now, there is nothing we can do
-					return;
-				}
-				markReadyForProcessing(workPackage, callback);
-				hit = true;
+				final List<PendingWorkpackage> result = ImmutableList.copyOf(pendingWorkpackages);
+				pendingWorkpackages.clear();
+				return result;
 			}
 			finally
 			{
@@ -696,27 +804,51 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			}
 		}
 
-		public void afterRollback(final ITrx trx)
+		public void afterCommit(final ITrx trx)
 		{
-			sync.lock();
-			try
+			final Set<Integer> packageProcessorIdsToNotify = new LinkedHashSet<>();
+			for (final PendingWorkpackage pendingWorkpackage : drain())
 			{
-				if (hit)
+				try
+				{
+					final int packageProcessorId = markReadyForProcessing0(pendingWorkpackage.getWorkPackage(), pendingWorkpackage.getCallback());
+					if (packageProcessorId > 0)
+					{
+						packageProcessorIdsToNotify.add(packageProcessorId);
+					}
+				}
+				catch (final Exception ex)
 				{
-					return;
+					// don't let one workpackage stop the others; that's how it was when each of them had its own listener
+					logger.warn("Failed marking {} as ready for processing", pendingWorkpackage.getWorkPackage(), ex);
 				}
+			}
 
-				final AdempiereException error = new AdempiereException("Transaction '" + trx != null ? trx.getTrxName() : "<null>" + "' was rollback");
-				callback.cancelWithError(error);
-				hit = true;
+			if (!packageProcessorIdsToNotify.isEmpty())
+			{
+				readyNotifier.notifyReady(packageProcessorIdsToNotify);
 			}
-			finally
+		}
+
+		public void afterRollback(final ITrx trx)
+		{
+			for (final PendingWorkpackage pendingWorkpackage : drain())
 			{
-				sync.unlock();
+				final AdempiereException error = new AdempiereException("Transaction '" + trx != null ? trx.getTrxName() : "<null>" + "' was rollback");
+				pendingWorkpackage.getCallback().cancelWithError(error);
 			}
 		}
 	}
 
+	@Value
+	private static class PendingWorkpackage
+	{
+		@NonNull
+		I_C_Queue_WorkPackage workPackage;
+		@NonNull
+		SyncQueueProcessorListener callback;
+	}
+
 	@Override
 	public Future<IWorkpackageProcessorExecutionResult> markReadyForProcessingAndReturn(final I_C_Queue_WorkPackage workPackage)
 	{
@@ -735,11 +867,26 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 	@Override
 	public void markReadyForProcessing(@NonNull final I_C_Queue_WorkPackage workPackage, @NonNull final IQueueProcessorListener callback)
+	{
+		final int packageProcessorId = markReadyForProcessing0(workPackage, callback);
+		if (packageProcessorId > 0)
+		{
+			notifyReadyAfterCommit(workPackage, packageProcessorId);
+		}
+	}
+
+	/**
+	 * @return the workpackage's C_Queue_PackageProcessor_ID; the queue processors still need to be notified
+	 */
+	private int markReadyForProcessing0(@NonNull final I_C_Queue_WorkPackage workPackage, @NonNull final IQueueProcessorListener callback)
 	{
 		try (final MDCCloseable workPackageMDC = TableRecordMDC.putTableRecordReference(workPackage))
 		{
 			final IQueueProcessorEventDispatcher queueProcessorEventDispatcher = Services.get(IQueueProcessorFactory.class).getQueueProcessorEventDispatcher();
 
+			// NOTE: get it before locking, because it might need to load the block
+			final int packageProcessorId = getPackageProcessorId(workPackage);
+
 			boolean success = false;
 
 			mainLock.lock();
@@ -753,6 +900,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				dao.save(workPackage);
 				logger.debug("C_Queue_WorkPackage.IsReadyForProcessing is now set to true");
 				success = true;
+
+				return packageProcessorId;
 			}
 			finally
 			{
@@ -772,6 +921,43 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		}
 	}
 
+	private static int getPackageProcessorId(@NonNull final I_C_Queue_WorkPackage workPackage)
+	{
+		final int blockId = workPackage.getC_Queue_Block_ID();
+		if (blockId <= 0)
+		{
+			return -1; // shall not happen
+		}
+
+		return packageProcessorIdsByBlockId.getOrLoad(blockId, () -> {
+			final I_C_Queue_Block block = workPackage.getC_Queue_Block();
+			return block != null ? block.getC_Queue_PackageProcessor_ID() : -1; // block == null shall not happen
+		});
+	}
+
+	/**
+	 * Wakes up the queue processors which are waiting for the given workpackage's processor, but only after the IsReadyForProcessing flag is visible to them.
+	 * <p>
+	 * The notifications are collected per transaction, so all workpackages marked as ready in one transaction (e.g. the ones of a queue block) cause only one remote event.
+	 */
+	private void notifyReadyAfterCommit(@NonNull final I_C_Queue_WorkPackage workPackage, final int packageProcessorId)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.get(InterfaceWrapperHelper.getTrxName(workPackage), OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isActive(trx) && trx.getTrxListenerManager().canRegisterOnTiming(TrxEventTiming.AFTER_COMMIT))
+		{
+			final Set<Integer> packageProcessorIdsToNotify = trx.getPropertyAndProcessAfterCommit(
+					WorkPackageQueue.class.getName() + "#packageProcessorIdsToNotify",
+					() -> Collections.synchronizedSet(new LinkedHashSet<>()),
+					readyNotifier::notifyReady);
+			packageProcessorIdsToNotify.add(packageProcessorId);
+		}
+		else
+		{
+			readyNotifier.notifyReady(packageProcessorId);
+		}
+	}
+
 	private IQuery<I_C_Queue_WorkPackage> createQuery(final Properties workPackageCtx)
 	{
 		//
@@ -0,0 +1,219 @@
+package de.metas.async.api.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.Topic;
+import de.metas.event.Type;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Signals queue processors that new workpackages were marked as ready for processing, so that {@link WorkPackageQueue#pollAndLock(long)} does not have to wait for the next poll interval.
+ * <p>
+ * For each C_Queue_PackageProcessor_ID we maintain a monotonic counter which is increased on every signal.
+ * A waiter remembers the sum of the counters it's interested in <b>before</b> it queries the database and afterwards waits until that sum changes.
+ * That way no signal is lost between "query returned nothing" and "start waiting".
+ * <p>
+ * Signals are also forwarded to other nodes via a remote event bus topic.
+ */
+public final class WorkPackageReadyNotifier
+{
+	public static final WorkPackageReadyNotifier instance = new WorkPackageReadyNotifier();
+
+	private static final Logger logger = LogManager.getLogger(WorkPackageReadyNotifier.class);
+
+	private static final Topic EVENTBUS_TOPIC = Topic.builder()
+			.name("de.metas.async.WorkPackageReady")
+			.type(Type.REMOTE)
+			.build();
+
+	private static final String EVENT_PROPERTY_PackageProcessorIds = "C_Queue_PackageProcessor_IDs";
+
+	private final Map<Integer, AtomicLong> versionsByPackageProcessorId = new ConcurrentHashMap<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition versionChanged = lock.newCondition();
+
+	private WorkPackageReadyNotifier()
+	{
+	}
+
+	/**
+	 * Subscribes to the remote topic, so that workpackages enqueued on other nodes will wake up our queue processors.
+	 */
+	public void install()
+	{
+		final IEventBus eventBus = getEventBus();
+		eventBus.subscribe(event -> {
+			if (event.isLocalEvent())
+			{
+				// we already signaled locally when the event was posted
+				return;
+			}
+
+			logger.trace("Got remote workpackage ready event: {}", event);
+			extractPackageProcessorIds(event).forEach(this::notifyLocal);
+		});
+
+		logger.info("Subscribed to event bus: {}", eventBus);
+	}
+
+	private static ImmutableSet<Integer> extractPackageProcessorIds(final Event event)
+	{
+		final List<?> packageProcessorIds = event.getProperty(EVENT_PROPERTY_PackageProcessorIds);
+		if (packageProcessorIds == null)
+		{
+			return ImmutableSet.of();
+		}
+
+		return packageProcessorIds.stream()
+				.filter(Number.class::isInstance)
+				.map(packageProcessorId -> ((Number)packageProcessorId).intValue())
+				.filter(packageProcessorId -> packageProcessorId > 0)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	/**
+	 * Wakes up the queue processors of this JVM which are waiting for the given package processor and broadcasts the signal to the other nodes.
+	 */
+	public void notifyReady(final int packageProcessorId)
+	{
+		notifyReady(ImmutableSet.of(packageProcessorId));
+	}
+
+	/**
+	 * Wakes up the queue processors of this JVM which are waiting for the given package processors and broadcasts the signal to the other nodes, in one event.
+	 */
+	public void notifyReady(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		if (packageProcessorIds.isEmpty())
+		{
+			return;
+		}
+
+		packageProcessorIds.forEach(this::notifyLocal);
+
+		final Event event = Event.builder()
+				.putProperty(EVENT_PROPERTY_PackageProcessorIds, ImmutableList.copyOf(packageProcessorIds))
+				.build();
+		try
+		{
+			getEventBus().postEvent(event);
+		}
+		catch (final Exception ex)
+		{
+			// not a problem, the other nodes will find the workpackages on their next fallback poll
+			logger.warn("Failed posting {}. Ignored.", event, ex);
+		}
+	}
+
+	/**
+	 * Wakes up the queue processors of this JVM which are waiting for the given package processor.
+	 */
+	public void notifyLocal(final int packageProcessorId)
+	{
+		getVersionHolder(packageProcessorId).incrementAndGet();
+
+		lock.lock();
+		try
+		{
+			versionChanged.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the current version for the given package processors; to be passed to {@link #awaitChange(Collection, long, long)}
+	 */
+	public long getVersion(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		long version = 0;
+		for (final Integer packageProcessorId : packageProcessorIds)
+		{
+			version += getVersionHolder(packageProcessorId).get();
+		}
+		return version;
+	}
+
+	/**
+	 * Blocks until one of the given package processors was signaled after {@code sinceVersion} was fetched, or until the timeout elapsed.
+	 *
+	 * @return {@code true} if there was a signal, {@code false} if the timeout elapsed
+	 */
+	public boolean awaitChange(
+			@NonNull final Collection<Integer> packageProcessorIds,
+			final long sinceVersion,
+			final long timeoutMillis) throws InterruptedException
+	{
+		long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+		lock.lockInterruptibly();
+		try
+		{
+			while (getVersion(packageProcessorIds) == sinceVersion)
+			{
+				if (remainingNanos <= 0)
+				{
+					return false;
+				}
+				remainingNanos = versionChanged.awaitNanos(remainingNanos);
+			}
+			return true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private AtomicLong getVersionHolder(final int packageProcessorId)
+	{
+		return versionsByPackageProcessorId.computeIfAbsent(packageProcessorId, k -> new AtomicLong(0));
+	}
+
+	private static IEventBus getEventBus()
+	{
+		return Services.get(IEventBusFactory.class).getEventBus(EVENTBUS_TOPIC);
+	}
+}
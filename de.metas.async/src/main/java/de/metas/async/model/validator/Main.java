@@ -39,6 +39,7 @@ import de.metas.Profiles;
 import de.metas.async.Async_Constants;
 import de.metas.async.api.IAsyncBatchListeners;
 import de.metas.async.api.impl.AsyncBatchDAO;
+import de.metas.async.api.impl.WorkPackageReadyNotifier;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.model.I_C_Queue_WorkPackage_Log;
 import de.metas.async.model.I_C_Queue_WorkPackage_Param;
@@ -106,6 +107,9 @@ public class Main extends AbstractModuleInterceptor
 			return;
 		}
 
+		// get notified when workpackages are enqueued on other nodes
+		WorkPackageReadyNotifier.instance.install();
+
 		final int initDelayMillis = getInitDelayMillis();
 		Services.get(IQueueProcessorExecutorService.class).init(initDelayMillis);
 	}
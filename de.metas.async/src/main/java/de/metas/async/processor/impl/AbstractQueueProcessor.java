@@ -22,6 +22,7 @@ package de.metas.async.processor.impl;
  * #L%
  */
 
+import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.exceptions.AdempiereException;
@@ -171,16 +172,53 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 		}
 	}
 
+	/**
+	 * @return how many workpackages shall be claimed in one go; if zero or less, the workpackages are claimed one by one using {@link IWorkPackageQueue#pollAndLock(long)}
+	 */
+	protected int getMaxWorkpackagesToPoll()
+	{
+		return 0;
+	}
+
 	private boolean pollAndSubmitNextWorkPackageTask()
 	{
 		final IWorkPackageQueue queue = getQueue();
 
-		final I_C_Queue_WorkPackage workPackage = queue.pollAndLock(queuePollingTimeout);
-		if (workPackage == null)
+		final int maxWorkpackagesToPoll = getMaxWorkpackagesToPoll();
+		if (maxWorkpackagesToPoll <= 0)
+		{
+			final I_C_Queue_WorkPackage workPackage = queue.pollAndLock(queuePollingTimeout);
+			if (workPackage == null)
+			{
+				return false;
+			}
+
+			return submitWorkPackageTask(workPackage);
+		}
+
+		final List<I_C_Queue_WorkPackage> workPackages = queue.pollAndLockMultiple(queuePollingTimeout, maxWorkpackagesToPoll);
+		if (workPackages.isEmpty())
 		{
 			return false;
 		}
 
+		for (int i = 0; i < workPackages.size(); i++)
+		{
+			final boolean success = submitWorkPackageTask(workPackages.get(i));
+			if (!success)
+			{
+				// make sure the packages which we claimed but not submitted are not left locked
+				workPackages.subList(i + 1, workPackages.size()).forEach(queue::unlockNoFail);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean submitWorkPackageTask(final I_C_Queue_WorkPackage workPackage)
+	{
+		final IWorkPackageQueue queue = getQueue();
+
 		boolean success = false;
 		try
 		{
@@ -28,6 +28,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.concurrent.BlockingThreadPoolExecutor;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
 
@@ -36,9 +37,15 @@ import com.google.common.base.MoreObjects;
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.api.IWorkpackageLogsRepository;
 import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.util.Services;
 
 class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 {
+	/**
+	 * If enabled, the queue processor claims as many workpackages as it has free threads in one database round trip, see {@link IWorkPackageQueue#pollAndLockMultiple(long, int)}.
+	 */
+	private static final String SYSCONFIG_ClaimMultipleWorkpackages = "de.metas.async.ClaimMultipleWorkpackages";
+
 	private String name;
 	private final ThreadPoolExecutor executor;
 	private final AtomicBoolean running;
@@ -109,6 +116,20 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 		return true;
 	}
 
+	@Override
+	protected int getMaxWorkpackagesToPoll()
+	{
+		final boolean claimMultiple = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ClaimMultipleWorkpackages, false);
+		if (!claimMultiple)
+		{
+			return 0;
+		}
+
+		// claim only as many workpackages as we can start right away, so they are not kept locked while waiting for a free thread
+		final int freeThreads = executor.getMaximumPoolSize() - executor.getActiveCount();
+		return Math.max(freeThreads, 1);
+	}
+
 	@Override
 	protected void executeTask(WorkpackageProcessorTask task)
 	{
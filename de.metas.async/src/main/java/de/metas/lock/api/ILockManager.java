@@ -23,6 +23,8 @@ package de.metas.lock.api;
  */
 
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.compiere.model.IQuery;
@@ -94,6 +96,14 @@ public interface ILockManager extends ISingletonService
 	 */
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Retrieves the next models from query (at most the query's limit) and locks them (using {@link LockOwner#NONE}) in one go.
+	 * Records which are concurrently being locked by someone else are skipped instead of waited for.
+	 *
+	 * @return retrieved records (already locked); the query's ordering is not guaranteed
+	 */
+	<T> List<T> retrieveAndLockMultipleRecords(IQuery<T> query, Class<T> clazz);
+
 	/**
 	 * Builds a SQL where clause to be used in other queries to filter the results.
 	 *
@@ -22,7 +22,9 @@ package de.metas.lock.api.impl;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -310,6 +312,36 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		return null;
 	}
 
+	@Override
+	public final <T> List<T> retrieveAndLockMultipleRecords(final IQuery<T> query, final Class<T> clazz)
+	{
+		final IQuery<T> finalQuery = retrieveNotLockedQuery(query);
+
+		final ILockCommand lockCommand = new LockCommand(this)
+				.setOwner(LockOwner.NONE);
+
+		return retrieveAndLockMultipleRecords(finalQuery, lockCommand, clazz);
+	}
+
+	/**
+	 * Generic implementation which locks the retrieved records one by one. Database specific implementations are encouraged to override it.
+	 *
+	 * @param notLockedQuery query which already excludes the locked records
+	 */
+	protected <T> List<T> retrieveAndLockMultipleRecords(final IQuery<T> notLockedQuery, final ILockCommand lockCommand, final Class<T> clazz)
+	{
+		final List<T> lockedModels = new ArrayList<>();
+		for (final T model : notLockedQuery.list(clazz))
+		{
+			if (lockRecord(lockCommand, TableRecordReference.of(model)))
+			{
+				lockedModels.add(model);
+			}
+		}
+
+		return lockedModels;
+	}
+
 	@Override
 	public final String getLockedWhereClause(final Class<?> modelClass, final String joinColumnNameFQ, final LockOwner lockOwner)
 	{
@@ -20,6 +20,9 @@ import org.compiere.model.IQuery;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.IUnlockCommand;
@@ -450,6 +453,111 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		return finalQuery;
 	}
 
+	/**
+	 * Selects the records to lock using {@code FOR UPDATE SKIP LOCKED} and inserts their {@link I_T_Lock} records in the very same statement,
+	 * so concurrent callers are not blocking each other and we need only one round trip for the whole batch.
+	 * The locked records are then loaded with one more query, in the order of the given query.
+	 */
+	@Override
+	protected <T> List<T> retrieveAndLockMultipleRecords(final IQuery<T> notLockedQuery, final ILockCommand lockCommand, final Class<T> clazz)
+	{
+		final TypedSqlQuery<T> sqlQuery = TypedSqlQuery.cast(notLockedQuery);
+		final String keyColumnName = sqlQuery.getKeyColumnName();
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(sqlQuery.getTableName());
+
+		final LockOwner lockOwner = lockCommand.getOwner();
+		assertValidLockOwner(lockOwner);
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = buildSqlLockMultipleRecords(
+				sqlQuery,
+				keyColumnName,
+				adTableId,
+				lockOwner.getOwnerName(),
+				lockCommand.isAutoCleanup(),
+				isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()),
+				sqlParams);
+
+		final List<Integer> lockedRecordIds;
+		try
+		{
+			lockedRecordIds = DB.retrieveRowsOutOfTrx(sql, sqlParams, rs -> rs.getInt(1));
+		}
+		catch (final Exception e)
+		{
+			throw LockFailedException.wrapIfNeeded(e)
+					.setLockCommand(lockCommand)
+					.setSql(sql, sqlParams.toArray());
+		}
+
+		if (lockedRecordIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		return createLockedRecordsQuery(sqlQuery, keyColumnName, lockedRecordIds).list(clazz);
+	}
+
+	@VisibleForTesting
+	static <T> String buildSqlLockMultipleRecords(
+			@NonNull final TypedSqlQuery<T> sqlQuery,
+			@NonNull final String keyColumnName,
+			final int adTableId,
+			@NonNull final String lockOwnerName,
+			final boolean isAutoCleanup,
+			final boolean isAllowMultipleOwners,
+			@NonNull final List<Object> sqlParams)
+	{
+		final String tableName = sqlQuery.getTableName();
+
+		final String sqlSelectRecordsToLock = sqlQuery.buildSQL(
+				"SELECT " + tableName + "." + keyColumnName,
+				null, // fromClause
+				null, // groupByClause
+				true) // useOrderByClause
+				+ "\n FOR UPDATE SKIP LOCKED";
+		sqlParams.addAll(sqlQuery.getParametersEffective());
+
+		return "WITH records_to_lock AS (" + sqlSelectRecordsToLock + ")"
+				+ "\n INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				//
+				+ " SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", records_to_lock." + keyColumnName // Record_ID
+				+ ", " + toSqlParam(lockOwnerName, sqlParams) // Owner
+				+ ", " + toSqlParam(isAutoCleanup, sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(isAllowMultipleOwners, sqlParams) // IsAllowMultipleOwners
+				+ " FROM records_to_lock"
+				// a record could have been locked by the one-by-one locking (which is not using row locks) since our snapshot was taken
+				+ " ON CONFLICT DO NOTHING"
+				+ " RETURNING " + I_T_Lock.COLUMNNAME_Record_ID;
+	}
+
+	/**
+	 * @return query which loads all the given records at once, in the order of the given query (e.g. by priority), because the order of the RETURNING rows is not defined.
+	 *         Note that the given query can't be reused because it excludes the locked records.
+	 */
+	@VisibleForTesting
+	static <T> TypedSqlQuery<T> createLockedRecordsQuery(
+			@NonNull final TypedSqlQuery<T> sqlQuery,
+			@NonNull final String keyColumnName,
+			@NonNull final List<Integer> lockedRecordIds)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String whereClause = sqlQuery.getTableName() + "." + keyColumnName + " IN " + DB.buildSqlList(lockedRecordIds, sqlParams);
+
+		final String orderBy = sqlQuery.getOrderBy();
+		return new TypedSqlQuery<>(sqlQuery.getCtx(), sqlQuery.getModelClass(), whereClause, sqlQuery.getTrxName())
+				.setParameters(sqlParams)
+				.setOrderBy(!Check.isEmpty(orderBy, true) ? orderBy : keyColumnName);
+	}
+
 	@Override
 	public final String getNotLockedWhereClause(final String tableName, final String joinColumnNameFQ)
 	{
@@ -5,11 +5,15 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.test.AdempiereTestHelper;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.model.I_C_Queue_Block;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.async.spi.WorkpackageProcessorAdapter;
@@ -58,6 +62,41 @@ public class TestQueue__Misc
 		assertThat(workpackage.isReadyForProcessing()).isTrue();
 	}
 
+	@Test
+	public void markReadyForProcessingAfterTrxCommit_oneNotificationPerTrx()
+	{
+		final int packageProcessorId = 1234;
+		final WorkPackageReadyNotifier readyNotifier = WorkPackageReadyNotifier.instance;
+		final long versionBefore = readyNotifier.getVersion(ImmutableList.of(packageProcessorId));
+
+		final IWorkPackageQueueFactory workPackageQueueFactory = Services.get(IWorkPackageQueueFactory.class);
+		final IWorkPackageQueue queueForEnqueuing = workPackageQueueFactory.getQueueForEnqueuing(NOPWorkpackageProcessor.class);
+
+		final I_C_Queue_WorkPackage[] workpackages = new I_C_Queue_WorkPackage[2];
+		Services.get(ITrxManager.class).runInNewTrx(localTrxName -> {
+			final I_C_Queue_Block block = newInstance(I_C_Queue_Block.class);
+			block.setC_Queue_PackageProcessor_ID(packageProcessorId);
+			save(block);
+
+			for (int i = 0; i < workpackages.length; i++)
+			{
+				final I_C_Queue_WorkPackage workpackage = newInstance(I_C_Queue_WorkPackage.class);
+				workpackage.setC_Queue_Block(block);
+				save(workpackage);
+				workpackages[i] = workpackage;
+
+				queueForEnqueuing.markReadyForProcessingAfterTrxCommit(workpackage, localTrxName);
+				assertThat(workpackage.isReadyForProcessing()).isFalse();
+			}
+			assertThat(readyNotifier.getVersion(ImmutableList.of(packageProcessorId))).isEqualTo(versionBefore);
+		});
+
+		assertThat(workpackages).allMatch(I_C_Queue_WorkPackage::isReadyForProcessing);
+		assertThat(readyNotifier.getVersion(ImmutableList.of(packageProcessorId)))
+				.as("both workpackages shall be notified together")
+				.isEqualTo(versionBefore + 1);
+	}
+
 	private static final class NOPWorkpackageProcessor extends WorkpackageProcessorAdapter
 	{
 		@Override
@@ -0,0 +1,91 @@
+package de.metas.async.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WorkPackageReadyNotifierTest
+{
+	private final WorkPackageReadyNotifier notifier = WorkPackageReadyNotifier.instance;
+
+	@Test
+	public void awaitChange_timesOutWithoutSignal() throws Exception
+	{
+		final List<Integer> packageProcessorIds = ImmutableList.of(1001);
+		final long version = notifier.getVersion(packageProcessorIds);
+
+		assertThat(notifier.awaitChange(packageProcessorIds, version, 10)).isFalse();
+	}
+
+	@Test
+	public void awaitChange_signalBeforeWaitIsNotLost() throws Exception
+	{
+		final List<Integer> packageProcessorIds = ImmutableList.of(1002, 1003);
+		final long version = notifier.getVersion(packageProcessorIds);
+
+		notifier.notifyLocal(1003);
+
+		assertThat(notifier.awaitChange(packageProcessorIds, version, 0)).isTrue();
+	}
+
+	@Test
+	public void awaitChange_otherPackageProcessorIsIgnored() throws Exception
+	{
+		final List<Integer> packageProcessorIds = ImmutableList.of(1004);
+		final long version = notifier.getVersion(packageProcessorIds);
+
+		notifier.notifyLocal(1005);
+
+		assertThat(notifier.awaitChange(packageProcessorIds, version, 10)).isFalse();
+	}
+
+	@Test
+	public void awaitChange_wakesUpOnSignal() throws Exception
+	{
+		final List<Integer> packageProcessorIds = ImmutableList.of(1006);
+		final long version = notifier.getVersion(packageProcessorIds);
+
+		final CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return notifier.awaitChange(packageProcessorIds, version, TimeUnit.MINUTES.toMillis(1));
+			}
+			catch (final InterruptedException e)
+			{
+				return false;
+			}
+		});
+
+		notifier.notifyLocal(1006);
+
+		assertThat(waiter.get(10, TimeUnit.SECONDS)).isTrue();
+	}
+}
@@ -0,0 +1,113 @@
+package de.metas.lock.spi.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.dao.impl.TypedSqlQuery;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlLockDatabaseTest
+{
+	private static final String ORDER_BY = "Priority, C_Queue_WorkPackage_ID";
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static TypedSqlQuery<I_C_Queue_WorkPackage> notLockedQuery()
+	{
+		return new TypedSqlQuery<>(Env.getCtx(), I_C_Queue_WorkPackage.class, "Processed=? AND IsError=?", ITrx.TRXNAME_None)
+				.setParameters(false, false)
+				.setOrderBy(ORDER_BY);
+	}
+
+	@Test
+	public void buildSqlLockMultipleRecords()
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = SqlLockDatabase.buildSqlLockMultipleRecords(
+				notLockedQuery(),
+				I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID,
+				540425, // adTableId
+				"owner1",
+				true, // isAutoCleanup
+				false, // isAllowMultipleOwners
+				sqlParams);
+
+		assertThat(normalizeWhitespaces(sql))
+				.startsWith("WITH records_to_lock AS (SELECT C_Queue_WorkPackage.C_Queue_WorkPackage_ID FROM C_Queue_WorkPackage WHERE ")
+				.contains("ORDER BY " + ORDER_BY + " FOR UPDATE SKIP LOCKED)")
+				.contains("INSERT INTO T_Lock (AD_Table_ID, Record_ID, Owner, IsAutoCleanup, IsAllowMultipleOwners) SELECT ?, records_to_lock.C_Queue_WorkPackage_ID, ?, ?, ? FROM records_to_lock")
+				.endsWith(" ON CONFLICT DO NOTHING RETURNING Record_ID");
+
+		// the query's parameters come first, because the records_to_lock subselect comes first
+		assertThat(sqlParams).containsExactly(false, false, 540425, "owner1", true, false);
+	}
+
+	@Test
+	public void createLockedRecordsQuery_keepsTheOrderOfTheNotLockedQuery()
+	{
+		final TypedSqlQuery<I_C_Queue_WorkPackage> query = SqlLockDatabase.createLockedRecordsQuery(
+				notLockedQuery(),
+				I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID,
+				ImmutableList.of(30, 10, 20));
+
+		assertThat(query.getOrderBy()).isEqualTo(ORDER_BY);
+		assertThat(query.getParametersEffective()).containsExactly(30, 10, 20);
+		assertThat(normalizeWhitespaces(query.buildSQL("SELECT *", null, null, true)))
+				.contains("C_Queue_WorkPackage.C_Queue_WorkPackage_ID IN (?,?,?)")
+				.endsWith("ORDER BY " + ORDER_BY);
+	}
+
+	@Test
+	public void createLockedRecordsQuery_notOrderedQuery_ordersByKeyColumn()
+	{
+		final TypedSqlQuery<I_C_Queue_WorkPackage> notOrderedQuery = new TypedSqlQuery<>(Env.getCtx(), I_C_Queue_WorkPackage.class, "1=1", ITrx.TRXNAME_None);
+
+		final TypedSqlQuery<I_C_Queue_WorkPackage> query = SqlLockDatabase.createLockedRecordsQuery(
+				notOrderedQuery,
+				I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID,
+				ImmutableList.of(30, 10, 20));
+
+		assertThat(query.getOrderBy()).isEqualTo(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID);
+	}
+
+	private static String normalizeWhitespaces(final String sql)
+	{
+		return sql.replaceAll("\\s+", " ");
+	}
+}
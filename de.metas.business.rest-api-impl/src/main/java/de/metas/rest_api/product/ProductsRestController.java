@@ -1,5 +1,14 @@
 package de.metas.rest_api.product;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.springframework.context.annotation.Profile;
@@ -7,13 +16,20 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.metas.JsonObjectMapperHolder;
 import de.metas.Profiles;
 import de.metas.logging.LogManager;
 import de.metas.rest_api.product.command.GetProductsCommand;
 import de.metas.rest_api.product.response.JsonGetProductsResponse;
+import de.metas.rest_api.product.response.JsonProduct;
 import de.metas.util.web.MetasfreshRestAPIConstants;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import lombok.NonNull;
 
 /*
@@ -44,6 +60,7 @@ import lombok.NonNull;
 public class ProductsRestController
 {
 	public static final String ENDPOINT = MetasfreshRestAPIConstants.ENDPOINT_API + "/products";
+	private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
 
 	private static final Logger logger = LogManager.getLogger(ProductsRestController.class);
 	private final ProductsServicesFacade productsServicesFacade;
@@ -54,7 +71,14 @@ public class ProductsRestController
 	}
 
 	@GetMapping
-	public ResponseEntity<JsonGetProductsResponse> getProducts()
+	public ResponseEntity<JsonGetProductsResponse> getProducts(
+			@ApiParam(required = false, value = "If set, only the products after this cursor are returned. Take it from the `nextCursor` of the previous page.") //
+			@RequestParam(name = "cursor", required = false) //
+			@Nullable final String cursor,
+			//
+			@ApiParam(required = false, value = "Max number of products to return. If not set, all products are returned.") //
+			@RequestParam(name = "pageSize", required = false) //
+			@Nullable final Integer pageSize)
 	{
 		final String adLanguage = Env.getADLanguageOrBaseLanguage();
 
@@ -63,6 +87,8 @@ public class ProductsRestController
 			final JsonGetProductsResponse response = GetProductsCommand.builder()
 					.servicesFacade(productsServicesFacade)
 					.adLanguage(adLanguage)
+					.afterProductId(GetProductsCommand.fromCursor(cursor))
+					.pageSize(pageSize)
 					.execute();
 
 			return ResponseEntity.ok(response);
@@ -76,4 +102,40 @@ public class ProductsRestController
 					.body(JsonGetProductsResponse.error(ex, adLanguage));
 		}
 	}
+
+	/**
+	 * Writes the products as newline delimited JSON (one {@link JsonProduct} per line) while they are loaded page by page,
+	 * so that neither the server nor the client have to keep the whole catalogue in memory.
+	 */
+	@ApiOperation("Streams all products, one JSON object per line")
+	@GetMapping(path = "/stream", produces = MEDIA_TYPE_NDJSON)
+	public void streamProducts(
+			@ApiParam(required = false, value = "If set, only the products after this cursor are returned.") //
+			@RequestParam(name = "cursor", required = false) //
+			@Nullable final String cursor,
+			//
+			@NonNull final HttpServletResponse httpResponse) throws IOException
+	{
+		final String adLanguage = Env.getADLanguageOrBaseLanguage();
+		final ObjectWriter jsonWriter = JsonObjectMapperHolder.sharedJsonObjectMapper().writerFor(JsonProduct.class);
+
+		httpResponse.setContentType(MEDIA_TYPE_NDJSON);
+		httpResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		final OutputStream out = httpResponse.getOutputStream();
+
+		try (final Stream<JsonProduct> products = GetProductsCommand.builder()
+				.servicesFacade(productsServicesFacade)
+				.adLanguage(adLanguage)
+				.afterProductId(GetProductsCommand.fromCursor(cursor))
+				.stream())
+		{
+			for (final Iterator<JsonProduct> it = products.iterator(); it.hasNext();)
+			{
+				out.write(jsonWriter.writeValueAsBytes(it.next()));
+				out.write('\n');
+			}
+		}
+
+		out.flush();
+	}
 }
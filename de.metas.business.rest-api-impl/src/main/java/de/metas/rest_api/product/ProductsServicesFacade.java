@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
 import org.compiere.model.I_C_BPartner_Product;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_Product;
@@ -54,9 +56,9 @@ public class ProductsServicesFacade
 	private final IUOMDAO uomsRepo = Services.get(IUOMDAO.class);
 	private final IBPartnerProductDAO partnerProductsRepo = Services.get(IBPartnerProductDAO.class);
 
-	public Stream<I_M_Product> streamAllProducts()
+	public List<I_M_Product> getProductsPage(@Nullable final ProductId afterProductId, final int pageSize)
 	{
-		return productsRepo.streamAllProducts();
+		return productsRepo.retrieveProductsPage(afterProductId, pageSize);
 	}
 
 	public String getUOMSymbol(@NonNull final UomId uomId)
@@ -1,15 +1,23 @@
 package de.metas.rest_api.product.command;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_BPartner_Product;
 import org.compiere.model.I_M_Product;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Streams;
 
 import de.metas.bpartner.BPartnerId;
 import de.metas.i18n.IModelTranslationMap;
@@ -19,6 +27,7 @@ import de.metas.rest_api.product.response.JsonGetProductsResponse;
 import de.metas.rest_api.product.response.JsonProduct;
 import de.metas.rest_api.product.response.JsonProductBPartner;
 import de.metas.uom.UomId;
+import de.metas.util.Check;
 import lombok.Builder;
 import lombok.NonNull;
 
@@ -46,18 +55,29 @@ import lombok.NonNull;
 
 public class GetProductsCommand
 {
-	private final ProductsServicesFacade servicesFacade;
-	private String adLanguage;
+	public static final int DEFAULT_PAGE_SIZE = 500;
 
-	private ImmutableListMultimap<ProductId, JsonProductBPartner> productBPartners;
+	private final ProductsServicesFacade servicesFacade;
+	private final String adLanguage;
+	private final ProductId afterProductId;
+	private final Integer pageSize;
 
 	@Builder(buildMethodName = "_build")
 	private GetProductsCommand(
 			@NonNull final ProductsServicesFacade servicesFacade,
-			@NonNull final String adLanguage)
+			@NonNull final String adLanguage,
+			@Nullable final ProductId afterProductId,
+			@Nullable final Integer pageSize)
 	{
+		if (pageSize != null)
+		{
+			Check.assumeGreaterThanZero(pageSize, "pageSize");
+		}
+
 		this.servicesFacade = servicesFacade;
 		this.adLanguage = adLanguage;
+		this.afterProductId = afterProductId;
+		this.pageSize = pageSize;
 	}
 
 	public static class GetProductsCommandBuilder
@@ -66,25 +86,122 @@ public class GetProductsCommand
 		{
 			return _build().execute();
 		}
+
+		public Stream<JsonProduct> stream()
+		{
+			return _build().streamJsonProducts();
+		}
 	}
 
+	/**
+	 * @return all products after the cursor if no page size was given, else only the next page
+	 */
 	public JsonGetProductsResponse execute()
 	{
-		final ImmutableList<I_M_Product> productRecords = servicesFacade.streamAllProducts()
-				.collect(ImmutableList.toImmutableList());
-
-		final ImmutableSet<ProductId> productIds = extractProductIds(productRecords);
-		productBPartners = retrieveJsonProductVendors(productIds);
+		if (pageSize == null)
+		{
+			try (final Stream<JsonProduct> products = streamJsonProducts())
+			{
+				return JsonGetProductsResponse.builder()
+						.products(products.collect(ImmutableList.toImmutableList()))
+						.build();
+			}
+		}
 
-		final ImmutableList<JsonProduct> products = productRecords.stream()
-				.map(this::toJsonProduct)
-				.collect(ImmutableList.toImmutableList());
+		final List<I_M_Product> productRecords = servicesFacade.getProductsPage(afterProductId, pageSize);
+		final String nextCursor = productRecords.size() >= pageSize
+				? toCursor(extractLastProductId(productRecords))
+				: null;
 
 		return JsonGetProductsResponse.builder()
-				.products(products)
+				.products(toJsonProducts(productRecords))
+				.nextCursor(nextCursor)
 				.build();
 	}
 
+	/**
+	 * @return all products after the cursor; the products are loaded lazily, page by page, so only one page is kept in memory at a time.
+	 */
+	public Stream<JsonProduct> streamJsonProducts()
+	{
+		final int pageSizeEffective = pageSize != null ? pageSize : DEFAULT_PAGE_SIZE;
+
+		final Iterator<List<I_M_Product>> pages = new AbstractIterator<List<I_M_Product>>()
+		{
+			private ProductId lastProductId = afterProductId;
+			private boolean lastPageLoaded = false;
+
+			@Override
+			protected List<I_M_Product> computeNext()
+			{
+				if (lastPageLoaded)
+				{
+					return endOfData();
+				}
+
+				final List<I_M_Product> page = servicesFacade.getProductsPage(lastProductId, pageSizeEffective);
+				lastPageLoaded = page.size() < pageSizeEffective;
+				if (page.isEmpty())
+				{
+					return endOfData();
+				}
+
+				lastProductId = extractLastProductId(page);
+				return page;
+			}
+		};
+
+		return Streams.stream(pages)
+				.flatMap(page -> toJsonProducts(page).stream());
+	}
+
+	public static String toCursor(@NonNull final ProductId lastProductId)
+	{
+		return String.valueOf(lastProductId.getRepoId());
+	}
+
+	@Nullable
+	public static ProductId fromCursor(@Nullable final String cursor)
+	{
+		if (Check.isEmpty(cursor, true))
+		{
+			return null;
+		}
+
+		try
+		{
+			return ProductId.ofRepoId(Integer.parseInt(cursor.trim()));
+		}
+		catch (final Exception ex)
+		{
+			throw new AdempiereException("Invalid cursor: " + cursor, ex);
+		}
+	}
+
+	private static ProductId extractLastProductId(final List<I_M_Product> productRecords)
+	{
+		final I_M_Product lastProductRecord = productRecords.get(productRecords.size() - 1);
+		return ProductId.ofRepoId(lastProductRecord.getM_Product_ID());
+	}
+
+	/**
+	 * Converts one page of products, fetching the bpartner data of the whole page at once.
+	 */
+	private ImmutableList<JsonProduct> toJsonProducts(final List<I_M_Product> productRecords)
+	{
+		if (productRecords.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableSet<ProductId> productIds = extractProductIds(productRecords);
+		final ImmutableListMultimap<ProductId, JsonProductBPartner> productBPartners = retrieveJsonProductVendors(productIds);
+
+		return productRecords.stream()
+				.map(productRecord -> toJsonProduct(productRecord, productBPartners))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private static ImmutableSet<ProductId> extractProductIds(final Collection<I_M_Product> records)
 	{
 		return records.stream()
@@ -94,7 +211,9 @@ public class GetProductsCommand
 				.collect(ImmutableSet.toImmutableSet());
 	}
 
-	private JsonProduct toJsonProduct(final I_M_Product productRecord)
+	private JsonProduct toJsonProduct(
+			final I_M_Product productRecord,
+			final ImmutableListMultimap<ProductId, JsonProductBPartner> productBPartners)
 	{
 		final IModelTranslationMap trls = InterfaceWrapperHelper.getModelTranslationMap(productRecord);
 
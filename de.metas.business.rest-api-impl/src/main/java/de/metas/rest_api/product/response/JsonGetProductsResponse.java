@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 
 import de.metas.rest_api.common.JsonErrorItem;
 import de.metas.rest_api.utils.JsonErrors;
+import io.swagger.annotations.ApiModelProperty;
 import lombok.Builder;
 import lombok.NonNull;
 import lombok.Singular;
@@ -44,6 +45,10 @@ public class JsonGetProductsResponse
 	@Singular
 	List<JsonProduct> products;
 
+	@ApiModelProperty("Set if the products were requested page by page and there are more products. Pass it as `cursor` parameter to get the next page.")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	String nextCursor;
+
 	@JsonInclude(JsonInclude.Include.NON_NULL)
 	JsonErrorItem error;
 
@@ -4,9 +4,17 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.ZoneId;
+import java.util.List;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.compiere.model.I_C_BPartner_Product;
@@ -16,10 +24,14 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 import ch.qos.logback.classic.Level;
+import de.metas.JsonObjectMapperHolder;
 import de.metas.bpartner.BPartnerId;
 import de.metas.logging.LogManager;
 import de.metas.product.ProductId;
@@ -161,7 +173,7 @@ public class ProductsRestControllerTest
 
 		//
 		// Call endpoint
-		final ResponseEntity<JsonGetProductsResponse> response = restController.getProducts();
+		final ResponseEntity<JsonGetProductsResponse> response = restController.getProducts(null, null);
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
 		//
@@ -217,6 +229,97 @@ public class ProductsRestControllerTest
 		SnapshotMatcher.expect(responseBody).toMatchSnapshot();
 	}
 
+	@Test
+	public void getProducts_pageByPage()
+	{
+		final I_M_Product product1 = prepareProduct().value("value1").name("name1").uomId(eachUomId).build();
+		final I_M_Product product2 = prepareProduct().value("value2").name("name2").uomId(eachUomId).build();
+		final I_M_Product product3 = prepareProduct().value("value3").name("name3").uomId(kgUomId).build();
+
+		final JsonGetProductsResponse page1 = restController.getProducts(null, 2).getBody();
+		assertThat(page1.getProducts())
+				.extracting(JsonProduct::getProductNo)
+				.containsExactly("value1", "value2");
+		assertThat(page1.getNextCursor()).isEqualTo(String.valueOf(product2.getM_Product_ID()));
+
+		final JsonGetProductsResponse page2 = restController.getProducts(page1.getNextCursor(), 2).getBody();
+		assertThat(page2.getProducts())
+				.extracting(JsonProduct::getId)
+				.containsExactly(ProductId.ofRepoId(product3.getM_Product_ID()));
+		assertThat(page2.getNextCursor()).isNull();
+
+		final JsonGetProductsResponse allAfterFirst = restController.getProducts(String.valueOf(product1.getM_Product_ID()), null).getBody();
+		assertThat(allAfterFirst.getProducts())
+				.extracting(JsonProduct::getProductNo)
+				.containsExactly("value2", "value3");
+		assertThat(allAfterFirst.getNextCursor()).isNull();
+	}
+
+	@Test
+	public void streamProducts_sameProductsAsGetProducts() throws IOException
+	{
+		final I_M_Product product1 = prepareProduct().value("value1").name("name1").uomId(eachUomId).build();
+		prepareBPartnerProduct()
+				.productId(ProductId.ofRepoId(product1.getM_Product_ID()))
+				.bpartnerId(BPartnerId.ofRepoId(1))
+				.productNo("productNo1-vendor1")
+				.vendor(true)
+				.currentVendor(true)
+				.customer(false)
+				.build();
+		prepareProduct().value("value2").name("name2").uomId(eachUomId).build();
+		prepareProduct().value("value3").name("name3").uomId(kgUomId).build();
+
+		final List<JsonProduct> expectedProducts = restController.getProducts(null, null).getBody().getProducts();
+		assertThat(expectedProducts).hasSize(3);
+		assertThat(streamProducts(null)).isEqualTo(toNDJson(expectedProducts));
+
+		final String cursor = String.valueOf(product1.getM_Product_ID());
+		assertThat(streamProducts(cursor)).isEqualTo(toNDJson(restController.getProducts(cursor, null).getBody().getProducts()));
+	}
+
+	private String streamProducts(final String cursor) throws IOException
+	{
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final HttpServletResponse httpResponse = Mockito.mock(HttpServletResponse.class);
+		Mockito.doReturn(new ServletOutputStream()
+		{
+			@Override
+			public void write(final int b)
+			{
+				body.write(b);
+			}
+
+			@Override
+			public boolean isReady()
+			{
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(final WriteListener writeListener)
+			{
+				throw new UnsupportedOperationException();
+			}
+		}).when(httpResponse).getOutputStream();
+
+		restController.streamProducts(cursor, httpResponse);
+
+		Mockito.verify(httpResponse).setContentType("application/x-ndjson");
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static String toNDJson(final List<JsonProduct> products) throws IOException
+	{
+		final ObjectWriter jsonWriter = JsonObjectMapperHolder.sharedJsonObjectMapper().writerFor(JsonProduct.class);
+		final StringBuilder ndjson = new StringBuilder();
+		for (final JsonProduct product : products)
+		{
+			ndjson.append(jsonWriter.writeValueAsString(product)).append('\n');
+		}
+		return ndjson.toString();
+	}
+
 	private UomId createUOM(@NonNull final String uomSymbol)
 	{
 		final I_C_UOM record = newInstance(I_C_UOM.class);
@@ -27,6 +27,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.getTableId;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -43,6 +44,8 @@ import org.compiere.model.MContactInterest;
 import org.compiere.model.X_C_DocType;
 import org.compiere.model.X_I_BPartner;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.BPPrintFormat;
 import de.metas.bpartner.service.BPPrintFormatQuery;
@@ -52,8 +55,10 @@ import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.document.DocTypeId;
 import de.metas.document.DocTypeQuery;
 import de.metas.document.IDocTypeDAO;
+import de.metas.impexp.processing.ImportGroupKey;
 import de.metas.impexp.processing.ImportRecordsSelection;
 import de.metas.impexp.processing.SimpleImportProcessTemplate;
+import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
 
@@ -294,6 +299,40 @@ public class BPartnerImportProcess extends SimpleImportProcessTemplate<I_I_BPart
 		return I_I_BPartner.Table_Name;
 	}
 
+	@Override
+	protected boolean isParallelImportSupported()
+	{
+		return true;
+	}
+
+	/** Lines with the same BPValue are importing the same BPartner, so they have to be imported by the same worker, one after the other. */
+	@Override
+	protected Object extractParallelImportShardKey(@NonNull final I_I_BPartner importRecord)
+	{
+		return importRecord.getBPValue();
+	}
+
+	/**
+	 * Lines with different BPValues might still be matched with the same existing BPartner, e.g. via their GlobalId.
+	 * Those lines must not be imported at the same time.
+	 */
+	@Override
+	protected Set<Object> extractParallelImportLockKeys(@NonNull final I_I_BPartner importRecord)
+	{
+		final ImmutableSet.Builder<Object> lockKeys = ImmutableSet.builder();
+		if (importRecord.getC_BPartner_ID() > 0)
+		{
+			lockKeys.add(ImportGroupKey.of(I_I_BPartner.COLUMNNAME_C_BPartner_ID, importRecord.getC_BPartner_ID()));
+		}
+		if (!Check.isEmpty(importRecord.getGlobalId(), true))
+		{
+			lockKeys.add(ImportGroupKey.builder()
+					.value(I_I_BPartner.COLUMNNAME_GlobalId, importRecord.getGlobalId().trim())
+					.build());
+		}
+		return lockKeys.build();
+	}
+
 	@Override
 	protected String getImportOrderBySql()
 	{
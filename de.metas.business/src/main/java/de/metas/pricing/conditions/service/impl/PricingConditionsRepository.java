@@ -98,10 +98,16 @@ public class PricingConditionsRepository implements IPricingConditionsRepository
 {
 	private static final Logger logger = LogManager.getLogger(PricingConditionsRepository.class);
 
+	/** approximate heap size of a {@link PricingConditions} without breaks, in bytes */
+	private static final int WEIGHT_PricingConditions = 300;
+	/** approximate heap size of one {@link PricingConditionsBreak}, in bytes */
+	private static final int WEIGHT_PricingConditionsBreak = 800;
+
 	private final CCache<PricingConditionsId, PricingConditions> pricingConditionsById = CCache.<PricingConditionsId, PricingConditions> builder()
 			.tableName(I_M_DiscountSchema.Table_Name)
 			.initialCapacity(10)
 			.additionalTableNameToResetFor(I_M_DiscountSchemaBreak.Table_Name)
+			.weigher((id, pricingConditions) -> WEIGHT_PricingConditions + (pricingConditions.getBreaks() != null ? pricingConditions.getBreaks().size() : 0) * WEIGHT_PricingConditionsBreak)
 			.build();
 
 	@Override
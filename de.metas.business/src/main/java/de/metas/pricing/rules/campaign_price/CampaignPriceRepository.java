@@ -63,11 +63,18 @@ public class CampaignPriceRepository
 {
 	private final IProductBL productsService = Services.get(IProductBL.class);
 
+	/** approximate heap size of a page without prices, in bytes */
+	private static final int WEIGHT_Page = 300;
+	/** approximate heap size of one {@link CampaignPrice} in a page, in bytes */
+	private static final int WEIGHT_Price = 600;
+
 	private final CCache<CampaignPricePageKey, CampaignPricePage> cache = CCache.<CampaignPricePageKey, CampaignPricePage> builder()
 			.cacheName("campaignPricePages")
 			.cacheMapType(CacheMapType.LRU)
 			.initialCapacity(100)
 			.additionalTableNameToResetFor(I_C_Campaign_Price.Table_Name)
+			.weigher((key, page) -> WEIGHT_Page + page.getPricesCount() * WEIGHT_Price)
+			.maximumWeight(16L * 1024 * 1024)
 			.build();
 
 	public Optional<CampaignPrice> getCampaignPrice(@NonNull final CampaignPriceQuery query)
@@ -195,6 +202,11 @@ public class CampaignPriceRepository
 					.collect(GuavaCollectors.toImmutableListMultimap(CampaignPrice::getPricingSystemId));
 		}
 
+		public int getPricesCount()
+		{
+			return bpartnerPrices.size() + bpGroupPrices.size() + pricingSystemPrices.size();
+		}
+
 		private CampaignPricePage()
 		{
 			bpartnerPrices = ImmutableListMultimap.of();
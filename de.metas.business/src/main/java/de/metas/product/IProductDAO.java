@@ -125,7 +125,10 @@ public interface IProductDAO extends ISingletonService
 		}
 	}
 
-	Stream<I_M_Product> streamAllProducts();
+	/**
+	 * @return at most {@code pageSize} active products, ordered by M_Product_ID, whose M_Product_ID is greater than {@code afterProductId}.
+	 */
+	List<I_M_Product> retrieveProductsPage(@Nullable ProductId afterProductId, int pageSize);
 
 	/**
 	 * @return product category or null
@@ -47,6 +47,7 @@ import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryOrderBy.Direction;
 import org.adempiere.ad.dao.IQueryOrderBy.Nulls;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
@@ -200,13 +201,22 @@ public class ProductDAO implements IProductDAO
 	}
 
 	@Override
-	public Stream<I_M_Product> streamAllProducts()
+	public List<I_M_Product> retrieveProductsPage(@Nullable final ProductId afterProductId, final int pageSize)
 	{
-		return queryBL.createQueryBuilderOutOfTrx(I_M_Product.class)
-				.addOnlyActiveRecordsFilter()
+		Check.assumeGreaterThanZero(pageSize, "pageSize");
+
+		final IQueryBuilder<I_M_Product> queryBuilder = queryBL.createQueryBuilderOutOfTrx(I_M_Product.class)
+				.addOnlyActiveRecordsFilter();
+		if (afterProductId != null)
+		{
+			queryBuilder.addCompareFilter(I_M_Product.COLUMNNAME_M_Product_ID, Operator.GREATER, afterProductId.getRepoId());
+		}
+
+		return queryBuilder
 				.orderBy(I_M_Product.COLUMNNAME_M_Product_ID)
+				.setLimit(pageSize)
 				.create()
-				.iterateAndStream();
+				.list();
 	}
 
 	@Override
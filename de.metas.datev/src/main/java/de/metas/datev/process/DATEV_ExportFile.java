@@ -1,13 +1,20 @@
 package de.metas.datev.process;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
 import org.compiere.util.TimeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 
 import de.metas.data.export.api.IExportDataSource;
@@ -18,12 +25,14 @@ import de.metas.datev.DATEVExportFormatRepository;
 import de.metas.datev.model.I_DATEV_Export;
 import de.metas.datev.model.I_DATEV_ExportFormat;
 import de.metas.datev.model.I_DATEV_ExportLine;
+import de.metas.datev.model.I_RV_DATEV_Export_Fact_Acct_Invoice;
 import de.metas.process.IProcessPrecondition;
 import de.metas.process.IProcessPreconditionsContext;
 import de.metas.process.JavaProcess;
 import de.metas.process.Param;
 import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -50,6 +59,13 @@ import lombok.NonNull;
 
 public class DATEV_ExportFile extends JavaProcess implements IProcessPrecondition
 {
+	/**
+	 * If {@code true}, the accounting lines are streamed from {@link I_RV_DATEV_Export_Fact_Acct_Invoice} directly into the file,
+	 * and {@link DATEV_CreateExportLines} does not need to be run before.
+	 * Note that no {@link I_DATEV_ExportLine}s are created in this mode, so they are not considered by a later export's {@link I_DATEV_Export#COLUMNNAME_IsExcludeAlreadyExported}.
+	 */
+	private static final String SYSCONFIG_ExportDirectly = "de.metas.datev.process.DATEV_ExportFile.ExportDirectly";
+
 	@Autowired
 	private DATEVExportFormatRepository exportFormatRepo;
 
@@ -82,24 +98,42 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 		final DATEVExportFormat exportFormat = exportFormatRepo.getById(datevExportFormatId);
 		final I_DATEV_Export datevExport = getRecord(I_DATEV_Export.class);
 
-		final IExportDataSource dataSource = createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
-
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-		DATEVCsvExporter.builder()
-				.exportFormat(exportFormat)
-				.dataSource(dataSource)
-				.build()
-				.export(out);
+		final boolean exportDirectly = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ExportDirectly, false, datevExport.getAD_Client_ID(), datevExport.getAD_Org_ID());
+		final IExportDataSource dataSource = exportDirectly
+				? createDirectDataSource(exportFormat, datevExport.getDateAcctFrom(), datevExport.getDateAcctTo(), datevExport.isExcludeAlreadyExported())
+				: createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
 
-		getResult().setReportData(
-				out.toByteArray(), // data
-				buildFilename(datevExport), // filename
-				"text/csv"); // content type
+		// NOTE: we write to a temporary file, so that we don't need to keep all the exported rows in memory, neither while exporting nor afterwards
+		final File tempFile = File.createTempFile("datev_", ".csv");
+		try
+		{
+			final DATEVCsvExporter exporter = DATEVCsvExporter.builder()
+					.exportFormat(exportFormat)
+					.dataSource(dataSource)
+					.build();
+			try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile)))
+			{
+				exporter.export(out);
+			}
+			addLog("Exported {} rows ({} rows/s)", exporter.getExportedRowCount(), exporter.getExportedRowsPerSecond());
+
+			// the process result takes over the file and deletes it once the report data was consumed
+			getResult().setReportData(
+					tempFile, // data
+					buildFilename(datevExport), // filename
+					"text/csv"); // content type
+		}
+		catch (final Exception ex)
+		{
+			tempFile.delete();
+			throw ex;
+		}
 
 		return MSG_OK;
 	}
 
-	private IExportDataSource createDataSource(@NonNull final DATEVExportFormat exportFormat, final int datevExportId)
+	@VisibleForTesting
+	static IExportDataSource createDataSource(@NonNull final DATEVExportFormat exportFormat, final int datevExportId)
 	{
 		Check.assume(datevExportId > 0, "datevExportId > 0");
 
@@ -114,6 +148,37 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 		return builder.createDataSource();
 	}
 
+	/**
+	 * Creates a data source which selects the accounting lines directly, like {@link de.metas.datev.DATEVExportLinesRepository#createLinesFromConfig(int)} does.
+	 * The rows are read through a server side cursor. Like {@link #createDataSource(DATEVExportFormat, int)}, it's selecting {@code DISTINCT} rows.
+	 */
+	@VisibleForTesting
+	static IExportDataSource createDirectDataSource(
+			@NonNull final DATEVExportFormat exportFormat,
+			@Nullable final Timestamp dateAcctFrom,
+			@Nullable final Timestamp dateAcctTo,
+			final boolean excludeAlreadyExported)
+	{
+		final JdbcExporterBuilder builder = new JdbcExporterBuilder(I_RV_DATEV_Export_Fact_Acct_Invoice.Table_Name)
+				.addBetweenWhereClause(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_DateAcct, dateAcctFrom, dateAcctTo)
+				.addOrderBy(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_DateAcct)
+				.addOrderBy(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_Fact_Acct_ID);
+
+		if (excludeAlreadyExported)
+		{
+			builder.addWhereClause(I_RV_DATEV_Export_Fact_Acct_Invoice.COLUMNNAME_C_Invoice_ID + " NOT IN ("
+					+ "SELECT " + I_DATEV_ExportLine.COLUMNNAME_C_Invoice_ID
+					+ " FROM " + I_DATEV_ExportLine.Table_Name
+					+ " WHERE " + I_DATEV_ExportLine.COLUMNNAME_C_Invoice_ID + " IS NOT NULL)");
+		}
+
+		exportFormat
+				.getColumns()
+				.forEach(formatColumn -> builder.addField(formatColumn.getCsvHeaderName(), formatColumn.getColumnName()));
+
+		return builder.createDataSource();
+	}
+
 	private static String buildFilename(final I_DATEV_Export datevExport)
 	{
 		final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
@@ -0,0 +1,92 @@
+package de.metas.datev.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+import de.metas.data.export.api.impl.JdbcExportDataSource;
+import de.metas.datev.DATEVExportFormat;
+import de.metas.datev.DATEVExportFormatColumn;
+
+/*
+ * #%L
+ * metasfresh-datev
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DATEV_ExportFileTest
+{
+	private static final Timestamp DATE_FROM = Timestamp.valueOf("2020-01-01 00:00:00");
+	private static final Timestamp DATE_TO = Timestamp.valueOf("2020-01-31 00:00:00");
+
+	private static DATEVExportFormat exportFormat()
+	{
+		return DATEVExportFormat.builder()
+				.name("test")
+				.column(DATEVExportFormatColumn.builder().columnName("DocumentNo").csvHeaderName("Belegfeld 1").build())
+				.column(DATEVExportFormatColumn.builder().columnName("Amt").csvHeaderName("Umsatz").build())
+				.column(DATEVExportFormatColumn.builder().columnName("DateAcct").csvHeaderName("Belegdatum").build())
+				.build();
+	}
+
+	/** @return the SQL between SELECT and FROM, without the columns added because of the ORDER BYs */
+	private static String extractExportedColumns(final String sqlSelect, final String tableName)
+	{
+		final String selectColumns = sqlSelect.substring(sqlSelect.indexOf("SELECT"), sqlSelect.indexOf(" FROM "));
+		return selectColumns.replace(tableName + ".", "").replaceAll("\\s+", " ").trim();
+	}
+
+	@Test
+	public void directDataSource_sameColumnsAndDistinctAsClassicDataSource()
+	{
+		final JdbcExportDataSource classicDataSource = (JdbcExportDataSource)DATEV_ExportFile.createDataSource(exportFormat(), 123);
+		final JdbcExportDataSource directDataSource = (JdbcExportDataSource)DATEV_ExportFile.createDirectDataSource(exportFormat(), DATE_FROM, DATE_TO, false);
+
+		assertThat(directDataSource.getFieldNames())
+				.containsExactly("Belegfeld 1", "Umsatz", "Belegdatum")
+				.isEqualTo(classicDataSource.getFieldNames());
+
+		assertThat(extractExportedColumns(classicDataSource.getSqlSelect(), "DATEV_ExportLine"))
+				.isEqualTo("SELECT DISTINCT DocumentNo AS DocumentNo ,Amt AS Amt ,DateAcct AS DateAcct ,DATEV_ExportLine_ID");
+		assertThat(extractExportedColumns(directDataSource.getSqlSelect(), "RV_DATEV_Export_Fact_Acct_Invoice"))
+				.isEqualTo("SELECT DISTINCT DocumentNo AS DocumentNo ,Amt AS Amt ,DateAcct AS DateAcct ,DateAcct , Fact_Acct_ID");
+	}
+
+	@Test
+	public void directDataSource_whereClauseAndOrderBy()
+	{
+		final JdbcExportDataSource dataSource = (JdbcExportDataSource)DATEV_ExportFile.createDirectDataSource(exportFormat(), DATE_FROM, DATE_TO, false);
+
+		assertThat(dataSource.getSqlWhereClause()).isEqualTo("(DateAcct>=? AND DateAcct<=?)");
+		assertThat(dataSource.getSqlParams()).containsExactly(DATE_FROM, DATE_TO);
+		assertThat(dataSource.getSqlSelect()).endsWith("ORDER BY \r\nDateAcct, Fact_Acct_ID");
+	}
+
+	@Test
+	public void directDataSource_excludeAlreadyExported()
+	{
+		final JdbcExportDataSource dataSource = (JdbcExportDataSource)DATEV_ExportFile.createDirectDataSource(exportFormat(), null, DATE_TO, true);
+
+		assertThat(dataSource.getSqlWhereClause()).isEqualTo("(DateAcct<=?)"
+				+ "\r\n AND (C_Invoice_ID NOT IN (SELECT C_Invoice_ID FROM DATEV_ExportLine WHERE C_Invoice_ID IS NOT NULL))");
+		assertThat(dataSource.getSqlParams()).containsExactly(DATE_TO);
+	}
+}
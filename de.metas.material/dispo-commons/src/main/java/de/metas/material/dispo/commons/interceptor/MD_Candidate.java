@@ -0,0 +1,82 @@
+package de.metas.material.dispo.commons.interceptor;
+
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.ModelValidator;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.PostMaterialEventService;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.stock.StockCandidatesChangedEvent;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the products whose stock candidates are changed and fires a {@link StockCandidatesChangedEvent} for them after commit, so that the {@link AvailableToPromiseIndex}es of all nodes can reload them.
+ * <p>
+ * Note that changes which are made directly in the database (e.g. {@code CandidateRepositoryWriteService#addQtyDeltaToCandidates(..)}) are not intercepted.
+ * Therefore, code that makes such changes needs to register the affected products with {@link StockCandidatesChangesCollector} itself.
+ */
+@Interceptor(I_MD_Candidate.class)
+@Component
+public class MD_Candidate
+{
+	private final PostMaterialEventService materialEventService;
+
+	public MD_Candidate(@NonNull final PostMaterialEventService materialEventService)
+	{
+		this.materialEventService = materialEventService;
+	}
+
+	@ModelChange(timings = { ModelValidator.TYPE_AFTER_NEW, ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_BEFORE_DELETE })
+	public void collectChangedStockCandidate(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		if (!AvailableToPromiseIndex.isEnabled())
+		{
+			return;
+		}
+
+		final I_MD_Candidate candidateRecordOld = InterfaceWrapperHelper.createOld(candidateRecord, I_MD_Candidate.class);
+		final boolean isStock = X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK.equals(candidateRecord.getMD_Candidate_Type());
+		final boolean wasStock = X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK.equals(candidateRecordOld.getMD_Candidate_Type());
+		if (!isStock && !wasStock)
+		{
+			return;
+		}
+
+		final EventDescriptor eventDescriptor = EventDescriptor.ofClientAndOrg(candidateRecord.getAD_Client_ID(), candidateRecord.getAD_Org_ID());
+
+		StockCandidatesChangesCollector.collectChangedProducts(
+				materialEventService,
+				eventDescriptor,
+				InterfaceWrapperHelper.getTrxName(candidateRecord),
+				ImmutableSet.of(candidateRecord.getM_Product_ID(), candidateRecordOld.getM_Product_ID()));
+	}
+}
@@ -0,0 +1,118 @@
+package de.metas.material.dispo.commons.interceptor;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.exceptions.AdempiereException;
+
+import de.metas.material.event.PostMaterialEventService;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.stock.StockCandidatesChangedEvent;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the IDs of products whose stock candidates were changed within one transaction and posts one {@link StockCandidatesChangedEvent} for all of them after commit.
+ */
+@ToString
+public final class StockCandidatesChangesCollector
+{
+	/**
+	 * Adds the given products to the collector of the given transaction. If there is no active transaction, the event is posted right away.
+	 */
+	public static void collectChangedProducts(
+			@NonNull final PostMaterialEventService materialEventService,
+			@NonNull final EventDescriptor eventDescriptor,
+			@Nullable final String trxName,
+			@NonNull final Collection<Integer> productIds)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.get(trxName, OnTrxMissingPolicy.ReturnTrxNone);
+		final boolean postAfterCommit = trxManager.isActive(trx);
+
+		final StockCandidatesChangesCollector collector = postAfterCommit
+				? trx.getPropertyAndProcessAfterCommit(
+						StockCandidatesChangesCollector.class.getName(),
+						() -> new StockCandidatesChangesCollector(materialEventService, eventDescriptor),
+						StockCandidatesChangesCollector::postMaterialEvent)
+				: new StockCandidatesChangesCollector(materialEventService, eventDescriptor);
+
+		productIds.forEach(collector::collect);
+
+		if (!postAfterCommit)
+		{
+			collector.postMaterialEvent();
+		}
+	}
+
+	private final PostMaterialEventService materialEventService;
+	private final EventDescriptor eventDescriptor;
+
+	// state
+	private final AtomicBoolean disposed = new AtomicBoolean();
+	private final HashSet<Integer> productIds = new HashSet<>();
+
+	private StockCandidatesChangesCollector(
+			@NonNull final PostMaterialEventService materialEventService,
+			@NonNull final EventDescriptor eventDescriptor)
+	{
+		this.materialEventService = materialEventService;
+		this.eventDescriptor = eventDescriptor;
+	}
+
+	private void collect(final int productId)
+	{
+		Check.assume(!disposed.get(), "Collector shall not be disposed: {}", this);
+		if (productId > 0)
+		{
+			productIds.add(productId);
+		}
+	}
+
+	private void postMaterialEvent()
+	{
+		if (disposed.getAndSet(true))
+		{
+			throw new AdempiereException("Collector was already disposed: " + this);
+		}
+		if (productIds.isEmpty())
+		{
+			return;
+		}
+
+		materialEventService.postEventNow(StockCandidatesChangedEvent.builder()
+				.eventDescriptor(eventDescriptor)
+				.productIds(productIds)
+				.build());
+	}
+}
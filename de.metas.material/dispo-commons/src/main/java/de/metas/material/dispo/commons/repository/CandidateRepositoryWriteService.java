@@ -11,13 +11,19 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Objects;
+import java.util.Properties;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.ISqlQueryUpdater;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.IQuery;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
 
@@ -34,6 +40,8 @@ import de.metas.material.dispo.commons.candidate.businesscase.DemandDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.DistributionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.ProductionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.PurchaseDetail;
+import de.metas.material.dispo.commons.interceptor.StockCandidatesChangesCollector;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
 import de.metas.material.dispo.commons.repository.repohelpers.PurchaseDetailRepoHelper;
 import de.metas.material.dispo.commons.repository.repohelpers.RepositoryCommons;
@@ -43,7 +51,9 @@ import de.metas.material.dispo.model.I_MD_Candidate_Dist_Detail;
 import de.metas.material.dispo.model.I_MD_Candidate_Prod_Detail;
 import de.metas.material.dispo.model.I_MD_Candidate_Transaction_Detail;
 import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.PostMaterialEventService;
 import de.metas.material.event.commons.AttributesKey;
+import de.metas.material.event.commons.EventDescriptor;
 import de.metas.material.event.commons.MaterialDescriptor;
 import de.metas.material.event.pporder.MaterialDispoGroupId;
 import de.metas.material.event.stock.ResetStockPInstanceId;
@@ -119,6 +129,119 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code qtyDelta} to all candidates matched by the given {@code query} and sets their status accordingly.
+	 * <p>
+	 * Unlike loading and saving each candidate with {@link #updateCandidateById(Candidate)}, this is done with one single SQL update, no matter how many candidates are matched.
+	 * Therefore it shall only be used for candidates whose other properties (e.g. details) don't need to be synced, like stock candidates.
+	 *
+	 * @param groupId if not {@code null}, then the matched candidates' {@code MD_Candidate_GroupId} is set to this value.
+	 * @return the number of updated candidates
+	 */
+	public int addQtyDeltaToCandidates(
+			@NonNull final CandidatesQuery query,
+			@NonNull final BigDecimal qtyDelta,
+			@Nullable final MaterialDispoGroupId groupId)
+	{
+		if (qtyDelta.signum() == 0 && groupId == null)
+		{
+			return 0;
+		}
+
+		final IQuery<I_MD_Candidate> candidatesQuery = RepositoryCommons
+				.mkQueryBuilder(query)
+				.create();
+		final int count = candidatesQuery.updateDirectly(new QtyDeltaQueryUpdater(qtyDelta, groupId));
+
+		Loggables.addLog("addQtyDeltaToCandidates - updated {} candidates; qtyDelta={}; groupId={};\nquery={}", count, qtyDelta, groupId, query);
+
+		if (count > 0)
+		{
+			collectChangedStockProducts(candidatesQuery);
+		}
+		return count;
+	}
+
+	/**
+	 * The direct update is not seen by the {@link de.metas.material.dispo.commons.interceptor.MD_Candidate} interceptor, so we need to tell the {@link AvailableToPromiseIndex} ourselves.
+	 */
+	private static void collectChangedStockProducts(@NonNull final IQuery<I_MD_Candidate> candidatesQuery)
+	{
+		if (!AvailableToPromiseIndex.isEnabled())
+		{
+			return;
+		}
+
+		final List<Integer> productIds = candidatesQuery.listDistinct(I_MD_Candidate.COLUMNNAME_M_Product_ID, Integer.class);
+		StockCandidatesChangesCollector.collectChangedProducts(
+				SpringContextHolder.instance.getBean(PostMaterialEventService.class),
+				EventDescriptor.ofClientAndOrg(Env.getClientId(), Env.getOrgId()),
+				candidatesQuery.getTrxName(),
+				productIds);
+	}
+
+	/**
+	 * Adds a qty delta and updates the status by comparing the new qty with the record's {@code QtyFulfilled}, just like {@link CandidateRepositoryWriteService#updateCandidateRecordFromCandidate(I_MD_Candidate, Candidate, boolean)} does.
+	 */
+	@Value
+	private static class QtyDeltaQueryUpdater implements ISqlQueryUpdater<I_MD_Candidate>
+	{
+		@NonNull
+		BigDecimal qtyDelta;
+
+		@Nullable
+		MaterialDispoGroupId groupId;
+
+		@Override
+		public String getSql(final Properties ctx, final List<Object> params)
+		{
+			// note: within one UPDATE statement, all expressions refer to the row's old values
+			final StringBuilder sql = new StringBuilder();
+
+			sql.append(I_MD_Candidate.COLUMNNAME_Qty).append("=").append(I_MD_Candidate.COLUMNNAME_Qty).append(" + ?");
+			params.add(qtyDelta);
+
+			sql.append(", ").append(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status).append("=(CASE WHEN ")
+					.append(I_MD_Candidate.COLUMNNAME_QtyFulfilled).append(" >= ").append(I_MD_Candidate.COLUMNNAME_Qty).append(" + ?")
+					.append(" THEN ? ELSE ? END)");
+			params.add(qtyDelta);
+			params.add(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+			params.add(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+
+			if (groupId != null)
+			{
+				sql.append(", ").append(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId).append("=?");
+				params.add(groupId.toInt());
+			}
+
+			sql.append(", ").append(I_MD_Candidate.COLUMNNAME_Updated).append("=now()");
+
+			return sql.toString();
+		}
+
+		@Override
+		public boolean update(@NonNull final I_MD_Candidate candidateRecord)
+		{
+			final BigDecimal newQty = candidateRecord.getQty().add(qtyDelta);
+			candidateRecord.setQty(stripZerosAfterTheDigit(newQty));
+
+			if (candidateRecord.getQtyFulfilled().compareTo(newQty) >= 0)
+			{
+				candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+			}
+			else
+			{
+				candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+			}
+
+			if (groupId != null)
+			{
+				candidateRecord.setMD_Candidate_GroupId(groupId.toInt());
+			}
+			return MODEL_UPDATED;
+		}
+	}
+
 	@Value
 	@Builder
 	public static class SaveResult
@@ -440,7 +563,7 @@ public class CandidateRepositoryWriteService
 		}
 	}
 
-	private BigDecimal stripZerosAfterTheDigit(final BigDecimal quantity)
+	private static BigDecimal stripZerosAfterTheDigit(final BigDecimal quantity)
 	{
 		final BigDecimal stripTrailingZeros = quantity.stripTrailingZeros();
 		if (stripTrailingZeros.scale() < 0)
@@ -0,0 +1,420 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.warehouse.WarehouseId;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventListener;
+import de.metas.logging.LogManager;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.material.event.eventbus.MaterialEventConverter;
+import de.metas.material.event.eventbus.MetasfreshEventBusService;
+import de.metas.material.event.stock.StockCandidatesChangedEvent;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory representation of the projected stock, i.e. of the active {@code MD_Candidate}s with type {@code STOCK}.
+ * <p>
+ * For each product, all stock candidates are loaded on first access and kept in one timeline per warehouse, customer and storage attributes key.
+ * That way {@link AvailableToPromiseMultiQuery}s can be answered like {@code de_metas_material.retrieve_atp_at_date(..)} does, but without a DB round trip.
+ * <p>
+ * A product's data is discarded when a {@link StockCandidatesChangedEvent} for that product is received via {@link MetasfreshEventBusService}, and reloaded on next access.
+ * That event is fired after the respective transaction was committed, so the reload will see the new data.
+ */
+@Service
+public class AvailableToPromiseIndex
+{
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseIndex.class);
+
+	@VisibleForTesting
+	static final String SYSCONFIG_Enabled = "de.metas.material.dispo.ATP.InMemoryIndex.Enabled";
+
+	private final MaterialEventConverter materialEventConverter;
+
+	private final ConcurrentHashMap<Integer, ProductStock> productStocks = new ConcurrentHashMap<>();
+
+	/** Incremented on every invalidation; used to make sure that we don't cache data which was loaded before an invalidation. */
+	private final ConcurrentHashMap<Integer, Long> productVersions = new ConcurrentHashMap<>();
+
+	private final IEventListener eventListener = new IEventListener()
+	{
+		@Override
+		public void onEvent(@NonNull final IEventBus eventBus, @NonNull final Event event)
+		{
+			final MaterialEvent materialEvent = materialEventConverter.toMaterialEvent(event);
+			if (materialEvent instanceof StockCandidatesChangedEvent)
+			{
+				onStockCandidatesChanged((StockCandidatesChangedEvent)materialEvent);
+			}
+		}
+
+		@Override
+		public String toString()
+		{
+			return AvailableToPromiseIndex.class.getName() + ".eventListener";
+		}
+	};
+
+	public AvailableToPromiseIndex(
+			@NonNull final MetasfreshEventBusService metasfreshEventBusService,
+			@NonNull final MaterialEventConverter materialEventConverter)
+	{
+		this.materialEventConverter = materialEventConverter;
+		metasfreshEventBusService.subscribe(eventListener);
+	}
+
+	/**
+	 * @return {@code true} if {@link AvailableToPromiseRepository} shall use this index and if changes of stock candidates shall be announced via {@link StockCandidatesChangedEvent}s.
+	 */
+	public static boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	private void onStockCandidatesChanged(@NonNull final StockCandidatesChangedEvent event)
+	{
+		if (event.getProductIds().isEmpty())
+		{
+			invalidateAll();
+		}
+		else
+		{
+			invalidateProducts(event.getProductIds());
+		}
+	}
+
+	public void invalidateProducts(@NonNull final Collection<Integer> productIds)
+	{
+		for (final Integer productId : productIds)
+		{
+			// note: compute(..) is atomic for the given key, also see getProductStock(..)
+			productStocks.compute(productId, (k, oldProductStock) -> {
+				productVersions.merge(productId, 1L, Long::sum);
+				return null;
+			});
+		}
+		logger.debug("Invalidated productIds={}", productIds);
+	}
+
+	public void invalidateAll()
+	{
+		invalidateProducts(ImmutableSet.copyOf(productStocks.keySet()));
+	}
+
+	/** @return the IDs of the products whose stock is currently held in memory. */
+	public ImmutableSet<Integer> getIndexedProductIds()
+	{
+		return ImmutableSet.copyOf(productStocks.keySet());
+	}
+
+	/**
+	 * @return the same requests that would be created from the records which {@code de_metas_material.retrieve_atp_at_date(..)} returns for the given {@code multiQuery}; <b>not</b> sorted.
+	 */
+	public ImmutableList<AddToResultGroupRequest> retrieveRequests(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		// like the SQL UNION, we return every matching stock record just once, even if it is matched by multiple queries
+		final LinkedHashSet<AddToResultGroupRequest> result = new LinkedHashSet<>();
+
+		for (final AvailableToPromiseQuery query : multiQuery.getQueries())
+		{
+			final Instant date = TimeUtil.asInstant(query.getDate());
+			final StockKeyFilter filter = StockKeyFilter.of(query);
+
+			for (final Integer productId : query.getProductIds())
+			{
+				final ProductStock productStock = getProductStock(productId);
+				productStock.addLatestMatchingRequests(filter, date, result);
+			}
+		}
+
+		return ImmutableList.copyOf(result);
+	}
+
+	private ProductStock getProductStock(final int productId)
+	{
+		final ProductStock existingProductStock = productStocks.get(productId);
+		if (existingProductStock != null)
+		{
+			return existingProductStock;
+		}
+
+		final long versionBeforeLoad = productVersions.getOrDefault(productId, 0L);
+		final ProductStock loadedProductStock = ProductStock.load(productId);
+
+		// only cache what we loaded if there was no invalidation in the meantime; otherwise the data we loaded might already be stale
+		final ProductStock productStock = productStocks.compute(productId, (k, currentProductStock) -> {
+			if (currentProductStock != null)
+			{
+				return currentProductStock;
+			}
+			return productVersions.getOrDefault(productId, 0L) == versionBeforeLoad ? loadedProductStock : null;
+		});
+		return productStock != null ? productStock : loadedProductStock;
+	}
+
+	/**
+	 * Converts the given SQL LIKE pattern to a regular expression. Every literal run is quoted on its own, so regular expression metacharacters next to {@code %} or {@code _} are matched literally.
+	 * Like in PostgreSQL, a backslash escapes the following character.
+	 */
+	@VisibleForTesting
+	static Pattern sqlLikeToRegExp(@NonNull final String sqlLikeString)
+	{
+		final StringBuilder regExp = new StringBuilder();
+		final StringBuilder literal = new StringBuilder();
+		boolean escaped = false;
+		for (final char c : sqlLikeString.toCharArray())
+		{
+			if (escaped)
+			{
+				literal.append(c);
+				escaped = false;
+			}
+			else if (c == '\\')
+			{
+				escaped = true;
+			}
+			else if (c == '%' || c == '_')
+			{
+				appendQuotedLiteral(regExp, literal);
+				regExp.append(c == '%' ? ".*" : ".");
+			}
+			else
+			{
+				literal.append(c);
+			}
+		}
+		if (escaped)
+		{
+			literal.append('\\');
+		}
+		appendQuotedLiteral(regExp, literal);
+
+		return Pattern.compile(regExp.toString(), Pattern.DOTALL);
+	}
+
+	private static void appendQuotedLiteral(@NonNull final StringBuilder regExp, @NonNull final StringBuilder literal)
+	{
+		if (literal.length() > 0)
+		{
+			regExp.append(Pattern.quote(literal.toString()));
+			literal.setLength(0);
+		}
+	}
+
+	@Value
+	private static class StockKey
+	{
+		WarehouseId warehouseId;
+
+		/** {@code null} means that the stock is not dedicated to a particular customer */
+		BPartnerId customerId;
+
+		AttributesKey storageAttributesKey;
+	}
+
+	@Value
+	private static class StockDateAndSeqNo
+	{
+		private static final Comparator<StockDateAndSeqNo> COMPARATOR = Comparator
+				.comparing(StockDateAndSeqNo::getDate)
+				.thenComparing(StockDateAndSeqNo::getSeqNo);
+
+		Instant date;
+		int seqNo;
+	}
+
+	/** Immutable snapshot of one product's stock candidates. */
+	private static class ProductStock
+	{
+		private static ProductStock load(final int productId)
+		{
+			final List<I_MD_Candidate> stockRecords = Services.get(IQueryBL.class)
+					.createQueryBuilderOutOfTrx(I_MD_Candidate.class)
+					.addOnlyActiveRecordsFilter()
+					.addEqualsFilter(I_MD_Candidate.COLUMN_MD_Candidate_Type, X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK)
+					.addEqualsFilter(I_MD_Candidate.COLUMNNAME_M_Product_ID, productId)
+					.create()
+					.list(I_MD_Candidate.class);
+
+			final Map<StockKey, NavigableMap<StockDateAndSeqNo, BigDecimal>> timelines = new HashMap<>();
+			for (final I_MD_Candidate stockRecord : stockRecords)
+			{
+				final StockKey stockKey = new StockKey(
+						WarehouseId.ofRepoId(stockRecord.getM_Warehouse_ID()),
+						BPartnerId.ofRepoIdOrNull(stockRecord.getC_BPartner_Customer_ID()),
+						AttributesKey.ofString(stockRecord.getStorageAttributesKey()));
+				final StockDateAndSeqNo dateAndSeqNo = new StockDateAndSeqNo(
+						TimeUtil.asInstant(stockRecord.getDateProjected()),
+						stockRecord.getSeqNo());
+
+				timelines
+						.computeIfAbsent(stockKey, k -> new TreeMap<>(StockDateAndSeqNo.COMPARATOR))
+						.put(dateAndSeqNo, stockRecord.getQty());
+			}
+
+			logger.debug("Loaded {} stock records with {} distinct keys for productId={}", stockRecords.size(), timelines.size(), productId);
+			return new ProductStock(productId, ImmutableMap.copyOf(timelines));
+		}
+
+		private final int productId;
+		private final ImmutableMap<StockKey, NavigableMap<StockDateAndSeqNo, BigDecimal>> timelines;
+
+		private ProductStock(
+				final int productId,
+				@NonNull final ImmutableMap<StockKey, NavigableMap<StockDateAndSeqNo, BigDecimal>> timelines)
+		{
+			this.productId = productId;
+			this.timelines = timelines;
+		}
+
+		private void addLatestMatchingRequests(
+				@NonNull final StockKeyFilter filter,
+				@NonNull final Instant date,
+				@NonNull final Set<AddToResultGroupRequest> result)
+		{
+			final StockDateAndSeqNo upperBound = new StockDateAndSeqNo(date, Integer.MAX_VALUE);
+
+			for (final Entry<StockKey, NavigableMap<StockDateAndSeqNo, BigDecimal>> timeline : timelines.entrySet())
+			{
+				final StockKey stockKey = timeline.getKey();
+				if (!filter.accept(stockKey))
+				{
+					continue;
+				}
+
+				final Entry<StockDateAndSeqNo, BigDecimal> latestEntry = timeline.getValue().floorEntry(upperBound);
+				if (latestEntry == null)
+				{
+					continue;
+				}
+
+				result.add(AddToResultGroupRequest.builder()
+						.productId(productId)
+						.bpartner(BPartnerClassifier.specificOrAny(stockKey.getCustomerId())) // records that have no bPartner-ID are applicable to any bpartner
+						.warehouseId(stockKey.getWarehouseId())
+						.storageAttributesKey(stockKey.getStorageAttributesKey())
+						.qty(latestEntry.getValue())
+						.date(latestEntry.getKey().getDate())
+						.seqNo(latestEntry.getKey().getSeqNo())
+						.build());
+			}
+		}
+	}
+
+	/** Java equivalent of the where-clause that {@link AvailableToPromiseSqlHelper} creates for one {@link AvailableToPromiseQuery}. */
+	private static class StockKeyFilter
+	{
+		public static StockKeyFilter of(@NonNull final AvailableToPromiseQuery query)
+		{
+			return new StockKeyFilter(query);
+		}
+
+		private final ImmutableSet<WarehouseId> warehouseIds;
+		private final BPartnerClassifier bpartner;
+
+		/** empty means that all storage attributes keys are matched */
+		private final ImmutableList<Pattern> storageAttributesKeyPatterns;
+
+		private StockKeyFilter(@NonNull final AvailableToPromiseQuery query)
+		{
+			this.warehouseIds = query.getWarehouseIds();
+			this.bpartner = query.getBpartner();
+			this.storageAttributesKeyPatterns = createStorageAttributesKeyPatterns(query.getStorageAttributesKeyPatterns());
+		}
+
+		private static ImmutableList<Pattern> createStorageAttributesKeyPatterns(@NonNull final List<AttributesKeyPattern> attributesKeyPatterns)
+		{
+			// same rules as in AttributesKeyQueryHelper
+			if (attributesKeyPatterns.isEmpty()
+					|| attributesKeyPatterns.contains(AttributesKeyPattern.ALL)
+					|| attributesKeyPatterns.contains(AttributesKeyPattern.OTHER))
+			{
+				return ImmutableList.of();
+			}
+
+			return attributesKeyPatterns.stream()
+					.map(AttributesKeyPattern::getSqlLikeString)
+					.map(AvailableToPromiseIndex::sqlLikeToRegExp)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		public boolean accept(@NonNull final StockKey stockKey)
+		{
+			if (!warehouseIds.isEmpty() && !warehouseIds.contains(stockKey.getWarehouseId()))
+			{
+				return false;
+			}
+
+			final BPartnerId customerId = stockKey.getCustomerId();
+			if (bpartner.isNone() && customerId != null)
+			{
+				return false;
+			}
+			if (bpartner.isSpecificBPartner() && customerId != null && !customerId.equals(bpartner.getBpartnerId()))
+			{
+				return false;
+			}
+
+			if (storageAttributesKeyPatterns.isEmpty())
+			{
+				return true;
+			}
+			final String storageAttributesKey = stockKey.getStorageAttributesKey().getAsString();
+			return storageAttributesKeyPatterns.stream().anyMatch(pattern -> pattern.matcher(storageAttributesKey).matches());
+		}
+	}
+}
@@ -1,23 +1,32 @@
 package de.metas.material.dispo.commons.repository.atp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.SpringContextHolder;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Sets.SetView;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.logging.LogManager;
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyPatterns;
 import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
@@ -53,6 +62,12 @@ public class AvailableToPromiseRepository
 {
 	private static final String SYSCONFIG_ATP_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.AttributesKeys";
 
+	private static final String SYSCONFIG_ATP_INDEX_CONSISTENCY_CHECK_EVERY_NTH_QUERY = "de.metas.material.dispo.ATP.InMemoryIndex.ConsistencyCheckEveryNthQuery";
+
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseRepository.class);
+
+	private final AtomicLong indexQueriesCounter = new AtomicLong();
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -75,10 +90,31 @@ public class AvailableToPromiseRepository
 				? AvailableToPromiseResultBuilder.createEmptyWithPredefinedBuckets(multiQuery)
 				: AvailableToPromiseResultBuilder.createEmpty();
 
+		final ImmutableList<AddToResultGroupRequest> requests = AvailableToPromiseIndex.isEnabled()
+				? retrieveRequestsFromIndex(multiQuery)
+				: retrieveRequestsFromDB(multiQuery);
+
+		for (final AddToResultGroupRequest request : requests)
+		{
+			if (addToPredefinedBuckets)
+			{
+				result.addQtyToAllMatchingGroups(request);
+			}
+			else
+			{
+				result.addToNewGroupIfFeasible(request);
+			}
+		}
+
+		return result.build();
+	}
+
+	private ImmutableList<AddToResultGroupRequest> retrieveRequestsFromDB(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
 		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
 		if (dbQuery == null)
 		{
-			return result.build();
+			return ImmutableList.of();
 		}
 
 		final Function<I_MD_Candidate_ATP_QueryResult, Boolean> compareByWhetherRecordHasBPartnerId = record -> record.getC_BPartner_Customer_ID() > 0;
@@ -96,24 +132,76 @@ public class AvailableToPromiseRepository
 				.collect(ImmutableList.toImmutableList());
 
 		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
-		final ImmutableList<AddToResultGroupRequest> requests = atpRecords
+		return atpRecords
 				.stream()
 				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
 				.collect(ImmutableList.toImmutableList());
+	}
 
-		for (final AddToResultGroupRequest request : requests)
+	private ImmutableList<AddToResultGroupRequest> retrieveRequestsFromIndex(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final ImmutableList<AddToResultGroupRequest> requests = getIndex().retrieveRequests(multiQuery)
+				.stream()
+				// same order as in retrieveRequestsFromDB
+				.sorted(Comparator
+						.comparing((AddToResultGroupRequest request) -> request.getBpartner().isSpecificBPartner())
+						.thenComparing(AddToResultGroupRequest::getDate)
+						.thenComparing(AddToResultGroupRequest::getSeqNo)
+						.reversed())
+				.collect(ImmutableList.toImmutableList());
+
+		final int checkEveryNthQuery = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_ATP_INDEX_CONSISTENCY_CHECK_EVERY_NTH_QUERY, 0);
+		if (checkEveryNthQuery > 0 && indexQueriesCounter.incrementAndGet() % checkEveryNthQuery == 0)
 		{
-			if (addToPredefinedBuckets)
-			{
-				result.addQtyToAllMatchingGroups(request);
-			}
-			else
+			final boolean consistent = checkIndexConsistency(multiQuery, requests);
+			if (!consistent)
 			{
-				result.addToNewGroupIfFeasible(request);
+				return retrieveRequestsFromDB(multiQuery);
 			}
 		}
 
-		return result.build();
+		return requests;
+	}
+
+	/**
+	 * Compares what the in-memory index and the database return for the given {@code multiQuery}.
+	 * If they differ, the differences are logged and the products in question are invalidated in the index.
+	 *
+	 * @return {@code true} if the index is consistent with the database for the given query.
+	 */
+	public boolean checkIndexConsistency(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		return checkIndexConsistency(multiQuery, getIndex().retrieveRequests(multiQuery));
+	}
+
+	private boolean checkIndexConsistency(
+			@NonNull final AvailableToPromiseMultiQuery multiQuery,
+			@NonNull final List<AddToResultGroupRequest> requestsFromIndex)
+	{
+		final ImmutableSet<ComparableRequest> fromIndex = ComparableRequest.ofRequests(requestsFromIndex);
+		final ImmutableSet<ComparableRequest> fromDB = ComparableRequest.ofRequests(retrieveRequestsFromDB(multiQuery));
+		if (fromIndex.equals(fromDB))
+		{
+			return true;
+		}
+
+		final SetView<ComparableRequest> onlyInIndex = Sets.difference(fromIndex, fromDB);
+		final SetView<ComparableRequest> onlyInDB = Sets.difference(fromDB, fromIndex);
+		logger.warn("The in-memory ATP index is not consistent with the database; will invalidate the affected products.\nmultiQuery={}\nonlyInIndex={}\nonlyInDB={}",
+				multiQuery, onlyInIndex, onlyInDB);
+
+		final ImmutableSet<Integer> affectedProductIds = Stream.concat(onlyInIndex.stream(), onlyInDB.stream())
+				.map(ComparableRequest::getProductId)
+				.collect(ImmutableSet.toImmutableSet());
+		getIndex().invalidateProducts(affectedProductIds);
+
+		return false;
+	}
+
+	private AvailableToPromiseIndex getIndex()
+	{
+		// note: not injected via constructor, because this repository is also used (and spied on) in many unit tests which don't have the index
+		return SpringContextHolder.instance.getBean(AvailableToPromiseIndex.class);
 	}
 
 	public AvailableToPromiseResult retrieveAvailableStock(@NonNull AvailableToPromiseQuery query)
@@ -162,6 +250,37 @@ public class AvailableToPromiseRepository
 		return AttributesKeyPatterns.parseCommaSeparatedString(storageAttributesKeys);
 	}
 
+	/** Used to compare {@link AddToResultGroupRequest}s regardless of their qty's scale. */
+	@Value
+	private static class ComparableRequest
+	{
+		private static ImmutableSet<ComparableRequest> ofRequests(@NonNull final List<AddToResultGroupRequest> requests)
+		{
+			return requests.stream()
+					.map(ComparableRequest::new)
+					.collect(ImmutableSet.toImmutableSet());
+		}
+
+		int productId;
+		WarehouseId warehouseId;
+		BPartnerClassifier bpartner;
+		AttributesKey storageAttributesKey;
+		BigDecimal qty;
+		Instant date;
+		int seqNo;
+
+		private ComparableRequest(@NonNull final AddToResultGroupRequest request)
+		{
+			productId = request.getProductId();
+			warehouseId = request.getWarehouseId();
+			bpartner = request.getBpartner();
+			storageAttributesKey = request.getStorageAttributesKey();
+			qty = request.getQty().stripTrailingZeros();
+			date = request.getDate();
+			seqNo = request.getSeqNo();
+		}
+	}
+
 	@Value
 	private static class ProductAndAttributeKey
 	{
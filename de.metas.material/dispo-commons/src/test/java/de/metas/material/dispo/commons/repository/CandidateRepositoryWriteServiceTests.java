@@ -14,6 +14,7 @@ import static java.math.BigDecimal.TEN;
 import static java.math.BigDecimal.ZERO;
 import static org.adempiere.model.InterfaceWrapperHelper.load;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.refresh;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -33,6 +34,7 @@ import de.metas.material.dispo.commons.DispoTestUtils;
 import de.metas.material.dispo.commons.RepositoryTestHelper;
 import de.metas.material.dispo.commons.candidate.Candidate;
 import de.metas.material.dispo.commons.candidate.CandidateBusinessCase;
+import de.metas.material.dispo.commons.candidate.CandidateId;
 import de.metas.material.dispo.commons.candidate.CandidateType;
 import de.metas.material.dispo.commons.candidate.TransactionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.DemandDetail;
@@ -48,6 +50,7 @@ import de.metas.material.dispo.model.I_MD_Candidate_Transaction_Detail;
 import de.metas.material.dispo.model.X_MD_Candidate;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.pporder.MaterialDispoGroupId;
 import de.metas.organization.ClientAndOrgId;
 import de.metas.product.ResourceId;
 import de.metas.util.Services;
@@ -427,4 +430,43 @@ public class CandidateRepositoryWriteServiceTests
 		assertThat(transactionDetailRecord.getMovementQty()).isEqualByComparingTo("1");
 		assertThat(transactionDetailRecord.getM_Transaction_ID()).isEqualTo(33);
 	}
+
+	@Test
+	public void addQtyDeltaToCandidates()
+	{
+		final I_MD_Candidate stockRecord1 = createStockRecord("10");
+		final I_MD_Candidate stockRecord2 = createStockRecord("3");
+		final I_MD_Candidate otherStockRecord = createStockRecord("5");
+
+		final CandidatesQuery query = CandidatesQuery.builder()
+				.type(CandidateType.STOCK)
+				.parentId(CandidateId.UNSPECIFIED)
+				.id(CandidateId.ofRepoId(stockRecord2.getMD_Candidate_ID()))
+				.build();
+
+		// invoke the method under test
+		final int count = candidateRepositoryWriteService.addQtyDeltaToCandidates(query, new BigDecimal("-4"), MaterialDispoGroupId.ofInt(77));
+
+		assertThat(count).isEqualTo(1);
+
+		refresh(stockRecord2);
+		assertThat(stockRecord2.getQty()).isEqualByComparingTo("-1");
+		assertThat(stockRecord2.getMD_Candidate_GroupId()).isEqualTo(77);
+		assertThat(stockRecord2.getMD_Candidate_Status()).isEqualTo(X_MD_Candidate.MD_CANDIDATE_STATUS_Processed);
+
+		refresh(stockRecord1);
+		assertThat(stockRecord1.getQty()).isEqualByComparingTo("10");
+		refresh(otherStockRecord);
+		assertThat(otherStockRecord.getQty()).isEqualByComparingTo("5");
+	}
+
+	private I_MD_Candidate createStockRecord(final String qty)
+	{
+		final I_MD_Candidate stockRecord = newInstance(I_MD_Candidate.class);
+		stockRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+		stockRecord.setQty(new BigDecimal(qty));
+		stockRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+		save(stockRecord);
+		return stockRecord;
+	}
 }
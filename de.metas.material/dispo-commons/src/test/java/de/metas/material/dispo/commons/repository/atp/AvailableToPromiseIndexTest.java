@@ -0,0 +1,225 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import static de.metas.material.event.EventTestHelper.AFTER_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.NOW;
+import static de.metas.material.event.EventTestHelper.PRODUCT_ID;
+import static de.metas.material.event.EventTestHelper.WAREHOUSE_ID;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.SpringContextHolder;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.event.impl.PlainEventBusFactory;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.dispo.commons.candidate.CandidateId;
+import de.metas.material.dispo.commons.candidate.CandidateType;
+import de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService;
+import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.PostMaterialEventService;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.eventbus.MaterialEventConverter;
+import de.metas.material.event.eventbus.MetasfreshEventBusService;
+import de.metas.material.event.stock.StockCandidatesChangedEvent;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ExtendWith(AdempiereTestWatcher.class)
+public class AvailableToPromiseIndexTest
+{
+	private static final BPartnerId BPARTNER_ID_1 = BPartnerId.ofRepoId(10);
+	private static final BPartnerId BPARTNER_ID_2 = BPartnerId.ofRepoId(20);
+	private static final AttributesKey STORAGE_ATTRIBUTES_KEY = AttributesKey.ofAttributeValueIds(1, 2);
+
+	private MetasfreshEventBusService metasfreshEventBusService;
+	private AvailableToPromiseIndex availableToPromiseIndex;
+
+	private int seqNoCounter = 1;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final MaterialEventConverter materialEventConverter = new MaterialEventConverter();
+		metasfreshEventBusService = MetasfreshEventBusService.createLocalServiceThatIsReadyToUse(
+				materialEventConverter,
+				PlainEventBusFactory.newInstance());
+
+		availableToPromiseIndex = new AvailableToPromiseIndex(metasfreshEventBusService, materialEventConverter);
+	}
+
+	@Test
+	public void retrieveRequests_latestStockBeforeDate()
+	{
+		createStockRecord(null, BEFORE_BEFORE_NOW, "5");
+		createStockRecord(null, BEFORE_NOW, "8");
+		createStockRecord(null, AFTER_NOW, "20");
+
+		final List<AddToResultGroupRequest> requests = availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.any()));
+
+		assertThat(requests).hasSize(1);
+		assertThat(requests.get(0).getQty()).isEqualByComparingTo("8");
+		assertThat(requests.get(0).getDate()).isEqualTo(BEFORE_NOW);
+		assertThat(requests.get(0).getBpartner().isAny()).isTrue();
+	}
+
+	@Test
+	public void retrieveRequests_bpartner()
+	{
+		createStockRecord(null, BEFORE_NOW, "10");
+		createStockRecord(BPARTNER_ID_1, BEFORE_NOW, "11");
+		createStockRecord(BPARTNER_ID_2, BEFORE_NOW, "12");
+
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.any()))).hasSize(3);
+
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.none())))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("10"));
+
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.specific(BPARTNER_ID_1))))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactlyInAnyOrder(new BigDecimal("10"), new BigDecimal("11"));
+	}
+
+	@Test
+	public void retrieveRequests_reloadsAfterStockCandidatesChangedEvent()
+	{
+		createStockRecord(null, BEFORE_NOW, "8");
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.any())))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("8"));
+		assertThat(availableToPromiseIndex.getIndexedProductIds()).containsExactly(PRODUCT_ID);
+
+		createStockRecord(null, BEFORE_NOW, "13"); // has a greater seqNo, so it supersedes the first record
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.any())))
+				.as("not yet invalidated")
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("8"));
+
+		metasfreshEventBusService.postEvent(StockCandidatesChangedEvent.builder()
+				.eventDescriptor(EventDescriptor.ofClientAndOrg(1, 1))
+				.productId(PRODUCT_ID)
+				.build());
+		assertThat(availableToPromiseIndex.getIndexedProductIds()).isEmpty();
+
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.any())))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("13"));
+	}
+
+	@Test
+	public void retrieveRequests_reloadsAfterAddQtyDeltaToCandidates()
+	{
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseIndex.SYSCONFIG_Enabled, true, ClientId.SYSTEM, OrgId.ANY);
+		SpringContextHolder.registerJUnitBean(new PostMaterialEventService(metasfreshEventBusService));
+
+		final I_MD_Candidate stockRecord = createStockRecord(null, BEFORE_NOW, "8");
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.any())))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("8"));
+
+		final CandidatesQuery query = CandidatesQuery.builder()
+				.type(CandidateType.STOCK)
+				.parentId(CandidateId.UNSPECIFIED)
+				.id(CandidateId.ofRepoId(stockRecord.getMD_Candidate_ID()))
+				.build();
+		new CandidateRepositoryWriteService().addQtyDeltaToCandidates(query, new BigDecimal("5"), null);
+		assertThat(availableToPromiseIndex.getIndexedProductIds()).isEmpty();
+
+		assertThat(availableToPromiseIndex.retrieveRequests(createMultiQuery(BPartnerClassifier.any())))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("13"));
+	}
+
+	@Test
+	public void sqlLikeToRegExp_quotesEachLiteralRun()
+	{
+		final Pattern pattern = AvailableToPromiseIndex.sqlLikeToRegExp("$1.%[a]_\\\\E*%\\%");
+
+		assertThat(pattern.matcher("$1.xyz[a]b\\E*ignored%").matches()).isTrue();
+		assertThat(pattern.matcher("$1.[a]b\\E*%").matches()).isTrue();
+		assertThat(pattern.matcher("$1x[a]b\\E*%").as("the dot is no wildcard").matches()).isFalse();
+		assertThat(pattern.matcher("$1.a_b\\E*%").as("the brackets are no character class").matches()).isFalse();
+		assertThat(pattern.matcher("$1.[a]b\\E*x").as("the escaped percent sign is no wildcard").matches()).isFalse();
+	}
+
+	private AvailableToPromiseMultiQuery createMultiQuery(final BPartnerClassifier bpartner)
+	{
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.warehouseId(WAREHOUSE_ID)
+				.date(TimeUtil.asZonedDateTime(NOW))
+				.storageAttributesKeyPattern(AttributesKeyPattern.ALL)
+				.bpartner(bpartner)
+				.build();
+		return AvailableToPromiseMultiQuery.of(query);
+	}
+
+	private I_MD_Candidate createStockRecord(
+			final BPartnerId bpartnerId,
+			final Instant dateProjected,
+			final String qty)
+	{
+		final I_MD_Candidate candidateRecord = newInstance(I_MD_Candidate.class);
+		candidateRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+		candidateRecord.setIsActive(true);
+		candidateRecord.setM_Product_ID(PRODUCT_ID);
+		candidateRecord.setM_Warehouse_ID(WAREHOUSE_ID.getRepoId());
+		candidateRecord.setC_BPartner_Customer_ID(BPartnerId.toRepoId(bpartnerId));
+		candidateRecord.setStorageAttributesKey(STORAGE_ATTRIBUTES_KEY.getAsString());
+		candidateRecord.setDateProjected(TimeUtil.asTimestamp(dateProjected));
+		candidateRecord.setSeqNo(seqNoCounter++);
+		candidateRecord.setQty(new BigDecimal(qty));
+		save(candidateRecord);
+		return candidateRecord;
+	}
+}
@@ -0,0 +1,64 @@
+package de.metas.material.event.stock;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.commons.EventDescriptor;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Fired after the material dispo committed changes to the projected stock (i.e. {@code MD_Candidate}s of type {@code STOCK}) of the given products.
+ * <p>
+ * Nobody needs to act on it in order to keep the material dispo consistent; it's there for in-memory representations of the available-to-promise quantities, so they know what to reload.
+ */
+@Value
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+public class StockCandidatesChangedEvent implements MaterialEvent
+{
+	public static final String TYPE = "StockCandidatesChangedEvent";
+
+	EventDescriptor eventDescriptor;
+
+	ImmutableSet<Integer> productIds;
+
+	@JsonCreator
+	@Builder
+	public StockCandidatesChangedEvent(
+			@JsonProperty("eventDescriptor") @NonNull final EventDescriptor eventDescriptor,
+			@JsonProperty("productIds") @Singular final Set<Integer> productIds)
+	{
+		this.eventDescriptor = eventDescriptor;
+		this.productIds = productIds != null ? ImmutableSet.copyOf(productIds) : ImmutableSet.of();
+	}
+}
@@ -2,8 +2,6 @@ package de.metas.monitoring.adapter.apm;
 
 import java.util.concurrent.Callable;
 
-import org.springframework.stereotype.Service;
-
 import co.elastic.apm.api.ElasticApm;
 import co.elastic.apm.api.Scope;
 import co.elastic.apm.api.Span;
@@ -34,7 +32,9 @@ import lombok.NonNull;
  * #L%
  */
 
-@Service
+/**
+ * Sends transactions and spans to Elastic APM. It is not a spring bean on its own, but the delegate of {@link de.metas.monitoring.adapter.embedded.EmbeddedPerformanceMonitoringService}.
+ */
 public class APMPerformanceMonitoringService implements PerformanceMonitoringService
 {
 
@@ -0,0 +1,98 @@
+package de.metas.monitoring.adapter.embedded;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.stereotype.Service;
+
+import de.metas.monitoring.adapter.PerformanceMonitoringService;
+import de.metas.monitoring.adapter.apm.APMPerformanceMonitoringService;
+import de.metas.monitoring.adapter.embedded.PerformanceMetrics.Kind;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Records the latency and outcome of each transaction and span into {@link PerformanceMetrics#instance} and then hands it on to the given delegate.
+ * <p>
+ * The default delegate is {@link APMPerformanceMonitoringService}, so if an Elastic APM agent is attached, the data is still sent there as well.
+ * Without an agent, the Elastic APM API is a no-op and the embedded metrics are all we have.
+ */
+@Service
+public class EmbeddedPerformanceMonitoringService implements PerformanceMonitoringService
+{
+	private final PerformanceMetrics metrics;
+	private final PerformanceMonitoringService delegate;
+
+	public EmbeddedPerformanceMonitoringService()
+	{
+		this(PerformanceMetrics.instance, new APMPerformanceMonitoringService());
+		JMXPerformanceMetrics.registerIfNeeded(PerformanceMetrics.instance);
+	}
+
+	EmbeddedPerformanceMonitoringService(
+			@NonNull final PerformanceMetrics metrics,
+			@NonNull final PerformanceMonitoringService delegate)
+	{
+		this.metrics = metrics;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public <V> V monitorTransaction(
+			@NonNull final Callable<V> callable,
+			@NonNull final TransactionMetadata request)
+	{
+		final long startNanos = System.nanoTime();
+		boolean error = true;
+		try
+		{
+			final V result = delegate.monitorTransaction(callable, request);
+			error = false;
+			return result;
+		}
+		finally
+		{
+			metrics.record(Kind.TRANSACTION, request.getType().getCode(), request.getName(), System.nanoTime() - startNanos, error);
+		}
+	}
+
+	@Override
+	public <V> V monitorSpan(
+			@NonNull final Callable<V> callable,
+			@NonNull final SpanMetadata request)
+	{
+		final long startNanos = System.nanoTime();
+		boolean error = true;
+		try
+		{
+			final V result = delegate.monitorSpan(callable, request);
+			error = false;
+			return result;
+		}
+		finally
+		{
+			metrics.record(Kind.SPAN, request.getType(), request.getName(), System.nanoTime() - startNanos, error);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package de.metas.monitoring.adapter.embedded;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import de.metas.monitoring.adapter.embedded.PerformanceMetrics.MetricSnapshot;
+import de.metas.monitoring.exception.MonitoringException;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public final class JMXPerformanceMetrics implements JMXPerformanceMetricsMBean
+{
+	private static final String JMX_NAME = "de.metas.monitoring:type=PerformanceMetrics";
+
+	static void registerIfNeeded(@NonNull final PerformanceMetrics metrics)
+	{
+		final ObjectName name;
+		try
+		{
+			name = new ObjectName(JMX_NAME);
+		}
+		catch (final MalformedObjectNameException e)
+		{
+			throw new MonitoringException("Unable to create jmx ObjectName", e);
+		}
+
+		final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			synchronized (mbs)
+			{
+				if (!mbs.isRegistered(name))
+				{
+					mbs.registerMBean(new JMXPerformanceMetrics(metrics), name);
+				}
+			}
+		}
+		catch (final InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e)
+		{
+			throw new MonitoringException("Unable to register mbean", e);
+		}
+	}
+
+	private final PerformanceMetrics metrics;
+
+	private JMXPerformanceMetrics(@NonNull final PerformanceMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	@Override
+	public String[] getMetrics()
+	{
+		return metrics.snapshot()
+				.stream()
+				.map(JMXPerformanceMetrics::toDisplayString)
+				.toArray(String[]::new);
+	}
+
+	private static String toDisplayString(final MetricSnapshot snapshot)
+	{
+		return String.format("%s %s/%s: count=%d, errors=%d, throughput=%.2f/s, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, max=%.3fms",
+				snapshot.getKind(),
+				snapshot.getType(),
+				snapshot.getName(),
+				snapshot.getCount(),
+				snapshot.getErrors(),
+				snapshot.getThroughputPerSecond(),
+				snapshot.getMeanMillis(),
+				snapshot.getP50Millis(),
+				snapshot.getP90Millis(),
+				snapshot.getP99Millis(),
+				snapshot.getMaxMillis());
+	}
+
+	@Override
+	public String getMetricsAsPrometheusText()
+	{
+		return PrometheusTextFormat.toText(metrics.snapshot());
+	}
+
+	@Override
+	public void reset()
+	{
+		metrics.reset();
+	}
+}
@@ -0,0 +1,222 @@
+package de.metas.monitoring.adapter.embedded;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Keeps the latency histograms, error counts and throughput of the monitored transactions and spans, per kind, type and name.
+ * <p>
+ * Recording is meant to be cheap enough to be always on:
+ * the metric is looked up in two nested maps without creating a key object, and the latency is recorded in a HdrHistogram {@link Recorder}, which doesn't lock.
+ * The recorded values are only moved into the cumulative histogram when a {@link #snapshot()} is taken.
+ * <p>
+ * To keep the memory bounded, each kind/type has at most {@value #DEFAULT_MaxNamesPerType} names (system property {@value #SYSTEM_PROPERTY_MaxNamesPerType});
+ * the other names are recorded as {@value #OTHER_NAME}.
+ */
+public final class PerformanceMetrics
+{
+	public static final PerformanceMetrics instance = new PerformanceMetrics(Integer.getInteger(PerformanceMetrics.SYSTEM_PROPERTY_MaxNamesPerType, PerformanceMetrics.DEFAULT_MaxNamesPerType));
+
+	static final String SYSTEM_PROPERTY_MaxNamesPerType = "de.metas.monitoring.embedded.maxNamesPerType";
+	static final int DEFAULT_MaxNamesPerType = 500;
+	static final String OTHER_NAME = "_other_";
+
+	/** latencies are recorded in microseconds, with 2 significant digits (i.e. at most 1% error) */
+	private static final int SIGNIFICANT_VALUE_DIGITS = 2;
+
+	public enum Kind
+	{
+		TRANSACTION, SPAN
+	}
+
+	private final int maxNamesPerType;
+
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, Metric>> transactionMetrics = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, Metric>> spanMetrics = new ConcurrentHashMap<>();
+
+	PerformanceMetrics(final int maxNamesPerType)
+	{
+		this.maxNamesPerType = maxNamesPerType > 0 ? maxNamesPerType : DEFAULT_MaxNamesPerType;
+	}
+
+	public void record(
+			@NonNull final Kind kind,
+			@NonNull final String type,
+			@NonNull final String name,
+			final long durationNanos,
+			final boolean error)
+	{
+		getMetric(kind, type, name).record(durationNanos, error);
+	}
+
+	private Metric getMetric(final Kind kind, final String type, final String name)
+	{
+		final ConcurrentHashMap<String, ConcurrentHashMap<String, Metric>> metricsByType = kind == Kind.TRANSACTION ? transactionMetrics : spanMetrics;
+
+		ConcurrentHashMap<String, Metric> metricsByName = metricsByType.get(type);
+		if (metricsByName == null)
+		{
+			metricsByName = metricsByType.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+		}
+
+		final Metric metric = metricsByName.get(name);
+		if (metric != null)
+		{
+			return metric;
+		}
+
+		final String nameEffective = metricsByName.size() < maxNamesPerType ? name : OTHER_NAME;
+		return metricsByName.computeIfAbsent(nameEffective, k -> new Metric(kind, type, k));
+	}
+
+	/**
+	 * @return the metrics recorded since the start or the last {@link #reset()}, sorted by kind, type and name
+	 */
+	public List<MetricSnapshot> snapshot()
+	{
+		final List<MetricSnapshot> snapshots = new ArrayList<>();
+		collectSnapshots(transactionMetrics, snapshots);
+		collectSnapshots(spanMetrics, snapshots);
+
+		snapshots.sort(Comparator.comparing(MetricSnapshot::getKind)
+				.thenComparing(MetricSnapshot::getType)
+				.thenComparing(MetricSnapshot::getName));
+		return snapshots;
+	}
+
+	private static void collectSnapshots(
+			final Map<String, ConcurrentHashMap<String, Metric>> metricsByType,
+			final List<MetricSnapshot> snapshots)
+	{
+		for (final Map<String, Metric> metricsByName : metricsByType.values())
+		{
+			for (final Metric metric : metricsByName.values())
+			{
+				snapshots.add(metric.snapshot());
+			}
+		}
+	}
+
+	public void reset()
+	{
+		transactionMetrics.clear();
+		spanMetrics.clear();
+	}
+
+	@Value
+	@Builder
+	public static class MetricSnapshot
+	{
+		@NonNull
+		Kind kind;
+		@NonNull
+		String type;
+		@NonNull
+		String name;
+
+		long count;
+		long errors;
+		/** count per second, since the metric was created */
+		double throughputPerSecond;
+
+		double meanMillis;
+		double p50Millis;
+		double p90Millis;
+		double p99Millis;
+		double maxMillis;
+		double totalMillis;
+	}
+
+	private static final class Metric
+	{
+		private final Kind kind;
+		private final String type;
+		private final String name;
+		private final long createdNanos = System.nanoTime();
+
+		private final Recorder recorder = new Recorder(SIGNIFICANT_VALUE_DIGITS);
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder totalMicros = new LongAdder();
+
+		/** guarded by this */
+		private final Histogram cumulativeHistogram = new Histogram(SIGNIFICANT_VALUE_DIGITS);
+		/** guarded by this; recycled by the recorder to avoid allocating a new interval histogram each time */
+		private Histogram intervalHistogram = null;
+
+		private Metric(final Kind kind, final String type, final String name)
+		{
+			this.kind = kind;
+			this.type = type;
+			this.name = name;
+		}
+
+		private void record(final long durationNanos, final boolean error)
+		{
+			final long durationMicros = Math.max(TimeUnit.NANOSECONDS.toMicros(durationNanos), 0);
+			recorder.recordValue(durationMicros);
+			totalMicros.add(durationMicros);
+			if (error)
+			{
+				errors.increment();
+			}
+		}
+
+		private synchronized MetricSnapshot snapshot()
+		{
+			intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+			cumulativeHistogram.add(intervalHistogram);
+
+			final long count = cumulativeHistogram.getTotalCount();
+			final double elapsedSeconds = Math.max(System.nanoTime() - createdNanos, 1) / 1_000_000_000d;
+
+			return MetricSnapshot.builder()
+					.kind(kind)
+					.type(type)
+					.name(name)
+					.count(count)
+					.errors(errors.sum())
+					.throughputPerSecond(count / elapsedSeconds)
+					.meanMillis(count > 0 ? cumulativeHistogram.getMean() / 1000d : 0)
+					.p50Millis(cumulativeHistogram.getValueAtPercentile(50) / 1000d)
+					.p90Millis(cumulativeHistogram.getValueAtPercentile(90) / 1000d)
+					.p99Millis(cumulativeHistogram.getValueAtPercentile(99) / 1000d)
+					.maxMillis(cumulativeHistogram.getMaxValue() / 1000d)
+					.totalMillis(totalMicros.sum() / 1000d)
+					.build();
+		}
+	}
+}
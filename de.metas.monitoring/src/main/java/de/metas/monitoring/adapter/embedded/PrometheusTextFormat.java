@@ -0,0 +1,98 @@
+package de.metas.monitoring.adapter.embedded;
+
+import java.util.List;
+import java.util.Locale;
+
+import de.metas.monitoring.adapter.embedded.PerformanceMetrics.MetricSnapshot;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Renders {@link MetricSnapshot}s in the Prometheus text exposition format (version 0.0.4).
+ * <p>
+ * The latencies are rendered as a summary with the quantiles 0.5, 0.9, 0.99 and 1 (i.e. max), in seconds, as Prometheus recommends.
+ */
+@UtilityClass
+public class PrometheusTextFormat
+{
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private static final String METRIC_Duration = "metasfresh_performance_duration_seconds";
+	private static final String METRIC_Errors = "metasfresh_performance_errors_total";
+
+	public static String toText(@NonNull final List<MetricSnapshot> snapshots)
+	{
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append("# HELP ").append(METRIC_Duration).append(" Duration of the monitored transactions and spans.\n");
+		sb.append("# TYPE ").append(METRIC_Duration).append(" summary\n");
+		for (final MetricSnapshot snapshot : snapshots)
+		{
+			final String labels = toLabels(snapshot);
+			appendSample(sb, METRIC_Duration, labels, "0.5", snapshot.getP50Millis() / 1000d);
+			appendSample(sb, METRIC_Duration, labels, "0.9", snapshot.getP90Millis() / 1000d);
+			appendSample(sb, METRIC_Duration, labels, "0.99", snapshot.getP99Millis() / 1000d);
+			appendSample(sb, METRIC_Duration, labels, "1", snapshot.getMaxMillis() / 1000d);
+			appendSample(sb, METRIC_Duration + "_sum", labels, null, snapshot.getTotalMillis() / 1000d);
+			appendSample(sb, METRIC_Duration + "_count", labels, null, snapshot.getCount());
+		}
+
+		sb.append("# HELP ").append(METRIC_Errors).append(" Number of the monitored transactions and spans that failed.\n");
+		sb.append("# TYPE ").append(METRIC_Errors).append(" counter\n");
+		for (final MetricSnapshot snapshot : snapshots)
+		{
+			appendSample(sb, METRIC_Errors, toLabels(snapshot), null, snapshot.getErrors());
+		}
+
+		return sb.toString();
+	}
+
+	private static String toLabels(final MetricSnapshot snapshot)
+	{
+		return "kind=\"" + snapshot.getKind().name().toLowerCase(Locale.ROOT) + "\""
+				+ ",type=\"" + escapeLabelValue(snapshot.getType()) + "\""
+				+ ",name=\"" + escapeLabelValue(snapshot.getName()) + "\"";
+	}
+
+	private static void appendSample(
+			final StringBuilder sb,
+			final String metricName,
+			final String labels,
+			final String quantile,
+			final double value)
+	{
+		sb.append(metricName).append('{').append(labels);
+		if (quantile != null)
+		{
+			sb.append(",quantile=\"").append(quantile).append('"');
+		}
+		sb.append("} ").append(value).append('\n');
+	}
+
+	static String escapeLabelValue(@NonNull final String value)
+	{
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
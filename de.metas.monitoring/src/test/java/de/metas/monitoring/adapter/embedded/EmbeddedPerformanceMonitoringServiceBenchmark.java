@@ -0,0 +1,114 @@
+package de.metas.monitoring.adapter.embedded;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.metas.monitoring.adapter.NoopPerformanceMonitoringService;
+import de.metas.monitoring.adapter.PerformanceMonitoringService;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.SpanMetadata;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.TransactionMetadata;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.Type;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures what {@link EmbeddedPerformanceMonitoringService} adds to each monitored call, compared to {@link NoopPerformanceMonitoringService}.
+ * <p>
+ * Not run by the build; run it from the IDE or with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=...}.
+ * The monitored callable does nothing, so the numbers are the pure overhead. The multi-threaded variants show the contention on the shared histograms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddedPerformanceMonitoringServiceBenchmark
+{
+	private static final TransactionMetadata TRANSACTION = TransactionMetadata.builder()
+			.type(Type.DOC_ACTION)
+			.name("C_Order")
+			.build();
+
+	private static final SpanMetadata SPAN = SpanMetadata.builder()
+			.type(Type.MODEL_INTERCEPTOR.getCode())
+			.name("C_Order.beforeSave")
+			.build();
+
+	private final PerformanceMonitoringService noop = NoopPerformanceMonitoringService.INSTANCE;
+	private final PerformanceMonitoringService embedded = new EmbeddedPerformanceMonitoringService(
+			new PerformanceMetrics(PerformanceMetrics.DEFAULT_MaxNamesPerType),
+			NoopPerformanceMonitoringService.INSTANCE);
+
+	@Benchmark
+	public Object transaction_noop()
+	{
+		return noop.monitorTransaction(() -> TRANSACTION, TRANSACTION);
+	}
+
+	@Benchmark
+	public Object transaction_embedded()
+	{
+		return embedded.monitorTransaction(() -> TRANSACTION, TRANSACTION);
+	}
+
+	@Benchmark
+	public Object span_noop()
+	{
+		return noop.monitorSpan(() -> SPAN, SPAN);
+	}
+
+	@Benchmark
+	public Object span_embedded()
+	{
+		return embedded.monitorSpan(() -> SPAN, SPAN);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object span_embedded_4threads()
+	{
+		return embedded.monitorSpan(() -> SPAN, SPAN);
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(EmbeddedPerformanceMonitoringServiceBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
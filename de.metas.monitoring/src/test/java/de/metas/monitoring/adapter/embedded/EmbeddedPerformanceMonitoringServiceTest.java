@@ -0,0 +1,146 @@
+package de.metas.monitoring.adapter.embedded;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import de.metas.monitoring.adapter.NoopPerformanceMonitoringService;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.SpanMetadata;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.TransactionMetadata;
+import de.metas.monitoring.adapter.PerformanceMonitoringService.Type;
+import de.metas.monitoring.adapter.embedded.PerformanceMetrics.Kind;
+import de.metas.monitoring.adapter.embedded.PerformanceMetrics.MetricSnapshot;
+
+/*
+ * #%L
+ * de.metas.monitoring
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class EmbeddedPerformanceMonitoringServiceTest
+{
+	private final PerformanceMetrics metrics = new PerformanceMetrics(3);
+	private final EmbeddedPerformanceMonitoringService service = new EmbeddedPerformanceMonitoringService(metrics, NoopPerformanceMonitoringService.INSTANCE);
+
+	@Test
+	public void transactionsAreRecordedPerTypeAndName()
+	{
+		final TransactionMetadata docAction = TransactionMetadata.builder().type(Type.DOC_ACTION).name("C_Order").build();
+		final TransactionMetadata workpackage = TransactionMetadata.builder().type(Type.ASYNC_WORKPACKAGE).name("C_Order").build();
+
+		assertThat(service.monitorTransaction(() -> "result", docAction), is("result"));
+		service.monitorTransaction(() -> "result", docAction);
+		service.monitorTransaction(() -> "result", workpackage);
+
+		final List<MetricSnapshot> snapshots = metrics.snapshot();
+		assertThat(snapshots, hasSize(2));
+
+		// sorted by type
+		assertThat(snapshots.get(0).getType(), is("asyncWorkPackage"));
+		assertThat(snapshots.get(0).getCount(), is(1L));
+		assertThat(snapshots.get(1).getType(), is("docAction"));
+		assertThat(snapshots.get(1).getName(), is("C_Order"));
+		assertThat(snapshots.get(1).getKind(), is(Kind.TRANSACTION));
+		assertThat(snapshots.get(1).getCount(), is(2L));
+		assertThat(snapshots.get(1).getErrors(), is(0L));
+	}
+
+	@Test
+	public void failedSpanIsCountedAsError()
+	{
+		final SpanMetadata span = SpanMetadata.builder().type("modelInterceptor").name("C_Order.beforeSave").build();
+
+		try
+		{
+			service.monitorSpan(() -> {
+				throw new IllegalStateException("fail");
+			}, span);
+			fail("exception expected");
+		}
+		catch (final IllegalStateException e)
+		{
+			assertThat(e.getMessage(), is("fail"));
+		}
+		service.monitorSpan(() -> {}, span);
+
+		final MetricSnapshot snapshot = metrics.snapshot().get(0);
+		assertThat(snapshot.getKind(), is(Kind.SPAN));
+		assertThat(snapshot.getCount(), is(2L));
+		assertThat(snapshot.getErrors(), is(1L));
+	}
+
+	@Test
+	public void latencyPercentiles()
+	{
+		for (int i = 1; i <= 100; i++)
+		{
+			metrics.record(Kind.SPAN, "rest-API", "GET /orders", i * 1_000_000L, false); // 1..100 ms
+		}
+
+		final MetricSnapshot snapshot = metrics.snapshot().get(0);
+		assertThat(snapshot.getCount(), is(100L));
+		assertThat(snapshot.getP50Millis(), closeTo(50, 1));
+		assertThat(snapshot.getP90Millis(), closeTo(90, 1));
+		assertThat(snapshot.getP99Millis(), closeTo(99, 1));
+		assertThat(snapshot.getMaxMillis(), closeTo(100, 1));
+		assertThat(snapshot.getMeanMillis(), closeTo(50.5, 1));
+		assertThat(snapshot.getTotalMillis(), closeTo(5050, 0.001));
+	}
+
+	@Test
+	public void namesBeyondTheLimitAreRecordedAsOther()
+	{
+		for (int i = 0; i < 10; i++)
+		{
+			metrics.record(Kind.SPAN, "rest-API", "GET /orders/" + i, 1000, false);
+		}
+
+		final List<MetricSnapshot> snapshots = metrics.snapshot();
+		assertThat(snapshots, hasSize(4));
+		final MetricSnapshot other = snapshots.stream()
+				.filter(snapshot -> PerformanceMetrics.OTHER_NAME.equals(snapshot.getName()))
+				.findFirst()
+				.get();
+		assertThat(other.getCount(), is(7L));
+	}
+
+	@Test
+	public void reset()
+	{
+		metrics.record(Kind.TRANSACTION, "docAction", "C_Order", 1000, false);
+		metrics.reset();
+		assertThat(metrics.snapshot(), empty());
+	}
+
+	@Test
+	public void prometheusText()
+	{
+		metrics.record(Kind.TRANSACTION, "docAction", "C_Order \"quoted\"", 2_000_000, true);
+
+		final String text = PrometheusTextFormat.toText(metrics.snapshot());
+		assertThat(text, containsString("# TYPE metasfresh_performance_duration_seconds summary\n"));
+		assertThat(text, containsString("metasfresh_performance_duration_seconds{kind=\"transaction\",type=\"docAction\",name=\"C_Order \\\"quoted\\\"\",quantile=\"0.5\"} 0.002"));
+		assertThat(text, containsString("metasfresh_performance_duration_seconds_count{kind=\"transaction\",type=\"docAction\",name=\"C_Order \\\"quoted\\\"\"} 1.0\n"));
+		assertThat(text, containsString("metasfresh_performance_errors_total{kind=\"transaction\",type=\"docAction\",name=\"C_Order \\\"quoted\\\"\"} 1.0\n"));
+	}
+}
@@ -26,6 +26,7 @@ import java.util.Collection;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 
 import javax.annotation.Nullable;
@@ -33,6 +34,8 @@ import javax.annotation.Nullable;
 import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
 
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.banking.BankStatementAndLineAndRefId;
 import de.metas.banking.BankStatementLineId;
 import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
@@ -77,6 +80,15 @@ public interface IESRImportDAO extends ISingletonService
 	 */
 	I_C_ReferenceNo_Doc retrieveESRInvoiceReferenceNumberDocument(OrgId orgId, String esrReferenceNumber);
 
+	/**
+	 * Like {@link #retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}, but for many reference numbers, using a few set-based queries.
+	 *
+	 * @return the invoice reference number documents by the given reference numbers; an empty optional means that there is no document.
+	 *         Reference numbers for which the single lookup would fail (more than one matching C_ReferenceNo or more than one assigned invoice) are not included,
+	 *         so the caller can fall back to {@link #retrieveESRInvoiceReferenceNumberDocument(OrgId, String)} for them.
+	 */
+	ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> retrieveESRInvoiceReferenceNumberDocuments(OrgId orgId, Collection<String> esrReferenceNumbers);
+
 	/**
 	 * Retrieve the existing esr imports of the organization given as parameter (through ID)
 	 */
@@ -104,4 +116,9 @@ public interface IESRImportDAO extends ISingletonService
 	 * @param esrImportLineText
 	 */
 	I_ESR_ImportLine fetchLineForESRLineText(I_ESR_Import import1, String esrImportLineText);
+
+	/**
+	 * @return the distinct {@link I_ESR_ImportLine#COLUMNNAME_ESRLineText}s of the given import's lines
+	 */
+	List<String> retrieveLineTexts(I_ESR_Import esrImport);
 }
@@ -46,6 +46,7 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -83,6 +84,7 @@ import de.metas.payment.esr.dataimporter.ESRDataLoaderUtil;
 import de.metas.payment.esr.dataimporter.ESRImportEnqueuer;
 import de.metas.payment.esr.dataimporter.ESRImportEnqueuerDataSource;
 import de.metas.payment.esr.dataimporter.ESRImportEnqueuerDuplicateFilePolicy;
+import de.metas.payment.esr.dataimporter.ESRReferenceIndex;
 import de.metas.payment.esr.dataimporter.ESRStatement;
 import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.IESRDataImporter;
@@ -93,6 +95,7 @@ import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.payment.esr.model.I_ESR_ImportLine;
 import de.metas.payment.esr.model.X_ESR_ImportLine;
 import de.metas.util.Check;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
 
@@ -190,6 +193,9 @@ public class ESRImportBL implements IESRImportBL
 			countLines = esrImportDAO.countLines(esrImport, null);
 		}
 
+		//
+		// Phase 1: parse the whole statement
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		final IESRDataImporter loader = ESRDataLoaderFactory.createImporter(esrImport, in);
 		final ESRStatement esrStatement = loader.importData();
 		try
@@ -213,6 +219,18 @@ public class ESRImportBL implements IESRImportBL
 		esrImportDAO.save(esrImport);
 
 		final List<ESRTransaction> transactions = esrStatement.getTransactions();
+		final String parseTime = stopwatch.toString();
+
+		//
+		// Phase 2: create the lines which don't exist yet, and insert them in batches
+		stopwatch.reset().start();
+
+		// if there are already lines before starting reading the file, means that we already tried to import once
+		final ExistingESRLineTexts existingLineTexts = countLines > 0
+				? new ExistingESRLineTexts(esrImportDAO.retrieveLineTexts(esrImport))
+				: null;
+
+		final List<I_ESR_ImportLine> newLines = new ArrayList<>(transactions.size());
 		int lineNo = 0;
 		for (final ESRTransaction esrTransaction : transactions)
 		{
@@ -220,23 +238,52 @@ public class ESRImportBL implements IESRImportBL
 
 			//
 			// create line only if does not exist
-			I_ESR_ImportLine existentLine = null;
-			// if there are already lines before starting reading the file, means that we already tried to import once
-			if (countLines > 0)
+			if (existingLineTexts != null && existingLineTexts.contains(esrTransaction.getTransactionKey()))
 			{
-				existentLine = esrImportDAO.fetchLineForESRLineText(esrImport, esrTransaction.getTransactionKey());
-				if (existentLine != null)
-				{
-					continue;
-				}
+				continue;
 			}
 
-			createEsrImportLine(esrImport, lineNo, esrTransaction);
+			newLines.add(createEsrImportLine(esrImport, lineNo, esrTransaction));
 		}
+		InterfaceWrapperHelper.saveAllNewInBatch(newLines);
+		final String createLinesTime = stopwatch.toString();
 
 		evaluate(esrImport);
+
+		Loggables.addLog("ESR import {}: parsed {} transactions in {}; created {} lines in {}",
+				esrImport.getESR_Import_ID(), transactions.size(), parseTime, newLines.size(), createLinesTime);
 	}
 
+	/**
+	 * The {@link I_ESR_ImportLine#COLUMNNAME_ESRLineText}s of an import's existing lines, trimmed and lowercased.
+	 * Each line's text is the {@link ESRTransaction#getTransactionKey()} it was created from (see {@link #createEsrImportLine(I_ESR_Import, int, ESRTransaction)}),
+	 * so a transaction that was already imported has an existing line with exactly its key and we can do a hash lookup per transaction.
+	 */
+	private static final class ExistingESRLineTexts
+	{
+		private final ImmutableSet<String> lineTextsLC;
+
+		private ExistingESRLineTexts(@NonNull final List<String> lineTexts)
+		{
+			lineTextsLC = lineTexts.stream()
+					.map(ExistingESRLineTexts::normalize)
+					.collect(ImmutableSet.toImmutableSet());
+		}
+
+		private static String normalize(@NonNull final String esrLineText)
+		{
+			return esrLineText.trim().toLowerCase();
+		}
+
+		public boolean contains(@NonNull final String esrLineText)
+		{
+			return lineTextsLC.contains(normalize(esrLineText));
+		}
+	}
+
+	/**
+	 * @return the new line; it's not saved yet
+	 */
 	private I_ESR_ImportLine createEsrImportLine(final I_ESR_Import esrImport, final int lineNo, final ESRTransaction esrTransaction)
 	{
 		final I_ESR_ImportLine importLine = ESRDataLoaderUtil.newLine(esrImport);
@@ -256,7 +303,6 @@ public class ESRImportBL implements IESRImportBL
 		importLine.setESRTrxType(esrTransaction.getTrxType());
 		importLine.setESRLineText(esrTransaction.getTransactionKey());
 
-		esrImportDAO.save(importLine);
 		return importLine;
 	}
 
@@ -267,16 +313,28 @@ public class ESRImportBL implements IESRImportBL
 
 		final List<I_ESR_ImportLine> esrImportLines = esrImportDAO.retrieveLines(esrImport);
 
+		//
+		// Phase 3: resolve the reference numbers of all lines at once
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final ESRReferenceIndex referenceIndex = ESRReferenceIndex.ofImportLines(esrImportLines);
+		final String indexTime = stopwatch.toString();
+
+		//
+		// Phase 4: match the lines
+		stopwatch.reset().start();
 		for (final I_ESR_ImportLine importLine : esrImportLines)
 		{
 			//
 			// now do different validations with the values loaded from the input file
-			evaluateLine(esrImport, importLine);
+			evaluateLine(esrImport, importLine, referenceIndex);
 
 			importAmt = importAmt.add(importLine.getAmount());
 			trxQty++;
 		}
 
+		Loggables.addLog("ESR import {}: loaded the references of {} lines in {}; matched them in {}",
+				esrImport.getESR_Import_ID(), esrImportLines.size(), indexTime, stopwatch);
+
 		final boolean hasLines = esrImportLines.size() > 0;
 		final boolean fitAmounts = importAmt.compareTo(esrImport.getESR_Control_Amount()) == 0;
 		final boolean fitTrxQtys = evaluateTrxQty(esrImport, trxQty);
@@ -324,6 +382,14 @@ public class ESRImportBL implements IESRImportBL
 
 	@VisibleForTesting
 	public void evaluateLine(@NonNull final I_ESR_Import esrImport, @NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateLine(esrImport, importLine, ESRReferenceIndex.empty());
+	}
+
+	private void evaluateLine(
+			@NonNull final I_ESR_Import esrImport,
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRReferenceIndex referenceIndex)
 	{
 		if (isReverseBookingLine(importLine))
 		{
@@ -341,7 +407,7 @@ public class ESRImportBL implements IESRImportBL
 		}
 
 		// The reference number of the ESR Import line
-		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine);
+		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine, referenceIndex);
 
 		// task 05917: check if the the payment date from the ESR file is OK for us
 		try
@@ -28,9 +28,14 @@ import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -47,7 +52,12 @@ import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
 import org.compiere.util.Env;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 
 import de.metas.banking.BankStatementAndLineAndRefId;
 import de.metas.banking.BankStatementLineId;
@@ -72,6 +82,9 @@ public class ESRImportDAO implements IESRImportDAO
 {
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 
+	/** max number of values in the {@code IN (...)} of one query, so we don't hit the JDBC parameters limit */
+	private static final int IN_ARRAY_CHUNK_SIZE = 1000;
+
 	/**
 	 * Used to order lines by <code>LineNo, ESR_ImportLine_ID</code>.
 	 */
@@ -231,6 +244,112 @@ public class ESRImportDAO implements IESRImportDAO
 		return invoiceDocs.get(0);
 	}
 
+	@Override
+	public ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> retrieveESRInvoiceReferenceNumberDocuments(
+			@NonNull final OrgId orgId,
+			@NonNull final Collection<String> esrReferenceNumbers)
+	{
+		if (esrReferenceNumbers.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final Map<String, I_C_ReferenceNo> referenceNos = new HashMap<>();
+		final Set<String> ambiguousEsrReferenceNumbers = new HashSet<>();
+		fetchESRInvoiceReferenceNumbers(ImmutableSet.copyOf(esrReferenceNumbers), orgId, referenceNos, ambiguousEsrReferenceNumbers);
+
+		final Map<String, Optional<I_C_ReferenceNo_Doc>> result = new HashMap<>();
+		for (final String esrReferenceNumber : esrReferenceNumbers)
+		{
+			if (!referenceNos.containsKey(esrReferenceNumber) && !ambiguousEsrReferenceNumbers.contains(esrReferenceNumber))
+			{
+				Loggables.addLog("Found no C_ReferenceNo record for esrReferenceNumber={}", esrReferenceNumber);
+				result.put(esrReferenceNumber, Optional.empty());
+			}
+		}
+
+		//
+		// Fetch the invoice assignments of all found reference numbers
+		final int invoiceTableID = getTableId(I_C_Invoice.class);
+		final Map<Integer, String> esrReferenceNumbersByReferenceNoId = new HashMap<>();
+		referenceNos.forEach((esrReferenceNumber, referenceNo) -> esrReferenceNumbersByReferenceNoId.put(referenceNo.getC_ReferenceNo_ID(), esrReferenceNumber));
+
+		final ListMultimap<String, I_C_ReferenceNo_Doc> invoiceDocsByEsrReferenceNumber = ArrayListMultimap.create();
+		for (final List<Integer> referenceNoIds : Iterables.partition(esrReferenceNumbersByReferenceNoId.keySet(), IN_ARRAY_CHUNK_SIZE))
+		{
+			final List<I_C_ReferenceNo_Doc> invoiceDocs = queryBL.createQueryBuilder(I_C_ReferenceNo_Doc.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_ID, referenceNoIds)
+					.addEqualsFilter(I_C_ReferenceNo_Doc.COLUMNNAME_AD_Table_ID, invoiceTableID)
+					.orderBy(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_Doc_ID)
+					.create()
+					.setRequiredAccess(Access.READ)
+					.list(I_C_ReferenceNo_Doc.class);
+
+			for (final I_C_ReferenceNo_Doc invoiceDoc : invoiceDocs)
+			{
+				invoiceDocsByEsrReferenceNumber.put(esrReferenceNumbersByReferenceNoId.get(invoiceDoc.getC_ReferenceNo_ID()), invoiceDoc);
+			}
+		}
+
+		for (final String esrReferenceNumber : referenceNos.keySet())
+		{
+			final List<I_C_ReferenceNo_Doc> invoiceDocs = invoiceDocsByEsrReferenceNumber.get(esrReferenceNumber);
+			if (invoiceDocs.isEmpty())
+			{
+				result.put(esrReferenceNumber, Optional.empty());
+			}
+			else if (invoiceDocs.size() == 1)
+			{
+				result.put(esrReferenceNumber, Optional.of(invoiceDocs.get(0)));
+			}
+			// else: more than one assigned invoice; leave it out, so that retrieveESRInvoiceReferenceNumberDocument fails for it, like it always did
+		}
+
+		return ImmutableMap.copyOf(result);
+	}
+
+	/**
+	 * Like {@link #fetchESRInvoiceReferenceNumber(String, OrgId)}, but for many reference numbers.
+	 * <p>
+	 * If more than one reference number matches a given ESR reference number, e.g. one of the given org and one of org "*",
+	 * then that ESR reference number is added to {@code ambiguousEsrReferenceNumbersCollector} instead,
+	 * because the single lookup doesn't pick one of them either.
+	 */
+	private void fetchESRInvoiceReferenceNumbers(
+			@NonNull final Set<String> esrReferenceNumbers,
+			@NonNull final OrgId orgId,
+			@NonNull final Map<String, I_C_ReferenceNo> referenceNosCollector,
+			@NonNull final Set<String> ambiguousEsrReferenceNumbersCollector)
+	{
+		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
+		final I_C_ReferenceNo_Type refNoType = refNoDAO.retrieveRefNoTypeByName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+
+		for (final List<String> esrReferenceNumbersChunk : Iterables.partition(esrReferenceNumbers, IN_ARRAY_CHUNK_SIZE))
+		{
+			final List<I_C_ReferenceNo> referenceNoRecords = queryBL.createQueryBuilder(I_C_ReferenceNo.class)
+					.addOnlyActiveRecordsFilter()
+					.filter(ESRReferenceNumberMatchingFilter.of(esrReferenceNumbersChunk))
+					.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_Type_ID, refNoType.getC_ReferenceNo_Type_ID())
+					.addInArrayFilter(I_C_ReferenceNo_Type.COLUMNNAME_AD_Org_ID, orgId, OrgId.ANY) // Note that we do need to filter by AD_Org_ID, because 'esrReferenceNumber' is not guaranteed to be unique!
+					.orderBy(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_ID)
+					.create()
+					.setRequiredAccess(Access.READ)
+					.list(I_C_ReferenceNo.class);
+
+			for (final I_C_ReferenceNo referenceNoRecord : referenceNoRecords)
+			{
+				final String esrReferenceNumber = ESRReferenceNumberMatchingFilter.extractESRReferenceNumber(referenceNoRecord.getReferenceNo());
+				if (referenceNosCollector.putIfAbsent(esrReferenceNumber, referenceNoRecord) != null)
+				{
+					ambiguousEsrReferenceNumbersCollector.add(esrReferenceNumber);
+				}
+			}
+		}
+
+		ambiguousEsrReferenceNumbersCollector.forEach(referenceNosCollector::remove);
+	}
+
 	private I_C_ReferenceNo fetchESRInvoiceReferenceNumber(@NonNull final String esrReferenceNumber, @NonNull final OrgId orgId)
 	{
 		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
@@ -319,6 +438,21 @@ public class ESRImportDAO implements IESRImportDAO
 		return queryBuilder.create().count();
 	}
 
+	@Override
+	public List<String> retrieveLineTexts(@NonNull final I_ESR_Import esrImport)
+	{
+		final Properties ctx = InterfaceWrapperHelper.getCtx(esrImport);
+		final String trxName = InterfaceWrapperHelper.getTrxName(esrImport);
+		final ESRImportId esrImportId = ESRImportId.ofRepoId(esrImport.getESR_Import_ID());
+
+		return queryBL.createQueryBuilder(I_ESR_ImportLine.class, ctx, trxName)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_ESR_ImportLine.COLUMNNAME_ESR_Import_ID, esrImportId)
+				.addNotNull(I_ESR_ImportLine.COLUMNNAME_ESRLineText)
+				.create()
+				.listDistinct(I_ESR_ImportLine.COLUMNNAME_ESRLineText, String.class);
+	}
+
 	@Override
 	public I_ESR_ImportLine fetchLineForESRLineText(@NonNull final I_ESR_Import esrImport, @NonNull final String esrImportLineText)
 	{
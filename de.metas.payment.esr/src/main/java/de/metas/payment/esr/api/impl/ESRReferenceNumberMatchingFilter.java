@@ -0,0 +1,130 @@
+package de.metas.payment.esr.api.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.ad.dao.ISqlQueryFilter;
+import org.compiere.util.DB;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Accepts the {@link I_C_ReferenceNo}s which match any of the given ESR reference numbers.
+ * <p>
+ * Like the {@code LIKE '%<esrReferenceNumber>_'} of {@link ESRImportDAO#retrieveESRInvoiceReferenceNumberDocument(de.metas.organization.OrgId, String)},
+ * we ignore the leading digits (the bank account no) and the last digit (the check digit), but we can match many reference numbers with one {@code IN}.
+ */
+/* package */ final class ESRReferenceNumberMatchingFilter implements IQueryFilter<I_C_ReferenceNo>, ISqlQueryFilter
+{
+	public static ESRReferenceNumberMatchingFilter of(@NonNull final Collection<String> esrReferenceNumbers)
+	{
+		return new ESRReferenceNumberMatchingFilter(esrReferenceNumbers);
+	}
+
+	/** the length of the ESR reference number without bank account no and check digit */
+	private static final int ESR_REFERENCE_NUMBER_LENGTH = 19;
+
+	private final ImmutableSet<String> esrReferenceNumbers;
+
+	private String sql;
+	private List<Object> sqlParams;
+
+	private ESRReferenceNumberMatchingFilter(@NonNull final Collection<String> esrReferenceNumbers)
+	{
+		this.esrReferenceNumbers = ImmutableSet.copyOf(esrReferenceNumbers);
+	}
+
+	/**
+	 * @return the part of the given {@code C_ReferenceNo.ReferenceNo} which is compared with the ESR reference number, or {@code null} if it's too short.
+	 */
+	@Nullable
+	public static String extractESRReferenceNumber(@Nullable final String referenceNo)
+	{
+		if (referenceNo == null || referenceNo.length() < ESR_REFERENCE_NUMBER_LENGTH + 1)
+		{
+			return null;
+		}
+
+		final int end = referenceNo.length() - 1;
+		return referenceNo.substring(end - ESR_REFERENCE_NUMBER_LENGTH, end);
+	}
+
+	@Override
+	public boolean accept(final I_C_ReferenceNo model)
+	{
+		final String esrReferenceNumber = extractESRReferenceNumber(model.getReferenceNo());
+		return esrReferenceNumber != null && esrReferenceNumbers.contains(esrReferenceNumber);
+	}
+
+	@Override
+	public String getSql()
+	{
+		buildSqlIfNeeded();
+		return sql;
+	}
+
+	@Override
+	public List<Object> getSqlParams(final Properties ctx)
+	{
+		buildSqlIfNeeded();
+		return sqlParams;
+	}
+
+	private void buildSqlIfNeeded()
+	{
+		if (sql != null)
+		{
+			return;
+		}
+
+		if (esrReferenceNumbers.isEmpty())
+		{
+			sql = "1=0";
+			sqlParams = ImmutableList.of();
+			return;
+		}
+
+		final String columnName = I_C_ReferenceNo.Table_Name + "." + I_C_ReferenceNo.COLUMNNAME_ReferenceNo;
+		final List<Object> params = new ArrayList<>(esrReferenceNumbers.size());
+		sql = "substr(" + columnName + ", length(" + columnName + ") - " + ESR_REFERENCE_NUMBER_LENGTH + ", " + ESR_REFERENCE_NUMBER_LENGTH + ")"
+				+ " IN " + DB.buildSqlList(esrReferenceNumbers, params);
+		sqlParams = ImmutableList.copyOf(params);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ESRReferenceNumberMatchingFilter[" + esrReferenceNumbers.size() + " ESR reference numbers]";
+	}
+}
@@ -5,7 +5,6 @@ import static org.adempiere.model.InterfaceWrapperHelper.create;
 import java.util.List;
 
 import org.adempiere.ad.table.api.IADTableDAO;
-import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.invoice.service.IInvoiceDAO;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_AD_Org;
@@ -19,11 +18,9 @@ import de.metas.document.refid.model.I_C_ReferenceNo;
 import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
 import de.metas.document.sequence.IDocumentNoBuilderFactory;
 import de.metas.i18n.IMsgBL;
-import de.metas.organization.IOrgDAO;
 import de.metas.organization.OrgId;
 import de.metas.payment.esr.api.IESRBPBankAccountDAO;
 import de.metas.payment.esr.api.IESRImportBL;
-import de.metas.payment.esr.api.IESRImportDAO;
 import de.metas.payment.esr.api.IESRLineHandlersService;
 import de.metas.payment.esr.model.I_C_BP_BankAccount;
 import de.metas.payment.esr.model.I_ESR_Import;
@@ -104,6 +101,16 @@ public class ESRDataLoaderUtil
 	 * @param completeEsrReferenceNumberStr
 	 */
 	public void evaluateEsrReferenceNumber(@NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateEsrReferenceNumber(importLine, ESRReferenceIndex.empty());
+	}
+
+	/**
+	 * Like {@link #evaluateEsrReferenceNumber(I_ESR_ImportLine)}, but gets the referenced records from the given index, if it has them.
+	 */
+	public void evaluateEsrReferenceNumber(
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRReferenceIndex referenceIndex)
 	{
 		final String completeEsrReferenceNumberStr = importLine.getESRFullReferenceNumber();
 		if (Check.isEmpty(completeEsrReferenceNumberStr, true))
@@ -116,9 +123,8 @@ public class ESRDataLoaderUtil
 
 		importLine.setESRReferenceNumber(esrReferenceNumberToMatch);
 
-		final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
-		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = esrImportDAO
-				.retrieveESRInvoiceReferenceNumberDocument(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), esrReferenceNumberToMatch);
+		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = referenceIndex
+				.getInvoiceReferenceNumberDocument(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), esrReferenceNumberToMatch);
 
 		if (esrReferenceNumberDocument == null)
 		{
@@ -128,10 +134,10 @@ public class ESRDataLoaderUtil
 		}
 		else
 		{
-			final I_C_ReferenceNo currentReferenceNo = esrReferenceNumberDocument.getC_ReferenceNo();
+			final I_C_ReferenceNo currentReferenceNo = referenceIndex.getReferenceNo(esrReferenceNumberDocument);
 
 			importLine.setESR_IsManual_ReferenceNo(currentReferenceNo.isManual());
-			importLine.setESRReferenceNumber(esrReferenceNumberDocument.getC_ReferenceNo().getReferenceNo());
+			importLine.setESRReferenceNumber(currentReferenceNo.getReferenceNo());
 
 			// check if invoice
 			final String tableName = Services.get(IADTableDAO.class).retrieveTableName(esrReferenceNumberDocument.getAD_Table_ID());
@@ -140,7 +146,7 @@ public class ESRDataLoaderUtil
 				importLine.setC_ReferenceNo_ID(esrReferenceNumberDocument.getC_ReferenceNo_ID());
 
 				final int invoiceID = esrReferenceNumberDocument.getRecord_ID();
-				final I_C_Invoice invoice = InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
+				final I_C_Invoice invoice = referenceIndex.getInvoiceById(invoiceID);
 
 				final boolean match = Services.get(IESRLineHandlersService.class)
 						.applyESRMatchingBPartnerOfTheInvoice(invoice, importLine);
@@ -170,7 +176,7 @@ public class ESRDataLoaderUtil
 		// Set the reference number components if the reference no is not manual
 		if (!importLine.isESR_IsManual_ReferenceNo())
 		{
-			setValuesFromESRString(importLine, completeEsrReferenceNumberStr);
+			setValuesFromESRString(importLine, completeEsrReferenceNumberStr, referenceIndex);
 		}
 	}
 
@@ -191,14 +197,15 @@ public class ESRDataLoaderUtil
 	 */
 	private void setValuesFromESRString(
 			@NonNull final I_ESR_ImportLine importLine,
-			@NonNull final String completeEsrReferenceNumberStr)
+			@NonNull final String completeEsrReferenceNumberStr,
+			@NonNull final ESRReferenceIndex referenceIndex)
 	{
 		// Organization value
 		final String orgValue = completeEsrReferenceNumberStr.substring(7, 10);
 		importLine.setSektionNo(orgValue);
 
 		// Org ID
-		final I_AD_Org organization = Services.get(IOrgDAO.class).retrieveOrganizationByValue(Env.getCtx(), orgValue);
+		final I_AD_Org organization = referenceIndex.getOrgByValue(orgValue);
 		if (organization != null)
 		{
 			importLine.setOrg_ID(organization.getAD_Org_ID());
@@ -225,7 +232,7 @@ public class ESRDataLoaderUtil
 		I_C_BPartner bpartner = null;
 		if (!Check.isEmpty(formattedBPValue, true))
 		{
-			bpartner = Services.get(IBPartnerDAO.class).retrieveBPartnerByValue(Env.getCtx(), formattedBPValue);
+			bpartner = referenceIndex.getBPartnerByValue(formattedBPValue);
 		}
 
 		importLine.setBPartner_Value(bpValue);
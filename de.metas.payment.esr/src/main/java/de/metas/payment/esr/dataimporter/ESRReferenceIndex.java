@@ -0,0 +1,226 @@
+package de.metas.payment.esr.dataimporter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_AD_Org;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.util.Env;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.bpartner.service.IBPartnerDAO;
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.organization.IOrgDAO;
+import de.metas.organization.OrgId;
+import de.metas.payment.esr.api.IESRImportDAO;
+import de.metas.payment.esr.model.I_ESR_ImportLine;
+import de.metas.util.Check;
+import de.metas.util.GuavaCollectors;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The records which are referenced by the ESR reference numbers of many {@link I_ESR_ImportLine}s, so that we don't need to query them line by line.
+ * <p>
+ * The invoice reference numbers, their {@link I_C_ReferenceNo_Doc}s and the invoices are loaded at once by {@link #ofImportLines(Collection)}.
+ * Organizations and partners are looked up by their value when first needed and are then remembered.
+ * Whatever was not loaded upfront is retrieved on demand, so an {@link #empty()} index behaves like the line-by-line lookup.
+ * That includes the reference numbers which are ambiguous, so that they fail just like they do line by line.
+ * <p>
+ * An instance is meant to be used while evaluating the lines of one ESR import, within one thread.
+ */
+public final class ESRReferenceIndex
+{
+	public static ESRReferenceIndex empty()
+	{
+		return new ESRReferenceIndex(ImmutableSet.of(), ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of());
+	}
+
+	/**
+	 * Loads the invoice reference number documents and invoices of all given lines.
+	 */
+	public static ESRReferenceIndex ofImportLines(@NonNull final Collection<I_ESR_ImportLine> importLines)
+	{
+		final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
+
+		final Map<OrgId, Set<String>> esrReferenceNumbersByOrgId = new HashMap<>();
+		for (final I_ESR_ImportLine importLine : importLines)
+		{
+			final String esrReferenceNumber = extractESRReferenceNumberToMatch(importLine);
+			if (esrReferenceNumber == null)
+			{
+				continue;
+			}
+
+			esrReferenceNumbersByOrgId
+					.computeIfAbsent(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), orgId -> new LinkedHashSet<>())
+					.add(esrReferenceNumber);
+		}
+
+		final Set<ArrayKey> loadedKeys = new HashSet<>();
+		final Map<ArrayKey, I_C_ReferenceNo_Doc> referenceNoDocs = new HashMap<>();
+		esrReferenceNumbersByOrgId.forEach((orgId, esrReferenceNumbers) -> {
+			final ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> docs = esrImportDAO.retrieveESRInvoiceReferenceNumberDocuments(orgId, esrReferenceNumbers);
+			docs.forEach((esrReferenceNumber, doc) -> {
+				final ArrayKey key = mkKey(orgId, esrReferenceNumber);
+				loadedKeys.add(key);
+				doc.ifPresent(referenceNoDoc -> referenceNoDocs.put(key, referenceNoDoc));
+			});
+		});
+
+		final Set<Integer> referenceNoIds = referenceNoDocs.values().stream()
+				.map(I_C_ReferenceNo_Doc::getC_ReferenceNo_ID)
+				.collect(ImmutableSet.toImmutableSet());
+		final ImmutableMap<Integer, I_C_ReferenceNo> referenceNosById = loadByIds(referenceNoIds, I_C_ReferenceNo.class, I_C_ReferenceNo::getC_ReferenceNo_ID);
+
+		final Set<Integer> invoiceIds = referenceNoDocs.values().stream()
+				.map(I_C_ReferenceNo_Doc::getRecord_ID)
+				.collect(ImmutableSet.toImmutableSet());
+		final ImmutableMap<Integer, I_C_Invoice> invoicesById = loadByIds(invoiceIds, I_C_Invoice.class, I_C_Invoice::getC_Invoice_ID);
+
+		return new ESRReferenceIndex(loadedKeys, referenceNoDocs, referenceNosById, invoicesById);
+	}
+
+	private static <T> ImmutableMap<Integer, T> loadByIds(
+			final Set<Integer> ids,
+			final Class<T> modelClass,
+			final Function<T, Integer> idExtractor)
+	{
+		if (ids.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final List<T> records = InterfaceWrapperHelper.loadByIdsOutOfTrx(ids, modelClass);
+		return records.stream().collect(GuavaCollectors.toImmutableMapByKey(idExtractor));
+	}
+
+	/**
+	 * When matching, we will ignore the first 7 digits (the bank account no), and the last digit (check digit)
+	 *
+	 * @return the part of the line's full ESR reference number which we match, or {@code null} if the line has no (valid) full ESR reference number.
+	 */
+	@Nullable
+	private static String extractESRReferenceNumberToMatch(@NonNull final I_ESR_ImportLine importLine)
+	{
+		final String completeEsrReferenceNumberStr = importLine.getESRFullReferenceNumber();
+		if (Check.isEmpty(completeEsrReferenceNumberStr, true) || completeEsrReferenceNumberStr.length() < 26)
+		{
+			return null;
+		}
+		return completeEsrReferenceNumberStr.substring(7, 26);
+	}
+
+	private static ArrayKey mkKey(final OrgId orgId, final String esrReferenceNumber)
+	{
+		return Util.mkKey(orgId.getRepoId(), esrReferenceNumber);
+	}
+
+	private final Set<ArrayKey> loadedReferenceNoDocKeys;
+	private final Map<ArrayKey, I_C_ReferenceNo_Doc> referenceNoDocs;
+	private final ImmutableMap<Integer, I_C_ReferenceNo> referenceNosById;
+	private final ImmutableMap<Integer, I_C_Invoice> invoicesById;
+
+	private final Map<String, Optional<I_AD_Org>> orgsByValue = new HashMap<>();
+	private final Map<String, Optional<I_C_BPartner>> bpartnersByValue = new HashMap<>();
+
+	private ESRReferenceIndex(
+			final Set<ArrayKey> loadedReferenceNoDocKeys,
+			final Map<ArrayKey, I_C_ReferenceNo_Doc> referenceNoDocs,
+			final ImmutableMap<Integer, I_C_ReferenceNo> referenceNosById,
+			final ImmutableMap<Integer, I_C_Invoice> invoicesById)
+	{
+		this.loadedReferenceNoDocKeys = loadedReferenceNoDocKeys;
+		this.referenceNoDocs = referenceNoDocs;
+		this.referenceNosById = referenceNosById;
+		this.invoicesById = invoicesById;
+	}
+
+	/**
+	 * @see IESRImportDAO#retrieveESRInvoiceReferenceNumberDocument(OrgId, String)
+	 */
+	@Nullable
+	public I_C_ReferenceNo_Doc getInvoiceReferenceNumberDocument(@NonNull final OrgId orgId, @NonNull final String esrReferenceNumber)
+	{
+		final ArrayKey key = mkKey(orgId, esrReferenceNumber);
+		if (loadedReferenceNoDocKeys.contains(key))
+		{
+			return referenceNoDocs.get(key);
+		}
+
+		return Services.get(IESRImportDAO.class).retrieveESRInvoiceReferenceNumberDocument(orgId, esrReferenceNumber);
+	}
+
+	public I_C_ReferenceNo getReferenceNo(@NonNull final I_C_ReferenceNo_Doc referenceNoDoc)
+	{
+		final I_C_ReferenceNo referenceNo = referenceNosById.get(referenceNoDoc.getC_ReferenceNo_ID());
+		return referenceNo != null ? referenceNo : referenceNoDoc.getC_ReferenceNo();
+	}
+
+	public I_C_Invoice getInvoiceById(final int invoiceId)
+	{
+		final I_C_Invoice invoice = invoicesById.get(invoiceId);
+		return invoice != null ? invoice : InterfaceWrapperHelper.create(Env.getCtx(), invoiceId, I_C_Invoice.class, ITrx.TRXNAME_None);
+	}
+
+	/**
+	 * @see IOrgDAO#retrieveOrganizationByValue(java.util.Properties, String)
+	 */
+	@Nullable
+	public I_AD_Org getOrgByValue(@NonNull final String orgValue)
+	{
+		return orgsByValue
+				.computeIfAbsent(orgValue, value -> Optional.ofNullable(Services.get(IOrgDAO.class).retrieveOrganizationByValue(Env.getCtx(), value)))
+				.orElse(null);
+	}
+
+	/**
+	 * @see IBPartnerDAO#retrieveBPartnerByValue(java.util.Properties, String)
+	 */
+	@Nullable
+	public I_C_BPartner getBPartnerByValue(@NonNull final String bpartnerValue)
+	{
+		return bpartnersByValue
+				.computeIfAbsent(bpartnerValue, value -> Optional.ofNullable(Services.get(IBPartnerDAO.class).retrieveBPartnerByValue(Env.getCtx(), value)))
+				.orElse(null);
+	}
+}
@@ -0,0 +1,169 @@
+package de.metas.payment.esr.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.model.I_C_Invoice;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.document.refid.model.I_C_ReferenceNo_Type;
+import de.metas.organization.OrgId;
+import de.metas.payment.esr.ESRConstants;
+import de.metas.payment.esr.ESRTestBase;
+import de.metas.payment.esr.dataimporter.ESRReferenceIndex;
+import de.metas.payment.esr.model.I_ESR_ImportLine;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tests that the bulk lookup of invoice reference number documents gives the same results as the line-by-line lookup.
+ */
+public class ESRImportDAOTest extends ESRTestBase
+{
+	private static final String BANK_ACCOUNT_NO = "0120106";
+
+	private static final String REF_ONE_INVOICE = "1111111111111111111";
+	private static final String REF_NO_REFERENCE_NO = "2222222222222222222";
+	private static final String REF_NO_INVOICE = "3333333333333333333";
+	private static final String REF_OWN_AND_ANY_ORG = "4444444444444444444";
+	private static final String REF_TWO_INVOICES = "5555555555555555555";
+	private static final String REF_OTHER_ORG = "6666666666666666666";
+
+	private static final List<String> ALL_REFS = ImmutableList.of(REF_ONE_INVOICE, REF_NO_REFERENCE_NO, REF_NO_INVOICE, REF_OWN_AND_ANY_ORG, REF_TWO_INVOICES, REF_OTHER_ORG);
+
+	private I_C_ReferenceNo_Type refNoType;
+	private OrgId orgId;
+
+	@Override
+	protected void init()
+	{
+		orgId = OrgId.ofRepoId(getAD_Org().getAD_Org_ID());
+
+		refNoType = newInstance(I_C_ReferenceNo_Type.class);
+		refNoType.setName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+		save(refNoType);
+
+		createInvoiceDoc(createReferenceNo(REF_ONE_INVOICE, orgId));
+
+		createReferenceNo(REF_NO_INVOICE, orgId);
+
+		createInvoiceDoc(createReferenceNo(REF_OWN_AND_ANY_ORG, orgId));
+		createInvoiceDoc(createReferenceNo(REF_OWN_AND_ANY_ORG, OrgId.ANY));
+
+		final I_C_ReferenceNo referenceNoWithTwoInvoices = createReferenceNo(REF_TWO_INVOICES, orgId);
+		createInvoiceDoc(referenceNoWithTwoInvoices);
+		createInvoiceDoc(referenceNoWithTwoInvoices);
+
+		createInvoiceDoc(createReferenceNo(REF_OTHER_ORG, OrgId.ofRepoId(getAD_Org().getAD_Org_ID() + 1000)));
+	}
+
+	private I_C_ReferenceNo createReferenceNo(final String esrReferenceNumber, final OrgId orgId)
+	{
+		final I_C_ReferenceNo referenceNo = newInstance(I_C_ReferenceNo.class);
+		referenceNo.setAD_Org_ID(orgId.getRepoId());
+		referenceNo.setReferenceNo(BANK_ACCOUNT_NO + esrReferenceNumber + "7");
+		referenceNo.setC_ReferenceNo_Type(refNoType);
+		referenceNo.setIsManual(true);
+		save(referenceNo);
+		return referenceNo;
+	}
+
+	private void createInvoiceDoc(final I_C_ReferenceNo referenceNo)
+	{
+		final I_C_Invoice invoice = newInstance(I_C_Invoice.class);
+		save(invoice);
+
+		final I_C_ReferenceNo_Doc referenceNoDoc = newInstance(I_C_ReferenceNo_Doc.class);
+		referenceNoDoc.setAD_Table_ID(Services.get(IADTableDAO.class).retrieveTableId(I_C_Invoice.Table_Name));
+		referenceNoDoc.setRecord_ID(invoice.getC_Invoice_ID());
+		referenceNoDoc.setC_ReferenceNo(referenceNo);
+		save(referenceNoDoc);
+	}
+
+	@Test
+	public void retrieveESRInvoiceReferenceNumberDocuments_sameAsOneByOne()
+	{
+		final ImmutableMap<String, Optional<I_C_ReferenceNo_Doc>> docs = dao.retrieveESRInvoiceReferenceNumberDocuments(orgId, ALL_REFS);
+
+		assertThat(docs).containsOnlyKeys(REF_ONE_INVOICE, REF_NO_REFERENCE_NO, REF_NO_INVOICE, REF_OTHER_ORG);
+		assertThat(docs.get(REF_ONE_INVOICE)).isPresent();
+		for (final String esrReferenceNumber : docs.keySet())
+		{
+			assertThat(docId(docs.get(esrReferenceNumber).orElse(null)))
+					.as("doc of %s", esrReferenceNumber)
+					.isEqualTo(docId(dao.retrieveESRInvoiceReferenceNumberDocument(orgId, esrReferenceNumber)));
+		}
+
+		// the ambiguous ones are left out, because the single lookup fails for them
+		assertThatThrownBy(() -> dao.retrieveESRInvoiceReferenceNumberDocument(orgId, REF_OWN_AND_ANY_ORG)).isInstanceOf(AdempiereException.class);
+		assertThatThrownBy(() -> dao.retrieveESRInvoiceReferenceNumberDocument(orgId, REF_TWO_INVOICES)).isInstanceOf(AdempiereException.class);
+	}
+
+	@Test
+	public void referenceIndex_sameAsEmptyIndex()
+	{
+		final ImmutableList.Builder<I_ESR_ImportLine> importLines = ImmutableList.builder();
+		for (final String esrReferenceNumber : ALL_REFS)
+		{
+			final I_ESR_ImportLine importLine = newInstance(I_ESR_ImportLine.class);
+			importLine.setAD_Org_ID(orgId.getRepoId());
+			importLine.setESRFullReferenceNumber(BANK_ACCOUNT_NO + esrReferenceNumber + "7");
+			importLines.add(importLine);
+		}
+
+		final ESRReferenceIndex index = ESRReferenceIndex.ofImportLines(importLines.build());
+		final ESRReferenceIndex emptyIndex = ESRReferenceIndex.empty();
+
+		for (final String esrReferenceNumber : ImmutableList.of(REF_ONE_INVOICE, REF_NO_REFERENCE_NO, REF_NO_INVOICE, REF_OTHER_ORG))
+		{
+			assertThat(docId(index.getInvoiceReferenceNumberDocument(orgId, esrReferenceNumber)))
+					.as("doc of %s", esrReferenceNumber)
+					.isEqualTo(docId(emptyIndex.getInvoiceReferenceNumberDocument(orgId, esrReferenceNumber)));
+		}
+
+		for (final String esrReferenceNumber : ImmutableList.of(REF_OWN_AND_ANY_ORG, REF_TWO_INVOICES))
+		{
+			assertThatThrownBy(() -> index.getInvoiceReferenceNumberDocument(orgId, esrReferenceNumber))
+					.as("doc of %s", esrReferenceNumber)
+					.isInstanceOf(AdempiereException.class);
+		}
+	}
+
+	private static Integer docId(final I_C_ReferenceNo_Doc referenceNoDoc)
+	{
+		return referenceNoDoc != null ? referenceNoDoc.getC_ReferenceNo_Doc_ID() : null;
+	}
+}
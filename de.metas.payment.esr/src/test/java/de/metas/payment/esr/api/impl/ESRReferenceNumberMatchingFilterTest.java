@@ -0,0 +1,71 @@
+package de.metas.payment.esr.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESRReferenceNumberMatchingFilterTest
+{
+	@Test
+	public void extractESRReferenceNumber_ignoresBankAccountAndCheckDigit()
+	{
+		assertThat(ESRReferenceNumberMatchingFilter.extractESRReferenceNumber("0123456" + "1234567890123456789" + "7"))
+				.isEqualTo("1234567890123456789");
+	}
+
+	@Test
+	public void extractESRReferenceNumber_withoutBankAccount()
+	{
+		assertThat(ESRReferenceNumberMatchingFilter.extractESRReferenceNumber("1234567890123456789" + "7"))
+				.isEqualTo("1234567890123456789");
+	}
+
+	@Test
+	public void extractESRReferenceNumber_tooShort()
+	{
+		assertThat(ESRReferenceNumberMatchingFilter.extractESRReferenceNumber("123456789012345678" + "7")).isNull();
+		assertThat(ESRReferenceNumberMatchingFilter.extractESRReferenceNumber(null)).isNull();
+	}
+
+	@Test
+	public void sql()
+	{
+		final ESRReferenceNumberMatchingFilter filter = ESRReferenceNumberMatchingFilter.of(ImmutableList.of("1234567890123456789", "9876543210987654321"));
+
+		assertThat(filter.getSql()).isEqualTo("substr(C_ReferenceNo.ReferenceNo, length(C_ReferenceNo.ReferenceNo) - 19, 19) IN (?,?)");
+		assertThat(filter.getSqlParams(null)).containsExactly("1234567890123456789", "9876543210987654321");
+	}
+
+	@Test
+	public void sql_noReferenceNumbers()
+	{
+		final ESRReferenceNumberMatchingFilter filter = ESRReferenceNumberMatchingFilter.of(ImmutableList.of());
+
+		assertThat(filter.getSql()).isEqualTo("1=0");
+		assertThat(filter.getSqlParams(null)).isEmpty();
+	}
+}
@@ -26,6 +26,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.loadOutOfTrx;
 
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -54,6 +55,7 @@ import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.BadPdfFormatException;
 import com.lowagie.text.pdf.PdfCopy;
 import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
 
 import de.metas.logging.LogManager;
 import de.metas.printing.api.IPrintJobBL;
@@ -724,6 +726,7 @@ public class PrintJobLinesAggregator implements IPrintJobLinesAggregator
 
 		// Arhive's Data
 		private boolean dataLoaded;
+		private transient File localFile;
 		private transient byte[] data;
 		private Integer numberOfPages = null;
 
@@ -745,32 +748,51 @@ public class PrintJobLinesAggregator implements IPrintJobLinesAggregator
 			return printJobLine;
 		}
 
-		private final byte[] getData()
+		private final void loadData()
 		{
 			if (dataLoaded)
 			{
-				return data;
+				return;
 			}
 
-			data = archiveBL.getBinaryData(archive);
-			dataLoaded = true;
-			if (data == null || data.length == 0)
+			// If the archive is stored in a local file, don't load it into memory, but let the PdfReader read from the file
+			localFile = archiveBL.getBinaryDataAsLocalFile(archive);
+			if (localFile != null)
 			{
-				logger.info("Archive {} does not contain any data. Skip", archive);
-				data = null;
+				if (localFile.length() <= 0)
+				{
+					logger.info("Archive {} does not contain any data. Skip", archive);
+					localFile = null;
+				}
 			}
-
-			return data;
+			else
+			{
+				data = archiveBL.getBinaryData(archive);
+				if (data == null || data.length == 0)
+				{
+					logger.info("Archive {} does not contain any data. Skip", archive);
+					data = null;
+				}
+			}
+			dataLoaded = true;
 		}
 
 		public boolean hasData()
 		{
-			return getData() != null;
+			loadData();
+			return localFile != null || data != null;
 		}
 
 		public PdfReader createPdfReader() throws IOException
 		{
-			final PdfReader reader = new PdfReader(getData());
+			loadData();
+			if (localFile != null)
+			{
+				// partial read: the reader loads only the PDF objects it needs
+				return new PdfReader(new RandomAccessFileOrArray(localFile.getAbsolutePath()), null);
+			}
+
+			final PdfReader reader = new PdfReader(data);
 			return reader;
 		}
 
@@ -40,6 +40,7 @@ import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.PdfCopy;
 import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
 
 import de.metas.printing.api.IPrintingDAO;
 import de.metas.printing.model.I_C_Print_Job;
@@ -111,8 +112,7 @@ public class ConcatenatePdfs extends JavaProcess
 			final I_AD_Archive archive = queue.getAD_Archive();
 			Check.assume(archive != null, queue + " references an AD_Archive record");
 
-			final byte[] data = Services.get(IArchiveBL.class).getBinaryData(archive);
-			final PdfReader reader = new PdfReader(data);
+			final PdfReader reader = createPdfReader(archive);
 
 			for (int page = 0; page < reader.getNumberOfPages();)
 			{
@@ -128,6 +128,23 @@ public class ConcatenatePdfs extends JavaProcess
 		return "@Created@ " + fileName + ".pdf" + " in " + outputDir;
 	}
 
+	/**
+	 * If the archive is stored in a local file, the reader reads it partially, i.e. it doesn't load the whole file into memory.
+	 */
+	private static PdfReader createPdfReader(final I_AD_Archive archive) throws IOException
+	{
+		final IArchiveBL archiveBL = Services.get(IArchiveBL.class);
+
+		final File localFile = archiveBL.getBinaryDataAsLocalFile(archive);
+		if (localFile != null)
+		{
+			return new PdfReader(new RandomAccessFileOrArray(localFile.getAbsolutePath()), null);
+		}
+
+		final byte[] data = archiveBL.getBinaryData(archive);
+		return new PdfReader(data);
+	}
+
 	public File getOutputFile()
 	{
 		return outputFile;
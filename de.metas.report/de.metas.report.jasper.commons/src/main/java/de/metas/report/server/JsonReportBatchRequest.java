@@ -0,0 +1,57 @@
+package de.metas.report.server;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.report.jasper.commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Request to render the report of one process for many records of the same table.
+ * The result is one PDF which contains the reports of all records, in the given order.
+ */
+@Value
+@Builder
+@JsonDeserialize(builder = JsonReportBatchRequest.JsonReportBatchRequestBuilder.class)
+public class JsonReportBatchRequest
+{
+	int processId;
+
+	String adLanguage;
+
+	@NonNull
+	String tableName;
+
+	@NonNull
+	List<Integer> recordIds;
+
+	@JsonPOJOBuilder(withPrefix = "")
+	public static class JsonReportBatchRequestBuilder
+	{
+	}
+}
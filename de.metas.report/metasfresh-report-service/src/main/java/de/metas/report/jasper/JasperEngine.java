@@ -54,7 +54,9 @@ import de.metas.logging.LogManager;
 import de.metas.process.AdProcessId;
 import de.metas.process.IADProcessDAO;
 import de.metas.process.PInstanceId;
+import de.metas.organization.OrgId;
 import de.metas.process.ProcessInfoParameter;
+import de.metas.report.jasper.JasperReportsCache.CachedJasperReport;
 import de.metas.report.server.AbstractReportEngine;
 import de.metas.report.server.OutputType;
 import de.metas.report.server.ReportConstants;
@@ -74,7 +76,6 @@ import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.export.JRXlsAbstractExporterParameter;
 import net.sf.jasperreports.engine.query.JsonQLQueryExecuterFactory;
-import net.sf.jasperreports.engine.util.JRLoader;
 import net.sf.jasperreports.export.XlsReportConfiguration;
 
 public class JasperEngine extends AbstractReportEngine
@@ -90,7 +91,8 @@ public class JasperEngine extends AbstractReportEngine
 	private static final String PARAM_BARCODE_URL = "barcodeURL";
 	private static final String PARAM_SQL_VALUE = "SQL_VALUE";
 
-	private static final String JRPROPERTY_ReportPath = JasperEngine.class.getName() + ".ReportPath";
+	/** fill parameter with the path of the main report; it's not set as report property, because the {@link JasperReport} instances are shared via {@link JasperReportsCache} */
+	private static final String PARAM_REPORT_PATH = JasperEngine.class.getName() + ".ReportPath";
 
 	/**
 	 * Desired output type.
@@ -137,7 +139,7 @@ public class JasperEngine extends AbstractReportEngine
 		final ClassLoader jasperLoader = createReportClassLoader(reportContext);
 
 		final Map<String, Object> jrParameters = createJRParameters(reportContext);
-		final JasperReport jasperReport = createJasperReport(reportContext.getAD_Process_ID(), jrParameters, jasperLoader);
+		final JasperReport jasperReport = createJasperReport(reportContext.getAD_Process_ID(), reportContext.getOrgId(), jrParameters, jasperLoader);
 
 		// JSON Data source
 		if (jsonDSService.isJasperJSONReport(reportContext))
@@ -156,7 +158,7 @@ public class JasperEngine extends AbstractReportEngine
 				//
 				// Create jasper's JDBC connection
 				conn = getConnection();
-				final String sqlQueryInfo = "jasper main report=" + jasperReport.getProperty(JRPROPERTY_ReportPath)
+				final String sqlQueryInfo = "jasper main report=" + jrParameters.get(PARAM_REPORT_PATH)
 						+ ", AD_PInstance_ID=" + reportContext.getPinstanceId();
 
 				final String securityWhereClause;
@@ -188,36 +190,35 @@ public class JasperEngine extends AbstractReportEngine
 
 	private final JasperReport createJasperReport(
 			final AdProcessId adProcessId,
+			final OrgId orgId,
 			final Map<String, Object> jrParameters,
 			final ClassLoader jasperLoader) throws JRException
 	{
 		final String reportPath = getReportPath(adProcessId, jrParameters);
-		final InputStream jasperInputStream;
+		final String resourceName;
 		if (reportPath.startsWith("resource:"))
 		{
 			// load the jasper file(s) using an ordinary class loader.
-			final String name = reportPath.substring("resource:".length()).trim();
+			resourceName = reportPath.substring("resource:".length()).trim();
 			logger.debug("reportPath = {}", reportPath);
-			// logger.debug("getting resource from = {}", jasperLoader.getResource(name));
-
-			jasperInputStream = jasperLoader.getResourceAsStream(name);
 		}
 		else
 		{
-			jasperInputStream = jasperLoader.getResourceAsStream(reportPath);
+			resourceName = reportPath;
 			jrParameters.put(JRParameter.REPORT_CLASS_LOADER, jasperLoader);
 		}
 
-		// Make sure the jasper input stream is not null
-		if (jasperInputStream == null)
+		//
+		// Get the jasper report; it's loaded from stream only if it's not cached or if the file was changed
+		final CachedJasperReport cachedReport = JasperReportsCache.getInstance().getReport(resourceName, jasperLoader);
+
+		// Make sure the jasper report was found
+		if (cachedReport == null)
 		{
 			// TODO ->A AD_Message
 			throw new AdempiereException("Berichtsdatei '" + reportPath + "' konnte nicht geöffnet werden");
 		}
-
-		//
-		// Load the jasper report from stream
-		final JasperReport jasperReport = (JasperReport)JRLoader.loadObject(jasperInputStream);
+		final JasperReport jasperReport = cachedReport.getJasperReport();
 
 		//
 		// Load report's resource bundles, if any.
@@ -226,10 +227,10 @@ public class JasperEngine extends AbstractReportEngine
 		{
 			final String reportDir = extractReportDir(reportPath);
 			final String resourceBundleName = getResourceBundleName(jasperReport, reportDir);
-			loadJasperReportResourceBundle(resourceBundleName, jrParameters, jasperLoader);
+			loadJasperReportResourceBundle(cachedReport, resourceBundleName, orgId, jrParameters, jasperLoader);
 		}
 
-		jasperReport.setProperty(JRPROPERTY_ReportPath, reportPath);
+		jrParameters.put(PARAM_REPORT_PATH, reportPath);
 
 		return jasperReport;
 	}
@@ -473,7 +474,7 @@ public class JasperEngine extends AbstractReportEngine
 	}
 
 	/**
-	 * Loads the resource bundle for given <code>resourceBundleName</code>.
+	 * Loads the resource bundle for given <code>resourceBundleName</code>, or gets it from the given cached report.
 	 *
 	 * If the {@link ResourceBundle} was found it will be set as {@link JRParameter#REPORT_RESOURCE_BUNDLE} parameter in <code>jrParameters</code>.
 	 *
@@ -482,7 +483,12 @@ public class JasperEngine extends AbstractReportEngine
 	 * @param classLoader class loader to be used for loading the resource
 	 * @return true if resource bundle was loaded
 	 */
-	private boolean loadJasperReportResourceBundle(final String resourceBundleName, final Map<String, Object> jrParameters, final ClassLoader classLoader)
+	private boolean loadJasperReportResourceBundle(
+			final CachedJasperReport cachedReport,
+			final String resourceBundleName,
+			final OrgId orgId,
+			final Map<String, Object> jrParameters,
+			final ClassLoader classLoader)
 	{
 		if (Check.isEmpty(resourceBundleName, true))
 		{
@@ -491,18 +497,14 @@ public class JasperEngine extends AbstractReportEngine
 
 		final Locale locale = (Locale)jrParameters.get(PARAM_REPORT_LOCALE);
 
-		try
+		final ResourceBundle resourceBundle = cachedReport.getResourceBundle(resourceBundleName, locale, orgId, classLoader).orElse(null);
+		if (resourceBundle == null)
 		{
-			final ResourceBundle resourceBundle = ResourceBundle.getBundle(resourceBundleName, locale, classLoader);
-			jrParameters.put(JRParameter.REPORT_RESOURCE_BUNDLE, resourceBundle);
-			return true;
-		}
-		catch (final Exception e)
-		{
-			logger.warn("Failed loading resource bundle for base name: {}, {}. Skipping", resourceBundleName, locale, e);
+			return false; // not loaded
 		}
 
-		return false; // not loaded
+		jrParameters.put(JRParameter.REPORT_RESOURCE_BUNDLE, resourceBundle);
+		return true;
 	}
 
 	private ReportResult createOutput(final JasperPrint jasperPrint, OutputType outputType) throws JRException, IOException
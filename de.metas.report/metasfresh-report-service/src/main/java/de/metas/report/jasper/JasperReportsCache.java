@@ -0,0 +1,302 @@
+package de.metas.report.jasper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.model.I_AD_Process;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.logging.LogManager;
+import de.metas.organization.OrgId;
+import lombok.NonNull;
+import lombok.Value;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/*
+ * #%L
+ * metasfresh-report-service
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches the loaded {@link JasperReport}s and their resource bundles, so that we don't deserialize the same {@code .jasper} file for each report we print.
+ * <p>
+ * The reports are cached by their resolved URL, together with a version (the file's last modified timestamp and size, or the HTTP {@code ETag}/{@code Last-Modified}).
+ * When the version changes, the report and its bundles are loaded again.
+ * The version of a remote (HTTP) report is checked with a {@code HEAD} request at most once per {@link #SYSTEM_PROPERTY_RemoteVersionCheckIntervalSeconds};
+ * in between, the report which was loaded last is used.
+ * Resources for which we can't tell a version (e.g. inside a jar) are cached until the cache is reset.
+ * Changed resource bundle files are also only picked up after the report file changed or the cache was reset.
+ */
+/* package */ final class JasperReportsCache
+{
+	private static final Logger logger = LogManager.getLogger(JasperReportsCache.class);
+
+	static final String SYSTEM_PROPERTY_RemoteVersionCheckIntervalSeconds = "de.metas.report.jasper.remoteVersionCheckIntervalSeconds";
+	private static final int DEFAULT_RemoteVersionCheckIntervalSeconds = 10;
+
+	private static final JasperReportsCache instance = new JasperReportsCache(
+			Duration.ofSeconds(Integer.getInteger(SYSTEM_PROPERTY_RemoteVersionCheckIntervalSeconds, DEFAULT_RemoteVersionCheckIntervalSeconds)),
+			System::currentTimeMillis);
+
+	public static JasperReportsCache getInstance()
+	{
+		return instance;
+	}
+
+	private static final String VERSION_Unknown = "unknown";
+
+	private final CCache<String, CachedJasperReport> reportsByUrl = CCache.<String, CachedJasperReport> builder()
+			.cacheName(I_AD_Process.Table_Name + "#JasperReport")
+			.tableName(I_AD_Process.Table_Name)
+			.initialCapacity(200)
+			.cacheMapType(CacheMapType.LRU)
+			.build();
+
+	private final long remoteVersionCheckIntervalMillis;
+	private final LongSupplier clock;
+	/** the last checked version of remote resources, by URL */
+	private final ConcurrentHashMap<String, CheckedVersion> remoteVersionsByUrl = new ConcurrentHashMap<>();
+
+	@Value
+	private static class CheckedVersion
+	{
+		String version;
+		long checkedMillis;
+	}
+
+	@VisibleForTesting
+	JasperReportsCache(@NonNull final Duration remoteVersionCheckInterval, @NonNull final LongSupplier clock)
+	{
+		this.remoteVersionCheckIntervalMillis = remoteVersionCheckInterval.toMillis();
+		this.clock = clock;
+	}
+
+	/**
+	 * @return the loaded report or {@code null} if there is no such resource
+	 */
+	@Nullable
+	public CachedJasperReport getReport(@NonNull final String resourceName, @NonNull final ClassLoader jasperLoader) throws JRException
+	{
+		final URL url = jasperLoader.getResource(resourceName);
+		if (url == null)
+		{
+			return null;
+		}
+
+		final String version = getVersion(url);
+		final String cacheKey = url.toString();
+		final CachedJasperReport cachedReport = version != null ? reportsByUrl.get(cacheKey) : null;
+		if (cachedReport != null && cachedReport.getVersion().equals(version))
+		{
+			return cachedReport;
+		}
+
+		final CachedJasperReport loadedReport = loadReport(resourceName, jasperLoader, version);
+		if (loadedReport != null && version != null)
+		{
+			reportsByUrl.put(cacheKey, loadedReport);
+			logger.debug("Loaded and cached {} from {}", loadedReport, url);
+		}
+		return loadedReport;
+	}
+
+	@Nullable
+	private static CachedJasperReport loadReport(
+			@NonNull final String resourceName,
+			@NonNull final ClassLoader jasperLoader,
+			@Nullable final String version) throws JRException
+	{
+		try (final InputStream jasperInputStream = jasperLoader.getResourceAsStream(resourceName))
+		{
+			if (jasperInputStream == null)
+			{
+				return null;
+			}
+
+			final JasperReport jasperReport = (JasperReport)JRLoader.loadObject(jasperInputStream);
+			return new CachedJasperReport(jasperReport, version != null ? version : VERSION_Unknown);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("IO error while loading " + resourceName, e);
+		}
+	}
+
+	/**
+	 * @return version of the resource behind the given URL; {@code null} if we failed to get it, so the report shall not be cached
+	 */
+	@Nullable
+	private String getVersion(@NonNull final URL url)
+	{
+		if (!isRemote(url))
+		{
+			return retrieveVersion(url);
+		}
+
+		final String cacheKey = url.toString();
+		final long now = clock.getAsLong();
+		final CheckedVersion checkedVersion = remoteVersionsByUrl.get(cacheKey);
+		if (checkedVersion != null && now - checkedVersion.getCheckedMillis() < remoteVersionCheckIntervalMillis)
+		{
+			return checkedVersion.getVersion();
+		}
+
+		final String version = retrieveVersion(url);
+		if (version != null)
+		{
+			remoteVersionsByUrl.put(cacheKey, new CheckedVersion(version, now));
+		}
+		else
+		{
+			remoteVersionsByUrl.remove(cacheKey);
+		}
+		return version;
+	}
+
+	private static boolean isRemote(@NonNull final URL url)
+	{
+		final String protocol = url.getProtocol();
+		return "http".equals(protocol) || "https".equals(protocol);
+	}
+
+	@Nullable
+	private static String retrieveVersion(@NonNull final URL url)
+	{
+		final String protocol = url.getProtocol();
+		try
+		{
+			if ("file".equals(protocol))
+			{
+				final File file = new File(url.toURI());
+				return file.lastModified() + "/" + file.length();
+			}
+			else if (isRemote(url))
+			{
+				final HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+				try
+				{
+					conn.setRequestMethod("HEAD");
+					final String etag = conn.getHeaderField("ETag");
+					return etag != null ? etag : conn.getLastModified() + "/" + conn.getContentLengthLong();
+				}
+				finally
+				{
+					conn.disconnect();
+				}
+			}
+			else
+			{
+				// e.g. jar: we assume these don't change while we are running
+				return VERSION_Unknown;
+			}
+		}
+		catch (final IOException | URISyntaxException | RuntimeException e)
+		{
+			logger.warn("Failed getting the version of {}. Not caching it.", url, e);
+			return null;
+		}
+	}
+
+	/**
+	 * A loaded report, together with the resource bundles we loaded for it.
+	 */
+	public static final class CachedJasperReport
+	{
+		private final JasperReport jasperReport;
+		private final String version;
+		private final ConcurrentHashMap<ResourceBundleKey, Optional<ResourceBundle>> resourceBundles = new ConcurrentHashMap<>();
+
+		private CachedJasperReport(@NonNull final JasperReport jasperReport, @NonNull final String version)
+		{
+			this.jasperReport = jasperReport;
+			this.version = version;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "CachedJasperReport[" + jasperReport.getName() + ", version=" + version + "]";
+		}
+
+		public JasperReport getJasperReport()
+		{
+			return jasperReport;
+		}
+
+		private String getVersion()
+		{
+			return version;
+		}
+
+		/**
+		 * @return the resource bundle, loaded with the given class loader if it's not already cached; empty if it can't be loaded
+		 */
+		public Optional<ResourceBundle> getResourceBundle(
+				@NonNull final String resourceBundleName,
+				@NonNull final Locale locale,
+				@NonNull final OrgId orgId,
+				@NonNull final ClassLoader classLoader)
+		{
+			// NOTE: the org is part of the key because the bundle name might be resolved with the org's reports path prefix
+			final ResourceBundleKey key = new ResourceBundleKey(resourceBundleName, locale, orgId);
+			return resourceBundles.computeIfAbsent(key, k -> loadResourceBundle(k, classLoader));
+		}
+
+		private static Optional<ResourceBundle> loadResourceBundle(final ResourceBundleKey key, final ClassLoader classLoader)
+		{
+			try
+			{
+				return Optional.of(ResourceBundle.getBundle(key.getResourceBundleName(), key.getLocale(), classLoader));
+			}
+			catch (final Exception e)
+			{
+				logger.warn("Failed loading resource bundle for base name: {}, {}. Skipping", key.getResourceBundleName(), key.getLocale(), e);
+				return Optional.empty();
+			}
+		}
+	}
+
+	@Value
+	private static class ResourceBundleKey
+	{
+		String resourceBundleName;
+		Locale locale;
+		OrgId orgId;
+	}
+}
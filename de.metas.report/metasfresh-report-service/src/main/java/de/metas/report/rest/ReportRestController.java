@@ -22,11 +22,19 @@
 
 package de.metas.report.rest;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+import de.metas.JsonObjectMapperHolder;
 import de.metas.Profiles;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.Language;
 import de.metas.logging.LogManager;
 import de.metas.report.server.IReportServer;
+import de.metas.report.server.JsonReportBatchRequest;
 import de.metas.report.server.JsonReportError;
 import de.metas.report.server.LocalReportServer;
 import de.metas.report.server.OutputType;
@@ -37,6 +45,7 @@ import de.metas.util.lang.ReferenceListAwareEnum;
 import de.metas.util.lang.RepoIdAware;
 import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.Null;
 import org.compiere.util.Trace;
 import org.slf4j.Logger;
@@ -48,11 +57,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 
 @RestController
 @RequestMapping(value = ReportRestController.ENDPOINT)
@@ -102,6 +118,93 @@ public class ReportRestController
 		}
 	}
 
+	/**
+	 * Renders the given process' report for many records and streams them back as one PDF.
+	 * The reports are rendered and appended one by one, so we don't need to keep all of them in memory.
+	 */
+	@PostMapping("/batch")
+	public void reportBatch(
+			@RequestBody @NonNull final JsonReportBatchRequest request,
+			@NonNull final HttpServletResponse httpResponse) throws IOException
+	{
+		try (final MDCCloseable c1 = MDC.putCloseable("AD_Process_ID", String.valueOf(request.getProcessId()));
+				final MDCCloseable c2 = MDC.putCloseable("TableName", request.getTableName()))
+		{
+			if (request.getProcessId() <= 0 || request.getRecordIds().isEmpty())
+			{
+				throw new AdempiereException("processId and recordIds shall be set")
+						.appendParametersToMessage()
+						.setParameter("request", request);
+			}
+
+			httpResponse.setContentType(MediaType.APPLICATION_PDF_VALUE);
+			httpResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"report.pdf\"");
+			httpResponse.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
+
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			streamConcatenatedPdf(request, httpResponse.getOutputStream());
+			logger.info("Rendered {} reports of AD_Process_ID={} in {}", request.getRecordIds().size(), request.getProcessId(), stopwatch.stop());
+		}
+		catch (final Throwable ex)
+		{
+			logger.error("Failed creating batch report for {}", request, ex);
+
+			// if we already started streaming the PDF, there is nothing we can report back
+			if (!httpResponse.isCommitted())
+			{
+				httpResponse.reset();
+				httpResponse.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+				httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+				JsonObjectMapperHolder.sharedJsonObjectMapper().writeValue(httpResponse.getOutputStream(), toJsonReportError(ex, request.getAdLanguage()));
+			}
+			else
+			{
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+		}
+	}
+
+	private void streamConcatenatedPdf(@NonNull final JsonReportBatchRequest request, @NonNull final OutputStream out) throws DocumentException, IOException
+	{
+		streamConcatenatedPdf(
+				request.getRecordIds(),
+				recordId -> {
+					final TableRecordReference recordRef = TableRecordReference.of(request.getTableName(), recordId);
+					return server.reportForRecord(request.getProcessId(), recordRef, request.getAdLanguage(), OutputType.PDF).getReportContent();
+				},
+				out);
+	}
+
+	/**
+	 * Appends the PDF of each record to {@code out}, in the given order.
+	 */
+	@VisibleForTesting
+	static void streamConcatenatedPdf(
+			@NonNull final List<Integer> recordIds,
+			@NonNull final IntFunction<byte[]> pdfRenderer,
+			@NonNull final OutputStream out) throws DocumentException, IOException
+	{
+		final Document document = new Document();
+		final PdfCopy pdfCopy = new PdfCopy(document, out);
+		document.open();
+
+		for (final int recordId : recordIds)
+		{
+			final PdfReader pdfReader = new PdfReader(pdfRenderer.apply(recordId));
+			for (int page = 1; page <= pdfReader.getNumberOfPages(); page++)
+			{
+				pdfCopy.addPage(pdfCopy.getImportedPage(pdfReader, page));
+			}
+			pdfCopy.freeReader(pdfReader);
+			pdfReader.close();
+
+			// send what we have so far, the client might be waiting for the first pages
+			pdfCopy.flush();
+		}
+
+		document.close();
+	}
+
 	private String extractReportFilename(final ReportResult report)
 	{
 		if (Check.isNotBlank(report.getReportFilename()))
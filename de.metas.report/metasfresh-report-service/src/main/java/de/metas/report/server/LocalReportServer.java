@@ -2,9 +2,12 @@ package de.metas.report.server;
 
 import java.util.Properties;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
@@ -18,6 +21,7 @@ import de.metas.report.jasper.JasperEngine;
 import de.metas.report.xls.engine.XlsReportEngine;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 public class LocalReportServer implements IReportServer
 {
@@ -37,6 +41,32 @@ public class LocalReportServer implements IReportServer
 				.setJRDesiredOutputType(outputType)
 				.build();
 
+		return report(processInfo);
+	}
+
+	/**
+	 * Creates the report of the given process for the given record. A new AD_PInstance is created for it.
+	 */
+	public ReportResult reportForRecord(
+			final int processId,
+			@NonNull final TableRecordReference recordRef,
+			@Nullable final String adLanguage,
+			final OutputType outputType)
+	{
+		final ProcessInfo processInfo = ProcessInfo.builder()
+				.setCtx(Env.newTemporaryCtx())
+				.setCreateTemporaryCtx()
+				.setAD_Process_ID(processId)
+				.setRecord(recordRef)
+				.setReportLanguage(adLanguage)
+				.setJRDesiredOutputType(outputType)
+				.build();
+
+		return report(processInfo);
+	}
+
+	private ReportResult report(final ProcessInfo processInfo)
+	{
 		//
 		// If there is no AD_PInstance already, we need to create it now
 		if (processInfo.getPinstanceId() == null)
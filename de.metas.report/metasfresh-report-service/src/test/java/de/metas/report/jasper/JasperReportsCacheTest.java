@@ -0,0 +1,171 @@
+package de.metas.report.jasper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import de.metas.report.jasper.JasperReportsCache.CachedJasperReport;
+
+/*
+ * #%L
+ * metasfresh-report-service
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JasperReportsCacheTest
+{
+	private static final String REPORT_NAME = "paramsTestReport.jasper";
+
+	@TempDir
+	Path reportsDir;
+
+	private ClassLoader reportsClassLoader;
+	private File reportFile;
+
+	@BeforeEach
+	public void beforeEach() throws Exception
+	{
+		reportFile = reportsDir.resolve(REPORT_NAME).toFile();
+		copyTestReportTo(reportFile);
+
+		reportsClassLoader = new URLClassLoader(new URL[] { reportsDir.toUri().toURL() }, null);
+	}
+
+	private void copyTestReportTo(final File file) throws Exception
+	{
+		try (final InputStream in = getClass().getClassLoader().getResourceAsStream(REPORT_NAME))
+		{
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	@Test
+	public void sameReportIsLoadedOnlyOnce() throws Exception
+	{
+		final CachedJasperReport report1 = JasperReportsCache.getInstance().getReport(REPORT_NAME, reportsClassLoader);
+		final CachedJasperReport report2 = JasperReportsCache.getInstance().getReport(REPORT_NAME, reportsClassLoader);
+
+		assertThat(report1).isNotNull();
+		assertThat(report2).isSameAs(report1);
+	}
+
+	@Test
+	public void changedReportIsLoadedAgain() throws Exception
+	{
+		final CachedJasperReport report1 = JasperReportsCache.getInstance().getReport(REPORT_NAME, reportsClassLoader);
+
+		copyTestReportTo(reportFile);
+		assertThat(reportFile.setLastModified(reportFile.lastModified() + 10_000)).isTrue();
+
+		final CachedJasperReport report2 = JasperReportsCache.getInstance().getReport(REPORT_NAME, reportsClassLoader);
+
+		assertThat(report2).isNotNull();
+		assertThat(report2).isNotSameAs(report1);
+		assertThat(report2.getJasperReport().getName()).isEqualTo(report1.getJasperReport().getName());
+	}
+
+	@Test
+	public void missingReport() throws Exception
+	{
+		assertThat(JasperReportsCache.getInstance().getReport("missing.jasper", reportsClassLoader)).isNull();
+	}
+
+	@Test
+	public void remoteReportVersionIsCheckedOncePerInterval() throws Exception
+	{
+		final byte[] reportBytes = Files.readAllBytes(reportFile.toPath());
+		final AtomicInteger headRequests = new AtomicInteger();
+
+		final HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		httpServer.createContext("/", exchange -> {
+			exchange.getResponseHeaders().set("ETag", "\"v1\"");
+			if ("HEAD".equals(exchange.getRequestMethod()))
+			{
+				headRequests.incrementAndGet();
+				exchange.sendResponseHeaders(200, -1);
+			}
+			else
+			{
+				exchange.sendResponseHeaders(200, reportBytes.length);
+				try (final OutputStream out = exchange.getResponseBody())
+				{
+					out.write(reportBytes);
+				}
+			}
+			exchange.close();
+		});
+		httpServer.start();
+		try
+		{
+			final URL baseUrl = new URL("http://localhost:" + httpServer.getAddress().getPort() + "/");
+			// NOTE: not using an URLClassLoader, because it sends its own HEAD requests
+			final ClassLoader remoteClassLoader = new ClassLoader(null)
+			{
+				@Override
+				public URL getResource(final String name)
+				{
+					try
+					{
+						return new URL(baseUrl, name);
+					}
+					catch (final MalformedURLException e)
+					{
+						throw new IllegalArgumentException(e);
+					}
+				}
+			};
+
+			final AtomicLong now = new AtomicLong(1_000_000);
+			final JasperReportsCache cache = new JasperReportsCache(Duration.ofSeconds(10), now::get);
+
+			final CachedJasperReport report1 = cache.getReport(REPORT_NAME, remoteClassLoader);
+			final CachedJasperReport report2 = cache.getReport(REPORT_NAME, remoteClassLoader);
+			assertThat(report1).isNotNull();
+			assertThat(report2).isSameAs(report1);
+			assertThat(headRequests).hasValue(1);
+
+			now.addAndGet(10_000);
+			final CachedJasperReport report3 = cache.getReport(REPORT_NAME, remoteClassLoader);
+			assertThat(report3).isSameAs(report1);
+			assertThat(headRequests).hasValue(2);
+		}
+		finally
+		{
+			httpServer.stop(0);
+		}
+	}
+}
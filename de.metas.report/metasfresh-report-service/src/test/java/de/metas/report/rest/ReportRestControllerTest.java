@@ -0,0 +1,109 @@
+package de.metas.report.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.lowagie.text.Document;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+
+/*
+ * #%L
+ * metasfresh-report-service
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ReportRestControllerTest
+{
+	/**
+	 * Each record's "report" has its own page size, so we can tell from the concatenated PDF where its pages went.
+	 */
+	@Test
+	public void streamConcatenatedPdf_appendsAllPagesInRecordOrder() throws Exception
+	{
+		final Map<Integer, byte[]> pdfsByRecordId = ImmutableMap.of(
+				10, createPdf(PageSize.A4, 2),
+				20, createPdf(PageSize.A5, 1),
+				30, createPdf(PageSize.LETTER, 3));
+		final List<Integer> renderedRecordIds = new ArrayList<>();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ReportRestController.streamConcatenatedPdf(
+				ImmutableList.of(20, 10, 30),
+				recordId -> {
+					renderedRecordIds.add(recordId);
+					return pdfsByRecordId.get(recordId);
+				},
+				out);
+
+		assertThat(renderedRecordIds).containsExactly(20, 10, 30);
+
+		final PdfReader concatenatedPdf = new PdfReader(out.toByteArray());
+		try
+		{
+			assertThat(concatenatedPdf.getNumberOfPages()).isEqualTo(6);
+			assertPageSize(concatenatedPdf, 1, PageSize.A5);
+			assertPageSize(concatenatedPdf, 2, PageSize.A4);
+			assertPageSize(concatenatedPdf, 3, PageSize.A4);
+			assertPageSize(concatenatedPdf, 4, PageSize.LETTER);
+			assertPageSize(concatenatedPdf, 5, PageSize.LETTER);
+			assertPageSize(concatenatedPdf, 6, PageSize.LETTER);
+		}
+		finally
+		{
+			concatenatedPdf.close();
+		}
+	}
+
+	private static byte[] createPdf(final Rectangle pageSize, final int pages) throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document(pageSize);
+		PdfWriter.getInstance(document, out);
+		document.open();
+		for (int page = 1; page <= pages; page++)
+		{
+			if (page > 1)
+			{
+				document.newPage();
+			}
+			document.add(new Paragraph("page " + page));
+		}
+		document.close();
+		return out.toByteArray();
+	}
+
+	private static void assertPageSize(final PdfReader pdf, final int page, final Rectangle expectedPageSize)
+	{
+		final Rectangle pageSize = pdf.getPageSize(page);
+		assertThat(pageSize.getWidth()).as("width of page %s", page).isEqualTo(expectedPageSize.getWidth());
+		assertThat(pageSize.getHeight()).as("height of page %s", page).isEqualTo(expectedPageSize.getHeight());
+	}
+}
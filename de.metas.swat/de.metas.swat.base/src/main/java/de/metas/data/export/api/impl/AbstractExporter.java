@@ -27,11 +27,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.slf4j.Logger;
 
+import com.google.common.base.Stopwatch;
+
 import de.metas.data.export.api.IExportDataDestination;
 import de.metas.data.export.api.IExportDataSource;
 import de.metas.data.export.api.IExporter;
@@ -58,6 +61,7 @@ public abstract class AbstractExporter implements IExporter
 	private final AtomicInteger exportedRowCount = new AtomicInteger(0);
 	private ExportStatus exportStatus = ExportStatus.NotStarted;
 	private Throwable error = null;
+	private final Stopwatch exportStopwatch = Stopwatch.createUnstarted();
 
 	@Override
 	public void setDataSource(IExportDataSource dataSource)
@@ -118,6 +122,15 @@ public abstract class AbstractExporter implements IExporter
 		return error;
 	}
 
+	/**
+	 * @return exported rows per second, measured from the start of the export until now, or until it finished
+	 */
+	public long getExportedRowsPerSecond()
+	{
+		final long elapsedMillis = exportStopwatch.elapsed(TimeUnit.MILLISECONDS);
+		return elapsedMillis > 0 ? getExportedRowCount() * 1000L / elapsedMillis : getExportedRowCount();
+	}
+
 	@Override
 	public final void export(final OutputStream out)
 	{
@@ -138,6 +151,7 @@ public abstract class AbstractExporter implements IExporter
 			// Init status
 			error = null;
 			setExportStatus(ExportStatus.Running);
+			exportStopwatch.start();
 
 			monitor.exportStarted(this);
 
@@ -163,6 +177,10 @@ public abstract class AbstractExporter implements IExporter
 			close(dataDestination);
 			dataDestination = null;
 
+			if (exportStopwatch.isRunning())
+			{
+				exportStopwatch.stop();
+			}
 			setExportStatus(ExportStatus.Finished);
 
 			// Notify the monitor but discard all exceptions because we don't want to throw an "false" exception in finally block
@@ -176,7 +194,7 @@ public abstract class AbstractExporter implements IExporter
 			}
 		}
 
-		logger.info("Exported " + getExportedRowCount() + " rows");
+		logger.info("Exported {} rows in {} ({} rows/s)", getExportedRowCount(), exportStopwatch, getExportedRowsPerSecond());
 	}
 
 	protected abstract void appendRow(IExportDataDestination dataDestination, List<Object> values) throws IOException;
@@ -22,6 +22,7 @@ package de.metas.data.export.api.impl;
  * #L%
  */
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -53,11 +54,14 @@ public class CSVWriter implements IExportDataDestination
 	public static final String CONFIG_Encoding = "Encoding";
 	public static final String CONFIG_FieldDelimiter = "FieldDelimiter";
 	public static final String CONFIG_FieldQuote = "FieldQuote";
+	/** Size (in chars) of the buffer in which the lines are collected before they are written to the underlying stream */
+	public static final String CONFIG_BufferSize = "BufferSize";
 
 	private String encoding = "UTF-8";
 	private String fieldDelimiter = ";";
 	private String fieldQuote = "\"";
 	private String lineEnding = "\n";
+	private int bufferSize = 64 * 1024;
 	private DateFormat dateFormat;
 
 	private List<String> header;
@@ -77,13 +81,13 @@ public class CSVWriter implements IExportDataDestination
 			@Nullable final Properties config) throws UnsupportedEncodingException
 	{
 		this(config);
-		this.writer = new OutputStreamWriter(out, encoding);
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, encoding), bufferSize);
 	}
 
 	public CSVWriter(final File file, final Properties config) throws IOException
 	{
 		this(config);
-		writer = new OutputStreamWriter(new FileOutputStream(file, false), encoding);
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), encoding), bufferSize);
 	}
 
 	private void applyConfig(final Properties config)
@@ -110,6 +114,12 @@ public class CSVWriter implements IExportDataDestination
 		{
 			setFieldQuote(fieldQuote);
 		}
+
+		final String bufferSize = config.getProperty(CONFIG_BufferSize);
+		if (bufferSize != null)
+		{
+			this.bufferSize = Integer.parseInt(bufferSize.trim());
+		}
 	}
 
 	public CSVWriter setFieldDelimiter(String delimiter)
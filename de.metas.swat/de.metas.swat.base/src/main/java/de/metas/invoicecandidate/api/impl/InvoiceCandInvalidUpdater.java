@@ -23,6 +23,7 @@
 package de.metas.invoicecandidate.api.impl;
 
 import ch.qos.logback.classic.Level;
+import com.google.common.annotations.VisibleForTesting;
 import de.metas.inout.IInOutDAO;
 import de.metas.invoicecandidate.api.IInvoiceCandBL;
 import de.metas.invoicecandidate.api.IInvoiceCandDAO;
@@ -45,6 +46,7 @@ import de.metas.util.Services;
 import lombok.NonNull;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.ad.trx.processor.api.FailTrxItemExceptionHandler;
 import org.adempiere.ad.trx.processor.api.ITrxItemExecutorBuilder.OnItemErrorPolicy;
 import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutorService;
@@ -52,6 +54,7 @@ import org.adempiere.ad.trx.processor.spi.TrxItemChunkProcessorAdapter;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
 import org.compiere.SpringContextHolder;
@@ -63,7 +66,16 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static java.math.BigDecimal.ONE;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
@@ -84,6 +96,13 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	private static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
 	private static final int DEFAULT_ItemsPerBatch = 100;
 
+	/**
+	 * How many partitions (i.e. threads) shall be used to update the tagged invoice candidates. 1 means that all candidates are updated sequentially in the current thread.
+	 * Only applies if we are not running within an external transaction.
+	 */
+	private static final String SYSCONFIG_ParallelPartitions = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ParallelPartitions";
+	private static final int DEFAULT_ParallelPartitions = 1;
+
 	//
 	// Parameters
 	private Properties _ctx;
@@ -162,87 +181,167 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 		//
 		// Update invoice candidates in chunks
-		final ICUpdateResult result = new ICUpdateResult();
-		try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+		final ICUpdateResult result;
+		final int parallelPartitions = processInBatches && isRunningOutOfTrx() ? getParallelPartitions() : 1;
+		if (parallelPartitions > 1)
 		{
-			trxItemProcessorExecutorService.<I_C_Invoice_Candidate, ICUpdateResult> createExecutor()
-					.setContext(getCtx(), getTrxName()) // if called from process or wp-processor then getTrxName() is null because *we* want to manage the trx => commit after each chunk
-					.setItemsPerBatch(itemsPerBatch)
+			result = updateInParallel(candidatesToUpdate, itemsPerBatch, parallelPartitions);
+		}
+		else
+		{
+			try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+			{
+				result = updateInChunks(candidatesToUpdate, itemsPerBatch, getTrxName());
+			}
+		}
 
-					// Don't use trx savepoints because they are expensive and we are not going to rollback anyways (OnItemErrorPolicy.ContinueChunkAndCommit)
-					// Note that if our trx is null, then this doesn't matter anyways.
-					.setUseTrxSavepoints(false)
+		//
+		// Log the result
+		Loggables.addLog("Update invalid result: {}", result.getSummary());
+	}
 
-					.setExceptionHandler(new ICTrxItemExceptionHandler(result))
+	/**
+	 * Splits the given invoice candidates into disjoint partitions by <code>Bill_BPartner_ID</code> and updates each partition in its own thread and transactions.
+	 * <p>
+	 * All candidates of one bill partner end up in the same partition, so they are still updated sequentially and in the order they were retrieved.
+	 * The partitions are fed through bounded queues, so we don't have to load all tagged candidates into memory.
+	 */
+	@VisibleForTesting
+	ICUpdateResult updateInParallel(
+			@NonNull final Iterator<I_C_Invoice_Candidate> candidatesToUpdate,
+			final int itemsPerBatch,
+			final int partitionsCount)
+	{
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(InvoiceCandInvalidUpdater.class.getSimpleName() + "-partition")
+				.setDaemon(true)
+				.build();
+		final ExecutorService executor = Executors.newFixedThreadPool(partitionsCount, threadFactory);
+		try
+		{
+			final List<ICPartition> partitions = new ArrayList<>(partitionsCount);
+			for (int i = 0; i < partitionsCount; i++)
+			{
+				final ICPartition partition = new ICPartition(itemsPerBatch);
+				partition.setFutureResult(executor.submit(() -> {
+					try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+					{
+						// each partition runs out of trx, so the executor will create and commit a new trx for each chunk
+						return updateInChunks(partition.iterator(), itemsPerBatch, ITrx.TRXNAME_ThreadInherited);
+					}
+				}));
+				partitions.add(partition);
+			}
 
-					// issue #302: ICTrxItemExceptionHandler will deal with problems, so we just continue if they happen.
-					.setOnItemErrorPolicy(OnItemErrorPolicy.ContinueChunkAndCommit)
+			while (candidatesToUpdate.hasNext())
+			{
+				final I_C_Invoice_Candidate icRecord = candidatesToUpdate.next();
+				final int partitionIndex = Math.floorMod(icRecord.getBill_BPartner_ID(), partitionsCount);
+				partitions.get(partitionIndex).put(icRecord);
+			}
 
-					.setProcessor(new TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>()
-					{
-						/** the invoice candidates which were updated in current batch/chunk */
-						final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
+			final ICUpdateResult result = new ICUpdateResult();
+			for (final ICPartition partition : partitions)
+			{
+				partition.markNoMoreItems();
+			}
+			for (final ICPartition partition : partitions)
+			{
+				result.add(partition.getResult());
+			}
 
-						@Override
-						public void process(final I_C_Invoice_Candidate icRecord)
-						{
-							try (final MDCCloseable icMDC = TableRecordMDC.putTableRecordReference(icRecord))
-							{
-								chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
-
-								updateInvalid(icRecord);
-								if (!icRecord.isError())
-								{
-									logger.debug("Updated invoice canddiate");
-									result.addInvoiceCandidate(icRecord);
-								}
-								else
-								{
-									Loggables.withLogger(logger, Level.DEBUG)
-											.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
-									result.incrementErrorsCount();
-								}
-							}
-						}
+			logger.debug("Updated invoice candidates in {} partitions: {}", partitionsCount, result);
+			return result;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
 
-						@Override
-						public ICUpdateResult getResult()
-						{
-							return result;
-						}
+	@VisibleForTesting
+	ICUpdateResult updateInChunks(
+			@NonNull final Iterator<I_C_Invoice_Candidate> candidatesToUpdate,
+			final int itemsPerBatch,
+			@NonNull final String trxName)
+	{
+		final ICUpdateResult result = new ICUpdateResult();
 
-						/**
-						 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
-						 * We do this because in fact, each IC is independent from each other.
-						 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
-						 */
-						@Override
-						public boolean isSameChunk(final I_C_Invoice_Candidate item)
-						{
-							return true;
-						}
+		trxItemProcessorExecutorService.<I_C_Invoice_Candidate, ICUpdateResult> createExecutor()
+				.setContext(getCtx(), trxName) // if called from process or wp-processor then getTrxName() is null because *we* want to manage the trx => commit after each chunk
+				.setItemsPerBatch(itemsPerBatch)
 
-						@Override
-						public void newChunk(final I_C_Invoice_Candidate item)
-						{
-							chunkInvoiceCandidateIds.clear(); // better safe than sorry
-						}
+				// Don't use trx savepoints because they are expensive and we are not going to rollback anyways (OnItemErrorPolicy.ContinueChunkAndCommit)
+				// Note that if our trx is null, then this doesn't matter anyways.
+				.setUseTrxSavepoints(false)
 
-						/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
-						@Override
-						public void completeChunk()
+				.setExceptionHandler(new ICTrxItemExceptionHandler(result))
+
+				// issue #302: ICTrxItemExceptionHandler will deal with problems, so we just continue if they happen.
+				.setOnItemErrorPolicy(OnItemErrorPolicy.ContinueChunkAndCommit)
+
+				.setProcessor(new TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>()
+				{
+					/** the invoice candidates which were updated in current batch/chunk */
+					final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
+
+					@Override
+					public void process(final I_C_Invoice_Candidate icRecord)
+					{
+						try (final MDCCloseable icMDC = TableRecordMDC.putTableRecordReference(icRecord))
 						{
-							icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
-							chunkInvoiceCandidateIds.clear();
+							chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
+
+							updateInvalid(icRecord);
+							if (!icRecord.isError())
+							{
+								logger.debug("Updated invoice canddiate");
+								result.addInvoiceCandidate(icRecord);
+							}
+							else
+							{
+								Loggables.withLogger(logger, Level.DEBUG)
+										.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
+								result.incrementErrorsCount();
+							}
 						}
-					})
-					//
-					.process(candidatesToUpdate);
-		}
+					}
 
-		//
-		// Log the result
-		Loggables.addLog("Update invalid result: {}", result.getSummary());
+					@Override
+					public ICUpdateResult getResult()
+					{
+						return result;
+					}
+
+					/**
+					 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
+					 * We do this because in fact, each IC is independent from each other.
+					 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
+					 */
+					@Override
+					public boolean isSameChunk(final I_C_Invoice_Candidate item)
+					{
+						return true;
+					}
+
+					@Override
+					public void newChunk(final I_C_Invoice_Candidate item)
+					{
+						chunkInvoiceCandidateIds.clear(); // better safe than sorry
+					}
+
+					/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
+					@Override
+					public void completeChunk()
+					{
+						icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
+						chunkInvoiceCandidateIds.clear();
+					}
+				})
+				//
+				.process(candidatesToUpdate);
+
+		return result;
 	}
 
 	private void updateInvalid(@NonNull final I_C_Invoice_Candidate icRecord)
@@ -418,6 +517,15 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		return _trxName;
 	}
 
+	/**
+	 * @return true if neither we got an explicit trxName nor there is a thread inherited transaction, i.e. we are managing the transactions ourselves
+	 */
+	private boolean isRunningOutOfTrx()
+	{
+		return trxManager.isNull(_trxName)
+				&& trxManager.isNull(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone));
+	}
+
 	@Override
 	public IInvoiceCandInvalidUpdater setLockedBy(final ILock lockedBy)
 	{
@@ -479,12 +587,18 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		return sysConfigBL.getIntValue(SYSCONFIG_ItemsPerBatch, DEFAULT_ItemsPerBatch);
 	}
 
+	private int getParallelPartitions()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_ParallelPartitions, DEFAULT_ParallelPartitions);
+	}
+
 	/**
 	 * IC update result.
 	 *
 	 * @author metas-dev <dev@metasfresh.com>
 	 */
-	private static final class ICUpdateResult
+	@VisibleForTesting
+	static final class ICUpdateResult
 	{
 		private int countOk = 0;
 		private int countErrors = 0;
@@ -499,6 +613,12 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 			countErrors++;
 		}
 
+		public void add(@NonNull final ICUpdateResult other)
+		{
+			countOk += other.countOk;
+			countErrors += other.countErrors;
+		}
+
 		@Override
 		public String toString()
 		{
@@ -509,6 +629,127 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		{
 			return "Updated " + countOk + " invoice candidates, " + countErrors + " errors";
 		}
+
+		@VisibleForTesting
+		int getCountOk()
+		{
+			return countOk;
+		}
+
+		@VisibleForTesting
+		int getCountErrors()
+		{
+			return countErrors;
+		}
+	}
+
+	/**
+	 * A partition of the invoice candidates to be updated by {@link InvoiceCandInvalidUpdater#updateInParallel(Iterator, int, int)}.
+	 * The candidates are put by the dispatching thread and consumed by the partition's worker thread.
+	 */
+	private static final class ICPartition
+	{
+		private static final long PUT_TIMEOUT_MILLIS = 500;
+
+		private final BlockingQueue<Optional<I_C_Invoice_Candidate>> queue;
+		private Future<ICUpdateResult> futureResult;
+
+		public ICPartition(final int capacity)
+		{
+			queue = new ArrayBlockingQueue<>(capacity);
+		}
+
+		public void setFutureResult(@NonNull final Future<ICUpdateResult> futureResult)
+		{
+			this.futureResult = futureResult;
+		}
+
+		public void put(@NonNull final I_C_Invoice_Candidate icRecord)
+		{
+			put(Optional.of(icRecord));
+		}
+
+		public void markNoMoreItems()
+		{
+			put(Optional.empty());
+		}
+
+		private void put(final Optional<I_C_Invoice_Candidate> item)
+		{
+			try
+			{
+				while (!queue.offer(item, PUT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+				{
+					if (futureResult.isDone())
+					{
+						// the worker stopped consuming (most probably it failed) => propagate its exception
+						getResult();
+						throw new AdempiereException("Partition worker stopped before all invoice candidates were consumed");
+					}
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(e);
+			}
+		}
+
+		public ICUpdateResult getResult()
+		{
+			try
+			{
+				return futureResult.get();
+			}
+			catch (final ExecutionException e)
+			{
+				throw AdempiereException.wrapIfNeeded(e.getCause());
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(e);
+			}
+		}
+
+		public Iterator<I_C_Invoice_Candidate> iterator()
+		{
+			return new Iterator<I_C_Invoice_Candidate>()
+			{
+				private Optional<I_C_Invoice_Candidate> next = null;
+
+				@Override
+				public boolean hasNext()
+				{
+					if (next == null)
+					{
+						try
+						{
+							next = queue.take();
+						}
+						catch (final InterruptedException e)
+						{
+							Thread.currentThread().interrupt();
+							throw AdempiereException.wrapIfNeeded(e);
+						}
+					}
+					return next.isPresent();
+				}
+
+				@Override
+				public I_C_Invoice_Candidate next()
+				{
+					if (!hasNext())
+					{
+						throw new NoSuchElementException();
+					}
+
+					final I_C_Invoice_Candidate icRecord = next.get();
+					next = null;
+					return icRecord;
+				}
+			};
+		}
 	}
 
 	/**
@@ -0,0 +1,96 @@
+package de.metas.data.export.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CSVWriterTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static Properties config(final int bufferSize)
+	{
+		final Properties config = new Properties();
+		config.setProperty(CSVWriter.CONFIG_BufferSize, String.valueOf(bufferSize));
+		return config;
+	}
+
+	@Test
+	public void linesAreBufferedUntilClose() throws IOException
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final CSVWriter csvWriter = new CSVWriter(out, config(1024));
+		csvWriter.setHeader(ImmutableList.of("A", "B"));
+
+		csvWriter.appendLine(ImmutableList.of("a1", 1));
+		csvWriter.appendLine(ImmutableList.of("a\"2", 2));
+		assertThat(out.size()).isZero();
+
+		csvWriter.close();
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8))
+				.isEqualTo("\"A\";\"B\"\n"
+						+ "\"a1\";\"1\"\n"
+						+ "\"a\"\"2\";\"2\"\n");
+	}
+
+	@Test
+	public void moreLinesThanTheBufferCanHold_sameContentAsUnbuffered() throws IOException
+	{
+		final ByteArrayOutputStream outSmallBuffer = new ByteArrayOutputStream();
+		final ByteArrayOutputStream outDefaultBuffer = new ByteArrayOutputStream();
+		final CSVWriter csvWriterSmallBuffer = new CSVWriter(outSmallBuffer, config(16));
+		final CSVWriter csvWriterDefaultBuffer = new CSVWriter(outDefaultBuffer, null);
+		csvWriterSmallBuffer.setHeader(ImmutableList.of("Line", "Text"));
+		csvWriterDefaultBuffer.setHeader(ImmutableList.of("Line", "Text"));
+
+		for (int i = 1; i <= 1000; i++)
+		{
+			csvWriterSmallBuffer.appendLine(ImmutableList.of(i, "text " + i));
+			csvWriterDefaultBuffer.appendLine(ImmutableList.of(i, "text " + i));
+		}
+		assertThat(outSmallBuffer.size()).as("small buffer was flushed while writing").isPositive();
+
+		csvWriterSmallBuffer.close();
+		csvWriterDefaultBuffer.close();
+
+		final String csv = new String(outSmallBuffer.toByteArray(), StandardCharsets.UTF_8);
+		assertThat(csv).isEqualTo(new String(outDefaultBuffer.toByteArray(), StandardCharsets.UTF_8));
+		assertThat(csv.split("\n")).hasSize(1001);
+		assertThat(csv).endsWith("\"1000\";\"text 1000\"\n");
+	}
+}
@@ -0,0 +1,112 @@
+package de.metas.invoicecandidate.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.metas.ShutdownListener;
+import de.metas.StartupListener;
+import de.metas.currency.CurrencyRepository;
+import de.metas.invoicecandidate.AbstractICTestSupport;
+import de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ICUpdateResult;
+import de.metas.invoicecandidate.internalbusinesslogic.InvoiceCandidateRecordService;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.money.MoneyService;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { StartupListener.class, ShutdownListener.class, MoneyService.class, CurrencyRepository.class, InvoiceCandidateRecordService.class })
+public class InvoiceCandInvalidUpdaterTest extends AbstractICTestSupport
+{
+	private static final int[] BILL_BPARTNER_IDS = { 1, 2, 3, 4, 5, 2, 3, 1 };
+
+	/**
+	 * Updates two identical sets of invoice candidates, one sequentially and one in three partitions, and expects the same outcome.
+	 */
+	@Test
+	public void updateInParallel_sameResultAsSequential()
+	{
+		final List<I_C_Invoice_Candidate> sequentialICs = createInvoiceCandidates("seq");
+		final List<I_C_Invoice_Candidate> parallelICs = createInvoiceCandidates("par");
+
+		final ICUpdateResult sequentialResult;
+		try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+		{
+			sequentialResult = newUpdater().updateInChunks(sequentialICs.iterator(), 3, ITrx.TRXNAME_None);
+		}
+
+		final ICUpdateResult parallelResult = newUpdater().updateInParallel(parallelICs.iterator(), 3, 3);
+
+		assertThat(parallelResult.getCountOk()).isEqualTo(sequentialResult.getCountOk()).isEqualTo(BILL_BPARTNER_IDS.length);
+		assertThat(parallelResult.getCountErrors()).isEqualTo(sequentialResult.getCountErrors());
+
+		for (int i = 0; i < BILL_BPARTNER_IDS.length; i++)
+		{
+			final I_C_Invoice_Candidate sequentialIC = sequentialICs.get(i);
+			final I_C_Invoice_Candidate parallelIC = parallelICs.get(i);
+			InterfaceWrapperHelper.refresh(sequentialIC);
+			InterfaceWrapperHelper.refresh(parallelIC);
+
+			assertThat(parallelIC.getBill_BPartner_ID()).isEqualTo(sequentialIC.getBill_BPartner_ID());
+			assertThat(parallelIC.getQtyToInvoice()).as("QtyToInvoice of IC #%s", i).isEqualByComparingTo(sequentialIC.getQtyToInvoice());
+			assertThat(parallelIC.getPriceActual()).as("PriceActual of IC #%s", i).isEqualByComparingTo(sequentialIC.getPriceActual());
+			assertThat(parallelIC.getNetAmtToInvoice()).as("NetAmtToInvoice of IC #%s", i).isEqualByComparingTo(sequentialIC.getNetAmtToInvoice());
+			assertThat(parallelIC.isError()).as("IsError of IC #%s", i).isEqualTo(sequentialIC.isError());
+		}
+	}
+
+	private List<I_C_Invoice_Candidate> createInvoiceCandidates(final String instanceNamePrefix)
+	{
+		final List<I_C_Invoice_Candidate> invoiceCandidates = new ArrayList<>();
+		for (int i = 0; i < BILL_BPARTNER_IDS.length; i++)
+		{
+			invoiceCandidates.add(createInvoiceCandidate()
+					.setInstanceName(instanceNamePrefix + i)
+					.setBillBPartnerId(BILL_BPARTNER_IDS[i])
+					.setPriceEntered(10 + i)
+					.setQtyOrdered(1 + i)
+					.setManual(false)
+					.setSOTrx(true)
+					.build());
+		}
+		return invoiceCandidates;
+	}
+
+	private InvoiceCandInvalidUpdater newUpdater()
+	{
+		final InvoiceCandInvalidUpdater updater = new InvoiceCandInvalidUpdater((InvoiceCandBL)invoiceCandBL);
+		updater.setContext(Env.getCtx(), ITrx.TRXNAME_None);
+		return updater;
+	}
+}
@@ -0,0 +1,366 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory copy of the {@link JpaStockAvailability} quantities and the {@link JpaProductExclude}s, so that availability requests can be answered without JPA.
+ * <p>
+ * The data is kept in immutable snapshots of sorted primitive arrays, which are replaced as a whole on each update.
+ * Therefore lookups don't lock, while updates (which are rare compared to lookups) copy the snapshot.
+ * An update merges the few changed PZNs into the sorted arrays, so it costs one array copy and no boxing of the whole snapshot.
+ * The excluded partners of a PZN are a {@link BitSet} over the sorted IDs of all partners which have any exclusion.
+ * Updates only ever add partners to those IDs; the ones without exclusions left are dropped on the next {@link #replaceAllProductExcludes(Collection)}.
+ */
+public final class StockAvailabilityIndex
+{
+	private volatile StockQtys stockQtys = StockQtys.EMPTY;
+	private volatile ProductExcludes productExcludes = ProductExcludes.EMPTY;
+	private volatile boolean loaded = false;
+
+	/**
+	 * @return {@code true} once {@link #replaceAll(Collection, Collection)} was called; before that, lookups shall not be answered from this index.
+	 */
+	public boolean isLoaded()
+	{
+		return loaded;
+	}
+
+	public OptionalInt getQty(final long pzn)
+	{
+		return stockQtys.getQty(pzn);
+	}
+
+	public boolean isExcluded(final long pzn, final int bpartnerId)
+	{
+		return productExcludes.isExcluded(pzn, bpartnerId);
+	}
+
+	public int getStockQtysCount()
+	{
+		return stockQtys.size();
+	}
+
+	public int getExcludedPznsCount()
+	{
+		return productExcludes.size();
+	}
+
+	public synchronized void replaceAll(
+			@NonNull final Collection<JpaStockAvailability> stockAvailabilities,
+			@NonNull final Collection<JpaProductExclude> productExcludes)
+	{
+		replaceAllStockQtys(stockAvailabilities);
+		replaceAllProductExcludes(productExcludes);
+		loaded = true;
+	}
+
+	public synchronized void replaceAllStockQtys(@NonNull final Collection<JpaStockAvailability> stockAvailabilities)
+	{
+		final TreeMap<Long, Integer> qtysByPzn = new TreeMap<>();
+		stockAvailabilities.forEach(stockAvailability -> qtysByPzn.put(stockAvailability.getMfPzn(), stockAvailability.getMfQty()));
+		stockQtys = StockQtys.of(qtysByPzn);
+	}
+
+	/**
+	 * @param pzns the PZNs to update
+	 * @param stockAvailabilities the current records of those PZNs; PZNs without record are removed
+	 */
+	public synchronized void updateStockQtys(
+			@NonNull final Set<Long> pzns,
+			@NonNull final Collection<JpaStockAvailability> stockAvailabilities)
+	{
+		final TreeMap<Long, Integer> qtysByPzn = new TreeMap<>();
+		stockAvailabilities.forEach(stockAvailability -> qtysByPzn.put(stockAvailability.getMfPzn(), stockAvailability.getMfQty()));
+		stockQtys = stockQtys.merge(toSortedArray(pzns), qtysByPzn);
+	}
+
+	public synchronized void replaceAllProductExcludes(@NonNull final Collection<JpaProductExclude> productExcludes)
+	{
+		final TreeMap<Long, SortedSet<Integer>> bpartnerIdsByPzn = new TreeMap<>();
+		productExcludes.forEach(productExclude -> addProductExclude(bpartnerIdsByPzn, productExclude));
+		this.productExcludes = ProductExcludes.of(bpartnerIdsByPzn);
+	}
+
+	/**
+	 * @param pzns the PZNs to update
+	 * @param productExcludes the current records of those PZNs; the exclusions of PZNs without record are removed
+	 */
+	public synchronized void updateProductExcludes(
+			@NonNull final Set<Long> pzns,
+			@NonNull final Collection<JpaProductExclude> productExcludes)
+	{
+		final TreeMap<Long, SortedSet<Integer>> bpartnerIdsByPzn = new TreeMap<>();
+		productExcludes.forEach(productExclude -> addProductExclude(bpartnerIdsByPzn, productExclude));
+		this.productExcludes = this.productExcludes.merge(toSortedArray(pzns), bpartnerIdsByPzn);
+	}
+
+	private static long[] toSortedArray(final Set<Long> pzns)
+	{
+		final long[] array = pzns.stream().mapToLong(Long::longValue).toArray();
+		Arrays.sort(array);
+		return array;
+	}
+
+	/**
+	 * Walks through {@code pznsToRemove} along with the ascending PZNs of a snapshot.
+	 */
+	private static final class RemovedPzns
+	{
+		private final long[] pzns;
+		private int idx = 0;
+
+		private RemovedPzns(final long[] pzns)
+		{
+			this.pzns = pzns;
+		}
+
+		/** @param pzn shall not be smaller than the one of the previous call */
+		private boolean contains(final long pzn)
+		{
+			while (idx < pzns.length && pzns[idx] < pzn)
+			{
+				idx++;
+			}
+			return idx < pzns.length && pzns[idx] == pzn;
+		}
+	}
+
+	private static void addProductExclude(final TreeMap<Long, SortedSet<Integer>> bpartnerIdsByPzn, final JpaProductExclude productExclude)
+	{
+		bpartnerIdsByPzn
+				.computeIfAbsent(productExclude.getPzn(), pzn -> new TreeSet<>())
+				.add(productExclude.getMfBpartnerId());
+	}
+
+	private static final class StockQtys
+	{
+		private static final StockQtys EMPTY = new StockQtys(new long[0], new int[0]);
+
+		private final long[] pzns;
+		private final int[] qtys;
+
+		private StockQtys(final long[] pzns, final int[] qtys)
+		{
+			this.pzns = pzns;
+			this.qtys = qtys;
+		}
+
+		private static StockQtys of(final TreeMap<Long, Integer> qtysByPzn)
+		{
+			final long[] pzns = new long[qtysByPzn.size()];
+			final int[] qtys = new int[qtysByPzn.size()];
+			int i = 0;
+			for (final Map.Entry<Long, Integer> entry : qtysByPzn.entrySet())
+			{
+				pzns[i] = entry.getKey();
+				qtys[i] = entry.getValue();
+				i++;
+			}
+			return new StockQtys(pzns, qtys);
+		}
+
+		/**
+		 * @return a copy of this snapshot, without the given PZNs, but with the given quantities
+		 */
+		private StockQtys merge(final long[] pznsToRemove, final TreeMap<Long, Integer> qtysToAdd)
+		{
+			final RemovedPzns removedPzns = new RemovedPzns(pznsToRemove);
+			final long[] newPzns = new long[pzns.length + qtysToAdd.size()];
+			final int[] newQtys = new int[newPzns.length];
+			int count = 0;
+			int i = 0;
+			for (final Map.Entry<Long, Integer> entry : qtysToAdd.entrySet())
+			{
+				final long pznToAdd = entry.getKey();
+				for (; i < pzns.length && pzns[i] <= pznToAdd; i++)
+				{
+					if (pzns[i] < pznToAdd && !removedPzns.contains(pzns[i]))
+					{
+						newPzns[count] = pzns[i];
+						newQtys[count] = qtys[i];
+						count++;
+					}
+				}
+
+				newPzns[count] = pznToAdd;
+				newQtys[count] = entry.getValue();
+				count++;
+			}
+			for (; i < pzns.length; i++)
+			{
+				if (!removedPzns.contains(pzns[i]))
+				{
+					newPzns[count] = pzns[i];
+					newQtys[count] = qtys[i];
+					count++;
+				}
+			}
+
+			return new StockQtys(Arrays.copyOf(newPzns, count), Arrays.copyOf(newQtys, count));
+		}
+
+		private int size()
+		{
+			return pzns.length;
+		}
+
+		private OptionalInt getQty(final long pzn)
+		{
+			final int idx = Arrays.binarySearch(pzns, pzn);
+			return idx >= 0 ? OptionalInt.of(qtys[idx]) : OptionalInt.empty();
+		}
+	}
+
+	private static final class ProductExcludes
+	{
+		private static final ProductExcludes EMPTY = new ProductExcludes(new int[0], new long[0], new BitSet[0]);
+
+		/** the sorted IDs of all partners with exclusions; a partner's bit is its index in this array */
+		private final int[] bpartnerIds;
+		private final long[] pzns;
+		private final BitSet[] excludedBPartners;
+
+		private ProductExcludes(final int[] bpartnerIds, final long[] pzns, final BitSet[] excludedBPartners)
+		{
+			this.bpartnerIds = bpartnerIds;
+			this.pzns = pzns;
+			this.excludedBPartners = excludedBPartners;
+		}
+
+		private static ProductExcludes of(final TreeMap<Long, SortedSet<Integer>> bpartnerIdsByPzn)
+		{
+			final int[] bpartnerIds = bpartnerIdsByPzn.values()
+					.stream()
+					.flatMap(Collection::stream)
+					.mapToInt(Integer::intValue)
+					.distinct()
+					.sorted()
+					.toArray();
+
+			final long[] pzns = new long[bpartnerIdsByPzn.size()];
+			final BitSet[] excludedBPartners = new BitSet[bpartnerIdsByPzn.size()];
+			int i = 0;
+			for (final Map.Entry<Long, SortedSet<Integer>> entry : bpartnerIdsByPzn.entrySet())
+			{
+				final BitSet bits = new BitSet(bpartnerIds.length);
+				entry.getValue().forEach(bpartnerId -> bits.set(Arrays.binarySearch(bpartnerIds, bpartnerId)));
+
+				pzns[i] = entry.getKey();
+				excludedBPartners[i] = bits;
+				i++;
+			}
+
+			return new ProductExcludes(bpartnerIds, pzns, excludedBPartners);
+		}
+
+		/**
+		 * @return a copy of this snapshot, without the given PZNs, but with the given exclusions.
+		 *         The {@link BitSet}s of the other PZNs are shared, unless a new partner needs to be added to {@link #bpartnerIds}.
+		 */
+		private ProductExcludes merge(final long[] pznsToRemove, final TreeMap<Long, SortedSet<Integer>> bpartnerIdsToAdd)
+		{
+			final int[] newBPartnerIds = IntStream.concat(
+					Arrays.stream(bpartnerIds),
+					bpartnerIdsToAdd.values().stream().flatMap(Collection::stream).mapToInt(Integer::intValue))
+					.distinct()
+					.sorted()
+					.toArray();
+			final boolean bpartnerIdsChanged = newBPartnerIds.length != bpartnerIds.length;
+
+			final RemovedPzns removedPzns = new RemovedPzns(pznsToRemove);
+			final long[] newPzns = new long[pzns.length + bpartnerIdsToAdd.size()];
+			final BitSet[] newExcludedBPartners = new BitSet[newPzns.length];
+			int count = 0;
+			int i = 0;
+			for (final Map.Entry<Long, SortedSet<Integer>> entry : bpartnerIdsToAdd.entrySet())
+			{
+				final long pznToAdd = entry.getKey();
+				for (; i < pzns.length && pzns[i] <= pznToAdd; i++)
+				{
+					if (pzns[i] < pznToAdd && !removedPzns.contains(pzns[i]))
+					{
+						newPzns[count] = pzns[i];
+						newExcludedBPartners[count] = bpartnerIdsChanged ? remap(excludedBPartners[i], newBPartnerIds) : excludedBPartners[i];
+						count++;
+					}
+				}
+
+				final BitSet bits = new BitSet(newBPartnerIds.length);
+				entry.getValue().forEach(bpartnerId -> bits.set(Arrays.binarySearch(newBPartnerIds, bpartnerId)));
+				newPzns[count] = pznToAdd;
+				newExcludedBPartners[count] = bits;
+				count++;
+			}
+			for (; i < pzns.length; i++)
+			{
+				if (!removedPzns.contains(pzns[i]))
+				{
+					newPzns[count] = pzns[i];
+					newExcludedBPartners[count] = bpartnerIdsChanged ? remap(excludedBPartners[i], newBPartnerIds) : excludedBPartners[i];
+					count++;
+				}
+			}
+
+			return new ProductExcludes(newBPartnerIds, Arrays.copyOf(newPzns, count), Arrays.copyOf(newExcludedBPartners, count));
+		}
+
+		private BitSet remap(final BitSet bits, final int[] newBPartnerIds)
+		{
+			final BitSet newBits = new BitSet(newBPartnerIds.length);
+			bits.stream().forEach(bit -> newBits.set(Arrays.binarySearch(newBPartnerIds, bpartnerIds[bit])));
+			return newBits;
+		}
+
+		private int size()
+		{
+			return pzns.length;
+		}
+
+		private boolean isExcluded(final long pzn, final int bpartnerId)
+		{
+			final int bit = Arrays.binarySearch(bpartnerIds, bpartnerId);
+			if (bit < 0)
+			{
+				return false;
+			}
+
+			final int idx = Arrays.binarySearch(pzns, pzn);
+			return idx >= 0 && excludedBPartners[idx].get(bit);
+		}
+	}
+}
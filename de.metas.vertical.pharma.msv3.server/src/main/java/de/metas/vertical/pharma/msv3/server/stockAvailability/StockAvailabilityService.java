@@ -1,14 +1,28 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.AvailabilityType;
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
@@ -65,6 +79,31 @@ public class StockAvailabilityService
 	@Autowired
 	private JpaProductExcludeRepository productExcludeRepo;
 
+	/** If enabled, availability requests are answered from {@link #index} once it's loaded, instead of querying the repositories for each PZN. */
+	@Value("${msv3server.stockAvailability.inMemoryIndex:true}")
+	private boolean inMemoryIndexEnabled;
+
+	private final StockAvailabilityIndex index = new StockAvailabilityIndex();
+
+	private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadIndex()
+	{
+		if (!inMemoryIndexEnabled)
+		{
+			return;
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		synchronized (index)
+		{
+			index.replaceAll(stockAvailabilityRepo.findAll(), productExcludeRepo.findAll());
+		}
+		logger.info("Loaded {} stock availabilities and the excludes of {} PZNs into the in-memory index in {}",
+				index.getStockQtysCount(), index.getExcludedPznsCount(), stopwatch);
+	}
+
 	public StockAvailabilityResponse checkAvailability(final StockAvailabilityQuery query)
 	{
 		final BPartnerId bpartner = query.getBpartner();
@@ -123,6 +162,11 @@ public class StockAvailabilityService
 
 	public Optional<Quantity> getQtyAvailable(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
 	{
+		if (inMemoryIndexEnabled && index.isLoaded())
+		{
+			return getQtyAvailableFromIndex(pzn, bpartner);
+		}
+
 		if (productExcludeRepo.existsByPznAndMfBpartnerId(pzn.getValueAsLong(), bpartner.getBpartnerId()))
 		{
 			return Optional.empty();
@@ -138,6 +182,18 @@ public class StockAvailabilityService
 		return Optional.of(qty);
 	}
 
+	private Optional<Quantity> getQtyAvailableFromIndex(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
+	{
+		final long pznValue = pzn.getValueAsLong();
+		if (index.isExcluded(pznValue, bpartner.getBpartnerId()))
+		{
+			return Optional.empty();
+		}
+
+		final OptionalInt qty = index.getQty(pznValue);
+		return qty.isPresent() ? Optional.of(Quantity.of(qty.getAsInt())) : Optional.empty();
+	}
+
 	@Transactional
 	public void handleEvent(@NonNull final MSV3StockAvailabilityUpdatedEvent event)
 	{
@@ -168,6 +224,38 @@ public class StockAvailabilityService
 			logger.debug("Deleted {} stock availability records", countDeleted);
 		}
 
+		//
+		// Update the in-memory index after commit, from what was actually stored
+		if (inMemoryIndexEnabled)
+		{
+			final Set<Long> pzns = event.isDeleteAllOtherItems()
+					? null
+					: event.getItems().stream().map(MSV3StockAvailability::getPzn).collect(ImmutableSet.toImmutableSet());
+			runAfterCommit(() -> refreshIndexStockQtys(pzns));
+		}
+	}
+
+	/**
+	 * @param pzns the PZNs to refresh, or {@code null} to refresh all
+	 */
+	private void refreshIndexStockQtys(final Set<Long> pzns)
+	{
+		synchronized (index)
+		{
+			if (!index.isLoaded())
+			{
+				return; // will be loaded anyways
+			}
+
+			if (pzns == null)
+			{
+				index.replaceAllStockQtys(stockAvailabilityRepo.findAll());
+			}
+			else
+			{
+				index.updateStockQtys(pzns, findByPznsInChunks(pzns, stockAvailabilityRepo::findByMfPznIn));
+			}
+		}
 	}
 
 	private void updateStockAvailability(
@@ -227,6 +315,67 @@ public class StockAvailabilityService
 			final long countDeleted = productExcludeRepo.deleteInBatchBySyncTokenNot(syncToken);
 			logger.debug("Deleted {} product exclude records", countDeleted);
 		}
+
+		//
+		// Update the in-memory index after commit, from what was actually stored
+		if (inMemoryIndexEnabled)
+		{
+			final Set<Long> pzns = event.isDeleteAllOtherItems()
+					? null
+					: event.getItems().stream().map(item -> item.getPzn().getValueAsLong()).collect(ImmutableSet.toImmutableSet());
+			runAfterCommit(() -> refreshIndexProductExcludes(pzns));
+		}
+	}
+
+	/**
+	 * @param pzns the PZNs to refresh, or {@code null} to refresh all
+	 */
+	private void refreshIndexProductExcludes(final Set<Long> pzns)
+	{
+		synchronized (index)
+		{
+			if (!index.isLoaded())
+			{
+				return; // will be loaded anyways
+			}
+
+			if (pzns == null)
+			{
+				index.replaceAllProductExcludes(productExcludeRepo.findAll());
+			}
+			else
+			{
+				index.updateProductExcludes(pzns, findByPznsInChunks(pzns, productExcludeRepo::findByPznIn));
+			}
+		}
+	}
+
+	private static <T> List<T> findByPznsInChunks(final Set<Long> pzns, final Function<List<Long>, List<T>> finder)
+	{
+		final ImmutableList.Builder<T> result = ImmutableList.builder();
+		for (final List<Long> pznsChunk : Iterables.partition(pzns, IN_CLAUSE_CHUNK_SIZE))
+		{
+			result.addAll(finder.apply(pznsChunk));
+		}
+		return result.build();
+	}
+
+	private static void runAfterCommit(final Runnable runnable)
+	{
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			runnable.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+		{
+			@Override
+			public void afterCommit()
+			{
+				runnable.run();
+			}
+		});
 	}
 
 	private void updateProductExclude(@NonNull final MSV3ProductExclude request, final String syncToken)
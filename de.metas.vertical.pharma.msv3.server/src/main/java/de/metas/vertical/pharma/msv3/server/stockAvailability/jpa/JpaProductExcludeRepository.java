@@ -1,5 +1,8 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability.jpa;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -32,6 +35,8 @@ public interface JpaProductExcludeRepository extends JpaRepository<JpaProductExc
 
 	JpaProductExclude findByPznAndMfBpartnerId(long pzn, int mfBpartnerId);
 
+	List<JpaProductExclude> findByPznIn(Collection<Long> pzns);
+
 	long deleteInBatchByPznAndMfBpartnerId(long pzn, int mfBpartnerId);
 
 	long deleteInBatchBySyncTokenNot(String syncToken);
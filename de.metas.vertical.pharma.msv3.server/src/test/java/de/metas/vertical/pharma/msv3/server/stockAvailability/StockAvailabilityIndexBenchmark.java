@@ -0,0 +1,157 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.RequirementType;
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQueryItem;
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityResponse;
+import de.metas.vertical.pharma.msv3.protocol.types.BPartnerId;
+import de.metas.vertical.pharma.msv3.protocol.types.PZN;
+import de.metas.vertical.pharma.msv3.protocol.types.Quantity;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the latency of {@link StockAvailabilityService#checkAvailability(StockAvailabilityQuery)} when answered from the {@link StockAvailabilityIndex}.
+ * <p>
+ * Not a unit test; run it with {@link #main(String[])} from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockAvailabilityIndexBenchmark
+{
+	private static final int BPARTNERS_COUNT = 500;
+
+	@Param({ "100000", "500000" })
+	public int pznsCount;
+
+	@Param({ "20" })
+	public int itemsPerQuery;
+
+	private StockAvailabilityService stockAvailabilityService;
+	private List<StockAvailabilityQuery> queries;
+	private int nextQueryIdx = 0;
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(StockAvailabilityIndexBenchmark.class.getSimpleName())
+				.build())
+						.run();
+	}
+
+	@Setup
+	public void setup()
+	{
+		final Random random = new Random(42);
+
+		final List<JpaStockAvailability> stockAvailabilities = new ArrayList<>(pznsCount);
+		final List<JpaProductExclude> productExcludes = new ArrayList<>();
+		for (int i = 0; i < pznsCount; i++)
+		{
+			final long pzn = pzn(i);
+
+			final JpaStockAvailability stockAvailability = new JpaStockAvailability();
+			stockAvailability.setMfPzn(pzn);
+			stockAvailability.setMfQty(random.nextInt(1000));
+			stockAvailabilities.add(stockAvailability);
+
+			// every 20th PZN is excluded for a few partners
+			if (i % 20 == 0)
+			{
+				for (int j = 0; j < 3; j++)
+				{
+					final JpaProductExclude productExclude = new JpaProductExclude();
+					productExclude.setPzn(pzn);
+					productExclude.setMfBpartnerId(1 + random.nextInt(BPARTNERS_COUNT));
+					productExclude.setSyncToken(UUID.randomUUID().toString());
+					productExcludes.add(productExclude);
+				}
+			}
+		}
+
+		stockAvailabilityService = new StockAvailabilityService();
+		ReflectionTestUtils.setField(stockAvailabilityService, "inMemoryIndexEnabled", true);
+		final StockAvailabilityIndex index = (StockAvailabilityIndex)ReflectionTestUtils.getField(stockAvailabilityService, "index");
+		index.replaceAll(stockAvailabilities, productExcludes);
+
+		queries = new ArrayList<>();
+		for (int q = 0; q < 1024; q++)
+		{
+			final StockAvailabilityQuery.StockAvailabilityQueryBuilder query = StockAvailabilityQuery.builder()
+					.id(UUID.randomUUID().toString())
+					.bpartner(BPartnerId.of(1 + random.nextInt(BPARTNERS_COUNT)));
+			for (int i = 0; i < itemsPerQuery; i++)
+			{
+				// ~10% of the requested PZNs are unknown
+				final long pzn = pzn(random.nextInt(pznsCount + pznsCount / 10));
+				query.item(StockAvailabilityQueryItem.builder()
+						.pzn(PZN.of(pzn))
+						.qtyRequired(Quantity.of(1 + random.nextInt(100)))
+						.requirementType(RequirementType.DIRECT)
+						.build());
+			}
+			queries.add(query.build());
+		}
+	}
+
+	private static long pzn(final int i)
+	{
+		return 10_000_000L + i * 7L;
+	}
+
+	@Benchmark
+	public StockAvailabilityResponse checkAvailability()
+	{
+		final StockAvailabilityQuery query = queries.get(nextQueryIdx);
+		nextQueryIdx = (nextQueryIdx + 1) & (1024 - 1);
+		return stockAvailabilityService.checkAvailability(query);
+	}
+}
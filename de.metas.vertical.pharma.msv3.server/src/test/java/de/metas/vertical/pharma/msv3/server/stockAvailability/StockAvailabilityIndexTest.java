@@ -0,0 +1,151 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.OptionalInt;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockAvailabilityIndexTest
+{
+	private static JpaStockAvailability stockAvailability(final long pzn, final int qty)
+	{
+		final JpaStockAvailability stockAvailability = new JpaStockAvailability();
+		stockAvailability.setMfPzn(pzn);
+		stockAvailability.setMfQty(qty);
+		return stockAvailability;
+	}
+
+	private static JpaProductExclude productExclude(final long pzn, final int bpartnerId)
+	{
+		final JpaProductExclude productExclude = new JpaProductExclude();
+		productExclude.setPzn(pzn);
+		productExclude.setMfBpartnerId(bpartnerId);
+		return productExclude;
+	}
+
+	@Test
+	public void notLoaded()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		assertThat(index.isLoaded()).isFalse();
+		assertThat(index.getQty(1)).isEmpty();
+		assertThat(index.isExcluded(1, 1)).isFalse();
+	}
+
+	@Test
+	public void replaceAll()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.replaceAll(
+				ImmutableList.of(stockAvailability(300, 3), stockAvailability(100, 1), stockAvailability(200, 2)),
+				ImmutableList.of(productExclude(100, 20), productExclude(100, 10), productExclude(200, 30)));
+
+		assertThat(index.isLoaded()).isTrue();
+		assertThat(index.getQty(100)).isEqualTo(OptionalInt.of(1));
+		assertThat(index.getQty(200)).isEqualTo(OptionalInt.of(2));
+		assertThat(index.getQty(300)).isEqualTo(OptionalInt.of(3));
+		assertThat(index.getQty(400)).isEmpty();
+
+		assertThat(index.isExcluded(100, 10)).isTrue();
+		assertThat(index.isExcluded(100, 20)).isTrue();
+		assertThat(index.isExcluded(100, 30)).isFalse();
+		assertThat(index.isExcluded(200, 30)).isTrue();
+		assertThat(index.isExcluded(200, 10)).isFalse();
+		assertThat(index.isExcluded(300, 10)).isFalse();
+		assertThat(index.isExcluded(100, 40)).isFalse();
+	}
+
+	@Test
+	public void updateStockQtys()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.replaceAll(ImmutableList.of(stockAvailability(100, 1), stockAvailability(200, 2)), ImmutableList.of());
+
+		// 100 was deleted, 200 changed, 300 is new
+		index.updateStockQtys(ImmutableSet.of(100L, 200L, 300L), ImmutableList.of(stockAvailability(200, 22), stockAvailability(300, 3)));
+
+		assertThat(index.getQty(100)).isEmpty();
+		assertThat(index.getQty(200)).isEqualTo(OptionalInt.of(22));
+		assertThat(index.getQty(300)).isEqualTo(OptionalInt.of(3));
+		assertThat(index.getStockQtysCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void updateProductExcludes()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.replaceAll(ImmutableList.of(), ImmutableList.of(productExclude(100, 10), productExclude(200, 20)));
+
+		// 100 not excluded for partner 10 anymore, but for the new partner 5
+		index.updateProductExcludes(ImmutableSet.of(100L), ImmutableList.of(productExclude(100, 5)));
+
+		assertThat(index.isExcluded(100, 10)).isFalse();
+		assertThat(index.isExcluded(100, 5)).isTrue();
+		assertThat(index.isExcluded(200, 20)).isTrue();
+		assertThat(index.isExcluded(200, 5)).isFalse();
+	}
+
+	@Test
+	public void updateStockQtys_keepsTheOtherPzns()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.replaceAll(ImmutableList.of(stockAvailability(100, 1), stockAvailability(300, 3), stockAvailability(500, 5)), ImmutableList.of());
+
+		index.updateStockQtys(ImmutableSet.of(50L, 300L, 400L, 600L), ImmutableList.of(stockAvailability(50, 0), stockAvailability(400, 4), stockAvailability(600, 6)));
+
+		assertThat(index.getQty(50)).isEqualTo(OptionalInt.of(0));
+		assertThat(index.getQty(100)).isEqualTo(OptionalInt.of(1));
+		assertThat(index.getQty(300)).isEmpty();
+		assertThat(index.getQty(400)).isEqualTo(OptionalInt.of(4));
+		assertThat(index.getQty(500)).isEqualTo(OptionalInt.of(5));
+		assertThat(index.getQty(600)).isEqualTo(OptionalInt.of(6));
+		assertThat(index.getStockQtysCount()).isEqualTo(5);
+	}
+
+	@Test
+	public void updateProductExcludes_knownPartners()
+	{
+		final StockAvailabilityIndex index = new StockAvailabilityIndex();
+		index.replaceAll(ImmutableList.of(), ImmutableList.of(productExclude(100, 10), productExclude(200, 20), productExclude(300, 10)));
+
+		// 200 is removed, 250 is new, with partners which are already known
+		index.updateProductExcludes(ImmutableSet.of(200L, 250L), ImmutableList.of(productExclude(250, 10), productExclude(250, 20)));
+
+		assertThat(index.isExcluded(100, 10)).isTrue();
+		assertThat(index.isExcluded(200, 20)).isFalse();
+		assertThat(index.isExcluded(250, 10)).isTrue();
+		assertThat(index.isExcluded(250, 20)).isTrue();
+		assertThat(index.isExcluded(300, 10)).isTrue();
+		assertThat(index.isExcluded(300, 20)).isFalse();
+		assertThat(index.getExcludedPznsCount()).isEqualTo(3);
+	}
+}